@@ -2,6 +2,7 @@ package com.rem.backend.accountmanagement.entity;
 
 import com.rem.backend.accountmanagement.enums.TransactionCategory;
 import com.rem.backend.enums.TransactionType;
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -13,8 +14,11 @@ import java.time.LocalDateTime;
 @Data
 public class OrganizationAccountDetail {
 
+    // pooled table ids so bulk imports can insert in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "organization_account_detail_id")
+    @TableGenerator(name = "organization_account_detail_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "organization_account_detail", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
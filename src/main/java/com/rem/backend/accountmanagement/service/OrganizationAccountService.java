@@ -7,6 +7,7 @@ import com.rem.backend.accountmanagement.entity.OrganizationAccount;
 import com.rem.backend.accountmanagement.entity.OrganizationAccountDetail;
 import com.rem.backend.entity.project.Project;
 import com.rem.backend.enums.TransactionType;
+import com.rem.backend.repository.AggregateTotalsRepository;
 import com.rem.backend.repository.OrganizationAccountDetailRepo;
 import com.rem.backend.repository.OrganizationAccoutRepo;
 import com.rem.backend.repository.ProjectRepo;
@@ -35,6 +36,7 @@ public class OrganizationAccountService {
     private final OrganizationAccountDetailRepo organizationAccountDetailRepo;
     private final ProjectRepo projectRepo;
     private final VendorAccountDetailRepo vendorAccountDetailRepo;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
 
     public Map<String, Object> getOrgAccountsByOrgId(long orgId) {
         try {
@@ -242,17 +244,13 @@ public class OrganizationAccountService {
             ValidationService.validate(organizationAccountDetail.getCustomerPaymentDetailId(), "customer payment");
             ValidationService.validate(organizationAccountDetail.getAmount(), "orgId");
 
-            Optional<OrganizationAccount> organizationAccountOptional = organizationAccountRepo.findById(organizationAccountDetail.getOrganizationAcctId());
-            if (!organizationAccountOptional.isPresent())
+            int updated = aggregateTotalsRepository.addToOrganizationAccount(
+                    organizationAccountDetail.getOrganizationAcctId(), organizationAccountDetail.getAmount(), loggedInUser);
+            if (updated == 0)
                 return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "Invalid Account");
 
-
-            OrganizationAccount organizationAccount = organizationAccountOptional.get();
-            organizationAccount.setTotalAmount(organizationAccount.getTotalAmount() + organizationAccountDetail.getAmount());
-
             organizationAccountDetail.setCreatedBy(loggedInUser);
             organizationAccountDetail.setUpdatedBy(loggedInUser);
-            organizationAccountRepo.save(organizationAccount);
             return ResponseMapper.buildResponse(Responses.SUCCESS, organizationAccountDetailRepo.save(organizationAccountDetail));
 
         } catch (IllegalArgumentException e) {
@@ -284,9 +282,10 @@ public class OrganizationAccountService {
             OrganizationAccount toAccount = toAcccountOpt.get();
 
 
+            if (aggregateTotalsRepository.withdrawFromOrganizationAccount(fromAccount.getId(), transferFundRequest.getAmount(), loggedInUser) == 0)
+                throw new IllegalArgumentException("Not Enough Funds for this account " + fromAccount.getAccountNo());
 
-            fromAccount.setTotalAmount(fromAccount.getTotalAmount() - transferFundRequest.getAmount());
-            toAccount.setTotalAmount(toAccount.getTotalAmount() + transferFundRequest.getAmount());
+            aggregateTotalsRepository.addToOrganizationAccount(toAccount.getId(), transferFundRequest.getAmount(), loggedInUser);
 
             OrganizationAccountDetail fromAccountDetail = new OrganizationAccountDetail();
             fromAccountDetail.setOrganizationAcctId(fromAccount.getId());
@@ -307,8 +306,6 @@ public class OrganizationAccountService {
             toAccountDetail.setUpdatedBy(loggedInUser);
             organizationAccountDetailRepo.save(toAccountDetail);
 
-            organizationAccountRepo.save(fromAccount);
-            organizationAccountRepo.save(toAccount);
             return ResponseMapper.buildResponse(Responses.SUCCESS, "Successfully updated!");
 
         } catch (IllegalArgumentException e) {
@@ -335,22 +332,19 @@ public class OrganizationAccountService {
             organizationAccountDetail.setCreatedBy(loggedInUser);
             organizationAccountDetail.setUpdatedBy(loggedInUser);
             organizationAccountDetail.setTransactionType(TransactionType.CREDIT);
+
+            int updated = aggregateTotalsRepository.withdrawFromOrganizationAccount(
+                    organizationAccountDetail.getOrganizationAcctId(), organizationAccountDetail.getAmount(), loggedInUser);
+
+            // loaded after the update, callers only read the account's name and number
             Optional<OrganizationAccount> organizationAccountOptional = organizationAccountRepo.findById(organizationAccountDetail.getOrganizationAcctId());
 
             if (!organizationAccountOptional.isPresent())
                 throw new IllegalArgumentException("Invalid Account");
 
+            if (updated == 0)
+                throw new IllegalArgumentException("Not Enough Funds for this account " + organizationAccountOptional.get().getAccountNo());
 
-            OrganizationAccount organizationAccount = organizationAccountOptional.get();
-            double remainingAmount = organizationAccount.getTotalAmount() - organizationAccountDetail.getAmount();
-
-            if (remainingAmount < 0)
-                throw new IllegalArgumentException("Not Enough Funds for this account " + organizationAccount.getAccountNo());
-
-
-            organizationAccount.setTotalAmount(organizationAccount.getTotalAmount() - organizationAccountDetail.getAmount());
-            organizationAccount.setUpdatedBy(loggedInUser);
-            organizationAccountRepo.save(organizationAccount);
             organizationAccountDetailRepo.save(organizationAccountDetail);
 
             return organizationAccountOptional.get();
@@ -405,30 +399,22 @@ public class OrganizationAccountService {
                request.setProjectName(project.getName());
             }
 
-            double currentBalance = account.getTotalAmount();
             double amount = request.getAmount();
-            double newBalance;
 
-            // ✅ 3. Apply CREDIT / DEBIT logic
+            // ✅ 3. Apply CREDIT / DEBIT to the account balance
             if (request.getTransactionType() == TransactionType.DEBIT) {
-                newBalance = currentBalance + amount;
+                aggregateTotalsRepository.addToOrganizationAccount(account.getId(), amount, loggedInUser);
             }
             else if (request.getTransactionType() == TransactionType.CREDIT) {
-                if (currentBalance < amount) {
+                if (aggregateTotalsRepository.withdrawFromOrganizationAccount(account.getId(), amount, loggedInUser) == 0) {
                     throw new IllegalArgumentException("Insufficient balance");
                 }
-                newBalance = currentBalance - amount;
             }
             else {
                 throw new IllegalArgumentException("Invalid transaction type");
             }
 
-            // ✅ 4. Update account balance
-            account.setTotalAmount(newBalance);
-            account.setUpdatedBy(loggedInUser);
-            organizationAccountRepo.save(account);
-
-            // ✅ 5. Save account detail entry
+            // ✅ 4. Save account detail entry
             request.setUpdatedBy(loggedInUser);
             request.setCreatedBy(loggedInUser);
             OrganizationAccountDetail savedDetail = organizationAccountDetailRepo.save(request);
@@ -0,0 +1,40 @@
+package com.rem.backend.config;
+
+import com.rem.backend.repository.ExpenseMonthlyRollupRepository;
+import com.rem.backend.service.ExpenseRollupService;
+import com.rem.backend.utility.Responses;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+import static com.rem.backend.utility.Utility.RESPONSE_CODE;
+
+/**
+ * Fills expense_monthly_rollup from the existing expenses. Runs once, on the first start against
+ * an empty table, so databases that had expenses before the rollup existed don't chart zeros.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseRollupInitializer {
+
+    private final ExpenseMonthlyRollupRepository expenseMonthlyRollupRepository;
+    private final ExpenseRollupService expenseRollupService;
+
+    @PostConstruct
+    public void backfill() {
+        if (expenseMonthlyRollupRepository.count() > 0)
+            return;
+
+        for (Long organizationId : expenseMonthlyRollupRepository.findRolledUpOrganizationIds()) {
+            Map<String, Object> response = expenseRollupService.rebuild(organizationId);
+            if (!response.get(RESPONSE_CODE).equals(Responses.SUCCESS.getResponseCode()))
+                log.error("Expense rollup backfill failed for organization {}: {}", organizationId, response);
+        }
+    }
+}
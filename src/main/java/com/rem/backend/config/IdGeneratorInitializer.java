@@ -0,0 +1,54 @@
+package com.rem.backend.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Seeds the id_generator rows used by the pooled @TableGenerator ids.
+ * Tables that used AUTO_INCREMENT before already have rows, so each segment
+ * is moved past MAX(id) plus one allocation block before the first insert.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class IdGeneratorInitializer {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    // segment name -> table whose ids it hands out
+    private static final Map<String, String> SEGMENTS = Map.ofEntries(
+            Map.entry("journal_entry", "journal_entry"),
+            Map.entry("journal_detail_entry", "journal_detail_entry"),
+            Map.entry("expense", "expense"),
+            Map.entry("expense_detail", "expense_detail"),
+            Map.entry("vendor_payment", "vendor_payment"),
+            Map.entry("organization_account_detail", "organization_account_detail"),
+            Map.entry("installment_due", "installment_due"),
+            Map.entry("floor", "floor"),
+            Map.entry("unit", "unit"),
+            Map.entry("payment_schedule", "payment_schedule"),
+            Map.entry("month_wise_payment", "month_wise_payment"),
+            Map.entry("month_specific_payment", "month_specific_payment")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void seedSegments() {
+        SEGMENTS.forEach((segment, table) -> {
+            jdbcTemplate.update(
+                    "INSERT INTO id_generator (sequence_name, next_val) " +
+                            "SELECT ?, COALESCE(MAX(id), 0) + 1 + ? FROM " + table + " " +
+                            "ON DUPLICATE KEY UPDATE next_val = GREATEST(next_val, VALUES(next_val))",
+                    segment, ALLOCATION_SIZE);
+            log.info("Id generator segment {} seeded from {}", segment, table);
+        });
+    }
+}
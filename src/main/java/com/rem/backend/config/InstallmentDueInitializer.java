@@ -0,0 +1,32 @@
+package com.rem.backend.config;
+
+import com.rem.backend.repository.InstallmentDueRepository;
+import com.rem.backend.service.InstallmentDueService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills installment_due for the customer accounts booked before the table existed. Runs once,
+ * on the first start against an empty table, after the id generator segments are seeded.
+ */
+@Component
+@DependsOn("idGeneratorInitializer")
+@RequiredArgsConstructor
+@Slf4j
+public class InstallmentDueInitializer {
+
+    private final InstallmentDueRepository installmentDueRepository;
+    private final InstallmentDueService installmentDueService;
+
+    @PostConstruct
+    public void backfill() {
+        if (installmentDueRepository.count() > 0)
+            return;
+
+        int accounts = installmentDueService.rebuildAll();
+        log.info("Installment due rows generated for {} existing customer accounts", accounts);
+    }
+}
@@ -5,7 +5,10 @@ import com.rem.backend.dto.accounting.CreateAccountGroupRequest;
 import com.rem.backend.dto.accounting.CreateChartOfAccountRequest;
 import com.rem.backend.dto.accounting.UpdateChartOfAccountNameRequest;
 import com.rem.backend.service.AccountService;
+import com.rem.backend.service.GeneralLedgerExportService;
+import com.rem.backend.service.LedgerBalanceService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
 import java.util.Map;
 
 import static com.rem.backend.usermanagement.utillity.JWTUtils.LOGGED_IN_USER;
@@ -27,6 +31,8 @@ import static com.rem.backend.usermanagement.utillity.JWTUtils.LOGGED_IN_USER;
 public class AccountingController {
 
     private final AccountService accountsService;
+    private final LedgerBalanceService ledgerBalanceService;
+    private final GeneralLedgerExportService generalLedgerExportService;
 
     @GetMapping("/{organizationId}/allChartOfAccounts")
     public ResponseEntity<?> getAllChartOfAccounts(@PathVariable Long organizationId,
@@ -143,4 +149,45 @@ public class AccountingController {
     }
 
 
+    // periods are yyyy-MM, both optional
+    @GetMapping("/{organizationId}/trialBalance")
+    public ResponseEntity<?> getTrialBalance(@PathVariable long organizationId,
+                                             @RequestParam(required = false) String fromPeriod,
+                                             @RequestParam(required = false) String toPeriod) {
+
+        return ResponseEntity.ok(ledgerBalanceService.getTrialBalance(organizationId, fromPeriod, toPeriod));
+    }
+
+    @GetMapping("/{organizationId}/accountBalance/{chartOfAccountId}")
+    public ResponseEntity<?> getAccountBalance(@PathVariable long organizationId,
+                                               @PathVariable long chartOfAccountId,
+                                               @RequestParam(required = false) String fromPeriod,
+                                               @RequestParam(required = false) String toPeriod) {
+
+        return ResponseEntity.ok(
+                ledgerBalanceService.getAccountBalance(organizationId, chartOfAccountId, fromPeriod, toPeriod)
+        );
+    }
+
+    @PostMapping("/{organizationId}/rebuildPeriodBalances")
+    public ResponseEntity<?> rebuildPeriodBalances(@PathVariable long organizationId) {
+
+        return ResponseEntity.ok(ledgerBalanceService.rebuildBalances(organizationId));
+    }
+
+    // streams csv (default) or ndjson, dates are d-M-yyyy like the other date range endpoints
+    @GetMapping("/{organizationId}/generalLedger")
+    public void exportGeneralLedger(@PathVariable long organizationId,
+                                    @RequestParam(required = false) Long chartOfAccountId,
+                                    @RequestParam(required = false) Long accountGroupId,
+                                    @RequestParam(required = false) String startDate,
+                                    @RequestParam(required = false) String endDate,
+                                    @RequestParam(defaultValue = "csv") String format,
+                                    HttpServletResponse response) throws IOException {
+
+        generalLedgerExportService.exportGeneralLedger(
+                organizationId, chartOfAccountId, accountGroupId, startDate, endDate, format, response);
+    }
+
+
 }
@@ -4,14 +4,17 @@ import com.rem.backend.dto.commonRequest.FilterPaginationRequest;
 import com.rem.backend.entity.customer.CustomerPayment;
 import com.rem.backend.entity.customer.CustomerPaymentDetail;
 import com.rem.backend.service.CustomerPaymentService;
+import com.rem.backend.service.InstallmentDueService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 import static com.rem.backend.usermanagement.utillity.JWTUtils.LOGGED_IN_USER;
@@ -22,6 +25,7 @@ import static com.rem.backend.usermanagement.utillity.JWTUtils.LOGGED_IN_USER;
 public class CustomerPaymentController {
 
     CustomerPaymentService customerPaymentService;
+    InstallmentDueService installmentDueService;
 
     @PostMapping("/getByCustomerAccountId")
     public ResponseEntity<?> getProjectsByIds(@RequestBody FilterPaginationRequest request) {
@@ -82,4 +86,32 @@ public class CustomerPaymentController {
     }
 
 
+    @GetMapping("/overdueInstallments/{organizationId}")
+    public ResponseEntity<?> getOverdueInstallments(@PathVariable long organizationId,
+                                                    @RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> installments = installmentDueService.getOverdueInstallments(organizationId, PageRequest.of(page, size));
+        return ResponseEntity.ok(installments);
+    }
+
+
+    @GetMapping("/upcomingInstallments/{organizationId}")
+    public ResponseEntity<?> getUpcomingInstallments(@PathVariable long organizationId,
+                                                     @RequestParam(defaultValue = "30") int days,
+                                                     @RequestParam(defaultValue = "0") int page,
+                                                     @RequestParam(defaultValue = "10") int size) {
+        Map<String, Object> installments = installmentDueService.getUpcomingInstallments(organizationId, days, PageRequest.of(page, size));
+        return ResponseEntity.ok(installments);
+    }
+
+
+    @GetMapping("/installmentCollection/{organizationId}")
+    public ResponseEntity<?> getInstallmentCollection(@PathVariable long organizationId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate) {
+        Map<String, Object> collection = installmentDueService.getCollection(organizationId, fromDate, toDate);
+        return ResponseEntity.ok(collection);
+    }
+
+
 }
@@ -2,17 +2,21 @@ package com.rem.backend.controller;
 
 import com.rem.backend.dto.commonRequest.FilterPaginationRequest;
 import com.rem.backend.dto.expense.ExpenseFetchRequestDTO;
+import com.rem.backend.dto.expense.ExpenseImportRequest;
 import com.rem.backend.entity.expense.Expense;
 import com.rem.backend.entity.expense.ExpenseDetail;
 import com.rem.backend.entity.expense.ExpenseType;
+import com.rem.backend.service.ExpenseImportService;
 import com.rem.backend.service.ExpenseService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Map;
 
@@ -25,6 +29,7 @@ public class ExpenseController {
 
 
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
 
     @PostMapping("/addExpense")
     public Map addExpense(@RequestBody Expense expense , HttpServletRequest request){
@@ -32,6 +37,19 @@ public class ExpenseController {
         return expenseService.addExpense(expense , loggedInUser);
     }
 
+    @PostMapping("/importExpenses")
+    public Map importExpenses(@RequestBody ExpenseImportRequest importRequest , HttpServletRequest request){
+        String loggedInUser = (String) request.getAttribute(LOGGED_IN_USER);
+        return expenseImportService.importExpenses(importRequest.getOrganizationId() , importRequest.getRows() , loggedInUser);
+    }
+
+    @PostMapping(value = "/importExpensesCsv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Map importExpensesCsv(@RequestParam("organizationId") long organizationId,
+                                 @RequestParam("file") MultipartFile file , HttpServletRequest request){
+        String loggedInUser = (String) request.getAttribute(LOGGED_IN_USER);
+        return expenseImportService.importExpensesCsv(organizationId , file , loggedInUser);
+    }
+
     @PostMapping("/addExpenseType")
     public Map addExpenseType(@RequestBody ExpenseType expense , HttpServletRequest request){
         String loggedInUser = (String) request.getAttribute(LOGGED_IN_USER);
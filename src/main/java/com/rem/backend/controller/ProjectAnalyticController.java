@@ -2,6 +2,7 @@ package com.rem.backend.controller;
 
 import com.rem.backend.dto.analytic.CountStateByTenureRequest;
 import com.rem.backend.service.AnalyticsService;
+import com.rem.backend.service.ExpenseRollupService;
 import com.rem.backend.service.ProjectAnalysisService;
 import lombok.AllArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,7 @@ public class ProjectAnalyticController {
 
 
     private final ProjectAnalysisService projectAnalysisService;
+    private final ExpenseRollupService expenseRollupService;
 
 
     @GetMapping("/get/{projectId}")
@@ -49,6 +51,13 @@ public class ProjectAnalyticController {
     }
 
 
+    // recomputes the monthly expense rollup behind getProjectExpense from the expense tables
+    @PostMapping("/rebuildExpenseRollup/{organizationId}")
+    public Map rebuildExpenseRollup(@PathVariable long organizationId) {
+        return expenseRollupService.rebuild(organizationId);
+    }
+
+
 
 
 }
@@ -4,6 +4,7 @@ import com.rem.backend.dto.analytic.CountStateByTenureRequest;
 import com.rem.backend.dto.analytic.DateRangeRequest;
 import com.rem.backend.dto.commonRequest.FilterPaginationRequest;
 import com.rem.backend.service.ProjectAnalysisService;
+import com.rem.backend.service.ReceivableAgingService;
 import com.rem.backend.service.RevenueAnalysisService;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.PageRequest;
@@ -21,6 +22,7 @@ public class RevenueAnalyticController {
 
 
     private final RevenueAnalysisService revenueAnalysisService;
+    private final ReceivableAgingService receivableAgingService;
 
 
     @PostMapping("/getOrgAccount")
@@ -29,6 +31,25 @@ public class RevenueAnalyticController {
     }
 
 
+    @GetMapping("/receivableAging/{orgId}")
+    public Map getReceivableAging(@PathVariable long orgId) {
+        return receivableAgingService.getAging(orgId);
+    }
+
+
+    @PostMapping("/customerReceivableAging")
+    public Map getCustomerReceivableAging(@RequestBody FilterPaginationRequest request) {
+        Pageable pageable = PageRequest.of(request.getPage(), request.getSize());
+        return receivableAgingService.getCustomerAging(request.getId(), request.getId2() > 0 ? request.getId2() : null, pageable);
+    }
+
+
+    @PostMapping("/refreshReceivableAging/{orgId}")
+    public Map refreshReceivableAging(@PathVariable long orgId) {
+        return receivableAgingService.refreshOrganization(orgId);
+    }
+
+
     @GetMapping("/getAnalyticsByORgId/{orgId}")
     public Map getOrgAccount(@PathVariable long orgId) {
         return revenueAnalysisService.getRevenueDetails(orgId);
@@ -2,6 +2,7 @@ package com.rem.backend.controller;
 
 import com.rem.backend.dto.unit.UnitPaginationRequest;
 import com.rem.backend.entity.project.Unit;
+import com.rem.backend.enums.UnitType;
 import com.rem.backend.service.UnitService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
@@ -43,6 +44,22 @@ public class UnitController {
     }
 
 
+    @GetMapping("/getAvailabilityByProjectId/{projectId}")
+    public ResponseEntity<?> getAvailabilityByProjectId(@PathVariable long projectId) {
+        Map<String , Object> response = unitService.getAvailabilityByProject(projectId);
+        return ResponseEntity.ok(response);
+    }
+
+
+    @GetMapping("/getNextFreeUnit/{projectId}")
+    public ResponseEntity<?> getNextFreeUnit(@PathVariable long projectId,
+                                             @RequestParam(required = false) Long floorId,
+                                             @RequestParam(required = false) UnitType unitType) {
+        Map<String , Object> response = unitService.getNextFreeUnit(projectId, floorId, unitType);
+        return ResponseEntity.ok(response);
+    }
+
+
     @GetMapping("/getAllIdSerialByFloorId/{floorId}")
     public ResponseEntity<?> getAllUnitIdSerialByFloorId(@PathVariable long floorId) {
         Map<String , Object> projectPage = unitService.getAllUnitIdSerialByFloor(floorId);
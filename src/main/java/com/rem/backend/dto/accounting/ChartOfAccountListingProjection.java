@@ -0,0 +1,21 @@
+package com.rem.backend.dto.accounting;
+
+import com.rem.backend.enums.AccountStatus;
+
+import java.time.LocalDateTime;
+
+public interface ChartOfAccountListingProjection {
+    Long getId();
+    String getCode();
+    String getName();
+    boolean getSystemGenerated();
+    AccountStatus getStatus();
+    Long getOrganizationAccountId();
+    LocalDateTime getCreatedDate();
+    LocalDateTime getUpdatedDate();
+    Long getGroupId();
+    String getGroupName();
+    LocalDateTime getGroupCreatedDate();
+    Long getTypeId();
+    String getTypeName();
+}
@@ -0,0 +1,9 @@
+package com.rem.backend.dto.accounting;
+
+public interface ControlAccountProjection {
+    long getId();
+    String getName();
+    boolean getSystemGenerated();
+    Long getOrganizationAccountId();
+    String getGroupName();
+}
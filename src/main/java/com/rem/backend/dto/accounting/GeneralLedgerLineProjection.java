@@ -0,0 +1,15 @@
+package com.rem.backend.dto.accounting;
+
+import java.time.LocalDateTime;
+
+public interface GeneralLedgerLineProjection {
+    long getJournalEntryId();
+    LocalDateTime getEntryDate();
+    String getReferenceType();
+    long getChartOfAccountId();
+    String getCode();
+    String getAccountName();
+    String getDescription();
+    double getDebitAmount();
+    double getCreditAmount();
+}
@@ -0,0 +1,11 @@
+package com.rem.backend.dto.accounting;
+
+public interface TrialBalanceProjection {
+    long getChartOfAccountId();
+    String getCode();
+    String getName();
+    String getGroupName();
+    String getAccountType();
+    double getDebitTotal();
+    double getCreditTotal();
+}
@@ -0,0 +1,12 @@
+package com.rem.backend.dto.customer;
+
+public interface InstallmentCollectionProjection {
+
+    long getInstallments();
+
+    double getDueAmount();
+
+    double getCollectedAmount();
+
+    long getPaidInstallments();
+}
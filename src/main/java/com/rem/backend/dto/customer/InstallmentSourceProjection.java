@@ -0,0 +1,20 @@
+package com.rem.backend.dto.customer;
+
+import java.time.LocalDateTime;
+
+/**
+ * An active customer account with what its installments are generated from: the booked unit,
+ * the booking's organization and project, and the booking date the due dates count from.
+ */
+public interface InstallmentSourceProjection {
+
+    long getCustomerAccountId();
+
+    long getUnitId();
+
+    Long getOrganizationId();
+
+    Long getProjectId();
+
+    LocalDateTime getBookedDate();
+}
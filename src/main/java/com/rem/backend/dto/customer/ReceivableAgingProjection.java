@@ -0,0 +1,28 @@
+package com.rem.backend.dto.customer;
+
+/**
+ * Aging buckets summed over an organization, a project or a single customer account.
+ * The id and name columns are null where the grouping does not have them.
+ */
+public interface ReceivableAgingProjection {
+
+    Long getProjectId();
+
+    String getProjectName();
+
+    Long getCustomerAccountId();
+
+    String getCustomerName();
+
+    double getCurrentAmount();
+
+    double getDays1To30();
+
+    double getDays31To60();
+
+    double getDays61To90();
+
+    double getDaysOver90();
+
+    double getTotalOutstanding();
+}
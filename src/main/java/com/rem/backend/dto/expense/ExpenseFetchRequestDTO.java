@@ -4,6 +4,8 @@ import com.rem.backend.enums.ExpenseType;
 import com.rem.backend.enums.PaymentStatus;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 
 @Data
 public class ExpenseFetchRequestDTO {
@@ -22,4 +24,10 @@ public class ExpenseFetchRequestDTO {
     private String sortBy = "createdDate";
     private String sortDir = "asc";
 
+    // false skips the total count and returns a keyset slice, continued with afterCreatedDate/afterId
+    // given together; slices are sorted by createdDate only
+    private boolean withCount = true;
+    private LocalDateTime afterCreatedDate;
+    private Long afterId;
+
 }
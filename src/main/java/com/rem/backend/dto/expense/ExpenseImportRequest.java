@@ -0,0 +1,14 @@
+package com.rem.backend.dto.expense;
+
+import lombok.Data;
+
+import java.util.List;
+
+
+@Data
+public class ExpenseImportRequest {
+
+    private long organizationId;
+    private List<ExpenseImportRow> rows;
+
+}
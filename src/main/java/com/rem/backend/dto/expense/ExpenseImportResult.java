@@ -0,0 +1,13 @@
+package com.rem.backend.dto.expense;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk expense import, row numbers are csv line numbers (header is line 1)
+ * or 1-based positions in the json rows.
+ */
+public record ExpenseImportResult(int totalRows, int imported, List<RowError> errors) {
+
+    public record RowError(int row, String message) {
+    }
+}
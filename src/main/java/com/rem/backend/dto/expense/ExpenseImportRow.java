@@ -0,0 +1,32 @@
+package com.rem.backend.dto.expense;
+
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.enums.PaymentType;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+
+/**
+ * One line of a bulk expense import, csv headers use the same names as these fields.
+ */
+@Data
+public class ExpenseImportRow {
+
+    private ExpenseType expenseType;
+    private Long expenseTypeId;
+    private Long vendorAccountId;
+    private Long projectId;
+    private Long unitId;
+    private Long organizationAccountId;
+    private Long expenseCOAId;
+    private double totalAmount;
+    private double amountPaid;
+    private double creditAmount;
+    private PaymentType paymentType;
+    private String paymentDocNo;
+    private LocalDate paymentDocDate;
+    private LocalDate expenseDate;
+    private String comments;
+
+}
@@ -0,0 +1,33 @@
+package com.rem.backend.dto.expense;
+
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+// row of the expense listing, same json fields as Expense with the account name already resolved
+public record ExpenseListItem(
+        Long id,
+        Double amountPaid,
+        Double creditAmount,
+        Double totalAmount,
+        Long vendorAccountId,
+        Long organizationAccountId,
+        Long expenseTypeId,
+        Long organizationId,
+        Long projectId,
+        Long unitId,
+        String projectName,
+        String orgAccountTitle,
+        String vendorName,
+        String expenseTitle,
+        Long expenseCOAId,
+        String comments,
+        ExpenseType expenseType,
+        PaymentStatus paymentStatus,
+        String createdBy,
+        String updatedBy,
+        LocalDateTime createdDate,
+        LocalDateTime updatedDate,
+        String expenseAccountName
+) {}
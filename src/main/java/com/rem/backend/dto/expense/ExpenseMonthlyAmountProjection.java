@@ -0,0 +1,14 @@
+package com.rem.backend.dto.expense;
+
+public interface ExpenseMonthlyAmountProjection {
+
+    int getYear();
+
+    int getMonth();
+
+    double getPurchasedAmount();
+
+    double getPaidAmount();
+
+    double getCreditAmount();
+}
@@ -0,0 +1,41 @@
+package com.rem.backend.dto.expense;
+
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.enums.PaymentStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filters of the expense query engine, every null field is left out of the query.
+ * afterCreatedDate/afterId continue a keyset page from the last row already read.
+ */
+@Data
+public class ExpenseSearchCriteria {
+
+    private Long organizationId;
+    private Long projectId;
+    private Long vendorAccountId;
+    private PaymentStatus paymentStatus;
+    private ExpenseType expenseType;
+    private Long expenseCoaId;
+    private List<Long> expenseCoaIds;
+    private Long accountGroupId;
+    // when set, only expenses with a COA or with this title match
+    private String coaOrExpenseTitle;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    private LocalDateTime afterCreatedDate;
+    private Long afterId;
+
+    public boolean isKeyset() {
+        return afterId != null && afterCreatedDate != null;
+    }
+
+    // half a cursor can't say where the last page ended
+    public boolean isPartialKeyset() {
+        return (afterId == null) != (afterCreatedDate == null);
+    }
+}
@@ -0,0 +1,18 @@
+package com.rem.backend.dto.unit;
+
+import com.rem.backend.enums.UnitType;
+
+public interface UnitAvailabilityProjection {
+
+    long getUnitId();
+
+    long getFloorId();
+
+    long getProjectId();
+
+    String getSerialNo();
+
+    UnitType getUnitType();
+
+    boolean getBooked();
+}
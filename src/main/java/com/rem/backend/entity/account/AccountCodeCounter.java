@@ -0,0 +1,25 @@
+package com.rem.backend.entity.account;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+@Entity
+@Table(name = "account_code_counter",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"organization_id", "prefix"}))
+@Data
+public class AccountCodeCounter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private long organizationId;
+
+    @Column(nullable = false)
+    private String prefix;
+
+    // next code number not yet handed out to any node
+    @Column(nullable = false)
+    private long nextValue;
+}
@@ -0,0 +1,35 @@
+package com.rem.backend.entity.account;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Running debit/credit totals of one chart of account for one month.
+ * Maintained by JournalWriter with atomic increments in the posting transaction.
+ */
+@Entity
+@Table(name = "coa_period_balance",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"organization_id", "chart_of_account_id", "period"}))
+@Data
+public class CoaPeriodBalance {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private long organizationId;
+
+    @Column(name = "chart_of_account_id", nullable = false)
+    private long chartOfAccountId;
+
+    // year * 100 + month, e.g. 202510
+    @Column(nullable = false)
+    private int period;
+
+    @Column(nullable = false)
+    private double debitTotal = 0.0;
+
+    @Column(nullable = false)
+    private double creditTotal = 0.0;
+}
@@ -1,17 +1,21 @@
 package com.rem.backend.entity.account;
 
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "journal_detail_entry")
+@Table(name = "journal_detail_entry", indexes = @Index(name = "idx_journal_detail_coa", columnList = "chart_of_account_id"))
 @Data
 public class JournalDetailEntry {
 
+    // pooled table ids so a posting's header and lines can be inserted in one jdbc batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "journal_detail_entry_id")
+    @TableGenerator(name = "journal_detail_entry_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "journal_detail_entry", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
@@ -1,18 +1,22 @@
 package com.rem.backend.entity.account;
 
 import com.rem.backend.enums.JournalEntryStatus;
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "journal_entry")
+@Table(name = "journal_entry", indexes = @Index(name = "idx_journal_entry_org_date", columnList = "organization_id, created_date"))
 @Data
 public class JournalEntry {
 
+    // pooled table ids so a posting's header and lines can be inserted in one jdbc batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "journal_entry_id")
+    @TableGenerator(name = "journal_entry_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "journal_entry", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
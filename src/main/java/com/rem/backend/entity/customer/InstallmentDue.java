@@ -0,0 +1,73 @@
+package com.rem.backend.entity.customer;
+
+import com.rem.backend.config.IdGeneratorInitializer;
+import com.rem.backend.enums.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One due installment of a customer account, materialized from its payment schedule.
+ * Serial 0 is the down payment, the on possession payment comes last without a due date.
+ * Receipts are allocated to the installments in serial order, see InstallmentDueService.
+ */
+@Entity
+@Table(name = "installment_due", indexes = {
+        @Index(name = "idx_installment_due_org_date_status", columnList = "organization_id, due_date, status"),
+        @Index(name = "idx_installment_due_account", columnList = "customer_account_id, serial_no")
+})
+@Data
+public class InstallmentDue {
+
+    // pooled table ids so a schedule's installments are inserted in one jdbc batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "installment_due_id")
+    @TableGenerator(name = "installment_due_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "installment_due", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
+    private long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private long organizationId;
+
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "customer_account_id", nullable = false)
+    private long customerAccountId;
+
+    @Column(name = "serial_no", nullable = false)
+    private int serialNo;
+
+    // null for the on possession payment
+    @Column(name = "due_date")
+    private LocalDate dueDate;
+
+    @Column(nullable = false)
+    private double amount;
+
+    @Column(nullable = false)
+    private double paidAmount = 0.0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentStatus status = PaymentStatus.UNPAID;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedDate;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdDate = LocalDateTime.now();
+        this.updatedDate = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedDate = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.rem.backend.entity.customer;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Aging snapshot of one customer account's outstanding installments as of asOfDate.
+ * Rows are rewritten by ReceivableAgingService, dashboards only read them.
+ */
+@Entity
+@Table(name = "receivable_aging",
+        uniqueConstraints = @UniqueConstraint(name = "uk_receivable_aging_account", columnNames = "customer_account_id"),
+        indexes = @Index(name = "idx_receivable_aging_org_project", columnList = "organization_id, project_id"))
+@Data
+public class ReceivableAging {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private long organizationId;
+
+    @Column(name = "project_id")
+    private Long projectId;
+
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "customer_account_id", nullable = false)
+    private long customerAccountId;
+
+    @Column(nullable = false)
+    private LocalDate asOfDate;
+
+    // not yet due, including the on possession payment
+    @Column(nullable = false)
+    private double currentAmount = 0.0;
+
+    @Column(name = "days_1_30", nullable = false)
+    private double days1To30 = 0.0;
+
+    @Column(name = "days_31_60", nullable = false)
+    private double days31To60 = 0.0;
+
+    @Column(name = "days_61_90", nullable = false)
+    private double days61To90 = 0.0;
+
+    @Column(name = "days_over_90", nullable = false)
+    private double daysOver90 = 0.0;
+
+    @Column(nullable = false)
+    private double totalOutstanding = 0.0;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedDate;
+}
@@ -4,19 +4,27 @@ package com.rem.backend.entity.expense;
 import com.rem.backend.enums.ExpenseType;
 import com.rem.backend.enums.PaymentStatus;
 import com.rem.backend.enums.PaymentType;
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "expense")
+@Table(name = "expense", indexes = {
+        @Index(name = "idx_expense_org_created", columnList = "organization_id, created_date, id"),
+        @Index(name = "idx_expense_project_created", columnList = "project_id, created_date, id"),
+        @Index(name = "idx_expense_vendor_created", columnList = "vendor_account_id, created_date, id")
+})
 @Data
 public class Expense {
 
 
+    // pooled table ids so bulk imports can insert in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "expense_id")
+    @TableGenerator(name = "expense_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "expense", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
 
@@ -1,6 +1,7 @@
 package com.rem.backend.entity.expense;
 
 import com.rem.backend.enums.PaymentType;
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -13,8 +14,11 @@ import java.time.LocalDateTime;
 public class ExpenseDetail {
 
 
+    // pooled table ids so bulk imports can insert in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "expense_detail_id")
+    @TableGenerator(name = "expense_detail_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "expense_detail", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
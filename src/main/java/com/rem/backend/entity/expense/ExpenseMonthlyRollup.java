@@ -0,0 +1,46 @@
+package com.rem.backend.entity.expense;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Purchased, paid and outstanding credit amounts of one organization, project and vendor for one month.
+ * Purchased and credit are bucketed by the expense's month, paid by the month of each expense detail.
+ * Maintained by ExpenseRollupService with atomic increments in the writing transaction,
+ * historical onboarding expenses are not rolled up.
+ */
+@Entity
+@Table(name = "expense_monthly_rollup",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"organization_id", "project_id", "vendor_account_id", "year", "month"}),
+        indexes = @Index(name = "idx_expense_rollup_project", columnList = "project_id, year, month"))
+@Data
+public class ExpenseMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private long organizationId;
+
+    @Column(name = "project_id", nullable = false)
+    private long projectId;
+
+    @Column(name = "vendor_account_id", nullable = false)
+    private long vendorAccountId;
+
+    @Column(nullable = false)
+    private int year;
+
+    @Column(nullable = false)
+    private int month;
+
+    @Column(nullable = false)
+    private double purchasedAmount = 0.0;
+
+    @Column(nullable = false)
+    private double paidAmount = 0.0;
+
+    @Column(nullable = false)
+    private double creditAmount = 0.0;
+}
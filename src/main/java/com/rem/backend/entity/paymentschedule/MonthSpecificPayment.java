@@ -1,5 +1,6 @@
 package com.rem.backend.entity.paymentschedule;
 
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -9,8 +10,11 @@ import lombok.Data;
 @Data
 public class MonthSpecificPayment {
 
+    // pooled table ids so project layouts can be written in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "month_specific_payment_id")
+    @TableGenerator(name = "month_specific_payment_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "month_specific_payment", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
@@ -1,5 +1,6 @@
 package com.rem.backend.entity.paymentschedule;
 
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -10,8 +11,11 @@ import java.time.LocalDateTime;
 @Data
 public class MonthWisePayment {
 
+    // pooled table ids so project layouts can be written in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "month_wise_payment_id")
+    @TableGenerator(name = "month_wise_payment_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "month_wise_payment", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
@@ -1,4 +1,5 @@
 package com.rem.backend.entity.project;
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -11,8 +12,11 @@ import java.util.List;
 @Data
 public class Floor {
 
+    // pooled table ids so project layouts can be written in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "floor_id")
+    @TableGenerator(name = "floor_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "floor", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     private int floor;
@@ -3,6 +3,7 @@ package com.rem.backend.entity.project;
 import com.rem.backend.entity.paymentschedule.PaymentSchedule;
 import com.rem.backend.enums.PaymentPlanType;
 import com.rem.backend.enums.UnitType;
+import com.rem.backend.config.IdGeneratorInitializer;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -15,8 +16,11 @@ import java.time.LocalDateTime;
 @Data
 public class Unit implements Serializable {
 
+    // pooled table ids so project layouts can be written in jdbc batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "unit_id")
+    @TableGenerator(name = "unit_id", table = "id_generator", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "unit", allocationSize = IdGeneratorInitializer.ALLOCATION_SIZE)
     private long id;
 
     @Column(nullable = false)
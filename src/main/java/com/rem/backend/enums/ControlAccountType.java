@@ -0,0 +1,16 @@
+package com.rem.backend.enums;
+
+public enum ControlAccountType {
+    VENDOR_PAYABLE("Vendor Payable"),
+    CONSTRUCTION_INVENTORY("Construction Inventory");
+
+    private final String accountName;
+
+    ControlAccountType(String accountName) {
+        this.accountName = accountName;
+    }
+
+    public String getAccountName() {
+        return accountName;
+    }
+}
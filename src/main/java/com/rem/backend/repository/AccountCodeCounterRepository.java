@@ -0,0 +1,38 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.entity.account.AccountCodeCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountCodeCounterRepository extends JpaRepository<AccountCodeCounter, Long> {
+
+    // first use of a prefix continues after the codes generated from the old COA count
+    @Modifying
+    @Query(value = """
+    INSERT IGNORE INTO account_code_counter (organization_id, prefix, next_value)
+    SELECT :organizationId, :prefix, COUNT(*) + 1
+    FROM chart_of_account
+    WHERE organization_id = :organizationId
+""", nativeQuery = true)
+    int createIfAbsent(@Param("organizationId") long organizationId, @Param("prefix") String prefix);
+
+    @Modifying
+    @Query(value = """
+    UPDATE account_code_counter
+    SET next_value = next_value + :blockSize
+    WHERE organization_id = :organizationId AND prefix = :prefix
+""", nativeQuery = true)
+    int advance(@Param("organizationId") long organizationId, @Param("prefix") String prefix,
+                @Param("blockSize") int blockSize);
+
+    @Query(value = """
+    SELECT next_value
+    FROM account_code_counter
+    WHERE organization_id = :organizationId AND prefix = :prefix
+""", nativeQuery = true)
+    long findNextValue(@Param("organizationId") long organizationId, @Param("prefix") String prefix);
+}
@@ -0,0 +1,126 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.entity.project.Project;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Running totals of organization accounts, vendor accounts, projects and customer accounts,
+ * changed with a signed delta in one UPDATE so concurrent postings never overwrite each other.
+ * Guarded variants only apply when the balance covers the amount; every method returns the
+ * updated row count, 0 meaning the row is missing or the guard failed.
+ * Load an entity after changing its totals here, an instance read before the update is stale.
+ */
+@Repository
+public interface AggregateTotalsRepository extends org.springframework.data.repository.Repository<Project, Long> {
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE organization_account
+    SET total_amount = total_amount + :amount,
+        updated_by = :updatedBy,
+        updated_date = NOW(),
+        last_updated_date_time = NOW()
+    WHERE id = :id
+""", nativeQuery = true)
+    int addToOrganizationAccount(@Param("id") long id,
+                                 @Param("amount") double amount,
+                                 @Param("updatedBy") String updatedBy);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE organization_account
+    SET total_amount = total_amount - :amount,
+        updated_by = :updatedBy,
+        updated_date = NOW(),
+        last_updated_date_time = NOW()
+    WHERE id = :id AND total_amount >= :amount
+""", nativeQuery = true)
+    int withdrawFromOrganizationAccount(@Param("id") long id,
+                                        @Param("amount") double amount,
+                                        @Param("updatedBy") String updatedBy);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE vendor_account
+    SET total_amount = total_amount + :totalAmount,
+        total_amount_paid = total_amount_paid + :amountPaid,
+        total_credit_amount = total_credit_amount + :creditAmount,
+        updated_by = :updatedBy,
+        updated_date = NOW(),
+        last_updated_date_time = NOW()
+    WHERE id = :id
+""", nativeQuery = true)
+    int addToVendorAccount(@Param("id") long id,
+                           @Param("totalAmount") double totalAmount,
+                           @Param("amountPaid") double amountPaid,
+                           @Param("creditAmount") double creditAmount,
+                           @Param("updatedBy") String updatedBy);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE vendor_account
+    SET total_credit_amount = total_credit_amount - :amount,
+        updated_by = :updatedBy,
+        updated_date = NOW(),
+        last_updated_date_time = NOW()
+    WHERE id = :id AND total_credit_amount >= :amount
+""", nativeQuery = true)
+    int withdrawVendorCredit(@Param("id") long id,
+                             @Param("amount") double amount,
+                             @Param("updatedBy") String updatedBy);
+
+    @Query(value = "SELECT total_credit_amount FROM vendor_account WHERE id = :id", nativeQuery = true)
+    Double findVendorCreditAmount(@Param("id") long id);
+
+    // construction expenses count towards both the construction and the overall project amount
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE project
+    SET construction_amount = construction_amount + :amount,
+        total_amount = total_amount + :amount,
+        updated_by = :updatedBy,
+        updated_date = NOW()
+    WHERE project_id = :projectId
+""", nativeQuery = true)
+    int addToProjectConstruction(@Param("projectId") long projectId,
+                                 @Param("amount") double amount,
+                                 @Param("updatedBy") String updatedBy);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE customer_account
+    SET total_paid_amount = total_paid_amount + :amount,
+        total_balance_amount = total_balance_amount - :amount,
+        updated_by = :updatedBy,
+        updated_date = NOW()
+    WHERE id = :id
+""", nativeQuery = true)
+    int addToCustomerPaid(@Param("id") long id,
+                          @Param("amount") double amount,
+                          @Param("updatedBy") String updatedBy);
+
+    // a payment must stay below the outstanding balance
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+    UPDATE customer_account
+    SET total_paid_amount = total_paid_amount + :amount,
+        total_balance_amount = total_balance_amount - :amount,
+        updated_by = :updatedBy,
+        updated_date = NOW()
+    WHERE id = :id AND total_balance_amount > :amount
+""", nativeQuery = true)
+    int receiveCustomerPayment(@Param("id") long id,
+                               @Param("amount") double amount,
+                               @Param("updatedBy") String updatedBy);
+}
@@ -10,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +19,9 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     boolean existsByUnit_IdAndIsActiveTrue(Long unitId);
 
+    @Query("SELECT DISTINCT b.unit.id FROM Booking b WHERE b.unit.id IN :unitIds AND b.isActive = true")
+    List<Long> findActivelyBookedUnitIds(@Param("unitIds") Collection<Long> unitIds);
+
     Page<Booking> findByOrganizationIdAndIsActiveTrue(Long organizationId, Pageable pageable);
     Page<Booking> findByProjectIdAndIsActiveTrue(Long projectId, Pageable pageable);
     Page<Booking> findByFloorIdAndIsActiveTrue(Long projectId, Pageable pageable);
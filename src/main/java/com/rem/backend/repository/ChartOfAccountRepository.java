@@ -1,9 +1,13 @@
 package com.rem.backend.repository;
 
+import com.rem.backend.dto.accounting.ChartOfAccountListingProjection;
+import com.rem.backend.dto.accounting.ControlAccountProjection;
 import com.rem.backend.entity.account.AccountGroup;
 import com.rem.backend.entity.account.ChartOfAccount;
 import com.rem.backend.enums.AccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -39,7 +43,24 @@ public interface ChartOfAccountRepository extends JpaRepository<ChartOfAccount,
             boolean isSystemGenerated
     );
 
-}
-
+    // system-generated control accounts and bank/cash accounts of an organization, with their group name
+    @Query("SELECT c.id AS id, c.name AS name, c.isSystemGenerated AS systemGenerated, " +
+            "c.organizationAccountId AS organizationAccountId, g.name AS groupName " +
+            "FROM ChartOfAccount c JOIN c.accountGroup g " +
+            "WHERE c.organization.organizationId = :organizationId AND c.status = :status " +
+            "AND (c.isSystemGenerated = true OR c.organizationAccountId IS NOT NULL)")
+    List<ControlAccountProjection> findControlAccounts(@Param("organizationId") long organizationId,
+                                                       @Param("status") AccountStatus status);
 
+    // every COA of an organization with its group and type flattened, one statement instead of lazy walks
+    @Query("SELECT c.id AS id, c.code AS code, c.name AS name, c.isSystemGenerated AS systemGenerated, " +
+            "c.status AS status, c.organizationAccountId AS organizationAccountId, " +
+            "c.createdDate AS createdDate, c.updatedDate AS updatedDate, " +
+            "g.id AS groupId, g.name AS groupName, g.createdDate AS groupCreatedDate, " +
+            "t.id AS typeId, t.name AS typeName " +
+            "FROM ChartOfAccount c JOIN c.accountGroup g JOIN g.accountType t " +
+            "WHERE c.organization.organizationId = :organizationId " +
+            "ORDER BY c.id")
+    List<ChartOfAccountListingProjection> findListingByOrganization(@Param("organizationId") long organizationId);
 
+}
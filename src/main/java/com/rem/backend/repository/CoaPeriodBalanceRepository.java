@@ -0,0 +1,88 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.dto.accounting.TrialBalanceProjection;
+import com.rem.backend.entity.account.CoaPeriodBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoaPeriodBalanceRepository extends JpaRepository<CoaPeriodBalance, Long> {
+
+    @Modifying
+    @Query(value = """
+    INSERT INTO coa_period_balance (organization_id, chart_of_account_id, period, debit_total, credit_total)
+    VALUES (:organizationId, :chartOfAccountId, :period, :debit, :credit)
+    ON DUPLICATE KEY UPDATE
+        debit_total = debit_total + VALUES(debit_total),
+        credit_total = credit_total + VALUES(credit_total)
+""", nativeQuery = true)
+    int applyDelta(@Param("organizationId") long organizationId,
+                   @Param("chartOfAccountId") long chartOfAccountId,
+                   @Param("period") int period,
+                   @Param("debit") double debit,
+                   @Param("credit") double credit);
+
+    @Query(value = """
+    SELECT c.id               AS chartOfAccountId,
+           c.code             AS code,
+           c.name             AS name,
+           g.name             AS groupName,
+           t.name             AS accountType,
+           SUM(b.debit_total)  AS debitTotal,
+           SUM(b.credit_total) AS creditTotal
+    FROM coa_period_balance b
+    JOIN chart_of_account c ON c.id = b.chart_of_account_id
+    JOIN account_group g    ON g.id = c.account_group_id
+    JOIN account_type t     ON t.id = g.account_type_id
+    WHERE b.organization_id = :organizationId
+      AND b.period BETWEEN :fromPeriod AND :toPeriod
+    GROUP BY c.id, c.code, c.name, g.name, t.name
+    ORDER BY c.code
+""", nativeQuery = true)
+    List<TrialBalanceProjection> findTrialBalance(@Param("organizationId") long organizationId,
+                                                  @Param("fromPeriod") int fromPeriod,
+                                                  @Param("toPeriod") int toPeriod);
+
+    List<CoaPeriodBalance> findAllByOrganizationIdAndChartOfAccountIdAndPeriodBetweenOrderByPeriod(
+            long organizationId, long chartOfAccountId, int fromPeriod, int toPeriod);
+
+    @Modifying
+    @Query(value = "DELETE FROM coa_period_balance WHERE organization_id = :organizationId", nativeQuery = true)
+    int deleteAllByOrganization(@Param("organizationId") long organizationId);
+
+    // rebuilds an organization's balances from the posted journal lines
+    @Modifying
+    @Query(value = """
+    INSERT INTO coa_period_balance (organization_id, chart_of_account_id, period, debit_total, credit_total)
+    SELECT je.organization_id,
+           jd.chart_of_account_id,
+           YEAR(je.created_date) * 100 + MONTH(je.created_date),
+           SUM(jd.debit_amount),
+           SUM(jd.credit_amount)
+    FROM journal_detail_entry jd
+    JOIN journal_entry je ON je.id = jd.journal_entry_id
+    WHERE je.organization_id = :organizationId
+      AND je.status = 'POSTED'
+    GROUP BY je.organization_id, jd.chart_of_account_id, YEAR(je.created_date) * 100 + MONTH(je.created_date)
+""", nativeQuery = true)
+    int rebuildFromJournal(@Param("organizationId") long organizationId);
+
+    @Query(value = """
+    SELECT COALESCE(SUM(b.debit_total - b.credit_total), 0)
+    FROM coa_period_balance b
+    JOIN chart_of_account c ON c.id = b.chart_of_account_id
+    WHERE b.organization_id = :organizationId
+      AND (:chartOfAccountId IS NULL OR b.chart_of_account_id = :chartOfAccountId)
+      AND (:accountGroupId IS NULL OR c.account_group_id = :accountGroupId)
+      AND b.period < :beforePeriod
+""", nativeQuery = true)
+    double sumNetBalanceBefore(@Param("organizationId") long organizationId,
+                               @Param("chartOfAccountId") Long chartOfAccountId,
+                               @Param("accountGroupId") Long accountGroupId,
+                               @Param("beforePeriod") int beforePeriod);
+}
@@ -1,5 +1,6 @@
 package com.rem.backend.repository;
 
+import com.rem.backend.dto.customer.InstallmentSourceProjection;
 import com.rem.backend.entity.customer.CustomerAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -59,6 +60,21 @@ public interface CustomerAccountRepo extends JpaRepository<CustomerAccount , Lon
 
     Optional<CustomerAccount> findByCustomer_CustomerIdAndUnit_IdAndIsActiveTrue(Long customerId, Long unitId);
 
+    // active accounts with their active booking, the account's own project and date when the booking is gone
+    @Query("""
+    SELECT ca.id AS customerAccountId,
+           ca.unit.id AS unitId,
+           COALESCE(b.organizationId, p.organizationId) AS organizationId,
+           COALESCE(b.projectId, p.projectId) AS projectId,
+           COALESCE(b.createdDate, ca.createdDate) AS bookedDate
+    FROM CustomerAccount ca
+    LEFT JOIN ca.project p
+    LEFT JOIN Booking b ON b.customer = ca.customer AND b.unit = ca.unit AND b.isActive = true
+    WHERE ca.isActive = true AND ca.unit IS NOT NULL
+    ORDER BY ca.id
+""")
+    List<InstallmentSourceProjection> findInstallmentSources();
+
 
 
 
@@ -0,0 +1,97 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.dto.expense.ExpenseMonthlyAmountProjection;
+import com.rem.backend.entity.expense.ExpenseMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ExpenseMonthlyRollupRepository extends JpaRepository<ExpenseMonthlyRollup, Long> {
+
+    @Modifying
+    @Query(value = """
+    INSERT INTO expense_monthly_rollup (organization_id, project_id, vendor_account_id, year, month,
+                                        purchased_amount, paid_amount, credit_amount)
+    VALUES (:organizationId, :projectId, :vendorAccountId, :year, :month, :purchased, :paid, :credit)
+    ON DUPLICATE KEY UPDATE
+        purchased_amount = purchased_amount + VALUES(purchased_amount),
+        paid_amount = paid_amount + VALUES(paid_amount),
+        credit_amount = credit_amount + VALUES(credit_amount)
+""", nativeQuery = true)
+    int applyDelta(@Param("organizationId") long organizationId,
+                   @Param("projectId") long projectId,
+                   @Param("vendorAccountId") long vendorAccountId,
+                   @Param("year") int year,
+                   @Param("month") int month,
+                   @Param("purchased") double purchased,
+                   @Param("paid") double paid,
+                   @Param("credit") double credit);
+
+    @Query(value = """
+    SELECT r.year                  AS year,
+           r.month                 AS month,
+           SUM(r.purchased_amount) AS purchasedAmount,
+           SUM(r.paid_amount)      AS paidAmount,
+           SUM(r.credit_amount)    AS creditAmount
+    FROM expense_monthly_rollup r
+    WHERE r.project_id = :projectId
+    GROUP BY r.year, r.month
+    ORDER BY r.year, r.month
+""", nativeQuery = true)
+    List<ExpenseMonthlyAmountProjection> findMonthlyByProject(@Param("projectId") long projectId);
+
+    @Modifying
+    @Query(value = "DELETE FROM expense_monthly_rollup WHERE organization_id = :organizationId", nativeQuery = true)
+    int deleteAllByOrganization(@Param("organizationId") long organizationId);
+
+    // organizations with rolled up expenses, for the startup backfill
+    @Query(value = """
+    SELECT DISTINCT e.organization_id
+    FROM expense e
+    WHERE e.organization_id IS NOT NULL
+      AND e.expense_type <> 'HISTORICAL'
+""", nativeQuery = true)
+    List<Long> findRolledUpOrganizationIds();
+
+    // rebuilds an organization's rollup from its expenses and expense details
+    @Modifying
+    @Query(value = """
+    INSERT INTO expense_monthly_rollup (organization_id, project_id, vendor_account_id, year, month,
+                                        purchased_amount, paid_amount, credit_amount)
+    SELECT x.organization_id, x.project_id, x.vendor_account_id, x.year, x.month,
+           SUM(x.purchased), SUM(x.paid), SUM(x.credit)
+    FROM (
+        SELECT e.organization_id,
+               COALESCE(e.project_id, 0)        AS project_id,
+               COALESCE(e.vendor_account_id, 0) AS vendor_account_id,
+               YEAR(e.created_date)             AS year,
+               MONTH(e.created_date)            AS month,
+               e.total_amount                   AS purchased,
+               0                                AS paid,
+               e.credit_amount                  AS credit
+        FROM expense e
+        WHERE e.organization_id = :organizationId
+          AND e.expense_type <> 'HISTORICAL'
+        UNION ALL
+        SELECT e.organization_id,
+               COALESCE(e.project_id, 0),
+               COALESCE(e.vendor_account_id, 0),
+               YEAR(ed.created_date),
+               MONTH(ed.created_date),
+               0,
+               ed.amount_paid,
+               0
+        FROM expense_detail ed
+        JOIN expense e ON e.id = ed.expense_id
+        WHERE e.organization_id = :organizationId
+          AND e.expense_type <> 'HISTORICAL'
+    ) x
+    GROUP BY x.organization_id, x.project_id, x.vendor_account_id, x.year, x.month
+""", nativeQuery = true)
+    int rebuildFromExpenses(@Param("organizationId") long organizationId);
+}
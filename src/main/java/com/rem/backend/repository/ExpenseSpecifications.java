@@ -0,0 +1,87 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.dto.expense.ExpenseSearchCriteria;
+import com.rem.backend.entity.account.ChartOfAccount;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.enums.PaymentStatus;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class ExpenseSpecifications {
+
+    public static final String CREATED_DATE = "createdDate";
+    public static final String ID = "id";
+
+    private ExpenseSpecifications() {
+    }
+
+    public static Specification<Expense> matching(ExpenseSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (criteria.getOrganizationId() != null)
+                predicates.add(cb.equal(root.get("organizationId"), criteria.getOrganizationId()));
+            if (criteria.getProjectId() != null)
+                predicates.add(cb.equal(root.get("projectId"), criteria.getProjectId()));
+            if (criteria.getVendorAccountId() != null)
+                predicates.add(cb.equal(root.get("vendorAccountId"), criteria.getVendorAccountId()));
+            if (criteria.getPaymentStatus() != null && criteria.getPaymentStatus() != PaymentStatus.ALL)
+                predicates.add(cb.equal(root.get("paymentStatus"), criteria.getPaymentStatus()));
+            if (criteria.getExpenseType() != null && criteria.getExpenseType() != ExpenseType.ALL)
+                predicates.add(cb.equal(root.get("expenseType"), criteria.getExpenseType()));
+            if (criteria.getExpenseCoaId() != null)
+                predicates.add(cb.equal(root.get("expenseCOAId"), criteria.getExpenseCoaId()));
+            if (criteria.getExpenseCoaIds() != null)
+                predicates.add(criteria.getExpenseCoaIds().isEmpty()
+                        ? cb.disjunction()
+                        : root.get("expenseCOAId").in(criteria.getExpenseCoaIds()));
+
+            if (criteria.getAccountGroupId() != null) {
+                // COAs of the group resolved in the same statement
+                Subquery<Long> groupCoaIds = query.subquery(Long.class);
+                Root<ChartOfAccount> coa = groupCoaIds.from(ChartOfAccount.class);
+                groupCoaIds.select(coa.get("id"))
+                        .where(cb.equal(coa.get("accountGroup").get("id"), criteria.getAccountGroupId()));
+                predicates.add(root.get("expenseCOAId").in(groupCoaIds));
+            }
+
+            if (criteria.getCoaOrExpenseTitle() != null)
+                predicates.add(cb.or(
+                        cb.notEqual(root.get("expenseCOAId"), 0L),
+                        cb.equal(root.get("expenseTitle"), criteria.getCoaOrExpenseTitle())));
+
+            if (criteria.getStartDate() != null)
+                predicates.add(cb.greaterThanOrEqualTo(root.get(CREATED_DATE), criteria.getStartDate()));
+            if (criteria.getEndDate() != null)
+                predicates.add(cb.lessThanOrEqualTo(root.get(CREATED_DATE), criteria.getEndDate()));
+
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    // rows strictly after (createdDate, id) in the given direction, pairs with keysetSort
+    public static Specification<Expense> after(LocalDateTime createdDate, long id, Sort.Direction direction) {
+        return (root, query, cb) -> {
+            if (direction.isAscending()) {
+                return cb.or(
+                        cb.greaterThan(root.get(CREATED_DATE), createdDate),
+                        cb.and(cb.equal(root.get(CREATED_DATE), createdDate), cb.greaterThan(root.get(ID), id)));
+            }
+            return cb.or(
+                    cb.lessThan(root.get(CREATED_DATE), createdDate),
+                    cb.and(cb.equal(root.get(CREATED_DATE), createdDate), cb.lessThan(root.get(ID), id)));
+        };
+    }
+
+    public static Sort keysetSort(Sort.Direction direction) {
+        return Sort.by(direction, CREATED_DATE, ID);
+    }
+}
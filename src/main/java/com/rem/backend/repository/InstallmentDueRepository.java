@@ -0,0 +1,85 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.dto.customer.InstallmentCollectionProjection;
+import com.rem.backend.entity.customer.InstallmentDue;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface InstallmentDueRepository extends JpaRepository<InstallmentDue, Long> {
+
+    List<InstallmentDue> findByCustomerAccountIdOrderBySerialNo(long customerAccountId);
+
+    @Modifying
+    @Query(value = "DELETE FROM installment_due WHERE customer_account_id = :customerAccountId", nativeQuery = true)
+    int deleteAllByCustomerAccount(@Param("customerAccountId") long customerAccountId);
+
+    /**
+     * Spreads the account's total paid amount over its installments in serial order:
+     * every installment is paid up to what is left after the ones before it.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+    UPDATE installment_due d
+    JOIN (
+        SELECT i.id,
+               SUM(i.amount) OVER (ORDER BY i.serial_no, i.id) - i.amount AS due_before
+        FROM installment_due i
+        WHERE i.customer_account_id = :customerAccountId
+    ) running ON running.id = d.id
+    JOIN customer_account a ON a.id = d.customer_account_id
+    SET d.status = CASE
+            WHEN COALESCE(a.total_paid_amount, 0) - running.due_before >= d.amount THEN 'PAID'
+            WHEN COALESCE(a.total_paid_amount, 0) - running.due_before > 0 THEN 'PENDING'
+            ELSE 'UNPAID'
+        END,
+        d.paid_amount = LEAST(d.amount, GREATEST(0, COALESCE(a.total_paid_amount, 0) - running.due_before)),
+        d.updated_date = NOW()
+    WHERE d.customer_account_id = :customerAccountId
+""", nativeQuery = true)
+    int allocatePayments(@Param("customerAccountId") long customerAccountId);
+
+    @Query("""
+    SELECT i FROM InstallmentDue i
+    WHERE i.organizationId = :organizationId
+      AND i.dueDate < :today
+      AND i.status <> com.rem.backend.enums.PaymentStatus.PAID
+    ORDER BY i.dueDate, i.id
+""")
+    Page<InstallmentDue> findOverdue(@Param("organizationId") long organizationId,
+                                     @Param("today") LocalDate today,
+                                     Pageable pageable);
+
+    @Query("""
+    SELECT i FROM InstallmentDue i
+    WHERE i.organizationId = :organizationId
+      AND i.dueDate BETWEEN :fromDate AND :toDate
+      AND i.status <> com.rem.backend.enums.PaymentStatus.PAID
+    ORDER BY i.dueDate, i.id
+""")
+    Page<InstallmentDue> findOpenDueBetween(@Param("organizationId") long organizationId,
+                                            @Param("fromDate") LocalDate fromDate,
+                                            @Param("toDate") LocalDate toDate,
+                                            Pageable pageable);
+
+    @Query(value = """
+    SELECT COUNT(*)                                          AS installments,
+           COALESCE(SUM(d.amount), 0)                        AS dueAmount,
+           COALESCE(SUM(d.paid_amount), 0)                   AS collectedAmount,
+           COALESCE(SUM(CASE WHEN d.status = 'PAID' THEN 1 ELSE 0 END), 0) AS paidInstallments
+    FROM installment_due d
+    WHERE d.organization_id = :organizationId
+      AND d.due_date BETWEEN :fromDate AND :toDate
+""", nativeQuery = true)
+    InstallmentCollectionProjection findCollection(@Param("organizationId") long organizationId,
+                                                   @Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate);
+}
@@ -1,16 +1,73 @@
 package com.rem.backend.repository;
 
+import com.rem.backend.dto.accounting.GeneralLedgerLineProjection;
 import com.rem.backend.entity.account.JournalDetailEntry;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface JournalDetailEntryRepository extends JpaRepository<JournalDetailEntry, Long> {
     List<JournalDetailEntry> findAllByJournalEntryId(long journalEntryId);
     List<JournalDetailEntry> findAllByChartOfAccountId(long chartOfAccountId);
     void deleteAllByJournalEntryId(long journalEntryId);
-}
 
+    // forward-only cursor: fetch size Integer.MIN_VALUE makes the MySQL driver stream rows one at a time
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query(value = """
+    SELECT je.id               AS journalEntryId,
+           je.created_date     AS entryDate,
+           je.reference_type   AS referenceType,
+           c.id                AS chartOfAccountId,
+           c.code              AS code,
+           c.name              AS accountName,
+           jd.description      AS description,
+           jd.debit_amount     AS debitAmount,
+           jd.credit_amount    AS creditAmount
+    FROM journal_detail_entry jd
+    JOIN journal_entry je    ON je.id = jd.journal_entry_id
+    JOIN chart_of_account c  ON c.id = jd.chart_of_account_id
+    WHERE je.organization_id = :organizationId
+      AND je.status = 'POSTED'
+      AND (:chartOfAccountId IS NULL OR jd.chart_of_account_id = :chartOfAccountId)
+      AND (:accountGroupId IS NULL OR c.account_group_id = :accountGroupId)
+      AND je.created_date BETWEEN :startDate AND :endDate
+    ORDER BY je.created_date, je.id, jd.id
+""", nativeQuery = true)
+    Stream<GeneralLedgerLineProjection> streamGeneralLedger(@Param("organizationId") long organizationId,
+                                                            @Param("chartOfAccountId") Long chartOfAccountId,
+                                                            @Param("accountGroupId") Long accountGroupId,
+                                                            @Param("startDate") LocalDateTime startDate,
+                                                            @Param("endDate") LocalDateTime endDate);
 
+    // debit - credit of the posted lines in [fromDate, toDate), used for the part of a month not in period balances
+    @Query(value = """
+    SELECT COALESCE(SUM(jd.debit_amount - jd.credit_amount), 0)
+    FROM journal_detail_entry jd
+    JOIN journal_entry je    ON je.id = jd.journal_entry_id
+    JOIN chart_of_account c  ON c.id = jd.chart_of_account_id
+    WHERE je.organization_id = :organizationId
+      AND je.status = 'POSTED'
+      AND (:chartOfAccountId IS NULL OR jd.chart_of_account_id = :chartOfAccountId)
+      AND (:accountGroupId IS NULL OR c.account_group_id = :accountGroupId)
+      AND je.created_date >= :fromDate AND je.created_date < :toDate
+""", nativeQuery = true)
+    double sumNetAmount(@Param("organizationId") long organizationId,
+                        @Param("chartOfAccountId") Long chartOfAccountId,
+                        @Param("accountGroupId") Long accountGroupId,
+                        @Param("fromDate") LocalDateTime fromDate,
+                        @Param("toDate") LocalDateTime toDate);
+}
@@ -2,7 +2,11 @@ package com.rem.backend.repository;
 
 import com.rem.backend.entity.paymentschedule.MonthWisePayment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -10,4 +14,18 @@ public interface MonthWisePaymentRepo extends JpaRepository<MonthWisePayment , L
 
 
     List<MonthWisePayment> findByPaymentScheduleId(long paymentId);
+
+    List<MonthWisePayment> findByPaymentScheduleIdInOrderByFromMonth(Collection<Long> paymentScheduleIds);
+
+    @Modifying
+    @Query("DELETE FROM MonthWisePayment m WHERE m.paymentScheduleId IN :paymentScheduleIds")
+    int deleteAllByPaymentScheduleIds(@Param("paymentScheduleIds") Collection<Long> paymentScheduleIds);
+
+    @Modifying
+    @Query(value = """
+    DELETE m FROM month_wise_payment m
+    JOIN payment_schedule ps ON ps.id = m.payment_schedule_id
+    WHERE ps.unit_id IN (:unitIds) AND ps.payment_schedule_type = 'BUILDER'
+""", nativeQuery = true)
+    int deleteBuilderRowsByUnitIds(@Param("unitIds") Collection<Long> unitIds);
 }
@@ -9,6 +9,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,6 +18,10 @@ public interface PaymentScheduleRepository extends JpaRepository<PaymentSchedule
 
     Optional<PaymentSchedule> findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(Long unitId , PaymentScheduleType paymentScheduleType);
 
+    List<PaymentSchedule> findByUnit_IdInAndIsActiveTrue(Collection<Long> unitIds);
+
+    List<PaymentSchedule> findByUnit_IdInAndPaymentScheduleTypeAndIsActiveTrue(Collection<Long> unitIds, PaymentScheduleType paymentScheduleType);
+
 
     @Query(value = """
         SELECT ps 
@@ -34,4 +40,10 @@ public interface PaymentScheduleRepository extends JpaRepository<PaymentSchedule
     );
 
     void deleteByUnit_Id(long id);
+
+    // builder schedules only, a unit's customer schedules belong to its bookings
+    @Modifying
+    @Query("DELETE FROM PaymentSchedule ps WHERE ps.unit.id IN :unitIds " +
+            "AND ps.paymentScheduleType = com.rem.backend.enums.PaymentScheduleType.BUILDER")
+    int deleteBuilderSchedulesByUnitIds(@Param("unitIds") Collection<Long> unitIds);
 }
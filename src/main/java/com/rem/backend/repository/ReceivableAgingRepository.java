@@ -0,0 +1,134 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.dto.customer.ReceivableAgingProjection;
+import com.rem.backend.entity.customer.ReceivableAging;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReceivableAgingRepository extends JpaRepository<ReceivableAging, Long> {
+
+    /**
+     * Ids of the active customer accounts, optionally of one organization, the refresh job splits them into chunks
+     */
+    @Query(value = """
+    SELECT ca.id
+    FROM customer_account ca
+    JOIN project p ON p.project_id = ca.project_id
+    WHERE ca.is_active = 1
+      AND (:organizationId IS NULL OR p.organization_id = :organizationId)
+    ORDER BY ca.id
+""", nativeQuery = true)
+    List<Long> findActiveAccountIds(@Param("organizationId") Long organizationId);
+
+    @Modifying
+    @Query(value = """
+    DELETE FROM receivable_aging
+    WHERE customer_account_id BETWEEN :fromAccountId AND :toAccountId
+      AND (:organizationId IS NULL OR organization_id = :organizationId)
+""", nativeQuery = true)
+    int deleteAccountRange(@Param("organizationId") Long organizationId,
+                           @Param("fromAccountId") long fromAccountId,
+                           @Param("toAccountId") long toAccountId);
+
+    /**
+     * Buckets the open installments of the active accounts in the id range by days past due.
+     * Accounts without installment rows keep their whole balance in the current bucket.
+     */
+    @Modifying
+    @Query(value = """
+    INSERT INTO receivable_aging (organization_id, project_id, customer_id, customer_account_id, as_of_date,
+                                  current_amount, days_1_30, days_31_60, days_61_90, days_over_90,
+                                  total_outstanding, updated_date)
+    SELECT p.organization_id,
+           ca.project_id,
+           ca.customer_id,
+           ca.id,
+           :asOfDate,
+           CASE WHEN COUNT(d.id) = 0 THEN COALESCE(ca.total_balance_amount, 0)
+                ELSE COALESCE(SUM(CASE WHEN d.due_date IS NULL OR d.due_date >= :asOfDate THEN d.amount - d.paid_amount END), 0)
+           END,
+           COALESCE(SUM(CASE WHEN DATEDIFF(:asOfDate, d.due_date) BETWEEN 1 AND 30 THEN d.amount - d.paid_amount END), 0),
+           COALESCE(SUM(CASE WHEN DATEDIFF(:asOfDate, d.due_date) BETWEEN 31 AND 60 THEN d.amount - d.paid_amount END), 0),
+           COALESCE(SUM(CASE WHEN DATEDIFF(:asOfDate, d.due_date) BETWEEN 61 AND 90 THEN d.amount - d.paid_amount END), 0),
+           COALESCE(SUM(CASE WHEN DATEDIFF(:asOfDate, d.due_date) > 90 THEN d.amount - d.paid_amount END), 0),
+           CASE WHEN COUNT(d.id) = 0 THEN COALESCE(ca.total_balance_amount, 0)
+                ELSE SUM(d.amount - d.paid_amount)
+           END,
+           NOW()
+    FROM customer_account ca
+    JOIN project p ON p.project_id = ca.project_id
+    LEFT JOIN installment_due d ON d.customer_account_id = ca.id AND d.status <> 'PAID'
+    WHERE ca.is_active = 1
+      AND ca.id BETWEEN :fromAccountId AND :toAccountId
+      AND (:organizationId IS NULL OR p.organization_id = :organizationId)
+    GROUP BY ca.id, p.organization_id, ca.project_id, ca.customer_id, ca.total_balance_amount
+""", nativeQuery = true)
+    int insertAccountRange(@Param("organizationId") Long organizationId,
+                           @Param("fromAccountId") long fromAccountId,
+                           @Param("toAccountId") long toAccountId,
+                           @Param("asOfDate") LocalDate asOfDate);
+
+    @Query(value = """
+    SELECT NULL AS projectId, NULL AS projectName, NULL AS customerAccountId, NULL AS customerName,
+           COALESCE(SUM(a.current_amount), 0)    AS currentAmount,
+           COALESCE(SUM(a.days_1_30), 0)         AS days1To30,
+           COALESCE(SUM(a.days_31_60), 0)        AS days31To60,
+           COALESCE(SUM(a.days_61_90), 0)        AS days61To90,
+           COALESCE(SUM(a.days_over_90), 0)      AS daysOver90,
+           COALESCE(SUM(a.total_outstanding), 0) AS totalOutstanding
+    FROM receivable_aging a
+    WHERE a.organization_id = :organizationId
+""", nativeQuery = true)
+    ReceivableAgingProjection findOrganizationTotals(@Param("organizationId") long organizationId);
+
+    @Query(value = """
+    SELECT a.project_id AS projectId, p.name AS projectName, NULL AS customerAccountId, NULL AS customerName,
+           SUM(a.current_amount)    AS currentAmount,
+           SUM(a.days_1_30)         AS days1To30,
+           SUM(a.days_31_60)        AS days31To60,
+           SUM(a.days_61_90)        AS days61To90,
+           SUM(a.days_over_90)      AS daysOver90,
+           SUM(a.total_outstanding) AS totalOutstanding
+    FROM receivable_aging a
+    LEFT JOIN project p ON p.project_id = a.project_id
+    WHERE a.organization_id = :organizationId
+    GROUP BY a.project_id, p.name
+    ORDER BY p.name
+""", nativeQuery = true)
+    List<ReceivableAgingProjection> findProjectTotals(@Param("organizationId") long organizationId);
+
+    @Query(value = """
+    SELECT a.project_id AS projectId, p.name AS projectName, a.customer_account_id AS customerAccountId, c.name AS customerName,
+           a.current_amount    AS currentAmount,
+           a.days_1_30         AS days1To30,
+           a.days_31_60        AS days31To60,
+           a.days_61_90        AS days61To90,
+           a.days_over_90      AS daysOver90,
+           a.total_outstanding AS totalOutstanding
+    FROM receivable_aging a
+    LEFT JOIN project p ON p.project_id = a.project_id
+    LEFT JOIN customer c ON c.customer_id = a.customer_id
+    WHERE a.organization_id = :organizationId
+      AND (:projectId IS NULL OR a.project_id = :projectId)
+      AND a.total_outstanding > 0
+    ORDER BY a.days_over_90 DESC, a.days_61_90 DESC, a.total_outstanding DESC
+""", countQuery = """
+    SELECT COUNT(*)
+    FROM receivable_aging a
+    WHERE a.organization_id = :organizationId
+      AND (:projectId IS NULL OR a.project_id = :projectId)
+      AND a.total_outstanding > 0
+""", nativeQuery = true)
+    Page<ReceivableAgingProjection> findCustomerAging(@Param("organizationId") long organizationId,
+                                                      @Param("projectId") Long projectId,
+                                                      Pageable pageable);
+}
@@ -1,14 +1,17 @@
 package com.rem.backend.repository;
 
+import com.rem.backend.dto.unit.UnitAvailabilityProjection;
 import com.rem.backend.entity.project.Floor;
 import com.rem.backend.entity.project.Unit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -19,6 +22,8 @@ public interface UnitRepo extends JpaRepository<Unit, Long> {
     Page<Unit> findByFloorId(long floorId, Pageable pageable);
     List<Unit> findByFloorId(long floorId);
 
+    List<Unit> findByFloorIdInOrderById(Collection<Long> floorIds);
+
     int countByFloorId(Long floorId);
 
     @Query("""
@@ -40,6 +45,55 @@ public interface UnitRepo extends JpaRepository<Unit, Long> {
     @Query(value = "SELECT id as id, serial_no as serialNo  FROM unit  WHERE floor_id = :floorId And is_booked = 0 ;", nativeQuery = true)
     List<Map<String , Object>> findAllUnitByFloorIdAndIsBookedFalse(long floorId);
 
+    // claims a free unit for a booking, 0 rows when it is booked already or does not exist.
+    // A unit flagged booked without an active booking (a booking that failed half way) counts as free.
+    @Modifying
+    @Query(value = """
+    UPDATE unit
+    SET is_booked = 1,
+        updated_by = :updatedBy,
+        updated_date = NOW()
+    WHERE id = :unitId
+      AND (is_booked = 0
+           OR NOT EXISTS (SELECT 1
+                          FROM booking b
+                          WHERE b.unit_id_mapping = unit.id
+                            AND b.is_active = 1))
+""", nativeQuery = true)
+    int claimForBooking(@Param("unitId") long unitId, @Param("updatedBy") String updatedBy);
+
+    // booked means flagged and held by an active booking, the way claimForBooking sees it
+    @Query("""
+    SELECT u.id AS unitId,
+           u.floorId AS floorId,
+           f.projectId AS projectId,
+           u.serialNo AS serialNo,
+           u.unitType AS unitType,
+           CASE WHEN u.isBooked = true
+                     AND EXISTS (SELECT 1 FROM Booking b WHERE b.unit.id = u.id AND b.isActive = true)
+                THEN true ELSE false END AS booked
+    FROM Unit u
+    JOIN Floor f ON u.floorId = f.id
+    ORDER BY f.projectId, f.floor, u.id
+""")
+    List<UnitAvailabilityProjection> findAllAvailability();
+
+    @Query("""
+    SELECT u.id AS unitId,
+           u.floorId AS floorId,
+           f.projectId AS projectId,
+           u.serialNo AS serialNo,
+           u.unitType AS unitType,
+           CASE WHEN u.isBooked = true
+                     AND EXISTS (SELECT 1 FROM Booking b WHERE b.unit.id = u.id AND b.isActive = true)
+                THEN true ELSE false END AS booked
+    FROM Unit u
+    JOIN Floor f ON u.floorId = f.id
+    WHERE f.projectId = :projectId
+    ORDER BY f.floor, u.id
+""")
+    List<UnitAvailabilityProjection> findAvailabilityByProjectId(@Param("projectId") long projectId);
+
 
 
 
@@ -0,0 +1,69 @@
+package com.rem.backend.service;
+
+import com.rem.backend.repository.AccountCodeCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out chart of account codes ({prefix}-{orgId}-{n}) per organization and prefix.
+ * Numbers come from an account_code_counter row advanced atomically in its own
+ * transaction, a block at a time, so concurrent creates never share a code and
+ * most creates don't touch the database. Unused numbers of a block are lost on restart.
+ */
+@Service
+@Slf4j
+public class AccountCodeAllocator {
+
+    private static final int BLOCK_SIZE = 10;
+
+    private final AccountCodeCounterRepository accountCodeCounterRepository;
+    private final TransactionTemplate requiresNewTransaction;
+
+    private final Map<String, CodeBlock> blocks = new ConcurrentHashMap<>();
+
+    public AccountCodeAllocator(AccountCodeCounterRepository accountCodeCounterRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.accountCodeCounterRepository = accountCodeCounterRepository;
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String nextCode(long organizationId, String prefix) {
+        CodeBlock block = blocks.computeIfAbsent(organizationId + ":" + prefix, key -> new CodeBlock());
+
+        long number;
+        synchronized (block) {
+            if (block.next >= block.end) {
+                long end = reserveBlock(organizationId, prefix);
+                block.next = end - BLOCK_SIZE;
+                block.end = end;
+            }
+            number = block.next++;
+        }
+
+        return prefix + "-" + organizationId + "-" + number;
+    }
+
+    // commits on its own so the row lock is held only for the reservation, not the caller's transaction
+    private long reserveBlock(long organizationId, String prefix) {
+        Long end = requiresNewTransaction.execute(status -> {
+            accountCodeCounterRepository.createIfAbsent(organizationId, prefix);
+            accountCodeCounterRepository.advance(organizationId, prefix, BLOCK_SIZE);
+            return accountCodeCounterRepository.findNextValue(organizationId, prefix);
+        });
+
+        log.info("Reserved account codes {}-{}-[{}..{}]", prefix, organizationId, end - BLOCK_SIZE, end - 1);
+        return end;
+    }
+
+    private static class CodeBlock {
+        private long next;
+        private long end;
+    }
+}
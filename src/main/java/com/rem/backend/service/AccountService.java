@@ -17,7 +17,6 @@ import com.rem.backend.repository.ChartOfAccountRepository;
 import com.rem.backend.repository.OrganizationRepo;
 import com.rem.backend.utility.ResponseMapper;
 import com.rem.backend.utility.Responses;
-import com.rem.backend.utility.Utility;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,7 +34,9 @@ public class AccountService {
     private final AccountGroupRepository groupRepo;
     private final AccountTypeRepository typeRepo;
     private final OrganizationRepo organizationRepo;
-    private final Utility utility;
+    private final AccountCodeAllocator accountCodeAllocator;
+    private final ControlAccountService controlAccountService;
+    private final ChartOfAccountListingService chartOfAccountListingService;
 
     public Map<String, Object> getAllChartOfAccounts(
             Long organizationId,
@@ -44,54 +45,11 @@ public class AccountService {
     ) {
 
         try {
-            List<ChartOfAccount> accounts;
-
-            if (accountGroup != null) {
-                accounts = coaRepo
-                        .findAllByOrganization_OrganizationIdAndAccountGroup_Id(
-                                organizationId, accountGroup);
-            } else if (accountType != null) {
-                AccountType type = typeRepo.findById(accountType)
-                        .orElseThrow(() ->
-                                new RuntimeException("Invalid account type"));
-
-                List<AccountGroup> groups =
-                        groupRepo.findAllByOrganization_OrganizationIdAndAccountType(
-                                organizationId, type);
-
-                accounts = coaRepo
-                        .findAllByOrganization_OrganizationIdAndAccountGroupIn(
-                                organizationId, groups);
-            } else {
-                accounts = coaRepo
-                        .findAllByOrganization_OrganizationIdAndStatus(
-                                organizationId, AccountStatus.ACTIVE);
-            }
-
-            List<ChartOfAccountDTO> dtoList = accounts.stream()
-                    .map(a -> new ChartOfAccountDTO(
-                            a.getId(),
-                            a.getCode(),
-                            a.getName(),
-                            new AccountGroupDTO(
-                                    a.getAccountGroup().getId(),
-                                    a.getAccountGroup().getName(),
-                                    new AccountTypeDTO(
-                                            a.getAccountGroup().getAccountType().getId(),
-                                            a.getAccountGroup().getAccountType().getName()
-                                    ),
-                                    a.getAccountGroup().getCreatedDate().toString()
-                            ),
-                            a.isSystemGenerated(),
-                            a.getStatus().name(),
-                            a.getOrganizationAccountId(),
-                            a.getCreatedDate().toString(),
-                            a.getUpdatedDate().toString()
-                    ))
-                    .toList();
-
-
+            List<ChartOfAccountDTO> dtoList =
+                    chartOfAccountListingService.getAccounts(organizationId, accountType, accountGroup);
 
+            if (accountGroup == null && accountType != null && dtoList.isEmpty() && !typeRepo.existsById(accountType))
+                throw new RuntimeException("Invalid account type");
 
             Map<String, Object> response = new HashMap<>();
             response.put("count", dtoList.size());
@@ -201,7 +159,7 @@ public class AccountService {
             ChartOfAccount coa = new ChartOfAccount();
             coa.setOrganization(group.getOrganization());
             coa.setAccountGroup(group);
-            coa.setCode(utility.generateAccountCode(group.getOrganization().getOrganizationId(),
+            coa.setCode(accountCodeAllocator.nextCode(group.getOrganization().getOrganizationId(),
                     group.getAccountType().getName().substring(0,3)));
             coa.setName(request.getName());
             coa.setStatus(AccountStatus.ACTIVE);
@@ -209,6 +167,8 @@ public class AccountService {
             coa.setOrganizationAccountId(null);
 
             ChartOfAccount saved = coaRepo.save(coa);
+            controlAccountService.invalidate(organizationId);
+            chartOfAccountListingService.invalidate(organizationId);
 
             // 6. Response
             Map<String, Object> response = new HashMap<>();
@@ -249,6 +209,7 @@ public class AccountService {
             group.setAccountType(type);
 
             AccountGroup saved = groupRepo.save(group);
+            chartOfAccountListingService.invalidate(organizationId);
 
             CreateAccountGroupResponse dto = new CreateAccountGroupResponse(
                     saved.getId(),
@@ -297,6 +258,8 @@ public class AccountService {
             group.setAccountType(type);
 
             AccountGroup updated = groupRepo.save(group);
+            controlAccountService.invalidate(organizationId);
+            chartOfAccountListingService.invalidate(organizationId);
 
             CreateAccountGroupResponse dto = new CreateAccountGroupResponse(
                     updated.getId(),
@@ -348,6 +311,8 @@ public class AccountService {
 
             coa.setName(newName);
             ChartOfAccount updated = coaRepo.save(coa);
+            controlAccountService.invalidate(organizationId);
+            chartOfAccountListingService.invalidate(organizationId);
 
             Map<String, Object> response = new HashMap<>();
             response.put("id", updated.getId());
@@ -37,6 +37,10 @@ public class BookingCancellationService {
     private final PaymentScheduleRepository paymentScheduleRepository;
     private final ProjectRepo projectRepo;
     private final FloorRepo floorRepo;
+    private final InstallmentDueService installmentDueService;
+    private final ReceivableAgingService receivableAgingService;
+    private final ProjectTreeLoader projectTreeLoader;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
 
 
 
@@ -162,9 +166,13 @@ public class BookingCancellationService {
             booking.setActive(false);
             booking.getUnit().setBooked(false);
             bookingRepository.save(booking);
+            projectTreeLoader.evictUnit(booking.getUnit().getId(), booking.getUnit().getFloorId());
+            unitAvailabilityIndex.markFree(booking.getProjectId(), booking.getUnit().getId());
 
             customerAccount.setActive(false);
             customerAccountRepo.save(customerAccount);
+            installmentDueService.deleteByCustomerAccount(customerAccount.getId());
+            receivableAgingService.refreshAccount(customerAccount.getId());
 
             customerPayableDto.setId(customerPayable.getId());
 
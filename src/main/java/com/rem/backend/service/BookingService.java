@@ -22,6 +22,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
+import java.time.LocalDate;
 import java.util.*;
 
 import static com.rem.backend.utility.Utility.*;
@@ -43,6 +44,10 @@ public class BookingService {
     private final PaymentScheduleRepository paymentScheduleRepo;
     private final CustomerPaymentRepo customerPaymentRepo;
     private final UserRepo userRepo;
+    private final InstallmentDueService installmentDueService;
+    private final ProjectTreeLoader projectTreeLoader;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
+    private final UnitBookingGuard unitBookingGuard;
 
 
     @Transactional
@@ -54,16 +59,29 @@ public class BookingService {
             validateBooking(booking);
 
 
-            if (bookingRepository.existsByUnit_IdAndIsActiveTrue(booking.getUnitId()))
+            if (booking.getCustomerId() == null)
+                return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "Invalid Customer!");
+
+            // claim the unit before any booking work, a losing request stops here
+            if (unitAvailabilityIndex.isKnownBooked(booking.getUnitId()))
                 return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "This unit is already booked!");
 
+            if (!unitBookingGuard.claim(booking.getUnitId(), loggedInUser)) {
+                if (!unitRepo.existsById(booking.getUnitId()))
+                    return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "Invalid selected unit!");
+                return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "This unit is already booked!");
+            }
 
-            if (booking.getCustomerId() == null)
-                return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "Invalid Customer!");
+            if (bookingRepository.existsByUnit_IdAndIsActiveTrue(booking.getUnitId())) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "This unit is already booked!");
+            }
 
             Optional<Customer> customerOptional = customerRepo.findById(booking.getCustomerId());
-            if (customerOptional.isEmpty())
+            if (customerOptional.isEmpty()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
                 return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "Invalid Customer!");
+            }
 
             Customer customer = customerOptional.get();
             customer.setUnitCount(customer.getUnitCount() + 1);
@@ -72,6 +90,7 @@ public class BookingService {
 
             Optional<Unit> unitOptional = unitRepo.findById(booking.getUnitId());
             if (!unitOptional.isPresent()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
                 return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, "Invalid selected unit!");
             }
 
@@ -90,10 +109,12 @@ public class BookingService {
             unit.setBooked(true);
             unit.setPaymentPlanType(paymentSchedule.getPaymentPlanType());
             unitRepo.save(unit);
+            projectTreeLoader.evictUnit(unit.getId(), unit.getFloorId());
 
             Map<String, Object> createPaymentScheduler = paymentSchedulerService.createSchedule(paymentSchedule, paymentSchedule.getPaymentPlanType());
             if (createPaymentScheduler != null) {
                 if (!createPaymentScheduler.get(RESPONSE_CODE).equals(Responses.SUCCESS.getResponseCode())) {
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
                     return createPaymentScheduler;
                 }
                 createPaymentScheduler.get(DATA);
@@ -111,6 +132,7 @@ public class BookingService {
             booking.setUpdatedBy(loggedInUser);
             booking.setFloorId(unit.getFloorId());
             Booking bookingSaved = bookingRepository.save(booking);
+            unitAvailabilityIndex.markBooked(bookingSaved.getProjectId(), unit.getId());
             createCustomerAccount(bookingSaved, loggedInUser, paymentSchedule.getPaymentPlanType());
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, bookingSaved);
@@ -168,6 +190,7 @@ public class BookingService {
 
             unit.setPaymentPlanType(paymentSchedule.getPaymentPlanType());
             unitRepo.save(unit);
+            projectTreeLoader.evictUnit(unit.getId(), unit.getFloorId());
 
             Map<String, Object> createPaymentScheduler = paymentSchedulerService.updateSchedule(paymentSchedule, paymentSchedule.getPaymentPlanType());
             if (createPaymentScheduler != null) {
@@ -260,6 +283,7 @@ public class BookingService {
         }
 
         CustomerAccount customerAccountSaved = customerAccountRepo.save(account);
+        generateInstallments(booking, customerAccountSaved, schedule);
 
 //        int serialNoStart = 1;
 
@@ -380,8 +404,18 @@ public class BookingService {
             throw new IllegalArgumentException("Amounts not matched!");
         }
 
-        customerAccountRepo.save(account);
+        CustomerAccount customerAccountSaved = customerAccountRepo.save(account);
+        generateInstallments(booking, customerAccountSaved, schedule);
+
+    }
+
+    // installment_due rows of the account, due dates count from the booking date
+    private void generateInstallments(Booking booking, CustomerAccount account, PaymentSchedule schedule) {
+        long organizationId = booking.getOrganizationId() != null ? booking.getOrganizationId()
+                : account.getProject() != null ? account.getProject().getOrganizationId() : 0L;
+        LocalDate startDate = booking.getCreatedDate() != null ? booking.getCreatedDate().toLocalDate() : LocalDate.now();
 
+        installmentDueService.generate(account.getId(), organizationId, booking.getProjectId(), schedule, startDate);
     }
 
 
@@ -411,6 +445,12 @@ public class BookingService {
             }
 
             // Populate transient fields for API response
+            Map<Long, PaymentSchedule> customerSchedules = new HashMap<>();
+            List<Long> unitIds = bookings.getContent().stream().map(booking -> booking.getUnit().getId()).toList();
+            if (!unitIds.isEmpty()) {
+                for (PaymentSchedule schedule : paymentScheduleRepo.findByUnit_IdInAndPaymentScheduleTypeAndIsActiveTrue(unitIds, PaymentScheduleType.CUSTOMER))
+                    customerSchedules.putIfAbsent(schedule.getUnit().getId(), schedule);
+            }
 
             bookings.getContent().forEach(booking -> {
                 Unit unit = booking.getUnit();
@@ -419,10 +459,9 @@ public class BookingService {
                 booking.setUnitSerial(unit.getSerialNo());
                 booking.setProfileImageUrl(booking.getCustomer().getProfileImageUrl());
 
-                Optional<PaymentSchedule> paymentScheduleOptional = paymentScheduleRepo.findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(unit.getId(), PaymentScheduleType.CUSTOMER);
-
-                if (paymentScheduleOptional.isPresent()) {
-                    booking.setTotalAmount(paymentScheduleOptional.get().getTotalAmount());
+                PaymentSchedule customerSchedule = customerSchedules.get(unit.getId());
+                if (customerSchedule != null) {
+                    booking.setTotalAmount(customerSchedule.getTotalAmount());
                 }
 
                 Optional<Floor> optionalFloor = floorRepo.findById(unit.getFloorId());
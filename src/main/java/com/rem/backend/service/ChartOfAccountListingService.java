@@ -0,0 +1,90 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.accounting.AccountGroupDTO;
+import com.rem.backend.dto.accounting.AccountTypeDTO;
+import com.rem.backend.dto.accounting.ChartOfAccountDTO;
+import com.rem.backend.dto.accounting.ChartOfAccountListingProjection;
+import com.rem.backend.enums.AccountStatus;
+import com.rem.backend.repository.ChartOfAccountRepository;
+import com.rem.backend.utility.CacheEviction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Org-scoped cache of the chart of accounts listing (the COA picker).
+ * All accounts of an organization are loaded with their group and type in one
+ * query and filtered in memory; the entry is dropped whenever a COA or group of
+ * that organization is created or changed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChartOfAccountListingService {
+
+    private final ChartOfAccountRepository chartOfAccountRepository;
+
+    private final Map<Long, List<ListedAccount>> accountsByOrganization = new ConcurrentHashMap<>();
+
+    public List<ChartOfAccountDTO> getAccounts(long organizationId, Long accountTypeId, Long accountGroupId) {
+        return load(organizationId).stream()
+                .filter(a -> matches(a, accountTypeId, accountGroupId))
+                .map(ListedAccount::dto)
+                .toList();
+    }
+
+    public void invalidate(long organizationId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> accountsByOrganization.remove(organizationId));
+    }
+
+    // same rules as before: group and type filters list every status, the plain listing only active accounts
+    private static boolean matches(ListedAccount account, Long accountTypeId, Long accountGroupId) {
+        if (accountGroupId != null)
+            return account.groupId() == accountGroupId;
+        if (accountTypeId != null)
+            return account.typeId() == accountTypeId;
+        return account.status() == AccountStatus.ACTIVE;
+    }
+
+    private List<ListedAccount> load(long organizationId) {
+        List<ListedAccount> accounts = accountsByOrganization.get(organizationId);
+        if (accounts != null)
+            return accounts;
+
+        accounts = chartOfAccountRepository.findListingByOrganization(organizationId).stream()
+                .map(ChartOfAccountListingService::toListedAccount)
+                .toList();
+
+        accountsByOrganization.put(organizationId, accounts);
+        log.info("Loaded {} chart of accounts for organization {}", accounts.size(), organizationId);
+        return accounts;
+    }
+
+    private static ListedAccount toListedAccount(ChartOfAccountListingProjection row) {
+        ChartOfAccountDTO dto = new ChartOfAccountDTO(
+                row.getId(),
+                row.getCode(),
+                row.getName(),
+                new AccountGroupDTO(
+                        row.getGroupId(),
+                        row.getGroupName(),
+                        new AccountTypeDTO(row.getTypeId(), row.getTypeName()),
+                        row.getGroupCreatedDate().toString()
+                ),
+                row.getSystemGenerated(),
+                row.getStatus().name(),
+                row.getOrganizationAccountId(),
+                row.getCreatedDate().toString(),
+                row.getUpdatedDate().toString()
+        );
+
+        return new ListedAccount(row.getGroupId(), row.getTypeId(), row.getStatus(), dto);
+    }
+
+    private record ListedAccount(long groupId, long typeId, AccountStatus status, ChartOfAccountDTO dto) {
+    }
+}
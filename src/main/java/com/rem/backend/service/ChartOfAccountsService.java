@@ -9,7 +9,6 @@ import com.rem.backend.repository.AccountGroupRepository;
 import com.rem.backend.repository.AccountTypeRepository;
 import com.rem.backend.repository.ChartOfAccountRepository;
 import com.rem.backend.repository.OrganizationRepo;
-import com.rem.backend.utility.Utility;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,7 +23,9 @@ public class ChartOfAccountsService {
     private final AccountTypeRepository accountTypeRepository;
     private final ChartOfAccountRepository chartOfAccountRepository;
     private final OrganizationRepo organizationRepo;
-    private final Utility utility;
+    private final AccountCodeAllocator accountCodeAllocator;
+    private final ControlAccountService controlAccountService;
+    private final ChartOfAccountListingService chartOfAccountListingService;
 
 
     @Transactional
@@ -71,12 +72,15 @@ public class ChartOfAccountsService {
                         organizationAccount.getName()
         );
 
-        coa.setCode(utility.generateAccountCode(
+        coa.setCode(accountCodeAllocator.nextCode(
                 organizationAccount.getOrganizationId(),
                 "BANK"
         ));
 
-        return chartOfAccountRepository.save(coa);
+        ChartOfAccount saved = chartOfAccountRepository.save(coa);
+        controlAccountService.invalidate(organizationAccount.getOrganizationId());
+        chartOfAccountListingService.invalidate(organizationAccount.getOrganizationId());
+        return saved;
     }
 
 }
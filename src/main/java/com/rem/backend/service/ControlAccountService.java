@@ -0,0 +1,97 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.accounting.ControlAccountProjection;
+import com.rem.backend.enums.AccountStatus;
+import com.rem.backend.enums.ControlAccountType;
+import com.rem.backend.repository.ChartOfAccountRepository;
+import com.rem.backend.utility.CacheEviction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Org-scoped lookup of the chart of accounts used by journal postings:
+ * system control accounts (Vendor Payable, Construction Inventory) and the
+ * bank/cash COA linked to each organization account.
+ * Loaded with one query per organization on first use, dropped whenever
+ * a COA of that organization is created or renamed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ControlAccountService {
+
+    private static final String BANK_CASH_GROUP = "bank/cash";
+
+    private final ChartOfAccountRepository chartOfAccountRepository;
+
+    private final Map<Long, OrganizationControlAccounts> accountsByOrganization = new ConcurrentHashMap<>();
+
+    public long getControlAccountId(long organizationId, ControlAccountType type) {
+        Long coaId = getAccounts(organizationId).controlAccountIds().get(type);
+
+        // may have been configured after the cache was warmed, reload once before failing
+        if (coaId == null)
+            coaId = reload(organizationId).controlAccountIds().get(type);
+
+        if (coaId == null)
+            throw new RuntimeException(type.getAccountName() + " control account not found for organization " + organizationId);
+
+        return coaId;
+    }
+
+    public long getBankAccountId(long organizationId, long organizationAccountId) {
+        Long coaId = getAccounts(organizationId).bankAccountIds().get(organizationAccountId);
+
+        if (coaId == null)
+            coaId = reload(organizationId).bankAccountIds().get(organizationAccountId);
+
+        if (coaId == null)
+            throw new RuntimeException("Bank account not found for organization account " + organizationAccountId);
+
+        return coaId;
+    }
+
+    // again after the transaction completes, a concurrent reader may reload the old rows before the commit
+    public void invalidate(long organizationId) {
+        CacheEviction.evictNowAndAfterCompletion(() -> accountsByOrganization.remove(organizationId));
+    }
+
+    private OrganizationControlAccounts getAccounts(long organizationId) {
+        OrganizationControlAccounts accounts = accountsByOrganization.get(organizationId);
+        return accounts != null ? accounts : reload(organizationId);
+    }
+
+    private OrganizationControlAccounts reload(long organizationId) {
+        Map<ControlAccountType, Long> controlAccountIds = new EnumMap<>(ControlAccountType.class);
+        Map<Long, Long> bankAccountIds = new HashMap<>();
+
+        for (ControlAccountProjection coa : chartOfAccountRepository.findControlAccounts(organizationId, AccountStatus.ACTIVE)) {
+            if (coa.getOrganizationAccountId() != null && BANK_CASH_GROUP.equalsIgnoreCase(coa.getGroupName())) {
+                bankAccountIds.putIfAbsent(coa.getOrganizationAccountId(), coa.getId());
+            }
+
+            if (coa.getSystemGenerated()) {
+                for (ControlAccountType type : ControlAccountType.values()) {
+                    if (type.getAccountName().equalsIgnoreCase(coa.getName()))
+                        controlAccountIds.putIfAbsent(type, coa.getId());
+                }
+            }
+        }
+
+        OrganizationControlAccounts accounts = new OrganizationControlAccounts(controlAccountIds, bankAccountIds);
+        accountsByOrganization.put(organizationId, accounts);
+        log.info("Loaded control accounts for organization {}: {} control, {} bank", organizationId,
+                controlAccountIds.size(), bankAccountIds.size());
+        return accounts;
+    }
+
+    private record OrganizationControlAccounts(Map<ControlAccountType, Long> controlAccountIds,
+                                               Map<Long, Long> bankAccountIds) {
+    }
+}
@@ -33,6 +33,9 @@ public class CustomerPaymentService {
     private final CustomerRepo customerRepo;
     private final UnitRepo unitRepo;
     private final OrganizationAccountService organizationAccountService;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
+    private final InstallmentDueService installmentDueService;
+    private final ReceivableAgingService receivableAgingService;
 
     public Map<String, Object> getPaymentsByCustomerAccountId(long customerAccountId, Pageable pageable) {
         try {
@@ -157,23 +160,24 @@ public class CustomerPaymentService {
             ValidationService.validate(customerPayment.getId(), "customerPayment");
             ValidationService.validate(customerPayment.getCustomerAccountId(), "customer account");
             ValidationService.validate(customerPayment.getOrganizationAccountDetails(), "receiving account");
-            Optional<CustomerAccount> customerAccountOp = customerAccountRepo.findById(customerPayment.getCustomerAccountId());
 
             if (customerPayment.getCustomerPaymentDetails() == null ||
                     customerPayment.getCustomerPaymentDetails().size() == 0)
                 throw new IllegalArgumentException("Invalid Payment");
 
-            CustomerAccount customerAccount = customerAccountOp.get();
-            if (customerAccountOp.isEmpty())
-                throw new IllegalArgumentException("Invalid Account!");
-
-            Double totalReceivedAmount = customerAccount.getTotalBalanceAmount();
-
             double currentPaidAmount = customerPayment.getCustomerPaymentDetails().stream().mapToDouble(p -> p.getAmount()).sum();
 
-
-            if (totalReceivedAmount <= currentPaidAmount)
+            // paid and balance move together, only while the payment stays below the outstanding balance
+            if (aggregateTotalsRepository.receiveCustomerPayment(customerPayment.getCustomerAccountId(), currentPaidAmount, loggedInUser) == 0) {
+                if (!customerAccountRepo.existsById(customerPayment.getCustomerAccountId()))
+                    throw new IllegalArgumentException("Invalid Account!");
                 throw new IllegalArgumentException("Invalid Amount!");
+            }
+            installmentDueService.allocatePayments(customerPayment.getCustomerAccountId());
+            receivableAgingService.refreshAccount(customerPayment.getCustomerAccountId());
+
+            // loaded after the update so the response carries the new totals
+            Optional<CustomerAccount> customerAccountOp = customerAccountRepo.findById(customerPayment.getCustomerAccountId());
 
             customerPayment.setSerialNo(0);
 
@@ -261,11 +265,6 @@ public class CustomerPaymentService {
                 }
             }
 
-
-            customerAccount.setTotalPaidAmount(customerAccount.getTotalPaidAmount() + currentPaidAmount);
-            customerAccount.setTotalBalanceAmount(customerAccount.getTotalBalanceAmount() - currentPaidAmount);
-            customerAccountRepo.save(customerAccount);
-
             return ResponseMapper.buildResponse(Responses.SUCCESS, customerAccountOp);
         } catch (IllegalArgumentException e) {
             TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
@@ -564,15 +563,10 @@ public class CustomerPaymentService {
                 throw new IllegalArgumentException("Payment already posted in account, cannot be deleted!");
 
 
-            Optional<CustomerAccount> customerAccountOptional = customerAccountRepo.findById(customerPayment.getCustomerAccountId());
-            if (customerAccountOptional.isEmpty())
+            if (aggregateTotalsRepository.addToCustomerPaid(customerPayment.getCustomerAccountId(), -customerPayment.getAmount(), loggedInUser) == 0)
                 throw new IllegalArgumentException("Invalid Customer Account");
-
-            CustomerAccount customerAccount = customerAccountOptional.get();
-            customerAccount.setTotalPaidAmount(customerAccount.getTotalPaidAmount() - customerPayment.getAmount());
-            customerAccount.setTotalBalanceAmount(customerAccount.getTotalBalanceAmount() + customerPayment.getAmount());
-
-            customerAccountRepo.save(customerAccount);
+            installmentDueService.allocatePayments(customerPayment.getCustomerAccountId());
+            receivableAgingService.refreshAccount(customerPayment.getCustomerAccountId());
 
             List<CustomerPaymentDetail> customerPaymentDetails = customerPaymentDetailRepo.findByCustomerPaymentId(request.getId());
             customerPaymentDetailRepo.deleteAll(customerPaymentDetails);
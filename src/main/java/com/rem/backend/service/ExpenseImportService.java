@@ -0,0 +1,554 @@
+package com.rem.backend.service;
+
+import com.rem.backend.accountmanagement.entity.OrganizationAccount;
+import com.rem.backend.accountmanagement.entity.OrganizationAccountDetail;
+import com.rem.backend.accountmanagement.enums.TransactionCategory;
+import com.rem.backend.dto.expense.ExpenseImportResult;
+import com.rem.backend.dto.expense.ExpenseImportRow;
+import com.rem.backend.entity.account.ChartOfAccount;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.entity.expense.ExpenseDetail;
+import com.rem.backend.entity.expense.ExpenseType;
+import com.rem.backend.entity.project.Project;
+import com.rem.backend.entity.vendor.VendorAccount;
+import com.rem.backend.entity.vendor.VendorPayment;
+import com.rem.backend.enums.PaymentType;
+import com.rem.backend.enums.TransactionType;
+import com.rem.backend.enums.VendorPaymentType;
+import com.rem.backend.repository.*;
+import com.rem.backend.utility.ResponseMapper;
+import com.rem.backend.utility.Responses;
+import com.rem.backend.utility.ValidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.rem.backend.utility.Utility.getPaymentStatus;
+
+/**
+ * Bulk expense import from csv or json.
+ * <p>
+ * The whole file is validated first: every vendor, project, expense type, organization account
+ * and expense chart of account is resolved with one findAllById per kind, and paid amounts are
+ * checked against a running balance per organization account. Valid rows are then written in
+ * chunks, each chunk in its own transaction: expenses, details, vendor payments and organization
+ * account details go out as jdbc batches, every touched aggregate gets one delta update per chunk
+ * and all journal entries of the chunk are posted through {@link JournalWriter#postAll}.
+ * A chunk that fails is rolled back and its rows are reported, earlier chunks stay committed.
+ */
+@Service
+@Slf4j
+public class ExpenseImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String MISCELLANEOUS_TITLE = "Miscellaneous Expense";
+
+    private final ExpenseRepo expenseRepo;
+    private final ExpenseDetailRepo expenseDetailRepo;
+    private final ExpenseTypeRepo expenseTypeRepo;
+    private final VendorAccountRepo vendorAccountRepo;
+    private final VendorAccountDetailRepo vendorAccountDetailRepo;
+    private final ProjectRepo projectRepo;
+    private final OrganizationAccoutRepo organizationAccountRepo;
+    private final OrganizationAccountDetailRepo organizationAccountDetailRepo;
+    private final ChartOfAccountRepository chartOfAccountRepository;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
+    private final JournalEntryService journalEntryService;
+    private final JournalWriter journalWriter;
+    private final ExpenseRollupService expenseRollupService;
+    private final TransactionTemplate transactionTemplate;
+
+    public ExpenseImportService(ExpenseRepo expenseRepo,
+                                ExpenseDetailRepo expenseDetailRepo,
+                                ExpenseTypeRepo expenseTypeRepo,
+                                VendorAccountRepo vendorAccountRepo,
+                                VendorAccountDetailRepo vendorAccountDetailRepo,
+                                ProjectRepo projectRepo,
+                                OrganizationAccoutRepo organizationAccountRepo,
+                                OrganizationAccountDetailRepo organizationAccountDetailRepo,
+                                ChartOfAccountRepository chartOfAccountRepository,
+                                AggregateTotalsRepository aggregateTotalsRepository,
+                                JournalEntryService journalEntryService,
+                                JournalWriter journalWriter,
+                                ExpenseRollupService expenseRollupService,
+                                PlatformTransactionManager transactionManager) {
+        this.expenseRepo = expenseRepo;
+        this.expenseDetailRepo = expenseDetailRepo;
+        this.expenseTypeRepo = expenseTypeRepo;
+        this.vendorAccountRepo = vendorAccountRepo;
+        this.vendorAccountDetailRepo = vendorAccountDetailRepo;
+        this.projectRepo = projectRepo;
+        this.organizationAccountRepo = organizationAccountRepo;
+        this.organizationAccountDetailRepo = organizationAccountDetailRepo;
+        this.chartOfAccountRepository = chartOfAccountRepository;
+        this.aggregateTotalsRepository = aggregateTotalsRepository;
+        this.journalEntryService = journalEntryService;
+        this.journalWriter = journalWriter;
+        this.expenseRollupService = expenseRollupService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record NumberedRow(int rowNumber, ExpenseImportRow row) {
+    }
+
+    // row that passed validation, with every reference already resolved
+    private record ResolvedRow(int rowNumber, ExpenseImportRow row, OrganizationAccount organizationAccount,
+                               VendorAccount vendorAccount, Project project, ExpenseType expenseType) {
+    }
+
+    // lookups of the whole file, one query per kind
+    private record References(Map<Long, OrganizationAccount> organizationAccounts, Map<Long, VendorAccount> vendorAccounts,
+                              Map<Long, Project> projects, Map<Long, ExpenseType> expenseTypes,
+                              Map<Long, ChartOfAccount> chartOfAccounts) {
+    }
+
+    public Map<String, Object> importExpenses(long organizationId, List<ExpenseImportRow> rows, String loggedInUser) {
+        try {
+            ValidationService.validate(loggedInUser, "logged in user");
+            ValidationService.validate(rows, "rows");
+            if (organizationId <= 0)
+                throw new IllegalArgumentException("Invalid organization id");
+
+            List<NumberedRow> numberedRows = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++)
+                numberedRows.add(new NumberedRow(i + 1, rows.get(i)));
+
+            return ResponseMapper.buildResponse(Responses.SUCCESS,
+                    runImport(organizationId, numberedRows, new ArrayList<>(), loggedInUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> importExpensesCsv(long organizationId, MultipartFile file, String loggedInUser) {
+        try {
+            ValidationService.validate(loggedInUser, "logged in user");
+            if (organizationId <= 0)
+                throw new IllegalArgumentException("Invalid organization id");
+            if (file == null || file.isEmpty())
+                throw new IllegalArgumentException("File must not be empty");
+
+            List<NumberedRow> numberedRows = new ArrayList<>();
+            List<ExpenseImportResult.RowError> errors = new ArrayList<>();
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                String headerLine = reader.readLine();
+                if (headerLine == null)
+                    throw new IllegalArgumentException("File must not be empty");
+
+                List<String> headers = splitCsvLine(headerLine.replace("\uFEFF", ""));
+                String line;
+                int lineNumber = 1;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank())
+                        continue;
+                    try {
+                        numberedRows.add(new NumberedRow(lineNumber, parseCsvRow(headers, splitCsvLine(line))));
+                    } catch (IllegalArgumentException e) {
+                        errors.add(new ExpenseImportResult.RowError(lineNumber, e.getMessage()));
+                    }
+                }
+            }
+
+            return ResponseMapper.buildResponse(Responses.SUCCESS,
+                    runImport(organizationId, numberedRows, errors, loggedInUser));
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    private ExpenseImportResult runImport(long organizationId, List<NumberedRow> rows,
+                                          List<ExpenseImportResult.RowError> errors, String loggedInUser) {
+        int totalRows = rows.size() + errors.size();
+
+        References references = loadReferences(organizationId, rows);
+        List<ResolvedRow> validRows = validate(organizationId, rows, references, errors);
+
+        long constructionInventoryAccountId = validRows.stream().anyMatch(r -> isConstruction(r.row()))
+                ? journalEntryService.getConstructionInventoryControlAccountId(organizationId)
+                : 0L;
+
+        // vendor credit balance after each row, recorded on its vendor payment like addExpense does
+        Map<Long, Double> vendorCredit = new HashMap<>();
+        references.vendorAccounts().values().forEach(v -> vendorCredit.put(v.getId(), v.getTotalCreditAmount()));
+
+        int imported = 0;
+        for (int from = 0; from < validRows.size(); from += CHUNK_SIZE) {
+            List<ResolvedRow> chunk = validRows.subList(from, Math.min(from + CHUNK_SIZE, validRows.size()));
+            Map<Long, Double> chunkCredit = new HashMap<>(vendorCredit);
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        writeChunk(organizationId, chunk, constructionInventoryAccountId, chunkCredit, loggedInUser));
+                vendorCredit.putAll(chunkCredit);
+                imported += chunk.size();
+            } catch (RuntimeException e) {
+                log.error("Expense import chunk of {} rows for organization {} failed: {}", chunk.size(), organizationId, e.getMessage(), e);
+                String message = e instanceof IllegalArgumentException ? e.getMessage() : "Chunk rolled back: " + e.getMessage();
+                chunk.forEach(r -> errors.add(new ExpenseImportResult.RowError(r.rowNumber(), message)));
+            }
+        }
+
+        errors.sort(Comparator.comparingInt(ExpenseImportResult.RowError::row));
+        log.info("Imported {} of {} expenses for organization {}", imported, totalRows, organizationId);
+        return new ExpenseImportResult(totalRows, imported, errors);
+    }
+
+    private References loadReferences(long organizationId, List<NumberedRow> rows) {
+        return new References(
+                findAllById(rows, ExpenseImportRow::getOrganizationAccountId, organizationAccountRepo::findAllById, OrganizationAccount::getId,
+                        a -> a.getOrganizationId() == organizationId),
+                findAllById(rows, ExpenseImportRow::getVendorAccountId, vendorAccountRepo::findAllById, VendorAccount::getId,
+                        v -> v.getOrganizationId() == organizationId),
+                findAllById(rows, ExpenseImportRow::getProjectId, projectRepo::findAllById, Project::getProjectId,
+                        p -> p.getOrganizationId() == organizationId),
+                findAllById(rows, ExpenseImportRow::getExpenseTypeId, expenseTypeRepo::findAllById, ExpenseType::getId,
+                        t -> t.getOrganizationId() == organizationId),
+                findAllById(rows, ExpenseImportRow::getExpenseCOAId, chartOfAccountRepository::findAllById, ChartOfAccount::getId,
+                        c -> c.getOrganization().getOrganizationId() == organizationId));
+    }
+
+    // entities of other organizations are dropped, so rows pointing at them fail validation
+    private static <T> Map<Long, T> findAllById(List<NumberedRow> rows, Function<ExpenseImportRow, Long> idOf,
+                                                Function<Set<Long>, List<T>> finder, Function<T, Long> entityId,
+                                                Predicate<T> ownedByOrganization) {
+        Set<Long> ids = rows.stream()
+                .map(r -> idOf.apply(r.row()))
+                .filter(id -> id != null && id > 0)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty())
+            return Map.of();
+
+        return finder.apply(ids).stream()
+                .filter(ownedByOrganization)
+                .collect(Collectors.toMap(entityId, Function.identity()));
+    }
+
+    private List<ResolvedRow> validate(long organizationId, List<NumberedRow> rows, References references,
+                                       List<ExpenseImportResult.RowError> errors) {
+        Map<Long, Double> balances = new HashMap<>();
+        references.organizationAccounts().values().forEach(a -> balances.put(a.getId(), a.getTotalAmount()));
+
+        List<ResolvedRow> validRows = new ArrayList<>(rows.size());
+        for (NumberedRow numberedRow : rows) {
+            try {
+                ResolvedRow resolved = resolve(numberedRow, references);
+
+                ExpenseImportRow row = numberedRow.row();
+                double remainingAmount = balances.get(row.getOrganizationAccountId()) - row.getAmountPaid();
+                if (remainingAmount < 0)
+                    throw new IllegalArgumentException("Not Enough Funds for this account");
+                balances.put(row.getOrganizationAccountId(), remainingAmount);
+
+                validRows.add(resolved);
+            } catch (IllegalArgumentException e) {
+                errors.add(new ExpenseImportResult.RowError(numberedRow.rowNumber(), e.getMessage()));
+            }
+        }
+        return validRows;
+    }
+
+    private ResolvedRow resolve(NumberedRow numberedRow, References references) {
+        ExpenseImportRow row = numberedRow.row();
+
+        ValidationService.validate(row.getExpenseType(), "expense type");
+        ValidationService.validate(row.getPaymentType(), "payment type");
+        ValidationService.validate(row.getOrganizationAccountId(), "organization account id");
+
+        if (row.getTotalAmount() <= 0)
+            throw new IllegalArgumentException("Total amount must be greater than 0");
+        if (row.getAmountPaid() < 0 || row.getCreditAmount() < 0)
+            throw new IllegalArgumentException("Amounts must not be negative");
+        if (Math.abs(row.getAmountPaid() + row.getCreditAmount() - row.getTotalAmount()) > 0.01)
+            throw new IllegalArgumentException("Amount paid and credit amount must add up to the total amount");
+
+        OrganizationAccount organizationAccount = references.organizationAccounts().get(row.getOrganizationAccountId());
+        if (organizationAccount == null)
+            throw new IllegalArgumentException("Invalid Account");
+
+        if (isConstruction(row)) {
+            ValidationService.validate(row.getProjectId(), "Project");
+            ValidationService.validate(row.getVendorAccountId(), "Vendor");
+            ValidationService.validate(row.getExpenseTypeId(), "Expense Type");
+
+            VendorAccount vendorAccount = references.vendorAccounts().get(row.getVendorAccountId());
+            if (vendorAccount == null)
+                throw new IllegalArgumentException("Invalid Vendor");
+
+            Project project = references.projects().get(row.getProjectId());
+            if (project == null)
+                throw new IllegalArgumentException("Invalid Project!");
+
+            ExpenseType expenseType = references.expenseTypes().get(row.getExpenseTypeId());
+            if (expenseType == null)
+                throw new IllegalArgumentException("Invalid Expense Type");
+
+            return new ResolvedRow(numberedRow.rowNumber(), row, organizationAccount, vendorAccount, project, expenseType);
+        }
+
+        if (row.getExpenseType() != com.rem.backend.enums.ExpenseType.MISCELLANEOUS)
+            throw new IllegalArgumentException("Only CONSTRUCTION and MISCELLANEOUS expenses can be imported");
+
+        ValidationService.validate(row.getExpenseCOAId(), "Expense Account");
+        if (!references.chartOfAccounts().containsKey(row.getExpenseCOAId()))
+            throw new IllegalArgumentException("Invalid Expense Account");
+
+        return new ResolvedRow(numberedRow.rowNumber(), row, organizationAccount, null, null, null);
+    }
+
+    private void writeChunk(long organizationId, List<ResolvedRow> chunk, long constructionInventoryAccountId,
+                            Map<Long, Double> vendorCredit, String loggedInUser) {
+        List<Expense> expenses = new ArrayList<>(chunk.size());
+        for (ResolvedRow resolved : chunk)
+            expenses.add(toExpense(organizationId, resolved, constructionInventoryAccountId, loggedInUser));
+
+        // pooled ids are assigned here, the inserts themselves are batched at flush
+        expenses = expenseRepo.saveAll(expenses);
+
+        List<ExpenseDetail> expenseDetails = new ArrayList<>(chunk.size());
+        List<OrganizationAccountDetail> organizationAccountDetails = new ArrayList<>(chunk.size());
+        List<VendorPayment> vendorPayments = new ArrayList<>();
+        List<JournalWriter.Posting> postings = new ArrayList<>(chunk.size());
+
+        Map<Long, double[]> vendorDeltas = new LinkedHashMap<>();
+        Map<Long, Double> projectDeltas = new LinkedHashMap<>();
+        Map<Long, Double> organizationAccountDeltas = new LinkedHashMap<>();
+        ExpenseRollupService.Deltas rollupDeltas = ExpenseRollupService.deltas();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            ResolvedRow resolved = chunk.get(i);
+            Expense expense = expenses.get(i);
+
+            expenseDetails.add(toExpenseDetail(expense, resolved.organizationAccount(), loggedInUser));
+            organizationAccountDetails.add(toOrganizationAccountDetail(expense, loggedInUser));
+            organizationAccountDeltas.merge(expense.getOrganizationAccountId(), expense.getAmountPaid(), Double::sum);
+            rollupDeltas.expense(expense, 1).payment(expense, expense.getCreatedDate(), expense.getAmountPaid());
+
+            if (isConstruction(resolved.row())) {
+                double[] vendorDelta = vendorDeltas.computeIfAbsent(expense.getVendorAccountId(), id -> new double[3]);
+                vendorDelta[0] += expense.getTotalAmount();
+                vendorDelta[1] += expense.getAmountPaid();
+                vendorDelta[2] += expense.getCreditAmount();
+                projectDeltas.merge(expense.getProjectId(), expense.getTotalAmount(), Double::sum);
+
+                double creditBalance = vendorCredit.merge(expense.getVendorAccountId(), expense.getCreditAmount(), Double::sum);
+                vendorPayments.add(toVendorPayment(expense, creditBalance, loggedInUser));
+            }
+
+            postings.add(journalEntryService.buildExpensePosting(expense, resolved.organizationAccount().getId(),
+                    resolved.organizationAccount().getName(), true, loggedInUser));
+        }
+
+        expenseDetailRepo.saveAll(expenseDetails);
+        organizationAccountDetailRepo.saveAll(organizationAccountDetails);
+        vendorAccountDetailRepo.saveAll(vendorPayments);
+
+        // one delta per aggregate for the whole chunk
+        vendorDeltas.forEach((vendorAccountId, delta) -> {
+            if (aggregateTotalsRepository.addToVendorAccount(vendorAccountId, delta[0], delta[1], delta[2], loggedInUser) == 0)
+                throw new IllegalArgumentException("Invalid Vendor");
+        });
+        projectDeltas.forEach((projectId, amount) -> {
+            if (aggregateTotalsRepository.addToProjectConstruction(projectId, amount, loggedInUser) == 0)
+                throw new IllegalArgumentException("Invalid Project!");
+        });
+        organizationAccountDeltas.forEach((organizationAccountId, amount) -> {
+            // guarded, balances may have moved since validation
+            if (amount > 0 && aggregateTotalsRepository.withdrawFromOrganizationAccount(organizationAccountId, amount, loggedInUser) == 0)
+                throw new IllegalArgumentException("Not Enough Funds for this account");
+        });
+
+        journalWriter.postAll(postings);
+        expenseRollupService.apply(rollupDeltas);
+    }
+
+    private Expense toExpense(long organizationId, ResolvedRow resolved, long constructionInventoryAccountId, String loggedInUser) {
+        ExpenseImportRow row = resolved.row();
+
+        Expense expense = new Expense();
+        expense.setExpenseType(row.getExpenseType());
+        expense.setOrganizationId(organizationId);
+        expense.setOrganizationAccountId(row.getOrganizationAccountId());
+        expense.setOrgAccountTitle(resolved.organizationAccount().getName());
+        expense.setUnitId(row.getUnitId());
+        expense.setTotalAmount(row.getTotalAmount());
+        expense.setAmountPaid(row.getAmountPaid());
+        expense.setCreditAmount(row.getCreditAmount());
+        expense.setPaymentType(row.getPaymentType());
+        expense.setPaymentDocNo(row.getPaymentDocNo());
+        expense.setPaymentDocDate(row.getPaymentDocDate() != null ? row.getPaymentDocDate().atStartOfDay() : null);
+        if (row.getComments() != null)
+            expense.setComments(row.getComments());
+        if (row.getExpenseDate() != null)
+            expense.setCreatedDate(row.getExpenseDate().atStartOfDay());
+
+        if (isConstruction(row)) {
+            expense.setVendorAccountId(row.getVendorAccountId());
+            expense.setVendorName(resolved.vendorAccount().getName());
+            expense.setProjectId(row.getProjectId());
+            expense.setProjectName(resolved.project().getName());
+            expense.setExpenseTypeId(row.getExpenseTypeId());
+            expense.setExpenseTitle(resolved.expenseType().getName());
+            expense.setExpenseCOAId(constructionInventoryAccountId);
+        } else {
+            expense.setVendorAccountId(0L);
+            expense.setProjectId(row.getProjectId() != null ? row.getProjectId() : 0L);
+            expense.setExpenseTypeId(row.getExpenseTypeId());
+            expense.setExpenseTitle(MISCELLANEOUS_TITLE);
+            expense.setExpenseCOAId(row.getExpenseCOAId());
+        }
+
+        expense.setCreatedBy(loggedInUser);
+        expense.setUpdatedBy(loggedInUser);
+        expense.setPaymentStatus(getPaymentStatus(expense));
+        return expense;
+    }
+
+    private ExpenseDetail toExpenseDetail(Expense expense, OrganizationAccount organizationAccount, String loggedInUser) {
+        ExpenseDetail expenseDetail = new ExpenseDetail();
+        expenseDetail.setExpenseId(expense.getId());
+        expenseDetail.setAmountPaid(expense.getAmountPaid());
+        expenseDetail.setOrganizationAccountId(expense.getOrganizationAccountId());
+        expenseDetail.setOrganizationAccountTitle(organizationAccount.getName());
+        expenseDetail.setExpenseTitle(expense.getExpenseTitle());
+        expenseDetail.setPaymentType(expense.getPaymentType());
+        // paid on the expense's date, so back dated imports land in the right month
+        expenseDetail.setCreatedDate(expense.getCreatedDate());
+
+        if (expense.getPaymentType().equals(PaymentType.CHEQUE) || expense.getPaymentType().equals(PaymentType.PAY_ORDER)) {
+            expenseDetail.setPaymentDocNo(expense.getPaymentDocNo());
+            expenseDetail.setPaymentDocDate(expense.getPaymentDocDate());
+        }
+
+        expenseDetail.setCreatedBy(loggedInUser);
+        expenseDetail.setUpdatedBy(loggedInUser);
+        return expenseDetail;
+    }
+
+    private OrganizationAccountDetail toOrganizationAccountDetail(Expense expense, String loggedInUser) {
+        OrganizationAccountDetail organizationAccountDetail = new OrganizationAccountDetail();
+        organizationAccountDetail.setExpenseId(expense.getId());
+        organizationAccountDetail.setComments(expense.getComments());
+        organizationAccountDetail.setAmount(expense.getAmountPaid());
+        organizationAccountDetail.setTransactionCategory(TransactionCategory.CUSTOMER_PAYMENT);
+        organizationAccountDetail.setTransactionType(TransactionType.CREDIT);
+        organizationAccountDetail.setOrganizationAcctId(expense.getOrganizationAccountId());
+        if (expense.getExpenseType() == com.rem.backend.enums.ExpenseType.CONSTRUCTION) {
+            organizationAccountDetail.setProjectId(expense.getProjectId());
+            organizationAccountDetail.setProjectName(expense.getProjectName());
+        }
+        organizationAccountDetail.setCreatedBy(loggedInUser);
+        organizationAccountDetail.setUpdatedBy(loggedInUser);
+        return organizationAccountDetail;
+    }
+
+    private VendorPayment toVendorPayment(Expense expense, double creditBalance, String loggedInUser) {
+        VendorPayment vendorPayment = new VendorPayment();
+        vendorPayment.setAmountPaid(expense.getAmountPaid());
+        vendorPayment.setOrganizationAccountId(expense.getOrganizationAccountId());
+        vendorPayment.setOrganizationId(expense.getOrganizationId());
+        vendorPayment.setCreditAmount(expense.getCreditAmount());
+        vendorPayment.setBalanceAmount(creditBalance);
+        vendorPayment.setProjectId(expense.getProjectId());
+        vendorPayment.setVendorPaymentType(VendorPaymentType.DIRECT_PURCHASE);
+        if (expense.getCreditAmount() == 0) {
+            vendorPayment.setTransactionType(TransactionType.DEBIT);
+        } else if (expense.getAmountPaid() == 0) {
+            vendorPayment.setTransactionType(TransactionType.CREDIT);
+        } else {
+            vendorPayment.setTransactionType(TransactionType.DEBIT_CREDIT);
+        }
+        vendorPayment.setVendorAccountId(expense.getVendorAccountId());
+        vendorPayment.setExpenseId(expense.getId());
+        vendorPayment.setCreatedBy(loggedInUser);
+        vendorPayment.setUpdatedBy(loggedInUser);
+        return vendorPayment;
+    }
+
+    private static boolean isConstruction(ExpenseImportRow row) {
+        return row.getExpenseType() == com.rem.backend.enums.ExpenseType.CONSTRUCTION;
+    }
+
+    private static ExpenseImportRow parseCsvRow(List<String> headers, List<String> values) {
+        ExpenseImportRow row = new ExpenseImportRow();
+        for (int i = 0; i < headers.size() && i < values.size(); i++) {
+            String header = headers.get(i).trim();
+            String value = values.get(i).trim();
+            if (value.isEmpty())
+                continue;
+
+            try {
+                switch (header.toLowerCase(Locale.ROOT)) {
+                    case "expensetype" -> row.setExpenseType(com.rem.backend.enums.ExpenseType.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "expensetypeid" -> row.setExpenseTypeId(Long.parseLong(value));
+                    case "vendoraccountid" -> row.setVendorAccountId(Long.parseLong(value));
+                    case "projectid" -> row.setProjectId(Long.parseLong(value));
+                    case "unitid" -> row.setUnitId(Long.parseLong(value));
+                    case "organizationaccountid" -> row.setOrganizationAccountId(Long.parseLong(value));
+                    case "expensecoaid" -> row.setExpenseCOAId(Long.parseLong(value));
+                    case "totalamount" -> row.setTotalAmount(Double.parseDouble(value));
+                    case "amountpaid" -> row.setAmountPaid(Double.parseDouble(value));
+                    case "creditamount" -> row.setCreditAmount(Double.parseDouble(value));
+                    case "paymenttype" -> row.setPaymentType(PaymentType.valueOf(value.toUpperCase(Locale.ROOT)));
+                    case "paymentdocno" -> row.setPaymentDocNo(value);
+                    case "paymentdocdate" -> row.setPaymentDocDate(LocalDate.parse(value));
+                    case "expensedate" -> row.setExpenseDate(LocalDate.parse(value));
+                    case "comments" -> row.setComments(value);
+                    default -> {
+                        // unknown columns are ignored
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid value '" + value + "' for " + header);
+            }
+        }
+        return row;
+    }
+
+    // comma separated, double quotes around fields containing commas, "" for a literal quote
+    private static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
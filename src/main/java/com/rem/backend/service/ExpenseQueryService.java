@@ -0,0 +1,123 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.expense.ExpenseListItem;
+import com.rem.backend.dto.expense.ExpenseSearchCriteria;
+import com.rem.backend.entity.account.AccountGroup;
+import com.rem.backend.entity.account.ChartOfAccount;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.repository.ExpenseRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Order;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.criteria.JpaEntityJoin;
+import org.hibernate.query.criteria.JpaRoot;
+import org.hibernate.query.sqm.tree.SqmJoinType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static com.rem.backend.repository.ExpenseSpecifications.after;
+import static com.rem.backend.repository.ExpenseSpecifications.keysetSort;
+import static com.rem.backend.repository.ExpenseSpecifications.matching;
+
+/**
+ * Single entry point for filtered expense listings. Any combination of
+ * {@link ExpenseSearchCriteria} filters becomes one query that also joins the
+ * expense COA and its group for the account name; callers pick an offset page
+ * with a total count or a keyset slice that skips the count and stays
+ * constant-cost however deep the client scrolls.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseQueryService {
+
+    private static final String CONSTRUCTION_ACCOUNT_NAME = "Construction Inventory";
+
+    private final ExpenseRepo expenseRepo;
+    private final EntityManager entityManager;
+
+    // labelConstruction names construction expenses without a COA after the inventory control account
+    public Page<ExpenseListItem> findPage(ExpenseSearchCriteria criteria, Pageable pageable, boolean labelConstruction) {
+        Specification<Expense> specification = matching(criteria);
+
+        List<ExpenseListItem> content = findListing(specification, pageable.getSort(),
+                pageable.isPaged() ? (int) pageable.getOffset() : 0,
+                pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE,
+                labelConstruction);
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> expenseRepo.count(specification));
+    }
+
+    // ordered by (createdDate, id), one extra row is read to know whether another slice follows
+    public Slice<ExpenseListItem> findSlice(ExpenseSearchCriteria criteria, int size, Sort.Direction direction,
+                                           boolean labelConstruction) {
+        if (criteria.isPartialKeyset())
+            throw new IllegalArgumentException("afterCreatedDate and afterId must be given together");
+
+        Specification<Expense> specification = matching(criteria);
+        if (criteria.isKeyset())
+            specification = specification.and(after(criteria.getAfterCreatedDate(), criteria.getAfterId(), direction));
+
+        List<ExpenseListItem> rows = findListing(specification, keysetSort(direction), 0, size + 1, labelConstruction);
+
+        boolean hasNext = rows.size() > size;
+        List<ExpenseListItem> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, Pageable.ofSize(size), hasNext);
+    }
+
+    private List<ExpenseListItem> findListing(Specification<Expense> specification, Sort sort,
+                                              int offset, int limit, boolean labelConstruction) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ExpenseListItem> query = cb.createQuery(ExpenseListItem.class);
+
+        JpaRoot<Expense> root = (JpaRoot<Expense>) query.from(Expense.class);
+        JpaEntityJoin<ChartOfAccount> coa = root.join(ChartOfAccount.class, SqmJoinType.LEFT);
+        coa.on(cb.equal(coa.get("id"), root.get("expenseCOAId")));
+        Join<ChartOfAccount, AccountGroup> group = coa.join("accountGroup", JoinType.LEFT);
+
+        CriteriaBuilder.Case<String> accountName = cb.<String>selectCase()
+                .when(cb.isNotNull(coa.get("id")), cb.concat(cb.concat(group.get("name"), " - "), coa.get("name")));
+        if (labelConstruction) {
+            accountName = accountName.when(cb.and(
+                    cb.equal(root.get("expenseType"), ExpenseType.CONSTRUCTION),
+                    cb.equal(root.get("expenseCOAId"), 0L)), cb.literal(CONSTRUCTION_ACCOUNT_NAME));
+        }
+        Expression<String> expenseAccountName = accountName.otherwise(cb.nullLiteral(String.class));
+
+        query.select(cb.construct(ExpenseListItem.class,
+                root.get("id"), root.get("amountPaid"), root.get("creditAmount"), root.get("totalAmount"),
+                root.get("vendorAccountId"), root.get("organizationAccountId"), root.get("expenseTypeId"),
+                root.get("organizationId"), root.get("projectId"), root.get("unitId"),
+                root.get("projectName"), root.get("orgAccountTitle"), root.get("vendorName"),
+                root.get("expenseTitle"), root.get("expenseCOAId"), root.get("comments"),
+                root.get("expenseType"), root.get("paymentStatus"), root.get("createdBy"), root.get("updatedBy"),
+                root.get("createdDate"), root.get("updatedDate"), expenseAccountName));
+
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(sort.stream()
+                .map(order -> order.isAscending()
+                        ? cb.asc(root.get(order.getProperty()))
+                        : cb.desc(root.get(order.getProperty())))
+                .map(Order.class::cast)
+                .toList());
+
+        TypedQuery<ExpenseListItem> typedQuery = entityManager.createQuery(query)
+                .setFirstResult(offset)
+                .setMaxResults(limit);
+        return typedQuery.getResultList();
+    }
+}
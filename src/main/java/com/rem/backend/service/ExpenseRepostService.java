@@ -0,0 +1,194 @@
+package com.rem.backend.service;
+
+import com.rem.backend.accountmanagement.entity.OrganizationAccountDetail;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.entity.vendor.VendorPayment;
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.enums.TransactionType;
+import com.rem.backend.enums.VendorPaymentType;
+import com.rem.backend.repository.AggregateTotalsRepository;
+import com.rem.backend.repository.OrganizationAccountDetailRepo;
+import com.rem.backend.repository.VendorAccountDetailRepo;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Applies an expense edit as the net difference between the stored and the edited expense,
+ * instead of reversing every effect of the old expense and re-adding the new one.
+ * <p>
+ * Every touched vendor, project and organization account gets at most one delta update,
+ * rows whose delta nets to zero are not written at all. The organization account detail and
+ * vendor payment rows of the expense are rewritten in place and the ledger gets one
+ * adjusting journal entry holding only the accounts that moved.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExpenseRepostService {
+
+    private static final double EPSILON = 0.005;
+
+    private final AggregateTotalsRepository aggregateTotalsRepository;
+    private final OrganizationAccountDetailRepo organizationAccountDetailRepo;
+    private final VendorAccountDetailRepo vendorAccountDetailRepo;
+    private final JournalEntryService journalEntryService;
+
+    record VendorDelta(double totalAmount, double amountPaid, double creditAmount) {
+
+        VendorDelta plus(VendorDelta other) {
+            return new VendorDelta(totalAmount + other.totalAmount,
+                    amountPaid + other.amountPaid,
+                    creditAmount + other.creditAmount);
+        }
+
+        boolean isZero() {
+            return Math.abs(totalAmount) < EPSILON && Math.abs(amountPaid) < EPSILON && Math.abs(creditAmount) < EPSILON;
+        }
+    }
+
+    /**
+     * Net change per row: vendor totals, project construction amount and organization account balance
+     */
+    record Deltas(Map<Long, VendorDelta> vendorAccounts, Map<Long, Double> projects, Map<Long, Double> organizationAccounts) {
+    }
+
+    /**
+     * Effect of the edited expense minus the effect of the stored one, rows that net to zero are dropped
+     */
+    static Deltas between(Expense oldExpense, Expense newExpense) {
+        Deltas deltas = new Deltas(new LinkedHashMap<>(), new LinkedHashMap<>(), new LinkedHashMap<>());
+        addEffect(deltas, oldExpense, -1);
+        addEffect(deltas, newExpense, 1);
+
+        deltas.vendorAccounts().values().removeIf(VendorDelta::isZero);
+        deltas.projects().values().removeIf(amount -> Math.abs(amount) < EPSILON);
+        deltas.organizationAccounts().values().removeIf(amount -> Math.abs(amount) < EPSILON);
+        return deltas;
+    }
+
+    // what addExpense does to the aggregates, scaled by sign
+    private static void addEffect(Deltas deltas, Expense expense, int sign) {
+        deltas.organizationAccounts().merge(expense.getOrganizationAccountId(), -sign * expense.getAmountPaid(), Double::sum);
+
+        if (!ExpenseType.CONSTRUCTION.equals(expense.getExpenseType()))
+            return;
+
+        deltas.vendorAccounts().merge(expense.getVendorAccountId(),
+                new VendorDelta(sign * expense.getTotalAmount(), sign * expense.getAmountPaid(), sign * expense.getCreditAmount()),
+                VendorDelta::plus);
+
+        if (expense.getProjectId() != null && expense.getProjectId() > 0)
+            deltas.projects().merge(expense.getProjectId(), sign * expense.getTotalAmount(), Double::sum);
+    }
+
+    /**
+     * Moves the aggregates, detail rows and ledger from the stored expense to the edited one.
+     * The edited expense must already carry its resolved names and titles, the expense row
+     * itself is saved by the caller afterwards because saving merges into the stored instance.
+     */
+    @Transactional
+    public void apply(Expense oldExpense, Expense newExpense, String loggedInUser) {
+        Deltas deltas = between(oldExpense, newExpense);
+
+        for (Map.Entry<Long, VendorDelta> vendor : deltas.vendorAccounts().entrySet()) {
+            VendorDelta delta = vendor.getValue();
+            int updated = aggregateTotalsRepository.addToVendorAccount(vendor.getKey(),
+                    delta.totalAmount(), delta.amountPaid(), delta.creditAmount(), loggedInUser);
+            if (updated == 0)
+                throw new IllegalArgumentException("Invalid Vendor Account!");
+        }
+
+        for (Map.Entry<Long, Double> project : deltas.projects().entrySet()) {
+            if (aggregateTotalsRepository.addToProjectConstruction(project.getKey(), project.getValue(), loggedInUser) == 0)
+                throw new IllegalArgumentException("Invalid Project!");
+        }
+
+        // refunds first, a withdrawal is only rejected when the balance really cannot cover it
+        deltas.organizationAccounts().entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .forEach(account -> adjustOrganizationAccount(account.getKey(), account.getValue(), loggedInUser));
+
+        updateOrganizationAccountDetail(newExpense, loggedInUser);
+        updateVendorPayment(oldExpense, newExpense, loggedInUser);
+
+        journalEntryService.createAdjustmentJournalEntryForExpense(oldExpense, oldExpense.getOrgAccountTitle(),
+                newExpense, newExpense.getOrgAccountTitle(), loggedInUser);
+    }
+
+    private void adjustOrganizationAccount(long organizationAccountId, double amount, String loggedInUser) {
+        int updated = amount >= 0
+                ? aggregateTotalsRepository.addToOrganizationAccount(organizationAccountId, amount, loggedInUser)
+                : aggregateTotalsRepository.withdrawFromOrganizationAccount(organizationAccountId, -amount, loggedInUser);
+
+        if (updated == 0)
+            throw new IllegalArgumentException(amount >= 0 ? "Invalid Organization Account!" : "Not Enough Funds for this account");
+    }
+
+    private void updateOrganizationAccountDetail(Expense newExpense, String loggedInUser) {
+        Optional<OrganizationAccountDetail> organizationAccountDetailOptional = organizationAccountDetailRepo.findByExpenseId(newExpense.getId());
+        if (organizationAccountDetailOptional.isEmpty())
+            throw new IllegalArgumentException("Invalid Organization Account Detail!");
+
+        OrganizationAccountDetail organizationAccountDetail = organizationAccountDetailOptional.get();
+        organizationAccountDetail.setOrganizationAcctId(newExpense.getOrganizationAccountId());
+        organizationAccountDetail.setAccountName(newExpense.getOrgAccountTitle());
+        organizationAccountDetail.setAmount(newExpense.getAmountPaid());
+        organizationAccountDetail.setComments(newExpense.getComments());
+        organizationAccountDetail.setProjectId(newExpense.getProjectId() != null ? newExpense.getProjectId() : 0L);
+        organizationAccountDetail.setProjectName(newExpense.getProjectName());
+        organizationAccountDetail.setUpdatedBy(loggedInUser);
+        organizationAccountDetailRepo.save(organizationAccountDetail);
+    }
+
+    private void updateVendorPayment(Expense oldExpense, Expense newExpense, String loggedInUser) {
+        boolean wasConstruction = ExpenseType.CONSTRUCTION.equals(oldExpense.getExpenseType());
+        boolean isConstruction = ExpenseType.CONSTRUCTION.equals(newExpense.getExpenseType());
+
+        VendorPayment vendorPayment = null;
+        if (wasConstruction) {
+            Optional<VendorPayment> vendorPaymentOptional = vendorAccountDetailRepo.findByExpenseId(oldExpense.getId());
+            if (vendorPaymentOptional.isEmpty())
+                throw new IllegalArgumentException("Invalid Vendor Account Detail!");
+            vendorPayment = vendorPaymentOptional.get();
+        }
+
+        if (!isConstruction) {
+            if (vendorPayment != null)
+                vendorAccountDetailRepo.delete(vendorPayment);
+            return;
+        }
+
+        if (vendorPayment == null) {
+            vendorPayment = new VendorPayment();
+            vendorPayment.setExpenseId(newExpense.getId());
+            vendorPayment.setVendorPaymentType(VendorPaymentType.DIRECT_PURCHASE);
+            vendorPayment.setCreatedBy(loggedInUser);
+        }
+
+        vendorPayment.setVendorAccountId(newExpense.getVendorAccountId());
+        vendorPayment.setOrganizationAccountId(newExpense.getOrganizationAccountId());
+        vendorPayment.setProjectId(newExpense.getProjectId());
+        vendorPayment.setAmountPaid(newExpense.getAmountPaid());
+        vendorPayment.setCreditAmount(newExpense.getCreditAmount());
+        if (newExpense.getCreditAmount() == 0) {
+            vendorPayment.setTransactionType(TransactionType.DEBIT);
+        } else if (newExpense.getAmountPaid() == 0) {
+            vendorPayment.setTransactionType(TransactionType.CREDIT);
+        } else {
+            vendorPayment.setTransactionType(TransactionType.DEBIT_CREDIT);
+        }
+        if (!Objects.equals(oldExpense.getVendorAccountId(), newExpense.getVendorAccountId())) {
+            Double creditBalance = aggregateTotalsRepository.findVendorCreditAmount(newExpense.getVendorAccountId());
+            if (creditBalance == null)
+                throw new IllegalArgumentException("Invalid Vendor Account!");
+            vendorPayment.setBalanceAmount(creditBalance);
+        }
+        vendorPayment.setUpdatedBy(loggedInUser);
+        vendorAccountDetailRepo.save(vendorPayment);
+    }
+}
@@ -0,0 +1,119 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.expense.ExpenseMonthlyAmountProjection;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.repository.ExpenseMonthlyRollupRepository;
+import com.rem.backend.utility.ResponseMapper;
+import com.rem.backend.utility.Responses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per organization, project, vendor and month expense totals (expense_monthly_rollup).
+ * Expense writes collect their changes in {@link Deltas} and apply them in their own
+ * transaction, project charts read the rollup so their cost depends on months and
+ * vendors, not on the number of expenses.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseRollupService {
+
+    private final ExpenseMonthlyRollupRepository expenseMonthlyRollupRepository;
+
+    private record RollupKey(long organizationId, long projectId, long vendorAccountId, int year, int month) {
+    }
+
+    /**
+     * Rollup changes of one write, merged per row so each row gets a single upsert.
+     */
+    public static class Deltas {
+
+        private final Map<RollupKey, double[]> amounts = new LinkedHashMap<>();
+
+        // purchased and outstanding credit of an expense, sign -1 takes them out again
+        public Deltas expense(Expense expense, int sign) {
+            if (isRolledUp(expense))
+                add(key(expense, expense.getCreatedDate()), sign * expense.getTotalAmount(), 0, sign * expense.getCreditAmount());
+            return this;
+        }
+
+        // an expense detail paid on paidDate, negative amounts remove it
+        public Deltas payment(Expense expense, LocalDateTime paidDate, double amount) {
+            if (isRolledUp(expense))
+                add(key(expense, paidDate), 0, amount, 0);
+            return this;
+        }
+
+        // credit paid back later reduces the outstanding credit of the expense's month
+        public Deltas creditSettled(Expense expense, double amount) {
+            if (isRolledUp(expense))
+                add(key(expense, expense.getCreatedDate()), 0, 0, -amount);
+            return this;
+        }
+
+        private void add(RollupKey key, double purchased, double paid, double credit) {
+            double[] delta = amounts.computeIfAbsent(key, k -> new double[3]);
+            delta[0] += purchased;
+            delta[1] += paid;
+            delta[2] += credit;
+        }
+
+        private static boolean isRolledUp(Expense expense) {
+            return expense.getExpenseType() != ExpenseType.HISTORICAL;
+        }
+
+        private static RollupKey key(Expense expense, LocalDateTime date) {
+            YearMonth yearMonth = YearMonth.from(date != null ? date : LocalDateTime.now());
+            return new RollupKey(expense.getOrganizationId(),
+                    expense.getProjectId() != null ? expense.getProjectId() : 0L,
+                    expense.getVendorAccountId() != null ? expense.getVendorAccountId() : 0L,
+                    yearMonth.getYear(), yearMonth.getMonthValue());
+        }
+    }
+
+    public static Deltas deltas() {
+        return new Deltas();
+    }
+
+    /**
+     * One atomic upsert per touched row, rows whose change nets to zero are skipped.
+     */
+    @Transactional
+    public void apply(Deltas deltas) {
+        deltas.amounts.forEach((key, delta) -> {
+            if (Math.abs(delta[0]) < 0.005 && Math.abs(delta[1]) < 0.005 && Math.abs(delta[2]) < 0.005)
+                return;
+            expenseMonthlyRollupRepository.applyDelta(key.organizationId(), key.projectId(), key.vendorAccountId(),
+                    key.year(), key.month(), delta[0], delta[1], delta[2]);
+        });
+    }
+
+    public List<ExpenseMonthlyAmountProjection> findMonthlyByProject(long projectId) {
+        return expenseMonthlyRollupRepository.findMonthlyByProject(projectId);
+    }
+
+    @Transactional
+    public Map<String, Object> rebuild(long organizationId) {
+        try {
+            expenseMonthlyRollupRepository.deleteAllByOrganization(organizationId);
+            int rows = expenseMonthlyRollupRepository.rebuildFromExpenses(organizationId);
+            log.info("Rebuilt {} expense rollup rows for organization {}", rows, organizationId);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, rows);
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+}
@@ -4,7 +4,8 @@ import com.rem.backend.accountmanagement.enums.TransactionCategory;
 import com.rem.backend.accountmanagement.service.OrganizationAccountService;
 import com.rem.backend.dto.commonRequest.FilterPaginationRequest;
 import com.rem.backend.dto.expense.ExpenseFetchRequestDTO;
-import com.rem.backend.entity.account.ChartOfAccount;
+import com.rem.backend.dto.expense.ExpenseListItem;
+import com.rem.backend.dto.expense.ExpenseSearchCriteria;
 import com.rem.backend.entity.expense.ExpenseDetail;
 import com.rem.backend.entity.expense.ExpenseType;
 import com.rem.backend.entity.expense.Expense;
@@ -13,7 +14,6 @@ import com.rem.backend.accountmanagement.entity.OrganizationAccountDetail;
 import com.rem.backend.entity.project.Project;
 import com.rem.backend.entity.vendor.VendorAccount;
 import com.rem.backend.entity.vendor.VendorPayment;
-import com.rem.backend.enums.PaymentStatus;
 import com.rem.backend.enums.PaymentType;
 import com.rem.backend.enums.TransactionType;
 import com.rem.backend.enums.VendorPaymentType;
@@ -26,13 +26,13 @@ import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static com.rem.backend.utility.Utility.getPaymentStatus;
 
@@ -53,276 +53,102 @@ public class ExpenseService {
     private final OrganizationAccoutRepo organizationAccountRepo;
     private final JournalEntryService journalEntryService;
     private final AccountGroupRepository accountGroupRepository;
-    private final ChartOfAccountRepository coaRepo;
+    private final ExpenseQueryService expenseQueryService;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
+    private final ExpenseRepostService expenseRepostService;
+    private final ExpenseRollupService expenseRollupService;
 
     public Map<String, Object> getExpenseList(ExpenseFetchRequestDTO requestDTO, Pageable pageable) {
 
         try {
 
-            Page<Expense> expenses = null;
-
             // ===========================
             // 1️⃣ Validations
             // ===========================
             ValidationService.validate(requestDTO.getId(), "Invalid " + requestDTO.getFilteredBy());
             ValidationService.validate(requestDTO.getExpenseType(), "Invalid Expense Type");
 
-
-            LocalDateTime startDate;
-            LocalDateTime endDate;
-
-            if (requestDTO.getStartDate() == null || requestDTO.getEndDate() == null) {
-                // Default to 10 years
-                startDate = Utility.getStartOfDay(requestDTO.getStartDate());
-                endDate = Utility.getEndOfDay(requestDTO.getEndDate());
-            } else {
-                startDate = Utility.getStartOfDay(requestDTO.getStartDate());
-                endDate = Utility.getEndOfDay(requestDTO.getEndDate());
-            }
+            ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
+            // Default to 10 years when no start date
+            criteria.setStartDate(Utility.getStartOfDay(requestDTO.getStartDate()));
+            criteria.setEndDate(Utility.getEndOfDay(requestDTO.getEndDate()));
 
             // ===========================
-            // 2️⃣ CONSTRUCTION Expenses
+            // 2️⃣ Filters
             // ===========================
-            if (requestDTO.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
-
-                ValidationService.validate(requestDTO.getPaymentStatus(), "Payment Status");
-
-                switch (requestDTO.getFilteredBy()) {
-
-                    case "vendor":
-                        if (requestDTO.getPaymentStatus().equals(PaymentStatus.ALL)) {
-                            expenses = expenseRepo.
-                                    findAllByVendorAccountIdAndExpenseTypeAndCreatedDateBetween(
-                                            requestDTO.getId(),
-                                            com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                            startDate,
-                                            endDate,
-                                            pageable
-                                    );
-                        } else {
-                            expenses = expenseRepo
-                                    .findAllByVendorAccountIdAndPaymentStatusAndExpenseTypeAndCreatedDateBetween(
-                                            requestDTO.getId(),
-                                            requestDTO.getPaymentStatus(),
-                                            com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                            startDate,
-                                            endDate,
-                                            pageable
-                                    );
-                        }
-                        break;
-
-                    case "project":
-                        if (requestDTO.getPaymentStatus().equals(PaymentStatus.ALL)) {
-                            expenses = expenseRepo
-                                    .findAllByProjectIdAndExpenseTypeAndCreatedDateBetween(
-                                            requestDTO.getId(),
-                                            com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                            startDate,
-                                            endDate,
-                                            pageable
-                                    );
-                        } else {
-                            expenses = expenseRepo
-                                    .findAllByProjectIdAndPaymentStatusAndExpenseTypeAndCreatedDateBetween(
-                                            requestDTO.getId(),
-                                            requestDTO.getPaymentStatus(),
-                                            com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                            startDate,
-                                            endDate,
-                                            pageable
-                                    );
-                        }
-
-                        break;
-
-                    case "project_vendor":
-
-
-                        if (requestDTO.getPaymentStatus().equals(PaymentStatus.ALL)) {
-                            expenses = expenseRepo.findAllByProjectIdAndVendorAccountIdAndExpenseTypeAndCreatedDateBetween(
-                                    requestDTO.getId(),
-                                    requestDTO.getId2(),
-                                    com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                    startDate,
-                                    endDate,
-                                    pageable
-                            );
-                        } else {
-                            expenses = expenseRepo
-                                    .findAllByProjectIdAndPaymentStatusAndVendorAccountIdAndExpenseTypeAndCreatedDateBetween(
-                                            requestDTO.getId(),
-                                            requestDTO.getPaymentStatus(),
-                                            requestDTO.getId2(),
-                                            com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                            startDate,
-                                            endDate,
-                                            pageable
-                                    );
-                        }
-                        break;
-
-                    default:
-
-                        if (requestDTO.getPaymentStatus().equals(PaymentStatus.ALL)) {
-                            expenses = expenseRepo.findAllByOrganizationIdAndExpenseTypeAndCreatedDateBetween(
-                                    requestDTO.getId(),
-                                    com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                    startDate,
-                                    endDate,
-                                    pageable
-                            );
-                        } else {
-                            expenses = expenseRepo
-                                    .findAllByOrganizationIdAndPaymentStatusAndExpenseTypeAndCreatedDateBetween(
-                                            requestDTO.getId(),
-                                            requestDTO.getPaymentStatus(),
-                                            com.rem.backend.enums.ExpenseType.CONSTRUCTION,
-                                            startDate,
-                                            endDate,
-                                            pageable
-                                    );
-
-                        }
-                }
-
+            switch (requestDTO.getExpenseType()) {
 
+                case CONSTRUCTION -> {
+                    ValidationService.validate(requestDTO.getPaymentStatus(), "Payment Status");
 
-                Set<Long> expenseCoaIds = expenses.getContent().stream()
-                        .map(Expense::getExpenseCOAId)
-                        .filter(id -> id != null && id != 0)
-                        .collect(Collectors.toSet());
+                    criteria.setExpenseType(com.rem.backend.enums.ExpenseType.CONSTRUCTION);
+                    criteria.setPaymentStatus(requestDTO.getPaymentStatus());
 
-                Map<Long, ChartOfAccount> coaMap = coaRepo.findAllById(expenseCoaIds)
-                        .stream()
-                        .collect(Collectors.toMap(ChartOfAccount::getId, Function.identity()));
-
-                expenses = expenses.map(expense -> {
-
-                    ChartOfAccount coa = coaMap.get(expense.getExpenseCOAId());
-                    if (coa != null) {
-                        expense.setExpenseAccountName(
-                                coa.getAccountGroup().getName() + " - " + coa.getName()
-                        );
+                    switch (requestDTO.getFilteredBy() == null ? "" : requestDTO.getFilteredBy()) {
+                        case "vendor" -> criteria.setVendorAccountId(requestDTO.getId());
+                        case "project" -> criteria.setProjectId(requestDTO.getId());
+                        case "project_vendor" -> {
+                            criteria.setProjectId(requestDTO.getId());
+                            criteria.setVendorAccountId(requestDTO.getId2());
+                        }
+                        default -> criteria.setOrganizationId(requestDTO.getId());
                     }
-
-                    return expense;
-                });
-
-//                expenses = expenses.map(expense -> {
-//                    expense.setExpenseAccountName("Construction Inventory");
-//                    return expense;
-//                });
-            } else if (requestDTO.getExpenseType().equals(com.rem.backend.enums.ExpenseType.MISCELLANEOUS)) {
-
-                // Case 1: Account Group + COA selected
-                if (requestDTO.getAccountGroupId() != null && requestDTO.getCoaId() != null) {
-
-                    expenses = expenseRepo
-                            .findByExpenseCOAIdAndOrganizationIdAndCreatedDateBetween(
-                                    requestDTO.getCoaId(),
-                                    requestDTO.getId(),
-                                    startDate,
-                                    endDate,
-                                    pageable
-                            );
                 }
 
-                // Case 2: Account Group selected but COA not selected
-                else if (requestDTO.getAccountGroupId() != null) {
-
-                    List<ChartOfAccount> chartOfAccounts =
-                            coaRepo.findAllByOrganization_OrganizationIdAndAccountGroup_Id(
-                                    requestDTO.getId(),
-                                    requestDTO.getAccountGroupId()
-                            );
-
-                    List<Long> coaIds = chartOfAccounts.stream()
-                            .map(ChartOfAccount::getId)
-                            .toList();
-
-                    expenses = expenseRepo
-                            .findByOrganizationIdAndExpenseCOAIdInAndCreatedDateBetween(
-                                    requestDTO.getId(),
-                                    coaIds,
-                                    startDate,
-                                    endDate,
-                                    pageable
-                            );
-                }
-
-                // Case 3: No Account Group selected (All Misc Expenses)
-                else {
-
-                    expenses = expenseRepo
-                            .findByOrgAndCoaOrTitleWithinDate(
-                                    requestDTO.getId(),
-                                    startDate,
-                                    endDate,
-                                    "Miscellaneous Expense",
-                                    com.rem.backend.enums.ExpenseType.MISCELLANEOUS,
-                                    pageable
-                            );
-                }
+                case MISCELLANEOUS -> {
+                    criteria.setOrganizationId(requestDTO.getId());
 
-                Set<Long> expenseCoaIds = expenses.getContent().stream()
-                        .map(Expense::getExpenseCOAId)
-                        .filter(id -> id != null && id != 0)
-                        .collect(Collectors.toSet());
-
-                Map<Long, ChartOfAccount> coaMap = coaRepo.findAllById(expenseCoaIds)
-                        .stream()
-                        .collect(Collectors.toMap(ChartOfAccount::getId, Function.identity()));
-
-                expenses = expenses.map(expense -> {
-
-                    ChartOfAccount coa = coaMap.get(expense.getExpenseCOAId());
-                    if (coa != null) {
-                        expense.setExpenseAccountName(
-                                coa.getAccountGroup().getName() + " - " + coa.getName()
-                        );
+                    // Account Group + COA selected
+                    if (requestDTO.getAccountGroupId() != null && requestDTO.getCoaId() != null) {
+                        criteria.setExpenseCoaId(requestDTO.getCoaId());
                     }
+                    // Account Group selected but COA not selected
+                    else if (requestDTO.getAccountGroupId() != null) {
+                        criteria.setAccountGroupId(requestDTO.getAccountGroupId());
+                    }
+                    // No Account Group selected (All Misc Expenses)
+                    else {
+                        criteria.setExpenseType(com.rem.backend.enums.ExpenseType.MISCELLANEOUS);
+                        criteria.setCoaOrExpenseTitle("Miscellaneous Expense");
+                    }
+                }
 
-                    return expense;
-                });
-
-            } else if (requestDTO.getExpenseType().equals(com.rem.backend.enums.ExpenseType.ALL)) {
-
-                expenses = expenseRepo
-                        .findAllByOrganizationIdAndCreatedDateBetween(
-                                requestDTO.getId(),
-                                startDate,
-                                endDate,
-                                pageable
-                        );
-
-                Set<Long> expenseCoaIds = expenses.getContent().stream()
-                        .map(Expense::getExpenseCOAId)
-                        .filter(id -> id != null && id != 0)
-                        .collect(Collectors.toSet());
-
-                Map<Long, ChartOfAccount> coaMap = coaRepo.findAllById(expenseCoaIds)
-                        .stream()
-                        .collect(Collectors.toMap(ChartOfAccount::getId, Function.identity()));
-
-                expenses = expenses.map(expense -> {
+                case ALL -> criteria.setOrganizationId(requestDTO.getId());
 
-                    if (expense.getExpenseCOAId() != 0) {
-                        ChartOfAccount coa = coaMap.get(expense.getExpenseCOAId());
-                        if (coa != null) {
-                            expense.setExpenseAccountName(
-                                    coa.getAccountGroup().getName() + " - " + coa.getName()
-                            );
-                        }
-                    } else if(expense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
-                        expense.setExpenseAccountName("Construction Inventory");
-                    }
+                default -> throw new IllegalArgumentException("Invalid Expense Type");
+            }
 
+            boolean labelConstruction = requestDTO.getExpenseType() == com.rem.backend.enums.ExpenseType.ALL;
 
-                    return expense;
-                });
+            // ===========================
+            // 3️⃣ Keyset slice, no count
+            // ===========================
+            if (!requestDTO.isWithCount() || requestDTO.getAfterId() != null || requestDTO.getAfterCreatedDate() != null) {
+                // slices are ordered by (createdDate, id), another order would break the cursor
+                if (requestDTO.getSortBy() != null && !"createdDate".equals(requestDTO.getSortBy()))
+                    throw new IllegalArgumentException("Keyset pages are sorted by createdDate only, use withCount to sort by " + requestDTO.getSortBy());
+
+                criteria.setAfterCreatedDate(requestDTO.getAfterCreatedDate());
+                criteria.setAfterId(requestDTO.getAfterId());
+
+                Sort.Direction direction = "desc".equalsIgnoreCase(requestDTO.getSortDir())
+                        ? Sort.Direction.DESC : Sort.Direction.ASC;
+                Slice<ExpenseListItem> slice =
+                        expenseQueryService.findSlice(criteria, requestDTO.getSize(), direction, labelConstruction);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("content", slice.getContent());
+                response.put("size", requestDTO.getSize());
+                response.put("hasNext", slice.hasNext());
+                if (slice.hasContent()) {
+                    ExpenseListItem last = slice.getContent().get(slice.getNumberOfElements() - 1);
+                    response.put("afterCreatedDate", last.createdDate());
+                    response.put("afterId", last.id());
+                }
+                return ResponseMapper.buildResponse(Responses.SUCCESS, response);
             }
 
+            Page<ExpenseListItem> expenses = expenseQueryService.findPage(criteria, pageable, labelConstruction);
             return ResponseMapper.buildResponse(Responses.SUCCESS, expenses);
 
         } catch (IllegalArgumentException e) {
@@ -427,17 +253,14 @@ public class ExpenseService {
                 ValidationService.validate(expense.getVendorAccountId(), "Vendor");
                 ValidationService.validate(expense.getOrganizationAccountId(), "Organization Account");
 
-                Optional<VendorAccount> accountOptional = vendorAccountRepo.findById(expense.getVendorAccountId());
-                if (!accountOptional.isPresent())
+                int vendorUpdated = aggregateTotalsRepository.addToVendorAccount(expense.getVendorAccountId(),
+                        expense.getTotalAmount(), expense.getAmountPaid(), expense.getCreditAmount(), loggedInUser);
+                if (vendorUpdated == 0)
                     throw new IllegalArgumentException("Invalid Vendor");
 
-
-                VendorAccount vendorAccount = accountOptional.get();
-                vendorAccount.setTotalAmount(vendorAccount.getTotalAmount() + expense.getTotalAmount());
-                vendorAccount.setTotalAmountPaid(vendorAccount.getTotalAmountPaid() + expense.getAmountPaid());
-                updatedCreditBalance = vendorAccount.getTotalCreditAmount() + expense.getCreditAmount();
-                vendorAccount.setTotalCreditAmount(updatedCreditBalance);
-                vendorAccountRepo.save(vendorAccount);
+                // loaded after the update so the credit balance includes this expense
+                Optional<VendorAccount> accountOptional = vendorAccountRepo.findById(expense.getVendorAccountId());
+                updatedCreditBalance = accountOptional.get().getTotalCreditAmount();
 
 
                 Optional<ExpenseType> expenseTypeOptional = expenseTypeRepo.findById(expense.getExpenseTypeId());
@@ -451,17 +274,13 @@ public class ExpenseService {
                         throw new IllegalArgumentException("Invalid Project!");
 
 
-                    Project project = projectOptional.get();
-                    expense.setProjectName(project.getName());
-                    project.setConstructionAmount(project.getConstructionAmount() + expense.getTotalAmount());
-                    project.setTotalAmount(project.getTotalAmount() + expense.getTotalAmount());
-                    project.setUpdatedBy(loggedInUser);
-                    projectRepo.save(project);
+                    expense.setProjectName(projectOptional.get().getName());
+                    aggregateTotalsRepository.addToProjectConstruction(expense.getProjectId(), expense.getTotalAmount(), loggedInUser);
                 }
                 expense.setVendorName(accountOptional.get().getName());
                 expense.setExpenseTitle(expenseTypeOptional.get().getName());
                 organizationAccountDetail.setProjectId(expense.getProjectId());
-                expense.setExpenseCOAId(journalEntryService.getConstructionInventoryControlAccount(expense.getOrganizationId()).getId());
+                expense.setExpenseCOAId(journalEntryService.getConstructionInventoryControlAccountId(expense.getOrganizationId()));
 
 //                if (expense.getCreditAmount() > 0){
 //                    // adding organization detail only for credit so transaction history filled
@@ -519,7 +338,11 @@ public class ExpenseService {
             expenseDetail.setExpenseTitle(expense.getExpenseTitle());
             expenseDetail.setUpdatedBy(loggedInUser);
             expenseDetail.setCreatedBy(loggedInUser);
-            expenseDetailRepo.save(expenseDetail);
+            expenseDetail = expenseDetailRepo.save(expenseDetail);
+
+            expenseRollupService.apply(ExpenseRollupService.deltas()
+                    .expense(expense, 1)
+                    .payment(expense, expenseDetail.getCreatedDate(), expenseDetail.getAmountPaid()));
 
 
             if (expense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
@@ -559,6 +382,7 @@ public class ExpenseService {
 
     }
 
+    @Transactional
     public Map<String, Object> updateExpense(Expense newExpense, String loggedInUser) {
 
         try {
@@ -570,8 +394,6 @@ public class ExpenseService {
             ValidationService.validate(newExpense.getOrganizationId(), "organization id");
             ValidationService.validate(newExpense.getOrganizationAccountId(), "organization account id");
 
-            boolean isExpenseTypeChanges = false;
-
             Optional<Expense> expenseOptional = expenseRepo.findById(newExpense.getId());
             if (expenseOptional.isEmpty())
                 throw new IllegalArgumentException("Invalid Expense!");
@@ -581,359 +403,79 @@ public class ExpenseService {
             if (oldExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.HISTORICAL))
                 throw new IllegalArgumentException("Historical expense cannot be edited!");
 
+            boolean isExpenseTypeChanges = !newExpense.getExpenseType().equals(oldExpense.getExpenseType());
+
+            // names are only looked up for references that actually changed
+            if (newExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
 
-            if (!newExpense.getExpenseType().equals(oldExpense.getExpenseType())) {
-                isExpenseTypeChanges = true;
-                if (newExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.MISCELLANEOUS)) {
+                ValidationService.validate(newExpense.getProjectId(), "Project");
+                ValidationService.validate(newExpense.getVendorAccountId(), "Vendor");
 
-                    Optional<VendorAccount> vendorAccountOptional = vendorAccountRepo.findById(oldExpense.getVendorAccountId());
+                if (isExpenseTypeChanges || !Objects.equals(newExpense.getVendorAccountId(), oldExpense.getVendorAccountId())) {
+                    Optional<VendorAccount> vendorAccountOptional = vendorAccountRepo.findById(newExpense.getVendorAccountId());
                     if (vendorAccountOptional.isEmpty())
                         throw new IllegalArgumentException("Invalid Vendor Account!");
+                    newExpense.setVendorName(vendorAccountOptional.get().getName());
+                } else {
+                    newExpense.setVendorName(oldExpense.getVendorName());
+                }
 
-                    Optional<VendorPayment> vendorPaymentOptional = vendorAccountDetailRepo.findByExpenseId(oldExpense.getId());
-                    if (vendorPaymentOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Vendor Account Detail!");
-
-                    VendorAccount vendorAccount = vendorAccountOptional.get();
-                    VendorPayment vendorPayment = vendorPaymentOptional.get();
-
-                    vendorAccount.setTotalAmount(vendorAccount.getTotalAmount() - (vendorPayment.getAmountPaid() + vendorPayment.getCreditAmount()));
-                    vendorAccount.setTotalAmountPaid(vendorAccount.getTotalAmountPaid() - vendorPayment.getAmountPaid());
-                    vendorAccount.setTotalCreditAmount(vendorAccount.getTotalCreditAmount() - vendorPayment.getCreditAmount());
-                    vendorAccount.setUpdatedBy(loggedInUser);
-                    vendorAccountRepo.save(vendorAccount);
-
-                    vendorAccountDetailRepo.delete(vendorPayment);
-
-                    newExpense.setProjectId(0l);
-                    newExpense.setProjectName("");
-                    newExpense.setVendorAccountId(0l);
-                    newExpense.setVendorName("");
-                    newExpense.setExpenseTitle("Miscellaneous Expense");
-
-
-                    Optional<Project> projectOptional = projectRepo.findById(oldExpense.getProjectId());
-                    if (projectOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Project!");
-
-                    Project oldProject = projectOptional.get();
-
-                    oldProject.setTotalAmount(oldProject.getTotalAmount() - oldExpense.getTotalAmount());
-                    oldProject.setConstructionAmount(oldProject.getConstructionAmount() - oldExpense.getTotalAmount());
-
-
-                    expenseRepo.save(newExpense);
-                    projectRepo.save(oldProject);
-
-
-                } else if (newExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
-
+                if (isExpenseTypeChanges || !Objects.equals(newExpense.getProjectId(), oldExpense.getProjectId())) {
                     Optional<Project> projectOptional = projectRepo.findById(newExpense.getProjectId());
                     if (projectOptional.isEmpty())
                         throw new IllegalArgumentException("Invalid Project!");
+                    newExpense.setProjectName(projectOptional.get().getName());
+                } else {
+                    newExpense.setProjectName(oldExpense.getProjectName());
+                }
 
-
-                    Optional<VendorAccount> vendorAccountOptional = vendorAccountRepo.findById(newExpense.getVendorAccountId());
-                    if (vendorAccountOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Vendor Account!");
-
+                if (isExpenseTypeChanges || !Objects.equals(newExpense.getExpenseTypeId(), oldExpense.getExpenseTypeId())) {
                     Optional<ExpenseType> expenseTypeOptional = expenseTypeRepo.findById(newExpense.getExpenseTypeId());
-                    if (!expenseTypeOptional.isPresent())
+                    if (expenseTypeOptional.isEmpty())
                         throw new IllegalArgumentException("Invalid Expense Type");
-
-                    VendorAccount vendorAccount = vendorAccountOptional.get();
-
-
-//                    TODO :: ADD NEW ROWS FOR VENDOR ACCOUNT AND DETAIL
-
-                    vendorAccount.setTotalAmount(vendorAccount.getTotalAmount() + newExpense.getTotalAmount());
-                    vendorAccount.setTotalAmountPaid(vendorAccount.getTotalAmountPaid() + newExpense.getAmountPaid());
-                    vendorAccount.setTotalCreditAmount(vendorAccount.getTotalCreditAmount() + newExpense.getCreditAmount());
-                    vendorAccountRepo.save(vendorAccount);
-
-
-                    VendorPayment vendorPayment = new VendorPayment();
-                    vendorPayment.setAmountPaid(newExpense.getAmountPaid());
-                    vendorPayment.setOrganizationAccountId(newExpense.getOrganizationAccountId());
-                    vendorPayment.setCreditAmount(newExpense.getCreditAmount());
-                    vendorPayment.setProjectId(newExpense.getProjectId());
-                    vendorPayment.setProjectId(newExpense.getProjectId());
-                    if (newExpense.getCreditAmount() == 0) {
-                        vendorPayment.setTransactionType(TransactionType.DEBIT);
-                    } else if (newExpense.getAmountPaid() == 0) {
-                        vendorPayment.setTransactionType(TransactionType.CREDIT);
-                    } else {
-                        vendorPayment.setTransactionType(TransactionType.DEBIT_CREDIT);
-                    }
-                    vendorPayment.setVendorAccountId(newExpense.getVendorAccountId());
-                    vendorPayment.setVendorAccountId(newExpense.getVendorAccountId());
-                    vendorPayment.setExpenseId(newExpense.getId());
-                    vendorAccountService.addPaymentHistory(vendorPayment, loggedInUser);
-
-
-                    newExpense.setVendorName(vendorAccount.getName());
-
-
-                    Optional<Project> newProjectOptional = projectRepo.findById(newExpense.getProjectId());
-                    if (newProjectOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Updated Project!");
-
-                    Project newProject = newProjectOptional.get();
-
-
-                    newExpense.setProjectName(newProject.getName());
                     newExpense.setExpenseTitle(expenseTypeOptional.get().getName());
-
-                    double updatedConstructionAmount = newProject.getConstructionAmount() + (newExpense.getTotalAmount());
-                    double updatedTotalAmount = newProject.getTotalAmount() + (newExpense.getTotalAmount());
-
-                    newProject.setTotalAmount(updatedTotalAmount);
-                    newProject.setConstructionAmount(updatedConstructionAmount);
-                    newProject.setUpdatedBy(loggedInUser);
-
-                    projectRepo.save(newProject);
-
-                }
-            }
-
-            expenseDetailRepo.deleteByExpenseId(oldExpense.getId());
-
-            if (newExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
-
-                ValidationService.validate(newExpense.getProjectId(), "Project");
-                ValidationService.validate(newExpense.getVendorAccountId(), "Vendor");
-
-                if (newExpense.getOrganizationAccountId() != oldExpense.getOrganizationAccountId()) {
-
-                    Optional<OrganizationAccount> organizationAccountOptional = organizationAccoutRepo.findById(oldExpense.getOrganizationAccountId());
-                    if (organizationAccountOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Organization Account!");
-
-
-                    Optional<OrganizationAccountDetail> organizationAccountDetailOptional = organizationAccountDetailRepo.findByExpenseId(oldExpense.getId());
-                    if (organizationAccountDetailOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Organization Account Detail!");
-
-                    OrganizationAccount organizationAccount = organizationAccountOptional.get();
-                    OrganizationAccountDetail organizationAccountDetail = organizationAccountDetailOptional.get();
-
-                    organizationAccount.setTotalAmount(organizationAccount.getTotalAmount() + organizationAccountDetail.getAmount());
-                    organizationAccount.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(organizationAccount);
-
-                    organizationAccountDetailRepo.delete(organizationAccountDetail);
-
-                    organizationAccountDetail = new OrganizationAccountDetail();
-
-                    organizationAccountDetail.setExpenseId(newExpense.getId());
-                    organizationAccountDetail.setComments(newExpense.getComments());
-                    organizationAccountDetail.setAmount(newExpense.getAmountPaid());
-                    organizationAccountDetail.setOrganizationAcctId(newExpense.getOrganizationAccountId());
-
-//                    TODO :: ADD NEW ROWS IN ORG ACCOUNT DETAIL
-
-                    organizationAccount = organizationAccountService.deductFromOrgAcct(organizationAccountDetail, loggedInUser);
-
-                    newExpense.setOrgAccountTitle(organizationAccount.getName());
-
                 } else {
-
-
-                    Optional<OrganizationAccount> organizationAccountOptional = organizationAccoutRepo.findById(newExpense.getOrganizationAccountId());
-                    if (organizationAccountOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Organization Account!");
-
-
-                    Optional<OrganizationAccountDetail> organizationAccountDetailOptional = organizationAccountDetailRepo.findByExpenseId(newExpense.getId());
-                    if (organizationAccountDetailOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Organization Account Detail!");
-
-                    OrganizationAccount organizationAccount = organizationAccountOptional.get();
-                    OrganizationAccountDetail organizationAccountDetail = organizationAccountDetailOptional.get();
-
-                    double latestAmountOrg = organizationAccount.getTotalAmount() + (oldExpense.getAmountPaid() - newExpense.getAmountPaid());
-                    organizationAccount.setTotalAmount(latestAmountOrg);
-                    organizationAccount.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(organizationAccount);
-
-                    organizationAccountDetail.setAmount(newExpense.getAmountPaid());
-                    organizationAccountDetail.setUpdatedBy(loggedInUser);
-                    organizationAccountDetailRepo.save(organizationAccountDetail);
+                    newExpense.setExpenseTitle(oldExpense.getExpenseTitle());
                 }
 
-                if (isExpenseTypeChanges == false) {
-
-                    Optional<Project> projectOptional = projectRepo.findById(oldExpense.getProjectId());
-                    if (projectOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Project!");
-
-                    Project oldProject = projectOptional.get();
-
-                    Optional<VendorAccount> vendorAccountOptional = vendorAccountRepo.findById(oldExpense.getVendorAccountId());
-                    if (vendorAccountOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Vendor Account!");
-
-                    Optional<VendorPayment> vendorPaymentOptional = vendorAccountDetailRepo.findByExpenseId(oldExpense.getId());
-                    if (vendorPaymentOptional.isEmpty())
-                        throw new IllegalArgumentException("Invalid Vendor Account Detail!");
-
-
-                    VendorAccount vendorAccount = vendorAccountOptional.get();
-                    VendorPayment vendorPayment = vendorPaymentOptional.get();
-
-                    if (newExpense.getVendorAccountId() != oldExpense.getVendorAccountId()) {
-
-                        vendorAccount.setTotalAmountPaid(vendorAccount.getTotalAmountPaid() - vendorPayment.getAmountPaid());
-                        vendorAccount.setTotalCreditAmount(vendorAccount.getTotalCreditAmount() - vendorPayment.getCreditAmount());
-                        vendorAccount.setTotalAmount(vendorAccount.getTotalAmountPaid() + vendorAccount.getTotalCreditAmount());
-
-                        vendorAccountRepo.save(vendorAccount);
-                        vendorAccountDetailRepo.delete(vendorPayment);
-
-//                    TODO :: ADD NEW ROWS FOR VENDOR ACCOUNT AND DETAIL
-
-
-                        Optional<VendorAccount> accountOptional = vendorAccountRepo.findById(newExpense.getVendorAccountId());
-                        if (!accountOptional.isPresent())
-                            throw new IllegalArgumentException("Invalid Vendor");
-
-                        vendorAccount = accountOptional.get();
-                        vendorAccount.setTotalAmount(vendorAccount.getTotalAmount() + newExpense.getTotalAmount());
-                        vendorAccount.setTotalAmountPaid(vendorAccount.getTotalAmountPaid() + newExpense.getAmountPaid());
-                        vendorAccount.setTotalCreditAmount(vendorAccount.getTotalCreditAmount() + newExpense.getCreditAmount());
-                        vendorAccountRepo.save(vendorAccount);
-
-
-                        vendorPayment = new VendorPayment();
-                        vendorPayment.setAmountPaid(newExpense.getAmountPaid());
-                        vendorPayment.setOrganizationAccountId(newExpense.getOrganizationAccountId());
-                        vendorPayment.setCreditAmount(newExpense.getCreditAmount());
-                        vendorPayment.setProjectId(newExpense.getProjectId());
-                        vendorPayment.setProjectId(newExpense.getProjectId());
-                        if (newExpense.getCreditAmount() == 0) {
-                            vendorPayment.setTransactionType(TransactionType.DEBIT);
-                        } else if (newExpense.getAmountPaid() == 0) {
-                            vendorPayment.setTransactionType(TransactionType.CREDIT);
-                        } else {
-                            vendorPayment.setTransactionType(TransactionType.DEBIT_CREDIT);
-                        }
-                        vendorPayment.setVendorAccountId(newExpense.getVendorAccountId());
-                        vendorPayment.setVendorAccountId(newExpense.getVendorAccountId());
-                        vendorPayment.setExpenseId(newExpense.getId());
-                        vendorAccountService.addPaymentHistory(vendorPayment, loggedInUser);
-
-
-                        newExpense.setVendorName(vendorAccount.getName());
-
-                    } else {
-
-                        double totalPaidAmount = vendorAccount.getTotalAmountPaid() + (newExpense.getAmountPaid() - oldExpense.getAmountPaid());
-                        double totalCreditAmount = vendorAccount.getTotalCreditAmount() + (newExpense.getCreditAmount() - oldExpense.getCreditAmount());
-                        double totalAmount = vendorAccount.getTotalAmount() + (newExpense.getAmountPaid() - oldExpense.getAmountPaid()) + (newExpense.getCreditAmount() - oldExpense.getCreditAmount());
-
-                        vendorAccount.setTotalAmount(totalAmount);
-                        vendorAccount.setTotalAmountPaid(totalPaidAmount);
-                        vendorAccount.setTotalCreditAmount(totalCreditAmount);
-
-                        vendorAccountRepo.save(vendorAccount);
-
-                        vendorPayment.setCreditAmount(newExpense.getCreditAmount());
-                        vendorPayment.setAmountPaid(newExpense.getAmountPaid());
-                        vendorPayment.setUpdatedBy(loggedInUser);
-
-                        vendorAccountDetailRepo.save(vendorPayment);
-                    }
-
-                    if (newExpense.getProjectId() != oldExpense.getProjectId()) {
-
-                        Optional<Project> newProjectOptional = projectRepo.findById(newExpense.getProjectId());
-                        if (newProjectOptional.isEmpty())
-                            throw new IllegalArgumentException("Invalid Updated Project!");
-
-                        oldProject.setTotalAmount(oldProject.getTotalAmount() - oldExpense.getTotalAmount());
-                        oldProject.setConstructionAmount(oldProject.getConstructionAmount() - oldExpense.getTotalAmount());
-
-                        projectRepo.save(oldProject);
+                newExpense.setExpenseCOAId(journalEntryService.getConstructionInventoryControlAccountId(newExpense.getOrganizationId()));
 
+            } else if (newExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.MISCELLANEOUS)) {
 
-                        Project newProject = newProjectOptional.get();
+                newExpense.setProjectId(0l);
+                newExpense.setProjectName("");
+                newExpense.setVendorAccountId(0l);
+                newExpense.setVendorName("");
+                newExpense.setExpenseTitle("Miscellaneous Expense");
 
-                        double updatedConstructionAmount = newProject.getConstructionAmount() + (newExpense.getTotalAmount());
-                        double updatedTotalAmount = newProject.getTotalAmount() + (newExpense.getTotalAmount());
-
-                        newProject.setTotalAmount(updatedTotalAmount);
-                        newProject.setConstructionAmount(updatedConstructionAmount);
-                        newProject.setUpdatedBy(loggedInUser);
-
-                        projectRepo.save(newProject);
-
-                        newExpense.setProjectName(newProject.getName());
-
-
-                    } else {
-
-                        double updatedConstructionAmount = oldProject.getConstructionAmount() + (newExpense.getTotalAmount() - oldExpense.getTotalAmount());
-                        double updatedTotalAmount = oldProject.getTotalAmount() + (newExpense.getTotalAmount() - oldExpense.getTotalAmount());
-
-                        oldProject.setUpdatedBy(loggedInUser);
-                        oldProject.setConstructionAmount(updatedConstructionAmount);
-                        oldProject.setTotalAmount(updatedTotalAmount);
-
-                        projectRepo.save(oldProject);
-                    }
-                }
-
-
-            } // handling type change
-            else if (newExpense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.MISCELLANEOUS)) {
+            } else {
+                throw new IllegalArgumentException("Invalid Expense Type");
+            }
 
-                Optional<OrganizationAccount> organizationAccountOptional = organizationAccoutRepo.findById(newExpense.getOrganizationAccountId());
+            if (!Objects.equals(newExpense.getOrganizationAccountId(), oldExpense.getOrganizationAccountId())) {
+                Optional<OrganizationAccount> organizationAccountOptional = organizationAccountRepo.findById(newExpense.getOrganizationAccountId());
                 if (organizationAccountOptional.isEmpty())
                     throw new IllegalArgumentException("Invalid Organization Account!");
+                newExpense.setOrgAccountTitle(organizationAccountOptional.get().getName());
+            } else {
+                newExpense.setOrgAccountTitle(oldExpense.getOrgAccountTitle());
+            }
 
+            newExpense.setCreatedBy(oldExpense.getCreatedBy());
+            newExpense.setCreatedDate(oldExpense.getCreatedDate());
+            newExpense.setUpdatedBy(loggedInUser);
+            newExpense.setPaymentStatus(getPaymentStatus(newExpense));
 
-                Optional<OrganizationAccountDetail> organizationAccountDetailOptional = organizationAccountDetailRepo.findByExpenseId(newExpense.getId());
-                if (organizationAccountDetailOptional.isEmpty())
-                    throw new IllegalArgumentException("Invalid Organization Account Detail!");
-
-                OrganizationAccount organizationAccount = organizationAccountOptional.get();
-                OrganizationAccountDetail organizationAccountDetail = organizationAccountDetailOptional.get();
-
-                if (newExpense.getOrganizationAccountId() != oldExpense.getOrganizationAccountId()) {
-
-                    organizationAccount.setTotalAmount(organizationAccount.getTotalAmount() + organizationAccountDetail.getAmount());
-                    organizationAccount.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(organizationAccount);
-
-                    organizationAccountDetailRepo.delete(organizationAccountDetail);
-
-                    organizationAccountDetail = new OrganizationAccountDetail();
-
-                    organizationAccountDetail.setExpenseId(newExpense.getId());
-                    organizationAccountDetail.setComments(newExpense.getComments());
-                    organizationAccountDetail.setAmount(newExpense.getAmountPaid());
-                    organizationAccountDetail.setOrganizationAcctId(newExpense.getOrganizationAccountId());
-
-//                    TODO :: ADD NEW ROWS IN ORG ACCOUNT DETAIL
-
-                    organizationAccountService.deductFromOrgAcct(organizationAccountDetail, loggedInUser);
-
-
-                } else {
+            // the old expense and its details leave the rollup, the edit and its single detail come back below
+            ExpenseRollupService.Deltas rollupDeltas = ExpenseRollupService.deltas().expense(oldExpense, -1);
+            for (ExpenseDetail oldDetail : expenseDetailRepo.findByExpenseIdOrderByCreatedDateDesc(oldExpense.getId()))
+                rollupDeltas.payment(oldExpense, oldDetail.getCreatedDate(), -oldDetail.getAmountPaid());
 
-                    double latestAmountOrg = organizationAccount.getTotalAmount() + (oldExpense.getAmountPaid() - newExpense.getAmountPaid());
-                    organizationAccount.setTotalAmount(latestAmountOrg);
-                    organizationAccount.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(organizationAccount);
+            // net deltas, detail rows and the adjusting journal entry, must run before the save below
+            // because saving merges the edit into oldExpense
+            expenseRepostService.apply(oldExpense, newExpense, loggedInUser);
 
-                    organizationAccountDetail.setAmount(newExpense.getAmountPaid());
-                    organizationAccountDetail.setUpdatedBy(loggedInUser);
-                    organizationAccountDetailRepo.save(organizationAccountDetail);
-                }
-            } // handling type change
-
-            if (newExpense.getCreditAmount() == 0)
-                newExpense.setPaymentStatus(PaymentStatus.PAID);
+            expenseDetailRepo.deleteByExpenseId(oldExpense.getId());
 
             newExpense = expenseRepo.save(newExpense);
 
@@ -945,19 +487,26 @@ public class ExpenseService {
             expenseDetail.setExpenseTitle(newExpense.getExpenseTitle());
             expenseDetail.setUpdatedBy(loggedInUser);
             expenseDetail.setCreatedBy(loggedInUser);
-            expenseDetailRepo.save(expenseDetail);
+            expenseDetail = expenseDetailRepo.save(expenseDetail);
+
+            expenseRollupService.apply(rollupDeltas
+                    .expense(newExpense, 1)
+                    .payment(newExpense, expenseDetail.getCreatedDate(), expenseDetail.getAmountPaid()));
 
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, newExpense);
         } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             e.printStackTrace();
             return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
         }
 
     }
 
+    @Transactional
     public Map<String, Object> deleteExpense(long expenseId, String loggedInUser) {
 
         try {
@@ -981,59 +530,41 @@ public class ExpenseService {
             ValidationService.validate(expense.getOrganizationAccountId(), "organization account id");
 
 
-            if (expense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
-
+            if (aggregateTotalsRepository.addToOrganizationAccount(expense.getOrganizationAccountId(), expense.getAmountPaid(), loggedInUser) == 0)
+                throw new IllegalArgumentException("Invalid Organization Account!");
+            organizationAccountDetailRepo.deleteByExpenseId(expense.getId());
 
-                Optional<Project> projectOptional = projectRepo.findById(expense.getProjectId());
-                if (projectOptional.isPresent()) {
-                    Project project = projectOptional.get();
-                    project.setConstructionAmount(project.getConstructionAmount() - expense.getTotalAmount());
-                    project.setTotalAmount(project.getTotalAmount() - expense.getTotalAmount());
-                    project.setUpdatedBy(loggedInUser);
-                    projectRepo.save(project);
-                }
-
-                Optional<OrganizationAccount> orgAccountOptional = organizationAccoutRepo.findById(expense.getOrganizationAccountId());
-                if (orgAccountOptional.isPresent()) {
-                    OrganizationAccount account = orgAccountOptional.get();
-                    account.setTotalAmount(account.getTotalAmount() + expense.getAmountPaid());
-                    account.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(account);
-                    organizationAccountDetailRepo.deleteByExpenseId(expense.getId());
-                }
-
-                Optional<VendorAccount> vendorAccountOptional = vendorAccountRepo.findById(expense.getVendorAccountId());
-                if (vendorAccountOptional.isPresent()) {
-                    VendorAccount account = vendorAccountOptional.get();
-                    account.setTotalAmount(account.getTotalAmount() - expense.getTotalAmount());
-                    account.setTotalCreditAmount(account.getTotalCreditAmount() - expense.getCreditAmount());
-                    account.setTotalAmountPaid(account.getTotalCreditAmount() - expense.getAmountPaid());
-                    account.setUpdatedBy(loggedInUser);
-                    vendorAccountRepo.save(account);
-                    vendorAccountDetailRepo.deleteByExpenseId(expense.getId());
-                }
+            if (expense.getExpenseType().equals(com.rem.backend.enums.ExpenseType.CONSTRUCTION)) {
 
-            } else {
+                // project 0 is a construction expense booked without a project, addExpense never counted it
+                if (expense.getProjectId() > 0
+                        && aggregateTotalsRepository.addToProjectConstruction(expense.getProjectId(), -expense.getTotalAmount(), loggedInUser) == 0)
+                    throw new IllegalArgumentException("Invalid Project!");
 
-                Optional<OrganizationAccount> orgAccountOptional = organizationAccoutRepo.findById(expense.getOrganizationAccountId());
-                if (orgAccountOptional.isPresent()) {
-                    OrganizationAccount account = orgAccountOptional.get();
-                    account.setTotalAmount(account.getTotalAmount() + expense.getAmountPaid());
-                    account.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(account);
-                    organizationAccountDetailRepo.deleteByExpenseId(expense.getId());
-                }
+                int vendorUpdated = aggregateTotalsRepository.addToVendorAccount(expense.getVendorAccountId(),
+                        -expense.getTotalAmount(), -expense.getAmountPaid(), -expense.getCreditAmount(), loggedInUser);
+                if (vendorUpdated == 0)
+                    throw new IllegalArgumentException("Invalid Vendor Account!");
+                vendorAccountDetailRepo.deleteByExpenseId(expense.getId());
             }
 
+            ExpenseRollupService.Deltas rollupDeltas = ExpenseRollupService.deltas().expense(expense, -1);
+            for (ExpenseDetail expenseDetail : expenseDetailRepo.findByExpenseIdOrderByCreatedDateDesc(expense.getId()))
+                rollupDeltas.payment(expense, expenseDetail.getCreatedDate(), -expenseDetail.getAmountPaid());
+
             expenseDetailRepo.deleteByExpenseId(expense.getId());
             expenseRepo.delete(expense);
 
+            expenseRollupService.apply(rollupDeltas);
+
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, "Successfully Deleted!");
 
         } catch (IllegalArgumentException e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             e.printStackTrace();
             return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
         }
@@ -1083,15 +614,12 @@ public class ExpenseService {
 
 
 //          SETTLING VENDOR ACCOUNT
-            Optional<VendorAccount> accountOptional = vendorAccountRepo.findById(expense.getVendorAccountId());
-            if (!accountOptional.isPresent())
+            int vendorUpdated = aggregateTotalsRepository.addToVendorAccount(expense.getVendorAccountId(),
+                    0, expenseDetail.getAmountPaid(), -expenseDetail.getAmountPaid(), loggedInUser);
+            if (vendorUpdated == 0)
                 throw new IllegalArgumentException("Invalid Vendor");
 
-            VendorAccount vendorAccount = accountOptional.get();
-            vendorAccount.setTotalAmountPaid(vendorAccount.getTotalAmountPaid() + expenseDetail.getAmountPaid());
-            double remainingCreditBalance = vendorAccount.getTotalCreditAmount() - expenseDetail.getAmountPaid();
-            vendorAccount.setTotalCreditAmount(remainingCreditBalance);
-            vendorAccountRepo.save(vendorAccount);
+            double remainingCreditBalance = aggregateTotalsRepository.findVendorCreditAmount(expense.getVendorAccountId());
 
 
             VendorPayment vendorPayment = new VendorPayment();
@@ -1122,7 +650,11 @@ public class ExpenseService {
                 expenseDetail.setPaymentDocNo(null);
             }
 
-            expenseDetailRepo.save(expenseDetail);
+            expenseDetail = expenseDetailRepo.save(expenseDetail);
+
+            expenseRollupService.apply(ExpenseRollupService.deltas()
+                    .payment(expense, expenseDetail.getCreatedDate(), expenseDetail.getAmountPaid())
+                    .creditSettled(expense, expenseDetail.getAmountPaid()));
 
             // Create journal entry for expense detail (double-entry bookkeeping)
             journalEntryService.createJournalEntryForExpenseDetail(expense, organizationAccount,
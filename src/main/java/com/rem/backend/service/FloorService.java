@@ -26,12 +26,16 @@ public class FloorService {
     private final ProjectRepo projectRepo;
     private final FloorRepo floorRepo;
     private final UnitRepo unitRepo;
+    private final ProjectTreeLoader projectTreeLoader;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
 
 
     public Map<String, Object> deleteById(long floorId) {
         try {
             ValidationService.validate(floorId, "floor id");
+            unitAvailabilityIndex.evictFloor(floorId);
             floorRepo.deleteById(floorId);
+            projectTreeLoader.evictFloor(floorId);
             return ResponseMapper.buildResponse(Responses.SUCCESS, "Successfully deleted");
         } catch (IllegalArgumentException e) {
             return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
@@ -108,6 +112,8 @@ public class FloorService {
 
             }
 
+            projectTreeLoader.evictProject(floorInput.getProjectId());
+            unitAvailabilityIndex.evictProject(floorInput.getProjectId());
             return ResponseMapper.buildResponse(Responses.SUCCESS, savedFloor);
 
 
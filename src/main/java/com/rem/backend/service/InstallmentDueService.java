@@ -0,0 +1,224 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.customer.InstallmentCollectionProjection;
+import com.rem.backend.dto.customer.InstallmentSourceProjection;
+import com.rem.backend.entity.customer.InstallmentDue;
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentPlanType;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.repository.CustomerAccountRepo;
+import com.rem.backend.repository.InstallmentDueRepository;
+import com.rem.backend.utility.PaymentScheduleCalculator;
+import com.rem.backend.utility.ResponseMapper;
+import com.rem.backend.utility.Responses;
+import com.rem.backend.utility.ValidationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes customer payment schedules into installment_due rows, one row per due installment.
+ * Rows are rewritten in one batch whenever a booking's schedule is saved and the account's
+ * received amount is re-spread over them after every receipt, so overdue and upcoming lists
+ * are index range scans on (organization_id, due_date, status). Accounts booked before the table
+ * existed are filled in by {@link #rebuildAll}, see InstallmentDueInitializer.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InstallmentDueService {
+
+    private final InstallmentDueRepository installmentDueRepository;
+    private final CustomerAccountRepo customerAccountRepo;
+    private final PaymentScheduleLoader paymentScheduleLoader;
+
+    /**
+     * Replaces the installments of a customer account with the ones of its schedule.
+     * The schedule must already be validated, serial 0 is the down payment due on startDate.
+     */
+    @Transactional
+    public void generate(long customerAccountId, long organizationId, Long projectId,
+                         PaymentSchedule schedule, LocalDate startDate) {
+        write(customerAccountId, organizationId, projectId, expand(schedule, startDate));
+    }
+
+    /**
+     * Rebuilds the installments of every active customer account from its customer schedule, for the
+     * accounts booked before installment_due existed. Accounts without a customer schedule, or with
+     * one that no longer expands, are logged and skipped.
+     *
+     * @return the number of accounts rebuilt
+     */
+    @Transactional
+    public int rebuildAll() {
+        List<InstallmentSourceProjection> accounts = customerAccountRepo.findInstallmentSources();
+        Map<Long, PaymentSchedule> schedules = paymentScheduleLoader.loadByUnitIds(
+                accounts.stream().map(InstallmentSourceProjection::getUnitId).collect(Collectors.toSet()),
+                PaymentScheduleType.CUSTOMER);
+
+        Set<Long> rebuilt = new HashSet<>();
+        for (InstallmentSourceProjection account : accounts) {
+            // an account with two active bookings comes twice, the first one wins
+            if (rebuilt.contains(account.getCustomerAccountId()))
+                continue;
+
+            PaymentSchedule schedule = schedules.get(account.getUnitId());
+            if (schedule == null) {
+                log.warn("Customer account {} has no customer schedule, installments not rebuilt", account.getCustomerAccountId());
+                continue;
+            }
+
+            List<InstallmentDue> installments;
+            try {
+                installments = expand(asBooked(schedule), account.getBookedDate().toLocalDate());
+            } catch (IllegalArgumentException e) {
+                log.warn("Customer account {} installments not rebuilt: {}", account.getCustomerAccountId(), e.getMessage());
+                continue;
+            }
+            write(account.getCustomerAccountId(),
+                    account.getOrganizationId() != null ? account.getOrganizationId() : 0L,
+                    account.getProjectId(), installments);
+            rebuilt.add(account.getCustomerAccountId());
+        }
+        return rebuilt.size();
+    }
+
+    private void write(long customerAccountId, long organizationId, Long projectId, List<InstallmentDue> installments) {
+        installmentDueRepository.deleteAllByCustomerAccount(customerAccountId);
+
+        for (InstallmentDue installment : installments) {
+            installment.setCustomerAccountId(customerAccountId);
+            installment.setOrganizationId(organizationId);
+            installment.setProjectId(projectId);
+        }
+        installmentDueRepository.saveAll(installments);
+        installmentDueRepository.allocatePayments(customerAccountId);
+    }
+
+    // the stored schedule of a one time plan, as BookingService adjusts it before generating
+    private static PaymentSchedule asBooked(PaymentSchedule schedule) {
+        if (PaymentPlanType.ONE_TIME_PAYMENT.equals(schedule.getPaymentPlanType())) {
+            schedule.setDownPayment(Math.ceil(schedule.getActualAmount() + schedule.getMiscellaneousAmount()
+                    + schedule.getDevelopmentAmount()));
+            schedule.setDurationInMonths(0);
+        }
+        return schedule;
+    }
+
+    /**
+     * Re-spreads the account's total paid amount over its installments, called after every receipt change
+     */
+    @Transactional
+    public void allocatePayments(long customerAccountId) {
+        installmentDueRepository.allocatePayments(customerAccountId);
+    }
+
+    @Transactional
+    public void deleteByCustomerAccount(long customerAccountId) {
+        installmentDueRepository.deleteAllByCustomerAccount(customerAccountId);
+    }
+
+    static List<InstallmentDue> expand(PaymentSchedule schedule, LocalDate startDate) {
+        List<InstallmentDue> installments = new ArrayList<>();
+
+        if (schedule.getDownPayment() > 0)
+            installments.add(installment(0, startDate, schedule.getDownPayment()));
+
+        int lastSerialNo = 0;
+        if (PaymentPlanType.INSTALLMENT_RANGE.equals(schedule.getPaymentPlanType())) {
+            PaymentScheduleCalculator calculator = PaymentScheduleCalculator.of(schedule);
+            for (int serialNo = 1; serialNo <= calculator.getInstallmentCount(); serialNo++) {
+                installments.add(installment(serialNo, startDate.plusMonths(serialNo), calculator.installmentAmount(serialNo)));
+                lastSerialNo = serialNo;
+            }
+        } else if (PaymentPlanType.INSTALLMENT_SPECIFIC.equals(schedule.getPaymentPlanType())
+                && schedule.getMonthSpecificPaymentList() != null) {
+            for (MonthSpecificPayment payment : schedule.getMonthSpecificPaymentList()) {
+                installments.add(installment(++lastSerialNo, dueDate(payment), payment.getAmount()));
+            }
+        }
+
+        if (schedule.getOnPossessionPayment() > 0)
+            installments.add(installment(lastSerialNo + 1, null, schedule.getOnPossessionPayment()));
+
+        return installments;
+    }
+
+    // month comes as a number or a month name, unreadable months stay without a due date
+    private static LocalDate dueDate(MonthSpecificPayment payment) {
+        try {
+            int year = Integer.parseInt(payment.getYear().trim());
+            String month = payment.getMonth().trim();
+            if (month.chars().allMatch(Character::isDigit))
+                return LocalDate.of(year, Integer.parseInt(month), 1);
+
+            String name = month.toUpperCase(Locale.ROOT);
+            for (Month candidate : Month.values()) {
+                if (candidate.name().startsWith(name.length() >= 3 ? name : "-"))
+                    return LocalDate.of(year, candidate, 1);
+            }
+        } catch (RuntimeException ignored) {
+        }
+        return null;
+    }
+
+    private static InstallmentDue installment(int serialNo, LocalDate dueDate, double amount) {
+        InstallmentDue installment = new InstallmentDue();
+        installment.setSerialNo(serialNo);
+        installment.setDueDate(dueDate);
+        installment.setAmount(amount);
+        return installment;
+    }
+
+    public Map<String, Object> getOverdueInstallments(long organizationId, Pageable pageable) {
+        try {
+            ValidationService.validate(organizationId, "organizationId");
+            Page<InstallmentDue> installments = installmentDueRepository.findOverdue(organizationId, LocalDate.now(), pageable);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, installments);
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getUpcomingInstallments(long organizationId, int days, Pageable pageable) {
+        try {
+            ValidationService.validate(organizationId, "organizationId");
+            if (days <= 0)
+                throw new IllegalArgumentException("Invalid days!");
+
+            LocalDate today = LocalDate.now();
+            Page<InstallmentDue> installments = installmentDueRepository.findOpenDueBetween(organizationId, today, today.plusDays(days), pageable);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, installments);
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getCollection(long organizationId, LocalDate fromDate, LocalDate toDate) {
+        try {
+            ValidationService.validate(organizationId, "organizationId");
+            if (fromDate == null || toDate == null || fromDate.isAfter(toDate))
+                throw new IllegalArgumentException("Invalid date range!");
+
+            InstallmentCollectionProjection collection = installmentDueRepository.findCollection(organizationId, fromDate, toDate);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, collection);
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+}
@@ -1,12 +1,10 @@
 package com.rem.backend.service;
 
-import com.rem.backend.entity.account.AccountGroup;
-import com.rem.backend.entity.account.ChartOfAccount;
 import com.rem.backend.entity.account.JournalDetailEntry;
 import com.rem.backend.entity.account.JournalEntry;
 import com.rem.backend.entity.expense.Expense;
 import com.rem.backend.accountmanagement.entity.OrganizationAccount;
-import com.rem.backend.enums.AccountStatus;
+import com.rem.backend.enums.ControlAccountType;
 import com.rem.backend.enums.ExpenseType;
 import com.rem.backend.enums.JournalEntryStatus;
 import com.rem.backend.repository.*;
@@ -16,19 +14,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 @AllArgsConstructor
 @Slf4j
 public class JournalEntryService {
 
-    private final JournalEntryRepository journalEntryRepository;
-    private final JournalDetailEntryRepository journalDetailEntryRepository;
+    private final JournalWriter journalWriter;
     private final ChartOfAccountRepository chartOfAccountRepository;
-    private final AccountGroupRepository accountGroupRepository;
+    private final ControlAccountService controlAccountService;
 
     /**
      * Create journal entry for expense creation with payment
@@ -45,136 +42,13 @@ public class JournalEntryService {
     @Transactional
     public void createJournalEntryForExpense(Expense expense, OrganizationAccount organizationAccount, String loggedInUser) {
         try {
-            double totalDebit = 0.0;
-            double totalCredit = 0.0;
-            List<JournalDetailEntry> detailEntries = new ArrayList<>();
-
-            // Create Journal Entry header
-            JournalEntry journalEntry = new JournalEntry();
-            journalEntry.setOrganizationId(expense.getOrganizationId());
-            journalEntry.setCreatedDate(expense.getCreatedDate() != null ? expense.getCreatedDate() : java.time.LocalDateTime.now());
-            journalEntry.setReferenceType("EXPENSE");
-            journalEntry.setExpenseId(expense.getId());
-            journalEntry.setOrganizationAccountId(organizationAccount.getId());
-            journalEntry.setVendorId(expense.getVendorAccountId());
-            journalEntry.setProjectId(expense.getProjectId());
-            journalEntry.setUnitId(expense.getUnitId());
-            journalEntry.setDescription("Expense: " + expense.getExpenseTitle() +
-                    (expense.getProjectName() != null ? " - Project: " + expense.getProjectName() : ""));
-            journalEntry.setStatus(JournalEntryStatus.POSTED);
-            journalEntry.setCreatedBy(loggedInUser);
-            journalEntry = journalEntryRepository.save(journalEntry);
-
-            log.info("Created Journal Entry ID: {} for Expense ID: {}", journalEntry.getId(), expense.getId());
+            JournalWriter.Posting posting = buildExpensePosting(expense, organizationAccount.getId(),
+                    organizationAccount.getName(), false, loggedInUser);
 
-            // Find or create Chart of Account for Bank/Cash Account
-            ChartOfAccount bankAccount = findBankAccount(organizationAccount, expense.getOrganizationId());
-            log.info("Bank Account COA ID: {} - {}", bankAccount.getId(), bankAccount.getName());
+            // Header and lines go out as one batch, writer also enforces Debit == Credit
+            JournalEntry journalEntry = journalWriter.post(posting.journalEntry(), posting.detailEntries());
 
-
-
-            // If amountPaid > 0: Debit Expense, Credit Bank
-            if (expense.getAmountPaid() > 0 && expense.getCreditAmount() == 0) {
-                    // Debit: Expense Account
-
-                    ChartOfAccount debitAccount =
-                            expense.getExpenseType() != ExpenseType.CONSTRUCTION
-                                    ? findExpenseAccount(expense, loggedInUser)
-                                    : getConstructionInventoryControlAccount(expense.getOrganizationId());
-
-                    if(debitAccount == null){
-                        throw new RuntimeException("No Valid Debit Account was found");
-                    }
-
-                    log.info("Debit Account COA ID: {} - {}", debitAccount.getId(), debitAccount.getName());
-
-                    JournalDetailEntry debitEntry = new JournalDetailEntry();
-                    debitEntry.setJournalEntryId(journalEntry.getId());
-                    debitEntry.setChartOfAccountId(debitAccount.getId());
-                    debitEntry.setDebitAmount(expense.getTotalAmount());
-                    debitEntry.setCreditAmount(0.0);
-                    debitEntry.setDescription("Expense: " + expense.getExpenseTitle());
-                    detailEntries.add(debitEntry);
-                    totalDebit += expense.getTotalAmount();
-
-                    // Credit: Bank Account
-                    JournalDetailEntry creditEntry = new JournalDetailEntry();
-                    creditEntry.setJournalEntryId(journalEntry.getId());
-                    creditEntry.setChartOfAccountId(bankAccount.getId());
-                    creditEntry.setDebitAmount(0.0);
-                    creditEntry.setCreditAmount(expense.getAmountPaid());
-                    creditEntry.setDescription("Payment from: " + organizationAccount.getName());
-                    detailEntries.add(creditEntry);
-                    totalCredit += expense.getAmountPaid();
-
-            }
-
-            // If creditAmount > 0: Debit Expense, Credit Accounts Payable (Vendor)
-            else if (expense.getCreditAmount() > 0 && expense.getVendorAccountId() != null) {
-
-                ChartOfAccount constructionInventoryAccount = getConstructionInventoryControlAccount
-                        (organizationAccount.getOrganizationId());
-
-                // Find or create Accounts Payable account for vendor
-                ChartOfAccount accountsPayableAccount = getVendorPayableControlAccount(expense.getOrganizationId());
-                log.info("Accounts Payable COA ID: {} - {}", accountsPayableAccount.getId(), accountsPayableAccount.getName());
-
-
-                JournalDetailEntry debitInventoryEntry = new JournalDetailEntry();
-                debitInventoryEntry.setJournalEntryId(journalEntry.getId());
-                debitInventoryEntry.setChartOfAccountId(constructionInventoryAccount.getId());
-                debitInventoryEntry.setDebitAmount(expense.getTotalAmount());
-                debitInventoryEntry.setCreditAmount(0.0);
-                debitInventoryEntry.setDescription("Expense: " + expense.getExpenseTitle());
-                detailEntries.add(debitInventoryEntry);
-                totalDebit += expense.getTotalAmount();
-
-
-                JournalDetailEntry creditVendorEntry = new JournalDetailEntry();
-                creditVendorEntry.setJournalEntryId(journalEntry.getId());
-                creditVendorEntry.setChartOfAccountId(accountsPayableAccount.getId());
-                creditVendorEntry.setDebitAmount(0.0);
-                creditVendorEntry.setCreditAmount(expense.getTotalAmount());
-                creditVendorEntry.setDescription("Expense: " + expense.getExpenseTitle());
-                detailEntries.add(creditVendorEntry);
-                totalCredit += expense.getTotalAmount();
-
-
-                JournalDetailEntry debitVendorEntry = new JournalDetailEntry();
-                debitVendorEntry.setJournalEntryId(journalEntry.getId());
-                debitVendorEntry.setChartOfAccountId(accountsPayableAccount.getId());
-                debitVendorEntry.setDebitAmount(expense.getAmountPaid());
-                debitVendorEntry.setCreditAmount(0.0);
-                debitVendorEntry.setDescription("Expense: " + expense.getExpenseTitle());
-                detailEntries.add(debitVendorEntry);
-                totalDebit += expense.getAmountPaid();
-
-
-                // Credit: Bank Account
-                JournalDetailEntry creditBankEntry = new JournalDetailEntry();
-                creditBankEntry.setJournalEntryId(journalEntry.getId());
-                creditBankEntry.setChartOfAccountId(bankAccount.getId());
-                creditBankEntry.setDebitAmount(0.0);
-                creditBankEntry.setCreditAmount(expense.getAmountPaid());
-                creditBankEntry.setDescription("Payment from: " + organizationAccount.getName());
-                detailEntries.add(creditBankEntry);
-                totalCredit += expense.getAmountPaid();
-            }
-
-            // Validate double-entry: Debit MUST equal Credit
-            if (Math.abs(totalDebit - totalCredit) > 0.01) {
-                throw new RuntimeException("Journal Entry imbalance! Debit: " + totalDebit + ", Credit: " + totalCredit);
-            }
-
-            // Save all detail entries
-            for (JournalDetailEntry entry : detailEntries) {
-                journalDetailEntryRepository.save(entry);
-                log.info("Saved Journal Detail Entry - COA: {}, Debit: {}, Credit: {}",
-                        entry.getChartOfAccountId(), entry.getDebitAmount(), entry.getCreditAmount());
-            }
-
-            log.info("Journal Entry {} completed. Total Debit: {}, Total Credit: {}",
-                    journalEntry.getId(), totalDebit, totalCredit);
+            log.info("Journal Entry {} completed with {} lines", journalEntry.getId(), posting.detailEntries().size());
 
         } catch (Exception e) {
             log.error("Failed to create journal entry for expense {}: {}", expense.getId(), e.getMessage(), e);
@@ -182,6 +56,33 @@ public class JournalEntryService {
         }
     }
 
+    /**
+     * Header and lines of an expense's journal entry without posting them, so bulk
+     * callers can hand many of them to {@link JournalWriter#postAll} at once.
+     * expenseAccountVerified skips the per expense lookup of the expense chart of account
+     * when the caller already checked it.
+     */
+    public JournalWriter.Posting buildExpensePosting(Expense expense, long organizationAccountId, String organizationAccountName,
+                                                     boolean expenseAccountVerified, String loggedInUser) {
+        // Create Journal Entry header
+        JournalEntry journalEntry = new JournalEntry();
+        journalEntry.setOrganizationId(expense.getOrganizationId());
+        journalEntry.setCreatedDate(expense.getCreatedDate() != null ? expense.getCreatedDate() : java.time.LocalDateTime.now());
+        journalEntry.setReferenceType("EXPENSE");
+        journalEntry.setExpenseId(expense.getId());
+        journalEntry.setOrganizationAccountId(organizationAccountId);
+        journalEntry.setVendorId(expense.getVendorAccountId());
+        journalEntry.setProjectId(expense.getProjectId());
+        journalEntry.setUnitId(expense.getUnitId());
+        journalEntry.setDescription("Expense: " + expense.getExpenseTitle() +
+                (expense.getProjectName() != null ? " - Project: " + expense.getProjectName() : ""));
+        journalEntry.setStatus(JournalEntryStatus.POSTED);
+        journalEntry.setCreatedBy(loggedInUser);
+
+        return new JournalWriter.Posting(journalEntry,
+                buildExpenseLines(expense, organizationAccountId, organizationAccountName, expenseAccountVerified));
+    }
+
     /**
      * Create journal entry for additional expense payment (ExpenseDetail)
      * This is when paying off vendor credit/debt
@@ -209,21 +110,17 @@ public class JournalEntryService {
                     " - Paying debt to " + expense.getVendorName());
             journalEntry.setStatus(JournalEntryStatus.POSTED);
             journalEntry.setCreatedBy(loggedInUser);
-            journalEntry = journalEntryRepository.save(journalEntry);
 
-            log.info("Created Journal Entry ID: {} for Expense Payment, Expense ID: {}",
-                    journalEntry.getId(), expense.getId());
 
-            // Find or create Chart of Account for Bank/Cash Account
-            ChartOfAccount bankAccount = findBankAccount(organizationAccount, expense.getOrganizationId());
+            // Chart of Account for Bank/Cash Account
+            long bankAccountId = controlAccountService.getBankAccountId(expense.getOrganizationId(), organizationAccount.getId());
 
-            // Find or create Accounts Payable account for vendor
-            ChartOfAccount accountsPayableAccount = getVendorPayableControlAccount(expense.getOrganizationId());
+            // Accounts Payable control account for vendor
+            long accountsPayableAccountId = getVendorPayableControlAccountId(expense.getOrganizationId());
 
             // Debit: Accounts Payable (Vendor) - reducing the liability
             JournalDetailEntry debitEntry = new JournalDetailEntry();
-            debitEntry.setJournalEntryId(journalEntry.getId());
-            debitEntry.setChartOfAccountId(accountsPayableAccount.getId());
+            debitEntry.setChartOfAccountId(accountsPayableAccountId);
             debitEntry.setDebitAmount(paymentAmount);
             debitEntry.setCreditAmount(0.0);
             debitEntry.setDescription("Payment to: " + expense.getVendorName());
@@ -232,25 +129,15 @@ public class JournalEntryService {
 
             // Credit: Bank Account - reducing the asset
             JournalDetailEntry creditEntry = new JournalDetailEntry();
-            creditEntry.setJournalEntryId(journalEntry.getId());
-            creditEntry.setChartOfAccountId(bankAccount.getId());
+            creditEntry.setChartOfAccountId(bankAccountId);
             creditEntry.setDebitAmount(0.0);
             creditEntry.setCreditAmount(paymentAmount);
             creditEntry.setDescription("Payment from: " + organizationAccount.getName());
             detailEntries.add(creditEntry);
             totalCredit += paymentAmount;
 
-            // Validate double-entry: Debit MUST equal Credit
-            if (Math.abs(totalDebit - totalCredit) > 0.01) {
-                throw new RuntimeException("Journal Entry imbalance! Debit: " + totalDebit + ", Credit: " + totalCredit);
-            }
-
-            // Save all detail entries
-            for (JournalDetailEntry entry : detailEntries) {
-                journalDetailEntryRepository.save(entry);
-                log.info("Saved Journal Detail Entry - COA: {}, Debit: {}, Credit: {}",
-                        entry.getChartOfAccountId(), entry.getDebitAmount(), entry.getCreditAmount());
-            }
+            // Header and lines go out as one batch, writer also enforces Debit == Credit
+            journalEntry = journalWriter.post(journalEntry, detailEntries);
 
             log.info("Journal Entry {} completed. Total Debit: {}, Total Credit: {}",
                     journalEntry.getId(), totalDebit, totalCredit);
@@ -282,22 +169,17 @@ public class JournalEntryService {
                     " - Paying " + expense.getVendorName());
             journalEntry.setStatus(JournalEntryStatus.POSTED);
             journalEntry.setCreatedBy(loggedInUser);
-            journalEntry = journalEntryRepository.save(journalEntry);
 
-            log.info("Created Journal Entry ID: {} for Vendor Payment, Expense ID: {}",
-                    journalEntry.getId(), expense.getId());
 
             // Get Bank account
-            ChartOfAccount bankAccount = findBankAccount(organizationAccount, expense.getOrganizationId());
-            if (bankAccount == null) throw new RuntimeException("Bank account not found");
+            long bankAccountId = controlAccountService.getBankAccountId(expense.getOrganizationId(), organizationAccount.getId());
 
             // Get Vendor Payable (AP) account
-            ChartOfAccount accountsPayableAccount = getVendorPayableControlAccount(expense.getOrganizationId());
+            long accountsPayableAccountId = getVendorPayableControlAccountId(expense.getOrganizationId());
 
             // Debit AP (reduce liability)
             JournalDetailEntry debitAP = new JournalDetailEntry();
-            debitAP.setJournalEntryId(journalEntry.getId());
-            debitAP.setChartOfAccountId(accountsPayableAccount.getId());
+            debitAP.setChartOfAccountId(accountsPayableAccountId);
             debitAP.setDebitAmount(paymentAmount);
             debitAP.setCreditAmount(0.0);
             debitAP.setDescription("Payment to vendor: " + expense.getVendorName());
@@ -306,25 +188,15 @@ public class JournalEntryService {
 
             // Credit Bank (reduce asset)
             JournalDetailEntry creditBank = new JournalDetailEntry();
-            creditBank.setJournalEntryId(journalEntry.getId());
-            creditBank.setChartOfAccountId(bankAccount.getId());
+            creditBank.setChartOfAccountId(bankAccountId);
             creditBank.setDebitAmount(0.0);
             creditBank.setCreditAmount(paymentAmount);
             creditBank.setDescription("Payment from: " + organizationAccount.getName());
             detailEntries.add(creditBank);
             totalCredit += paymentAmount;
 
-            // Validate double-entry
-            if (Math.abs(totalDebit - totalCredit) > 0.01) {
-                throw new RuntimeException("Journal Entry imbalance! Debit: " + totalDebit + ", Credit: " + totalCredit);
-            }
-
-            // Save entries
-            for (JournalDetailEntry entry : detailEntries) {
-                journalDetailEntryRepository.save(entry);
-                log.info("Saved Journal Detail Entry - COA: {}, Debit: {}, Credit: {}",
-                        entry.getChartOfAccountId(), entry.getDebitAmount(), entry.getCreditAmount());
-            }
+            // Header and lines go out as one batch, writer also enforces Debit == Credit
+            journalEntry = journalWriter.post(journalEntry, detailEntries);
 
             log.info("Vendor Payment Journal Entry {} completed. Total Debit: {}, Total Credit: {}",
                     journalEntry.getId(), totalDebit, totalCredit);
@@ -338,67 +210,181 @@ public class JournalEntryService {
 
 
     /**
-     * Find or create Chart of Account for Bank/Cash Account
-     * This links OrganizationAccount to ChartOfAccount for proper ledger entries
+     * Journal entry for an edited expense, posted instead of reversing the original
+     * entry and creating a new one.
+     * The lines of the stored expense are negated, the lines of the edited expense added
+     * and both are netted per chart of account, so only the accounts that actually moved
+     * get a line. Nothing is posted when the edit does not change the ledger.
+     * The old expense must still hold its stored values, call this before saving the edit.
      */
-    private ChartOfAccount findBankAccount(OrganizationAccount organizationAccount, long organizationId) {
-        // Find existing account by name and organization
+    @Transactional
+    public void createAdjustmentJournalEntryForExpense(Expense oldExpense, String oldOrganizationAccountName,
+                                                       Expense newExpense, String newOrganizationAccountName,
+                                                       String loggedInUser) {
+        try {
+            Map<Long, Double> netByAccount = new LinkedHashMap<>();
+            for (JournalDetailEntry entry : buildExpenseLines(oldExpense, oldExpense.getOrganizationAccountId(), oldOrganizationAccountName, false))
+                netByAccount.merge(entry.getChartOfAccountId(), entry.getCreditAmount() - entry.getDebitAmount(), Double::sum);
+            for (JournalDetailEntry entry : buildExpenseLines(newExpense, newExpense.getOrganizationAccountId(), newOrganizationAccountName, false))
+                netByAccount.merge(entry.getChartOfAccountId(), entry.getDebitAmount() - entry.getCreditAmount(), Double::sum);
+
+            double totalDebit = 0.0;
+            double totalCredit = 0.0;
+            List<JournalDetailEntry> detailEntries = new ArrayList<>();
+
+            for (Map.Entry<Long, Double> net : netByAccount.entrySet()) {
+                double amount = net.getValue();
+                if (Math.abs(amount) < 0.005)
+                    continue;
+
+                JournalDetailEntry entry = new JournalDetailEntry();
+                entry.setChartOfAccountId(net.getKey());
+                entry.setDebitAmount(amount > 0 ? amount : 0.0);
+                entry.setCreditAmount(amount < 0 ? -amount : 0.0);
+                entry.setDescription("Expense Adjustment: " + newExpense.getExpenseTitle());
+                detailEntries.add(entry);
+                totalDebit += entry.getDebitAmount();
+                totalCredit += entry.getCreditAmount();
+            }
 
-        Optional<AccountGroup> accountGroup = accountGroupRepository.
-                findByNameAndOrganization_OrganizationId("bank/cash", organizationId);
+            if (detailEntries.isEmpty()) {
+                log.info("Expense {} update has no ledger effect, no adjustment posted", newExpense.getId());
+                return;
+            }
+
+            JournalEntry journalEntry = new JournalEntry();
+            journalEntry.setOrganizationId(newExpense.getOrganizationId());
+            journalEntry.setCreatedDate(java.time.LocalDateTime.now());
+            journalEntry.setReferenceType("EXPENSE_ADJUSTMENT");
+            journalEntry.setExpenseId(newExpense.getId());
+            journalEntry.setOrganizationAccountId(newExpense.getOrganizationAccountId());
+            journalEntry.setVendorId(newExpense.getVendorAccountId());
+            journalEntry.setProjectId(newExpense.getProjectId());
+            journalEntry.setUnitId(newExpense.getUnitId());
+            journalEntry.setDescription("Expense Adjustment: " + newExpense.getExpenseTitle() +
+                    (newExpense.getProjectName() != null ? " - Project: " + newExpense.getProjectName() : ""));
+            journalEntry.setStatus(JournalEntryStatus.POSTED);
+            journalEntry.setCreatedBy(loggedInUser);
 
-        Optional<ChartOfAccount> existingAccount = chartOfAccountRepository
-                .findAllByOrganization_OrganizationId(organizationId)
-                .stream()
-                .filter(coa -> coa.getOrganizationAccountId() != null && coa.getOrganizationAccountId() == organizationAccount.getId()
-                        && coa.getStatus() == AccountStatus.ACTIVE && coa.getAccountGroup().getId() ==
-                        accountGroup.get().getId())
-                .findFirst();
+            journalEntry = journalWriter.post(journalEntry, detailEntries);
 
-        return existingAccount.orElse(null);
+            log.info("Journal Entry {} completed. Total Debit: {}, Total Credit: {}",
+                    journalEntry.getId(), totalDebit, totalCredit);
 
+        } catch (Exception e) {
+            log.error("Failed to create adjustment journal entry for expense {}: {}", newExpense.getId(), e.getMessage(), e);
+            throw new RuntimeException("Failed to create journal entry: " + e.getMessage(), e);
+        }
     }
 
     /**
-     * Find or create Chart of Account for Expense Account
+     * Lines an expense posts when it is created
+     * <p>
+     * Fully paid: Debit Expense / Construction Inventory (totalAmount), Credit Bank (amountPaid)
+     * <p>
+     * On credit: Debit Construction Inventory, Credit Accounts Payable (totalAmount),
+     * then Debit Accounts Payable, Credit Bank (amountPaid)
      */
-    private ChartOfAccount findExpenseAccount(Expense expense, String loggedInUser) {
+    private List<JournalDetailEntry> buildExpenseLines(Expense expense, long organizationAccountId, String organizationAccountName,
+                                                       boolean expenseAccountVerified) {
+        List<JournalDetailEntry> detailEntries = new ArrayList<>();
+
+        // Chart of Account for Bank/Cash Account
+        long bankAccountId = controlAccountService.getBankAccountId(expense.getOrganizationId(), organizationAccountId);
+        log.info("Bank Account COA ID: {}", bankAccountId);
+
+        // If amountPaid > 0: Debit Expense, Credit Bank
+        if (expense.getAmountPaid() > 0 && expense.getCreditAmount() == 0) {
+            // Debit: Expense Account
 
-        // Try to find existing account
-        Optional<ChartOfAccount> existingAccount = chartOfAccountRepository
-                .findById(expense.getExpenseCOAId());
+            Long debitAccountId =
+                    expense.getExpenseType() != ExpenseType.CONSTRUCTION
+                            ? (expenseAccountVerified ? Long.valueOf(expense.getExpenseCOAId()) : findExpenseAccountId(expense))
+                            : getConstructionInventoryControlAccountId(expense.getOrganizationId());
 
-        return existingAccount.orElse(null);
+            if(debitAccountId == null){
+                throw new RuntimeException("No Valid Debit Account was found");
+            }
+
+            log.info("Debit Account COA ID: {}", debitAccountId);
+
+            JournalDetailEntry debitEntry = new JournalDetailEntry();
+            debitEntry.setChartOfAccountId(debitAccountId);
+            debitEntry.setDebitAmount(expense.getTotalAmount());
+            debitEntry.setCreditAmount(0.0);
+            debitEntry.setDescription("Expense: " + expense.getExpenseTitle());
+            detailEntries.add(debitEntry);
+
+            // Credit: Bank Account
+            JournalDetailEntry creditEntry = new JournalDetailEntry();
+            creditEntry.setChartOfAccountId(bankAccountId);
+            creditEntry.setDebitAmount(0.0);
+            creditEntry.setCreditAmount(expense.getAmountPaid());
+            creditEntry.setDescription("Payment from: " + organizationAccountName);
+            detailEntries.add(creditEntry);
+        }
+
+        // If creditAmount > 0: Debit Expense, Credit Accounts Payable (Vendor)
+        else if (expense.getCreditAmount() > 0 && expense.getVendorAccountId() != null) {
+
+            long constructionInventoryAccountId = getConstructionInventoryControlAccountId
+                    (expense.getOrganizationId());
+
+            // Accounts Payable control account for vendor
+            long accountsPayableAccountId = getVendorPayableControlAccountId(expense.getOrganizationId());
+            log.info("Accounts Payable COA ID: {}", accountsPayableAccountId);
+
+
+            JournalDetailEntry debitInventoryEntry = new JournalDetailEntry();
+            debitInventoryEntry.setChartOfAccountId(constructionInventoryAccountId);
+            debitInventoryEntry.setDebitAmount(expense.getTotalAmount());
+            debitInventoryEntry.setCreditAmount(0.0);
+            debitInventoryEntry.setDescription("Expense: " + expense.getExpenseTitle());
+            detailEntries.add(debitInventoryEntry);
+
+
+            JournalDetailEntry creditVendorEntry = new JournalDetailEntry();
+            creditVendorEntry.setChartOfAccountId(accountsPayableAccountId);
+            creditVendorEntry.setDebitAmount(0.0);
+            creditVendorEntry.setCreditAmount(expense.getTotalAmount());
+            creditVendorEntry.setDescription("Expense: " + expense.getExpenseTitle());
+            detailEntries.add(creditVendorEntry);
+
+
+            JournalDetailEntry debitVendorEntry = new JournalDetailEntry();
+            debitVendorEntry.setChartOfAccountId(accountsPayableAccountId);
+            debitVendorEntry.setDebitAmount(expense.getAmountPaid());
+            debitVendorEntry.setCreditAmount(0.0);
+            debitVendorEntry.setDescription("Expense: " + expense.getExpenseTitle());
+            detailEntries.add(debitVendorEntry);
+
+
+            // Credit: Bank Account
+            JournalDetailEntry creditBankEntry = new JournalDetailEntry();
+            creditBankEntry.setChartOfAccountId(bankAccountId);
+            creditBankEntry.setDebitAmount(0.0);
+            creditBankEntry.setCreditAmount(expense.getAmountPaid());
+            creditBankEntry.setDescription("Payment from: " + organizationAccountName);
+            detailEntries.add(creditBankEntry);
+        }
+
+        return detailEntries;
     }
 
-    private ChartOfAccount getVendorPayableControlAccount(long organizationId) {
-        return chartOfAccountRepository
-                .findByOrganization_OrganizationIdAndNameIgnoreCaseAndStatusAndIsSystemGenerated(
-                        organizationId,
-                        "Vendor Payable",
-                        AccountStatus.ACTIVE,
-                        true
-                )
-                .orElseThrow(() ->
-                        new RuntimeException(
-                                "Vendor Payable control account not found for organization " + organizationId
-                        ));
+    /**
+     * Chart of Account id for Expense Account
+     */
+    private Long findExpenseAccountId(Expense expense) {
+        return chartOfAccountRepository.existsById(expense.getExpenseCOAId()) ? expense.getExpenseCOAId() : null;
     }
 
+    private long getVendorPayableControlAccountId(long organizationId) {
+        return controlAccountService.getControlAccountId(organizationId, ControlAccountType.VENDOR_PAYABLE);
+    }
 
-    public ChartOfAccount getConstructionInventoryControlAccount(long organizationId) {
 
-        return chartOfAccountRepository
-                .findByOrganization_OrganizationIdAndNameIgnoreCaseAndStatusAndIsSystemGenerated(
-                        organizationId,
-                        "Construction Inventory",
-                        AccountStatus.ACTIVE,
-                        true
-                )
-                .orElseThrow(() ->
-                        new RuntimeException(
-                                "Construction Inventory control account not found for organization " + organizationId
-                        ));
+    public long getConstructionInventoryControlAccountId(long organizationId) {
+        return controlAccountService.getControlAccountId(organizationId, ControlAccountType.CONSTRUCTION_INVENTORY);
     }
 
 }
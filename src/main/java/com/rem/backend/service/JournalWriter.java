@@ -0,0 +1,82 @@
+package com.rem.backend.service;
+
+import com.rem.backend.entity.account.JournalDetailEntry;
+import com.rem.backend.entity.account.JournalEntry;
+import com.rem.backend.repository.JournalDetailEntryRepository;
+import com.rem.backend.repository.JournalEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single write path for journal entries.
+ * Headers and lines take their ids from the pooled id_generator, so nothing is
+ * inserted until flush and Hibernate sends all headers and all lines as jdbc batches.
+ * Used for single postings as well as bulk posting (imports, month-end).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JournalWriter {
+
+    private final JournalEntryRepository journalEntryRepository;
+    private final JournalDetailEntryRepository journalDetailEntryRepository;
+    private final LedgerBalanceService ledgerBalanceService;
+
+    public record Posting(JournalEntry journalEntry, List<JournalDetailEntry> detailEntries) {
+    }
+
+    @Transactional
+    public JournalEntry post(JournalEntry journalEntry, List<JournalDetailEntry> detailEntries) {
+        return postAll(List.of(new Posting(journalEntry, detailEntries))).get(0);
+    }
+
+    @Transactional
+    public List<JournalEntry> postAll(List<Posting> postings) {
+        List<JournalEntry> journalEntries = new ArrayList<>(postings.size());
+        List<JournalDetailEntry> detailEntries = new ArrayList<>();
+
+        for (Posting posting : postings) {
+            validateBalance(posting.detailEntries());
+            journalEntries.add(posting.journalEntry());
+        }
+
+        // ids are assigned here from the pool, the inserts themselves are deferred to flush
+        journalEntries = journalEntryRepository.saveAll(journalEntries);
+
+        for (int i = 0; i < postings.size(); i++) {
+            long journalEntryId = journalEntries.get(i).getId();
+            for (JournalDetailEntry entry : postings.get(i).detailEntries()) {
+                entry.setJournalEntryId(journalEntryId);
+                detailEntries.add(entry);
+            }
+        }
+
+        journalDetailEntryRepository.saveAll(detailEntries);
+
+        // same transaction as the lines, so balances never diverge from the journal
+        ledgerBalanceService.applyPostings(postings);
+
+        log.info("Posted {} journal entries with {} detail lines", journalEntries.size(), detailEntries.size());
+        return journalEntries;
+    }
+
+    // Double-entry bookkeeping: Total Debit MUST equal Total Credit
+    private void validateBalance(List<JournalDetailEntry> detailEntries) {
+        double totalDebit = 0.0;
+        double totalCredit = 0.0;
+
+        for (JournalDetailEntry entry : detailEntries) {
+            totalDebit += entry.getDebitAmount();
+            totalCredit += entry.getCreditAmount();
+        }
+
+        if (Math.abs(totalDebit - totalCredit) > 0.01) {
+            throw new RuntimeException("Journal Entry imbalance! Debit: " + totalDebit + ", Credit: " + totalCredit);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.accounting.TrialBalanceProjection;
+import com.rem.backend.entity.account.CoaPeriodBalance;
+import com.rem.backend.entity.account.JournalDetailEntry;
+import com.rem.backend.entity.account.JournalEntry;
+import com.rem.backend.enums.JournalEntryStatus;
+import com.rem.backend.repository.CoaPeriodBalanceRepository;
+import com.rem.backend.utility.ResponseMapper;
+import com.rem.backend.utility.Responses;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Per COA, per month debit/credit totals (coa_period_balance).
+ * Reports read these rows, so their cost depends on the number of accounts
+ * and months, not on the number of journal lines.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerBalanceService {
+
+    private static final int MIN_PERIOD = 190001;
+    private static final int MAX_PERIOD = 999912;
+
+    private final CoaPeriodBalanceRepository coaPeriodBalanceRepository;
+
+    /**
+     * Adds the posted lines to their month's totals with one atomic upsert per
+     * (organization, COA, month). Must run inside the posting transaction.
+     */
+    public void applyPostings(List<JournalWriter.Posting> postings) {
+        Map<BalanceKey, double[]> deltas = new HashMap<>();
+
+        for (JournalWriter.Posting posting : postings) {
+            JournalEntry journalEntry = posting.journalEntry();
+            if (journalEntry.getStatus() != JournalEntryStatus.POSTED)
+                continue;
+
+            LocalDateTime date = journalEntry.getCreatedDate() != null ? journalEntry.getCreatedDate() : LocalDateTime.now();
+            int period = toPeriod(YearMonth.from(date));
+
+            for (JournalDetailEntry entry : posting.detailEntries()) {
+                double[] delta = deltas.computeIfAbsent(
+                        new BalanceKey(journalEntry.getOrganizationId(), entry.getChartOfAccountId(), period),
+                        key -> new double[2]);
+                delta[0] += entry.getDebitAmount();
+                delta[1] += entry.getCreditAmount();
+            }
+        }
+
+        deltas.forEach((key, delta) -> coaPeriodBalanceRepository.applyDelta(
+                key.organizationId(), key.chartOfAccountId(), key.period(), delta[0], delta[1]));
+    }
+
+    public Map<String, Object> getTrialBalance(long organizationId, String fromPeriod, String toPeriod) {
+        try {
+            List<TrialBalanceProjection> rows = coaPeriodBalanceRepository.findTrialBalance(
+                    organizationId, parsePeriod(fromPeriod, MIN_PERIOD), parsePeriod(toPeriod, MAX_PERIOD));
+
+            double totalDebit = 0.0;
+            double totalCredit = 0.0;
+            List<Map<String, Object>> accounts = new ArrayList<>(rows.size());
+
+            for (TrialBalanceProjection row : rows) {
+                Map<String, Object> account = new LinkedHashMap<>();
+                account.put("chartOfAccountId", row.getChartOfAccountId());
+                account.put("code", row.getCode());
+                account.put("name", row.getName());
+                account.put("groupName", row.getGroupName());
+                account.put("accountType", row.getAccountType());
+                account.put("debit", row.getDebitTotal());
+                account.put("credit", row.getCreditTotal());
+                account.put("balance", row.getDebitTotal() - row.getCreditTotal());
+                accounts.add(account);
+
+                totalDebit += row.getDebitTotal();
+                totalCredit += row.getCreditTotal();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("accounts", accounts);
+            response.put("totalDebit", totalDebit);
+            response.put("totalCredit", totalCredit);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getAccountBalance(long organizationId, long chartOfAccountId,
+                                                 String fromPeriod, String toPeriod) {
+        try {
+            List<CoaPeriodBalance> periods = coaPeriodBalanceRepository
+                    .findAllByOrganizationIdAndChartOfAccountIdAndPeriodBetweenOrderByPeriod(
+                            organizationId, chartOfAccountId,
+                            parsePeriod(fromPeriod, MIN_PERIOD), parsePeriod(toPeriod, MAX_PERIOD));
+
+            double totalDebit = 0.0;
+            double totalCredit = 0.0;
+            List<Map<String, Object>> months = new ArrayList<>(periods.size());
+
+            for (CoaPeriodBalance balance : periods) {
+                totalDebit += balance.getDebitTotal();
+                totalCredit += balance.getCreditTotal();
+
+                Map<String, Object> month = new LinkedHashMap<>();
+                month.put("period", String.format("%d-%02d", balance.getPeriod() / 100, balance.getPeriod() % 100));
+                month.put("debit", balance.getDebitTotal());
+                month.put("credit", balance.getCreditTotal());
+                month.put("closingBalance", totalDebit - totalCredit);
+                months.add(month);
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("chartOfAccountId", chartOfAccountId);
+            response.put("periods", months);
+            response.put("totalDebit", totalDebit);
+            response.put("totalCredit", totalCredit);
+            response.put("balance", totalDebit - totalCredit);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, response);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    @Transactional
+    public Map<String, Object> rebuildBalances(long organizationId) {
+        try {
+            coaPeriodBalanceRepository.deleteAllByOrganization(organizationId);
+            int rows = coaPeriodBalanceRepository.rebuildFromJournal(organizationId);
+            log.info("Rebuilt {} period balances for organization {}", rows, organizationId);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, rows);
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    private static int toPeriod(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+
+    // accepts yyyy-MM, blank falls back to the open end of the range
+    private static int parsePeriod(String period, int fallback) {
+        if (period == null || period.isBlank())
+            return fallback;
+        try {
+            return toPeriod(YearMonth.parse(period.trim()));
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid period " + period + ", expected yyyy-MM");
+        }
+    }
+
+    private record BalanceKey(long organizationId, long chartOfAccountId, int period) {
+    }
+}
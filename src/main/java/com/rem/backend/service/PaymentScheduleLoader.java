@@ -0,0 +1,82 @@
+package com.rem.backend.service;
+
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentPlanType;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.repository.MonthSpecificPaymentRepo;
+import com.rem.backend.repository.MonthWisePaymentRepo;
+import com.rem.backend.repository.PaymentScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Loads payment schedules of many units with their month wise and month specific rows in at most
+ * three queries (schedules, month wise rows, month specific rows), the rows are grouped in memory.
+ */
+@Service
+@RequiredArgsConstructor
+public class PaymentScheduleLoader {
+
+    private final PaymentScheduleRepository paymentScheduleRepository;
+    private final MonthWisePaymentRepo monthWisePaymentRepo;
+    private final MonthSpecificPaymentRepo monthSpecificPaymentRepo;
+
+    /**
+     * Active schedules of the given type keyed by unit id, units without one are missing from the map
+     */
+    public Map<Long, PaymentSchedule> loadByUnitIds(Collection<Long> unitIds, PaymentScheduleType paymentScheduleType) {
+        if (unitIds.isEmpty())
+            return new HashMap<>();
+
+        List<PaymentSchedule> schedules = paymentScheduleRepository
+                .findByUnit_IdInAndPaymentScheduleTypeAndIsActiveTrue(unitIds, paymentScheduleType);
+        populate(schedules);
+        return schedules.stream()
+                .collect(Collectors.toMap(schedule -> schedule.getUnit().getId(), schedule -> schedule, (first, second) -> first));
+    }
+
+    /**
+     * All active schedules (builder and customer) of the given units
+     */
+    public List<PaymentSchedule> loadByUnitIds(Collection<Long> unitIds) {
+        if (unitIds.isEmpty())
+            return new ArrayList<>();
+
+        List<PaymentSchedule> schedules = paymentScheduleRepository.findByUnit_IdInAndIsActiveTrue(unitIds);
+        populate(schedules);
+        return schedules;
+    }
+
+    /**
+     * Fills the month wise and month specific lists of already loaded schedules, plans without
+     * such rows get empty lists
+     */
+    public void populate(List<PaymentSchedule> schedules) {
+        Set<Long> rangeScheduleIds = new HashSet<>();
+        Set<Long> specificScheduleIds = new HashSet<>();
+        for (PaymentSchedule schedule : schedules) {
+            if (PaymentPlanType.INSTALLMENT_RANGE.equals(schedule.getPaymentPlanType()))
+                rangeScheduleIds.add(schedule.getId());
+            else if (PaymentPlanType.INSTALLMENT_SPECIFIC.equals(schedule.getPaymentPlanType()))
+                specificScheduleIds.add(schedule.getId());
+        }
+
+        Map<Long, List<MonthWisePayment>> monthWisePayments = rangeScheduleIds.isEmpty() ? Map.of()
+                : monthWisePaymentRepo.findByPaymentScheduleIdInOrderByFromMonth(rangeScheduleIds).stream()
+                .collect(Collectors.groupingBy(MonthWisePayment::getPaymentScheduleId));
+
+        Map<Long, List<MonthSpecificPayment>> monthSpecificPayments = specificScheduleIds.isEmpty() ? Map.of()
+                : monthSpecificPaymentRepo.findByPaymentScheduleIdInOrderById(specificScheduleIds).stream()
+                .collect(Collectors.groupingBy(MonthSpecificPayment::getPaymentScheduleId));
+
+        for (PaymentSchedule schedule : schedules) {
+            schedule.setMonthWisePaymentList(new ArrayList<>(monthWisePayments.getOrDefault(schedule.getId(), List.of())));
+            schedule.setMonthSpecificPaymentList(new ArrayList<>(monthSpecificPayments.getOrDefault(schedule.getId(), List.of())));
+        }
+    }
+}
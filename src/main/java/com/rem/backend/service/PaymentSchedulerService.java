@@ -30,48 +30,57 @@ public class PaymentSchedulerService {
     private final MonthSpecificPaymentRepo monthSpecificPaymentRepo;
     private final UnitRepo unitRepo;
     private final CustomerRepo customerRepo;
+    private final PaymentScheduleLoader paymentScheduleLoader;
+    private final ProjectTreeLoader projectTreeLoader;
 
 
     public void deleteByUnitId(long unitID) {
         try {
             paymentScheduleRepository.deleteByUnit_Id(unitID);
+            projectTreeLoader.evictUnit(unitID);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    public Map<String, Object> createSchedule(PaymentSchedule paymentSchedule, PaymentPlanType paymentPlanType) {
-
-        try {
-
-            double totalAmount = paymentSchedule.getActualAmount() + paymentSchedule.getMiscellaneousAmount() + paymentSchedule.getDevelopmentAmount();
-            paymentSchedule.setTotalAmount(totalAmount);
-
-            if (paymentPlanType.equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-                validateMonthWisePayments(paymentSchedule.getMonthWisePaymentList(), paymentSchedule.getDurationInMonths(), paymentPlanType);
-            } else if (paymentPlanType.equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-                validateMonthSpecificPayments(paymentSchedule.getMonthSpecificPaymentList(), paymentSchedule.getDurationInMonths(), paymentPlanType);
-            }
+    /**
+     * Validates a new schedule and fills its total, plan type and one time payment terms,
+     * throws when down payment, installments and on possession payment don't add up to the total
+     */
+    public void prepareSchedule(PaymentSchedule paymentSchedule, PaymentPlanType paymentPlanType) {
+        double totalAmount = paymentSchedule.getActualAmount() + paymentSchedule.getMiscellaneousAmount() + paymentSchedule.getDevelopmentAmount();
+        paymentSchedule.setTotalAmount(totalAmount);
+
+        if (paymentPlanType.equals(PaymentPlanType.INSTALLMENT_RANGE)) {
+            validateMonthWisePayments(paymentSchedule.getMonthWisePaymentList(), paymentSchedule.getDurationInMonths(), paymentPlanType);
+        } else if (paymentPlanType.equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
+            validateMonthSpecificPayments(paymentSchedule.getMonthSpecificPaymentList(), paymentSchedule.getDurationInMonths(), paymentPlanType);
+        }
 
-            validatePaymentSchedule(paymentSchedule);
-            paymentSchedule.setPaymentPlanType(paymentPlanType);
-            PaymentSchedule paymentScheduleSaved = paymentScheduleRepository.save(paymentSchedule);
+        validatePaymentSchedule(paymentSchedule);
+        paymentSchedule.setPaymentPlanType(paymentPlanType);
 
+        if (paymentPlanType.equals(PaymentPlanType.ONE_TIME_PAYMENT)) {
+            paymentSchedule.setDownPayment(paymentSchedule.getTotalAmount());
+            paymentSchedule.setDurationInMonths(0);
+        }
 
-            if (paymentPlanType.equals(PaymentPlanType.ONE_TIME_PAYMENT)) {
-                paymentSchedule.setDownPayment(paymentSchedule.getTotalAmount());
-                paymentSchedule.setDurationInMonths(0);
-            }
+        double monthlySum = monthlyPaymentSum(paymentSchedule);
+        double collectedAmount = Math.ceil(paymentSchedule.getDownPayment() +
+                paymentSchedule.getOnPossessionPayment() + monthlySum);
 
+        if (totalAmount != collectedAmount) {
+            throw new IllegalArgumentException("Amounts not matched!");
+        }
+    }
 
-            double monthlySum = monthlyPaymentSum(paymentSchedule);
-            double collectedAmount = Math.ceil(paymentSchedule.getDownPayment() +
-                    paymentSchedule.getOnPossessionPayment() + monthlySum);
+    public Map<String, Object> createSchedule(PaymentSchedule paymentSchedule, PaymentPlanType paymentPlanType) {
 
+        try {
 
-            if (totalAmount != collectedAmount) {
-                throw new IllegalArgumentException("Amounts not matched!");
-            }
+            prepareSchedule(paymentSchedule, paymentPlanType);
+            PaymentSchedule paymentScheduleSaved = paymentScheduleRepository.save(paymentSchedule);
+            evictUnitTree(paymentSchedule);
 
             if (paymentPlanType.equals(PaymentPlanType.INSTALLMENT_RANGE)) {
                 for (MonthWisePayment payment : paymentSchedule.getMonthWisePaymentList()) {
@@ -96,6 +105,12 @@ public class PaymentSchedulerService {
     }
 
 
+    private void evictUnitTree(PaymentSchedule paymentSchedule) {
+        if (paymentSchedule.getUnit() != null)
+            projectTreeLoader.evictUnit(paymentSchedule.getUnit().getId(), paymentSchedule.getUnit().getFloorId());
+    }
+
+
     public Map<String, Object> updateSchedule(PaymentSchedule paymentSchedule, PaymentPlanType paymentPlanType) {
 
         try {
@@ -108,6 +123,7 @@ public class PaymentSchedulerService {
             validatePaymentSchedule(paymentSchedule);
             paymentSchedule.setPaymentPlanType(paymentPlanType);
             PaymentSchedule paymentScheduleSaved = paymentScheduleRepository.save(paymentSchedule);
+            evictUnitTree(paymentSchedule);
 
 
             if (paymentPlanType.equals(PaymentPlanType.ONE_TIME_PAYMENT)) {
@@ -166,26 +182,8 @@ public class PaymentSchedulerService {
             ValidationService.validate(request.get("id"), "unitId");
             ValidationService.validate(request.get("paymentScheduleType"), "paymentScheduleType");
             PaymentScheduleType type = PaymentScheduleType.valueOf(request.get("paymentScheduleType").toString());
-            Optional<PaymentSchedule> paymentScheduleOptional = paymentScheduleRepository.
-                    findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(Long.valueOf(request.get("id").toString()), type);
-
-            PaymentSchedule paymentSchedule = null;
-            if (paymentScheduleOptional.isPresent()) {
-                paymentSchedule = paymentScheduleOptional.get();
-
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-                    List<MonthWisePayment> monthWisePaymentList = monthWisePaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthWisePaymentList(monthWisePaymentList);
-                } else {
-                    paymentSchedule.setMonthWisePaymentList(Collections.emptyList());
-                }
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-                    List<MonthSpecificPayment> monthSpecificPaymentList = monthSpecificPaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthSpecificPaymentList(monthSpecificPaymentList);
-                } else {
-                    paymentSchedule.setMonthSpecificPaymentList(Collections.emptyList());
-                }
-            }
+            long unitId = Long.parseLong(request.get("id"));
+            PaymentSchedule paymentSchedule = paymentScheduleLoader.loadByUnitIds(List.of(unitId), type).get(unitId);
 
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, paymentSchedule);
@@ -225,38 +223,12 @@ public class PaymentSchedulerService {
 
 
 
-            Optional<PaymentSchedule> paymentScheduleOptionalBuilder = paymentScheduleRepository.
-                    findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(unitId, PaymentScheduleType.BUILDER);
-
-            if (paymentScheduleOptionalBuilder.isPresent()) {
-                PaymentSchedule paymentSchedule = paymentScheduleOptionalBuilder.get();
-
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-                    List<MonthWisePayment> monthWisePaymentList = monthWisePaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthWisePaymentList(monthWisePaymentList);
-                }
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-                    List<MonthSpecificPayment> monthSpecificPaymentList = monthSpecificPaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthSpecificPaymentList(monthSpecificPaymentList);
-                }
-                response.put("builder", paymentSchedule);
-            }
-
-            Optional<PaymentSchedule> paymentScheduleOptionalCustomer = paymentScheduleRepository.
-                    findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(unitId, PaymentScheduleType.CUSTOMER);
-
-            if (paymentScheduleOptionalCustomer.isPresent()) {
-                PaymentSchedule paymentSchedule = paymentScheduleOptionalCustomer.get();
-
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-                    List<MonthWisePayment> monthWisePaymentList = monthWisePaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthWisePaymentList(monthWisePaymentList);
-                }
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-                    List<MonthSpecificPayment> monthSpecificPaymentList = monthSpecificPaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthSpecificPaymentList(monthSpecificPaymentList);
-                }
-                response.put("customer", paymentSchedule);
+            // builder and customer schedules with their rows in one load
+            for (PaymentSchedule paymentSchedule : paymentScheduleLoader.loadByUnitIds(List.of(unitId))) {
+                if (PaymentScheduleType.BUILDER.equals(paymentSchedule.getPaymentScheduleType()))
+                    response.putIfAbsent("builder", paymentSchedule);
+                else if (PaymentScheduleType.CUSTOMER.equals(paymentSchedule.getPaymentScheduleType()))
+                    response.putIfAbsent("customer", paymentSchedule);
             }
 
 
@@ -282,18 +254,8 @@ public class PaymentSchedulerService {
             PaymentSchedule paymentSchedule = paymentScheduleRepository.
                     findByCustomerAccountIdAndPaymentScheduleType(Long.valueOf(request.get("id").toString()), type);
 
-            if (paymentSchedule != null) {
-
-
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-                    List<MonthWisePayment> monthWisePaymentList = monthWisePaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthWisePaymentList(monthWisePaymentList);
-                }
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-                    List<MonthSpecificPayment> monthSpecificPaymentList = monthSpecificPaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthSpecificPaymentList(monthSpecificPaymentList);
-                }
-            }
+            if (paymentSchedule != null)
+                paymentScheduleLoader.populate(List.of(paymentSchedule));
 
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, paymentSchedule);
@@ -315,15 +277,8 @@ public class PaymentSchedulerService {
             ValidationService.validate(request.get("id"), "unitId");
             ValidationService.validate(request.get("paymentScheduleType"), "paymentScheduleType");
             PaymentScheduleType type = PaymentScheduleType.valueOf(request.get("paymentScheduleType").toString());
-            Optional<PaymentSchedule> paymentScheduleOptional = paymentScheduleRepository.
-                    findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(Long.valueOf(request.get("id").toString()), type);
-
-            PaymentSchedule paymentSchedule = null;
-            if (paymentScheduleOptional.isPresent()) {
-                paymentSchedule = paymentScheduleOptional.get();
-                List<MonthWisePayment> monthWisePaymentList = monthWisePaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                paymentSchedule.setMonthWisePaymentList(monthWisePaymentList);
-            }
+            long unitId = Long.parseLong(request.get("id"));
+            PaymentSchedule paymentSchedule = paymentScheduleLoader.loadByUnitIds(List.of(unitId), type).get(unitId);
 
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, paymentSchedule);
@@ -343,23 +298,7 @@ public class PaymentSchedulerService {
 
             ValidationService.validate(unitId, "unitId");
             ValidationService.validate(type, "paymentScheduleType");
-            Optional<PaymentSchedule> paymentScheduleOptional = paymentScheduleRepository.
-                    findByUnitIdAndPaymentScheduleTypeAndIsActiveTrue(Long.valueOf(unitId), type);
-
-            PaymentSchedule paymentSchedule = null;
-            if (paymentScheduleOptional.isPresent()) {
-                paymentSchedule = paymentScheduleOptional.get();
-
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-                    List<MonthWisePayment> monthWisePaymentList = monthWisePaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthWisePaymentList(monthWisePaymentList);
-                }
-                if (paymentSchedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-                    List<MonthSpecificPayment> monthSpecificPaymentList = monthSpecificPaymentRepo.findByPaymentScheduleId(paymentSchedule.getId());
-                    paymentSchedule.setMonthSpecificPaymentList(monthSpecificPaymentList);
-                }
-
-            }
+            PaymentSchedule paymentSchedule = paymentScheduleLoader.loadByUnitIds(List.of(unitId), type).get(unitId);
 
 
             return paymentSchedule;
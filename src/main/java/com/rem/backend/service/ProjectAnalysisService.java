@@ -1,5 +1,6 @@
 package com.rem.backend.service;
 
+import com.rem.backend.dto.expense.ExpenseMonthlyAmountProjection;
 import com.rem.backend.entity.expense.Expense;
 import com.rem.backend.entity.project.Project;
 import com.rem.backend.repository.BookingRepository;
@@ -10,7 +11,9 @@ import com.rem.backend.utility.Responses;
 import com.rem.backend.utility.ValidationService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +25,7 @@ public class ProjectAnalysisService {
     private final ExpenseRepo expenseRepo;
     private final CustomerAccountRepo customerAccountRepo;
     private final BookingRepository bookingRepository;
+    private final ExpenseRollupService expenseRollupService;
 
     public Map<String, Object> getProjectAnalyticsByid(long projectId) {
         Map<String, Object> response = new HashMap<>();
@@ -103,9 +107,16 @@ public class ProjectAnalysisService {
 
         try {
             ValidationService.validate(projectId, "project id");
-            List<Map<String, Object>> purchasedList = expenseRepo.findMonthlyProjectExpensePurchased(projectId);
-            List<Map<String, Object>> paidList = expenseRepo.findMonthlyProjectExpensePaid(projectId);
-            List<Map<String, Object>> creditList = expenseRepo.findMonthlyProjectExpenseCredit(projectId);
+            List<Map<String, Object>> purchasedList = new ArrayList<>();
+            List<Map<String, Object>> paidList = new ArrayList<>();
+            List<Map<String, Object>> creditList = new ArrayList<>();
+
+            // one read of the monthly rollup, months without an amount are left out as before
+            for (ExpenseMonthlyAmountProjection month : expenseRollupService.findMonthlyByProject(projectId)) {
+                addMonth(purchasedList, month, month.getPurchasedAmount());
+                addMonth(paidList, month, month.getPaidAmount());
+                addMonth(creditList, month, month.getCreditAmount());
+            }
 
             response.put("purchase", purchasedList);
             response.put("paid", paidList);
@@ -119,7 +130,15 @@ public class ProjectAnalysisService {
         }
     }
 
+    private static void addMonth(List<Map<String, Object>> series, ExpenseMonthlyAmountProjection month, double amount) {
+        if (Math.abs(amount) < 0.005)
+            return;
 
-
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("year", month.getYear());
+        row.put("month", month.getMonth());
+        row.put("amount", amount);
+        series.add(row);
+    }
 
 }
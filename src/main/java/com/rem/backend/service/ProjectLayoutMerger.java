@@ -0,0 +1,387 @@
+package com.rem.backend.service;
+
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.entity.project.Floor;
+import com.rem.backend.entity.project.Project;
+import com.rem.backend.entity.project.Unit;
+import com.rem.backend.enums.PaymentPlanType;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.repository.*;
+import com.rem.backend.utility.ValidationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.rem.backend.utility.ValidationService.validatePaymentScheduler;
+
+/**
+ * Merges an edited project layout (floors, units and their builder schedules) into the stored one.
+ * <p>
+ * Both trees are keyed by id, new rows are collected and written with saveAll so they go out in
+ * jdbc batches, stored rows are updated in place so only the ones that really changed are written,
+ * and removed floors, units and their builder schedules are dropped with one DELETE ... IN per table.
+ * A layout removing a unit held by an active booking is rejected as a whole.
+ * Schedules whose terms are unchanged keep their month rows, changed ones get them replaced in bulk.
+ * New projects go through {@link #insert}, which is the same write against an empty stored tree.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectLayoutMerger {
+
+    private static final double EPSILON = 0.005;
+
+    private final FloorRepo floorRepo;
+    private final UnitRepo unitRepo;
+    private final PaymentScheduleRepository paymentScheduleRepository;
+    private final MonthWisePaymentRepo monthWisePaymentRepo;
+    private final MonthSpecificPaymentRepo monthSpecificPaymentRepo;
+    private final PaymentSchedulerService paymentSchedulerService;
+    private final BookingRepository bookingRepository;
+
+    // stored is null for new units and for units that never had a builder schedule
+    private record UnitSchedule(Unit unit, PaymentSchedule stored, PaymentSchedule incoming) {
+    }
+
+    // month rows of source to be written under target, once target has its id
+    private record RowWrite(PaymentSchedule target, PaymentSchedule source) {
+    }
+
+    // everything prepareSchedule reads, two schedules with equal keys come out of it with equal terms
+    private record PlanKey(PaymentPlanType planType, int durationInMonths, double actualAmount,
+                           double miscellaneousAmount, double developmentAmount, double downPayment,
+                           double quarterlyPayment, double halfYearlyPayment, double yearlyPayment,
+                           double onPossessionPayment, List<List<Object>> rows) {
+
+        static PlanKey of(PaymentSchedule schedule, PaymentPlanType planType) {
+            List<List<Object>> rows = new ArrayList<>();
+            if (planType == PaymentPlanType.INSTALLMENT_RANGE && schedule.getMonthWisePaymentList() != null) {
+                for (MonthWisePayment payment : schedule.getMonthWisePaymentList())
+                    rows.add(List.of(payment.getFromMonth(), payment.getToMonth(), payment.getAmount()));
+            } else if (planType == PaymentPlanType.INSTALLMENT_SPECIFIC && schedule.getMonthSpecificPaymentList() != null) {
+                for (MonthSpecificPayment payment : schedule.getMonthSpecificPaymentList())
+                    rows.add(Arrays.asList(payment.getMonth(), payment.getYear(), payment.getAmount()));
+            }
+            return new PlanKey(planType, schedule.getDurationInMonths(), schedule.getActualAmount(),
+                    schedule.getMiscellaneousAmount(), schedule.getDevelopmentAmount(), schedule.getDownPayment(),
+                    schedule.getQuarterlyPayment(), schedule.getHalfYearlyPayment(), schedule.getYearlyPayment(),
+                    schedule.getOnPossessionPayment(), rows);
+        }
+    }
+
+    /**
+     * Floors and units counted by the merge, floors is what the project row should record
+     */
+    public record Result(int floors, int insertedUnits, int deletedUnits) {
+    }
+
+    /**
+     * @param stored   the stored project tree, loaded in the current transaction
+     * @param incoming the edited project, floors with an unknown id are ignored
+     * @param writeLayout false for project types without floors and units, only removals are applied then
+     */
+    public Result merge(Project stored, Project incoming, boolean writeLayout, String loggedInUser) {
+        Map<Long, Floor> storedFloors = stored.getFloorList().stream()
+                .collect(Collectors.toMap(Floor::getId, Function.identity()));
+        Map<Long, Unit> storedUnits = stored.getFloorList().stream()
+                .flatMap(floor -> floor.getUnitList().stream())
+                .collect(Collectors.toMap(Unit::getId, Function.identity()));
+
+        List<Floor> incomingFloors = incoming.getFloorList().stream()
+                .filter(floor -> storedFloors.isEmpty() || floor.getId() == 0L || storedFloors.containsKey(floor.getId()))
+                .toList();
+
+        Set<Long> keptFloorIds = new HashSet<>();
+        Set<Long> keptUnitIds = new HashSet<>();
+        for (Floor floor : incomingFloors) {
+            if (storedFloors.containsKey(floor.getId()))
+                keptFloorIds.add(floor.getId());
+            for (Unit unit : floor.getUnitList()) {
+                if (storedUnits.containsKey(unit.getId()))
+                    keptUnitIds.add(unit.getId());
+            }
+        }
+
+        List<Long> deletedFloorIds = storedFloors.keySet().stream().filter(id -> !keptFloorIds.contains(id)).toList();
+        List<Long> deletedUnitIds = storedUnits.keySet().stream().filter(id -> !keptUnitIds.contains(id)).toList();
+
+        // checked before anything is written, a booked unit can't leave the layout with its customer
+        if (!deletedUnitIds.isEmpty()) {
+            List<Long> bookedUnitIds = bookingRepository.findActivelyBookedUnitIds(deletedUnitIds);
+            if (!bookedUnitIds.isEmpty()) {
+                String serialNos = bookedUnitIds.stream()
+                        .map(id -> storedUnits.get(id).getSerialNo())
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+                throw new IllegalArgumentException("Booked units can't be removed from the project: " + serialNos);
+            }
+        }
+
+        int insertedUnits = 0;
+        if (writeLayout)
+            insertedUnits = writeLayout(stored.getProjectId(), incomingFloors, storedFloors, storedUnits, loggedInUser);
+
+        if (!deletedUnitIds.isEmpty()) {
+            monthWisePaymentRepo.deleteBuilderRowsByUnitIds(deletedUnitIds);
+            monthSpecificPaymentRepo.deleteBuilderRowsByUnitIds(deletedUnitIds);
+            paymentScheduleRepository.deleteBuilderSchedulesByUnitIds(deletedUnitIds);
+            unitRepo.deleteAllByIdInBatch(deletedUnitIds);
+        }
+        if (!deletedFloorIds.isEmpty())
+            floorRepo.deleteAllByIdInBatch(deletedFloorIds);
+
+        return new Result(incomingFloors.size(), insertedUnits, deletedUnitIds.size());
+    }
+
+    /**
+     * Writes the floors and units of a new project, validating the whole layout before the first insert
+     */
+    public int insert(long projectId, List<Floor> floors, String loggedInUser) {
+        return writeLayout(projectId, floors, Map.of(), Map.of(), loggedInUser);
+    }
+
+    private int writeLayout(long projectId, List<Floor> incomingFloors, Map<Long, Floor> storedFloors,
+                            Map<Long, Unit> storedUnits, String loggedInUser) {
+        validateLayout(incomingFloors, loggedInUser);
+
+        // floors first, new floors need their ids before their units are placed
+        List<Floor> targetFloors = new ArrayList<>();
+        List<Floor> newFloors = new ArrayList<>();
+        for (Floor floor : incomingFloors) {
+            Floor target = storedFloors.get(floor.getId());
+            if (target == null) {
+                floor.setId(0L);
+                floor.setProjectId(projectId);
+                floor.setCreatedBy(loggedInUser);
+                floor.setUpdatedBy(loggedInUser);
+                newFloors.add(floor);
+                target = floor;
+            } else if (target.getFloor() != floor.getFloor()) {
+                target.setFloor(floor.getFloor());
+                target.setUpdatedBy(loggedInUser);
+            }
+            targetFloors.add(target);
+        }
+        floorRepo.saveAll(newFloors);
+
+        List<Unit> newUnits = new ArrayList<>();
+        List<UnitSchedule> unitSchedules = new ArrayList<>();
+        for (int i = 0; i < incomingFloors.size(); i++) {
+            long floorId = targetFloors.get(i).getId();
+            for (Unit unit : incomingFloors.get(i).getUnitList()) {
+                Unit target = storedUnits.get(unit.getId());
+                PaymentSchedule storedSchedule = target != null ? target.getPaymentSchedule() : null;
+                if (target == null) {
+                    unit.setId(0L);
+                    unit.setFloorId(floorId);
+                    unit.setCreatedBy(loggedInUser);
+                    unit.setUpdatedBy(loggedInUser);
+                    newUnits.add(unit);
+                    target = unit;
+                } else if (copyUnit(unit, target, floorId)) {
+                    target.setUpdatedBy(loggedInUser);
+                }
+                unitSchedules.add(new UnitSchedule(target, storedSchedule, unit.getPaymentSchedule()));
+            }
+        }
+        unitRepo.saveAll(newUnits);
+
+        writeSchedules(unitSchedules, loggedInUser);
+        return newUnits.size();
+    }
+
+    /**
+     * Validates every floor, unit and builder schedule before anything is written. Towers mostly repeat
+     * a handful of plans, so each distinct plan is validated and balanced once and its prepared terms
+     * are copied onto the other units carrying the same plan.
+     */
+    private void validateLayout(List<Floor> floors, String loggedInUser) {
+        Map<PlanKey, PaymentSchedule> preparedPlans = new HashMap<>();
+        for (Floor floor : floors) {
+            ValidationService.validate(floor.getFloor(), "floor no");
+            for (Unit unit : floor.getUnitList()) {
+                ValidationService.validate(unit.getSerialNo(), "unit serial no");
+                ValidationService.validate(unit.getAmount(), "amount");
+                ValidationService.validate(unit.getSquareFoot(), "square yards");
+                ValidationService.validate(unit.getUnitType(), "unit type");
+                ValidationService.validate(unit.getPaymentPlanType(), "payment plan type");
+
+                PaymentSchedule schedule = unit.getPaymentSchedule();
+                if (schedule == null)
+                    throw new IllegalArgumentException("payment schedule must not be null.");
+                schedule.setCreatedBy(loggedInUser);
+                schedule.setUpdatedBy(loggedInUser);
+                schedule.setPaymentScheduleType(PaymentScheduleType.BUILDER);
+                // prepareSchedule wants the schedule tied to its unit, new units get their ids later
+                schedule.setUnit(unit);
+                unit.setAmount(schedule.getActualAmount() + schedule.getMiscellaneousAmount() + schedule.getDevelopmentAmount());
+
+                PlanKey key = PlanKey.of(schedule, unit.getPaymentPlanType());
+                PaymentSchedule prepared = preparedPlans.get(key);
+                if (prepared != null) {
+                    copyTerms(prepared, schedule);
+                    continue;
+                }
+                validatePaymentScheduler(schedule);
+                paymentSchedulerService.prepareSchedule(schedule, unit.getPaymentPlanType());
+                preparedPlans.put(key, schedule);
+            }
+        }
+    }
+
+    private void writeSchedules(List<UnitSchedule> unitSchedules, String loggedInUser) {
+        List<PaymentSchedule> newSchedules = new ArrayList<>();
+        List<RowWrite> rowWrites = new ArrayList<>();
+        Set<Long> replacedRowsOf = new HashSet<>();
+
+        for (UnitSchedule unitSchedule : unitSchedules) {
+            PaymentSchedule incoming = unitSchedule.incoming();
+            PaymentSchedule stored = unitSchedule.stored();
+
+            if (stored == null) {
+                incoming.setId(0L);
+                incoming.setUnit(unitSchedule.unit());
+                newSchedules.add(incoming);
+                rowWrites.add(new RowWrite(incoming, incoming));
+                continue;
+            }
+
+            boolean rowsChanged = !sameRows(stored, incoming);
+            if (!sameTerms(stored, incoming) || rowsChanged) {
+                copyTerms(incoming, stored);
+                stored.setUpdatedBy(loggedInUser);
+            }
+            if (rowsChanged) {
+                replacedRowsOf.add(stored.getId());
+                rowWrites.add(new RowWrite(stored, incoming));
+            }
+        }
+
+        paymentScheduleRepository.saveAll(newSchedules);
+
+        if (!replacedRowsOf.isEmpty()) {
+            monthWisePaymentRepo.deleteAllByPaymentScheduleIds(replacedRowsOf);
+            monthSpecificPaymentRepo.deleteAllByPaymentScheduleIds(replacedRowsOf);
+        }
+
+        List<MonthWisePayment> monthWisePayments = new ArrayList<>();
+        List<MonthSpecificPayment> monthSpecificPayments = new ArrayList<>();
+        for (RowWrite rowWrite : rowWrites) {
+            long scheduleId = rowWrite.target().getId();
+            for (MonthWisePayment payment : rangeRows(rowWrite.source())) {
+                payment.setId(0L);
+                payment.setPaymentScheduleId(scheduleId);
+                monthWisePayments.add(payment);
+            }
+            for (MonthSpecificPayment payment : specificRows(rowWrite.source())) {
+                payment.setId(0L);
+                payment.setPaymentScheduleId(scheduleId);
+                monthSpecificPayments.add(payment);
+            }
+        }
+        monthWisePaymentRepo.saveAll(monthWisePayments);
+        monthSpecificPaymentRepo.saveAll(monthSpecificPayments);
+    }
+
+    // copies the editable unit fields, true when any of them changed
+    private static boolean copyUnit(Unit from, Unit to, long floorId) {
+        boolean changed = to.getFloorId() != floorId
+                || !Objects.equals(to.getSerialNo(), from.getSerialNo())
+                || to.getSquareFoot() != from.getSquareFoot()
+                || to.getRoomCount() != from.getRoomCount()
+                || to.getBathroomCount() != from.getBathroomCount()
+                || Math.abs(to.getAmount() - from.getAmount()) >= EPSILON
+                || Math.abs(to.getAdditionalAmount() - from.getAdditionalAmount()) >= EPSILON
+                || to.getUnitType() != from.getUnitType()
+                || to.getPaymentPlanType() != from.getPaymentPlanType();
+        if (!changed)
+            return false;
+
+        to.setFloorId(floorId);
+        to.setSerialNo(from.getSerialNo());
+        to.setSquareFoot(from.getSquareFoot());
+        to.setRoomCount(from.getRoomCount());
+        to.setBathroomCount(from.getBathroomCount());
+        to.setAmount(from.getAmount());
+        to.setAdditionalAmount(from.getAdditionalAmount());
+        to.setUnitType(from.getUnitType());
+        to.setPaymentPlanType(from.getPaymentPlanType());
+        return true;
+    }
+
+    private static boolean sameTerms(PaymentSchedule a, PaymentSchedule b) {
+        return a.getPaymentPlanType() == b.getPaymentPlanType()
+                && a.getDurationInMonths() == b.getDurationInMonths()
+                && Math.abs(a.getActualAmount() - b.getActualAmount()) < EPSILON
+                && Math.abs(a.getMiscellaneousAmount() - b.getMiscellaneousAmount()) < EPSILON
+                && Math.abs(a.getDevelopmentAmount() - b.getDevelopmentAmount()) < EPSILON
+                && Math.abs(a.getTotalAmount() - b.getTotalAmount()) < EPSILON
+                && Math.abs(a.getDownPayment() - b.getDownPayment()) < EPSILON
+                && Math.abs(a.getQuarterlyPayment() - b.getQuarterlyPayment()) < EPSILON
+                && Math.abs(a.getHalfYearlyPayment() - b.getHalfYearlyPayment()) < EPSILON
+                && Math.abs(a.getYearlyPayment() - b.getYearlyPayment()) < EPSILON
+                && Math.abs(a.getOnPossessionPayment() - b.getOnPossessionPayment()) < EPSILON;
+    }
+
+    private static void copyTerms(PaymentSchedule from, PaymentSchedule to) {
+        to.setPaymentPlanType(from.getPaymentPlanType());
+        to.setDurationInMonths(from.getDurationInMonths());
+        to.setActualAmount(from.getActualAmount());
+        to.setMiscellaneousAmount(from.getMiscellaneousAmount());
+        to.setDevelopmentAmount(from.getDevelopmentAmount());
+        to.setTotalAmount(from.getTotalAmount());
+        to.setDownPayment(from.getDownPayment());
+        to.setQuarterlyPayment(from.getQuarterlyPayment());
+        to.setHalfYearlyPayment(from.getHalfYearlyPayment());
+        to.setYearlyPayment(from.getYearlyPayment());
+        to.setOnPossessionPayment(from.getOnPossessionPayment());
+    }
+
+    private static boolean sameRows(PaymentSchedule stored, PaymentSchedule incoming) {
+        List<MonthWisePayment> storedRanges = rangeRows(stored);
+        List<MonthWisePayment> incomingRanges = rangeRows(incoming).stream()
+                .sorted(Comparator.comparingInt(MonthWisePayment::getFromMonth))
+                .toList();
+        if (storedRanges.size() != incomingRanges.size())
+            return false;
+        for (int i = 0; i < storedRanges.size(); i++) {
+            MonthWisePayment a = storedRanges.get(i);
+            MonthWisePayment b = incomingRanges.get(i);
+            if (a.getFromMonth() != b.getFromMonth() || a.getToMonth() != b.getToMonth()
+                    || Math.abs(a.getAmount() - b.getAmount()) >= EPSILON)
+                return false;
+        }
+
+        List<MonthSpecificPayment> storedMonths = specificRows(stored);
+        List<MonthSpecificPayment> incomingMonths = specificRows(incoming);
+        if (storedMonths.size() != incomingMonths.size())
+            return false;
+        for (int i = 0; i < storedMonths.size(); i++) {
+            MonthSpecificPayment a = storedMonths.get(i);
+            MonthSpecificPayment b = incomingMonths.get(i);
+            if (!Objects.equals(a.getMonth(), b.getMonth()) || !Objects.equals(a.getYear(), b.getYear())
+                    || Math.abs(a.getAmount() - b.getAmount()) >= EPSILON)
+                return false;
+        }
+        return true;
+    }
+
+    // only the rows the plan type actually stores, like createSchedule
+    private static List<MonthWisePayment> rangeRows(PaymentSchedule schedule) {
+        if (schedule.getPaymentPlanType() != PaymentPlanType.INSTALLMENT_RANGE
+                || schedule.getMonthWisePaymentList() == null)
+            return List.of();
+        return schedule.getMonthWisePaymentList();
+    }
+
+    private static List<MonthSpecificPayment> specificRows(PaymentSchedule schedule) {
+        if (schedule.getPaymentPlanType() != PaymentPlanType.INSTALLMENT_SPECIFIC
+                || schedule.getMonthSpecificPaymentList() == null)
+            return List.of();
+        return schedule.getMonthSpecificPaymentList();
+    }
+}
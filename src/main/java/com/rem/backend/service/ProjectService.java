@@ -1,14 +1,8 @@
 package com.rem.backend.service;
 
-import com.rem.backend.entity.paymentschedule.PaymentSchedule;
-import com.rem.backend.entity.project.Unit;
-import com.rem.backend.entity.project.Floor;
 import com.rem.backend.entity.project.Project;
-import com.rem.backend.enums.PaymentScheduleType;
 import com.rem.backend.enums.ProjectType;
-import com.rem.backend.repository.FloorRepo;
 import com.rem.backend.repository.ProjectRepo;
-import com.rem.backend.repository.UnitRepo;
 import com.rem.backend.utility.ResponseMapper;
 import com.rem.backend.utility.Responses;
 import com.rem.backend.utility.ValidationService;
@@ -20,9 +14,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
-import static com.rem.backend.utility.Utility.RESPONSE_CODE;
 import static com.rem.backend.utility.ValidationService.*;
 
 @Service
@@ -30,9 +22,9 @@ import static com.rem.backend.utility.ValidationService.*;
 public class ProjectService {
 
     private final ProjectRepo projectRepo;
-    private final FloorRepo floorRepo;
-    private final UnitRepo unitRepo;
-    private final PaymentSchedulerService paymentSchedulerService;
+    private final ProjectTreeLoader projectTreeLoader;
+    private final ProjectLayoutMerger projectLayoutMerger;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
 
 
     public Map<String, Object> getProjectById(long id) {
@@ -55,28 +47,7 @@ public class ProjectService {
     public Project getProjectDataById(long id) {
         try {
 
-            Optional<Project> projectOptional = projectRepo.findByProjectIdAndIsActiveTrue(id);
-
-            if (!projectOptional.isPresent())
-                return null;
-
-            Project project = projectOptional.get();
-
-            List<Floor> floorList = floorRepo.findByProjectId(project.getProjectId());
-
-            for (Floor floor : floorList) {
-                List<Unit> unitList = unitRepo.findByFloorId(floor.getId());
-                for (Unit unit : unitList) {
-                    PaymentSchedule paymentSchedule = paymentSchedulerService.getPaymentDetailsByUnitId(unit.getId(),
-                            PaymentScheduleType.BUILDER);
-                    unit.setPaymentSchedule(paymentSchedule);
-                }
-                floor.setUnitList(unitList);
-            }
-
-            project.setFloorList(floorList);
-
-            return project;
+            return projectTreeLoader.load(id);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
@@ -102,54 +73,8 @@ public class ProjectService {
 
             Project projectSaved = projectRepo.save(project);
 
-            if (project.getProjectType().equals(ProjectType.APARTMENT) ||  project.getProjectType().equals(ProjectType.SHOP)) {
-                for (Floor floor : project.getFloorList()) {
-                    ValidationService.validate(floor.getFloor(), "floor no");
-                    floor.setCreatedBy(loggedInUser);
-                    floor.setUpdatedBy(loggedInUser);
-                    floor.setProjectId(projectSaved.getProjectId());
-                    Floor floorSaved = floorRepo.save(floor);
-
-                    for (Unit unit : floor.getUnitList()) {
-                        ValidationService.validate(unit.getSerialNo(), "unit serial no");
-                        ValidationService.validate(unit.getAmount(), "amount");
-                        ValidationService.validate(unit.getSquareFoot(), "square yards");
-                        ValidationService.validate(unit.getUnitType(), "unit type");
-                        unit.setFloorId(floorSaved.getId());
-                        unit.setCreatedBy(loggedInUser);
-                        unit.setUpdatedBy(loggedInUser);
-
-
-                        PaymentSchedule paymentSchedule = unit.getPaymentSchedule();
-                        unit.setAmount(paymentSchedule.getActualAmount() + paymentSchedule.getMiscellaneousAmount() + paymentSchedule.getDevelopmentAmount());
-                        Unit unitSaved = unitRepo.save(unit);
-
-                        paymentSchedule.setCreatedBy(loggedInUser);
-                        paymentSchedule.setUpdatedBy(loggedInUser);
-
-                        validatePaymentScheduler(paymentSchedule);
-
-
-                        paymentSchedule.setCreatedBy(loggedInUser);
-                        paymentSchedule.setUpdatedBy(loggedInUser);
-                        paymentSchedule.setUnit(unitSaved);
-                        paymentSchedule.setPaymentPlanType(unitSaved.getPaymentPlanType());
-                        paymentSchedule.setPaymentScheduleType(PaymentScheduleType.BUILDER);
-
-                        Map<String, Object> createPaymentScheduler = paymentSchedulerService.createSchedule(paymentSchedule, unitSaved.getPaymentPlanType());
-                        if (createPaymentScheduler != null) {
-                            // Set type to CUSTOMER and associate with unit
-                            PaymentSchedule savedSchedule = null;
-                            if (!createPaymentScheduler.get(RESPONSE_CODE).equals(Responses.SUCCESS.getResponseCode())) {
-                                return createPaymentScheduler;
-                            }
-
-                        }
-                    }
-
-                }
-
-            }
+            if (project.getProjectType().equals(ProjectType.APARTMENT) ||  project.getProjectType().equals(ProjectType.SHOP))
+                projectLayoutMerger.insert(projectSaved.getProjectId(), project.getFloorList(), loggedInUser);
 
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, "Project added successfully!");
@@ -180,121 +105,18 @@ public class ProjectService {
             double totalAmount = project.getPurchasingAmount() + project.getAdditionalAmount() + project.getRegistrationAmount();
             project.setTotalAmount(totalAmount);
 
-            Project projectSaved = getProjectDataById(project.getProjectId());
-
-
-            List<Floor> remainingFloors = new ArrayList<>();
-            List<Long> deletedFloors = new ArrayList<>();
-            for (Floor updatedFloor : project.getFloorList()) {
-                boolean isExist = false;
-                if (projectSaved.getFloorList().size() > 0) {
-                    for (Floor existingFloor : projectSaved.getFloorList()) {
-                        if (updatedFloor.getId() == existingFloor.getId() || updatedFloor.getId() == 0L) {
-                            isExist = true;
-                            break;
-                        }
-                    }
-                } else {
-                    isExist = true;
-                }
-                if (isExist) {
-                    remainingFloors.add(updatedFloor);
-                }
-            }
-
-            List<Long> remainingFloorId = remainingFloors.stream().map(obj -> obj.getId()).toList();
-
-            deletedFloors = projectSaved.getFloorList().stream().filter(savedFloor ->
-                    !remainingFloorId.contains(savedFloor.getId())).map(id -> id.getId()).toList();
-
-            Set<Long> unmatchedIds = new HashSet<>();
-            for (Floor floor : remainingFloors) {
-
-                List<Unit> savedUnitList = new ArrayList<>();
+            Project projectSaved = projectTreeLoader.loadUncached(project.getProjectId());
+            if (projectSaved == null)
+                throw new IllegalArgumentException("Invalid Project");
+            projectTreeLoader.evictProject(projectSaved.getProjectId());
+            unitAvailabilityIndex.evictProject(projectSaved.getProjectId());
 
-                if (projectSaved.getFloorList().size() > 0) {
-                    for (Floor savedFloor : projectSaved.getFloorList()){
-                        if (floor.getId() == savedFloor.getId()){
-                            savedUnitList =  savedFloor.getUnitList();
-                            break;
-                        }
-                    }
-                }
-
-
-                Set<Long> list1Ids = floor.getUnitList().stream()
-                        .map(obj -> obj.getId())
-                        .collect(Collectors.toSet());
-
-                savedUnitList.stream()
-                        .map(obj -> obj.getId())
-                        .filter(id -> !list1Ids.contains(id))
-                        .collect(Collectors.toList()).forEach(unit -> unmatchedIds.add(unit));
-
-
-            }
-
-
-
-
-            project.setFloorList(remainingFloors);
-
-            if (project.getProjectType().equals(ProjectType.APARTMENT)) {
-                for (Floor floor : project.getFloorList()) {
-                    ValidationService.validate(floor.getFloor(), "floor no");
-                    floor.setCreatedBy(loggedInUser);
-                    floor.setUpdatedBy(loggedInUser);
-                    floor.setProjectId(projectSaved.getProjectId());
-                    Floor floorSaved = floorRepo.save(floor);
-
-                    for (Unit unit : floor.getUnitList()) {
-                        ValidationService.validate(unit.getSerialNo(), "unit serial no");
-                        ValidationService.validate(unit.getAmount(), "amount");
-                        ValidationService.validate(unit.getSquareFoot(), "square yards");
-                        ValidationService.validate(unit.getUnitType(), "unit type");
-                        unit.setFloorId(floorSaved.getId());
-                        unit.setCreatedBy(loggedInUser);
-                        unit.setUpdatedBy(loggedInUser);
-
-                        PaymentSchedule paymentSchedule = unit.getPaymentSchedule();
-
-                        unit.setAmount(paymentSchedule.getActualAmount() + paymentSchedule.getMiscellaneousAmount() + paymentSchedule.getDevelopmentAmount());
-
-                        Unit unitSaved = unitRepo.save(unit);
-
-
-                        paymentSchedule.setCreatedBy(loggedInUser);
-                        paymentSchedule.setUpdatedBy(loggedInUser);
-
-                        validatePaymentScheduler(paymentSchedule);
-
-                        paymentSchedule.setCreatedBy(loggedInUser);
-                        paymentSchedule.setUpdatedBy(loggedInUser);
-                        paymentSchedule.setUnit(unitSaved);
-                        paymentSchedule.setPaymentScheduleType(PaymentScheduleType.BUILDER);
-                        paymentSchedule.setPaymentPlanType(unitSaved.getPaymentPlanType());
-
-                        Map<String, Object> createPaymentScheduler = paymentSchedulerService.createSchedule(paymentSchedule, unitSaved.getPaymentPlanType());
-                        if (createPaymentScheduler != null) {
-                            // Set type to CUSTOMER and associate with unit
-                            PaymentSchedule savedSchedule = null;
-                            if (!createPaymentScheduler.get(RESPONSE_CODE).equals(Responses.SUCCESS.getResponseCode())) {
-                                return createPaymentScheduler;
-                            }
-
-                        }
-                    }
-
-                }
-
-            }
 
+            boolean writeLayout = project.getProjectType().equals(ProjectType.APARTMENT) || project.getProjectType().equals(ProjectType.SHOP);
+            ProjectLayoutMerger.Result merged = projectLayoutMerger.merge(projectSaved, project, writeLayout, loggedInUser);
 
-            project.setFloors(remainingFloors.size());
+            project.setFloors(merged.floors());
             projectRepo.save(project);
-            deletedFloors.forEach(floorId -> floorRepo.deleteById(floorId));
-            unmatchedIds.forEach(ids -> paymentSchedulerService.deleteByUnitId(ids));
-            unmatchedIds.forEach(id -> unitRepo.deleteById(id));
 
 
             return ResponseMapper.buildResponse(Responses.SUCCESS, "Project added successfully!");
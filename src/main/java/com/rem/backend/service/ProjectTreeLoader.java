@@ -0,0 +1,138 @@
+package com.rem.backend.service;
+
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.entity.project.Floor;
+import com.rem.backend.entity.project.Project;
+import com.rem.backend.entity.project.Unit;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.repository.FloorRepo;
+import com.rem.backend.repository.ProjectRepo;
+import com.rem.backend.repository.UnitRepo;
+import com.rem.backend.utility.CacheEviction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Loads a project with its floors, units and builder schedules in a fixed number of queries:
+ * project, floors, units of all floors, then the schedules with their month rows through
+ * {@link PaymentScheduleLoader}. The tree is assembled in memory.
+ * <p>
+ * With project.tree.cache.enabled the floor and unit tree is cached per project, the project row
+ * itself is always read fresh because its totals move with every expense. Floor, unit and schedule
+ * writes evict the cached tree, once right away and once more when their transaction completes.
+ * Cached trees are shared, callers must not modify them.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectTreeLoader {
+
+    private final ProjectRepo projectRepo;
+    private final FloorRepo floorRepo;
+    private final UnitRepo unitRepo;
+    private final PaymentScheduleLoader paymentScheduleLoader;
+
+    @Value("${project.tree.cache.enabled:false}")
+    private boolean cacheEnabled;
+
+    private final Map<Long, List<Floor>> floorsByProject = new ConcurrentHashMap<>();
+    private final Map<Long, Long> projectByFloor = new ConcurrentHashMap<>();
+    private final Map<Long, Long> projectByUnit = new ConcurrentHashMap<>();
+
+    /**
+     * Active project with its tree, null when there is no such project
+     */
+    public Project load(long projectId) {
+        Optional<Project> projectOptional = projectRepo.findByProjectIdAndIsActiveTrue(projectId);
+        if (projectOptional.isEmpty())
+            return null;
+
+        Project project = projectOptional.get();
+        List<Floor> floors = cacheEnabled ? floorsByProject.get(projectId) : null;
+        if (floors == null) {
+            floors = loadFloors(projectId);
+            if (cacheEnabled)
+                cache(projectId, floors);
+        }
+        project.setFloorList(floors);
+        return project;
+    }
+
+    /**
+     * Same as load but always from the database and never cached, for callers that change the tree
+     */
+    public Project loadUncached(long projectId) {
+        Optional<Project> projectOptional = projectRepo.findByProjectIdAndIsActiveTrue(projectId);
+        if (projectOptional.isEmpty())
+            return null;
+
+        Project project = projectOptional.get();
+        project.setFloorList(loadFloors(projectId));
+        return project;
+    }
+
+    private List<Floor> loadFloors(long projectId) {
+        List<Floor> floors = floorRepo.findByProjectId(projectId);
+        if (floors.isEmpty())
+            return floors;
+
+        List<Unit> units = unitRepo.findByFloorIdInOrderById(floors.stream().map(Floor::getId).toList());
+        Map<Long, PaymentSchedule> schedulesByUnit = paymentScheduleLoader.loadByUnitIds(
+                units.stream().map(Unit::getId).toList(), PaymentScheduleType.BUILDER);
+
+        Map<Long, List<Unit>> unitsByFloor = units.stream().collect(Collectors.groupingBy(Unit::getFloorId));
+        for (Unit unit : units) {
+            unit.setPaymentSchedule(schedulesByUnit.get(unit.getId()));
+        }
+        for (Floor floor : floors) {
+            floor.setUnitList(unitsByFloor.getOrDefault(floor.getId(), new ArrayList<>()));
+        }
+        return floors;
+    }
+
+    private void cache(long projectId, List<Floor> floors) {
+        for (Floor floor : floors) {
+            projectByFloor.put(floor.getId(), projectId);
+            for (Unit unit : floor.getUnitList()) {
+                projectByUnit.put(unit.getId(), projectId);
+            }
+        }
+        floorsByProject.put(projectId, floors);
+    }
+
+    public void evictProject(long projectId) {
+        evict(() -> floorsByProject.remove(projectId));
+    }
+
+    public void evictFloor(long floorId) {
+        evict(() -> {
+            Long projectId = projectByFloor.get(floorId);
+            if (projectId != null)
+                floorsByProject.remove(projectId);
+        });
+    }
+
+    // a new unit is not indexed yet, its floor is
+    public void evictUnit(long unitId, long floorId) {
+        evict(() -> {
+            Long projectId = projectByUnit.get(unitId);
+            if (projectId == null)
+                projectId = projectByFloor.get(floorId);
+            if (projectId != null)
+                floorsByProject.remove(projectId);
+        });
+    }
+
+    public void evictUnit(long unitId) {
+        evictUnit(unitId, 0L);
+    }
+
+    private void evict(Runnable eviction) {
+        if (cacheEnabled)
+            CacheEviction.evictNowAndAfterCompletion(eviction);
+    }
+}
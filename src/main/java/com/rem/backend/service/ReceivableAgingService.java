@@ -0,0 +1,163 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.customer.ReceivableAgingProjection;
+import com.rem.backend.repository.ReceivableAgingRepository;
+import com.rem.backend.utility.ResponseMapper;
+import com.rem.backend.utility.Responses;
+import com.rem.backend.utility.ValidationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Receivables aging snapshot (receivable_aging), one row per active customer account with its
+ * open installments bucketed into current, 1-30, 31-60, 61-90 and 90+ days past due.
+ * <p>
+ * A nightly job rebuilds the snapshot in account id ranges, each range is one delete and one
+ * INSERT ... SELECT over installment_due in its own transaction and the ranges run in parallel.
+ * Receipts refresh their own account inside the receipt's transaction.
+ */
+@Service
+@Slf4j
+public class ReceivableAgingService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ReceivableAgingRepository receivableAgingRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final TaskExecutor executor;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    public ReceivableAgingService(ReceivableAgingRepository receivableAgingRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier("receivableAgingExecutor") TaskExecutor executor) {
+        this.receivableAgingRepository = receivableAgingRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.executor = executor;
+    }
+
+    @Scheduled(cron = "${receivable.aging.cron:0 30 1 * * *}")
+    public void refreshAll() {
+        try {
+            refresh(null);
+        } catch (RefreshInProgressException e) {
+            log.warn("Nightly receivable aging refresh skipped: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> refreshOrganization(long organizationId) {
+        try {
+            ValidationService.validate(organizationId, "organizationId");
+            return ResponseMapper.buildResponse(Responses.SUCCESS, refresh(organizationId));
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (RefreshInProgressException e) {
+            return ResponseMapper.buildResponse(Responses.REQUEST_IN_PROGRESS, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the snapshot row of one account, runs in the caller's transaction so it sees
+     * the installments the caller just allocated. Inactive accounts lose their row.
+     */
+    @Transactional
+    public void refreshAccount(long customerAccountId) {
+        receivableAgingRepository.deleteAccountRange(null, customerAccountId, customerAccountId);
+        receivableAgingRepository.insertAccountRange(null, customerAccountId, customerAccountId, LocalDate.now());
+    }
+
+    /**
+     * Rebuilds the snapshot of one organization, or of all when organizationId is null.
+     * The id ranges cover the whole id space so rows of accounts cancelled since the last run are dropped too.
+     */
+    int refresh(Long organizationId) {
+        if (!refreshing.compareAndSet(false, true))
+            throw new RefreshInProgressException("Receivable aging is already being refreshed!");
+
+        try {
+            LocalDate asOfDate = LocalDate.now();
+            List<Long> accountIds = receivableAgingRepository.findActiveAccountIds(organizationId);
+
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            long fromAccountId = 0;
+            for (int start = 0; ; start += CHUNK_SIZE) {
+                int end = start + CHUNK_SIZE;
+                long toAccountId = end >= accountIds.size() ? Long.MAX_VALUE : accountIds.get(end - 1);
+                long from = fromAccountId;
+                chunks.add(CompletableFuture.supplyAsync(() -> refreshRange(organizationId, from, toAccountId, asOfDate), executor));
+                if (toAccountId == Long.MAX_VALUE)
+                    break;
+                fromAccountId = toAccountId + 1;
+            }
+
+            int rows = chunks.stream().mapToInt(CompletableFuture::join).sum();
+            log.info("Refreshed {} receivable aging rows in {} chunks for organization {}", rows, chunks.size(),
+                    organizationId != null ? organizationId : "all");
+            return rows;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private int refreshRange(Long organizationId, long fromAccountId, long toAccountId, LocalDate asOfDate) {
+        Integer rows = chunkTransaction.execute(status -> {
+            receivableAgingRepository.deleteAccountRange(organizationId, fromAccountId, toAccountId);
+            return receivableAgingRepository.insertAccountRange(organizationId, fromAccountId, toAccountId, asOfDate);
+        });
+        return rows != null ? rows : 0;
+    }
+
+    public Map<String, Object> getAging(long organizationId) {
+        try {
+            ValidationService.validate(organizationId, "organizationId");
+
+            Map<String, Object> aging = new HashMap<>();
+            aging.put("organization", receivableAgingRepository.findOrganizationTotals(organizationId));
+            aging.put("projects", receivableAgingRepository.findProjectTotals(organizationId));
+            return ResponseMapper.buildResponse(Responses.SUCCESS, aging);
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getCustomerAging(long organizationId, Long projectId, Pageable pageable) {
+        try {
+            ValidationService.validate(organizationId, "organizationId");
+            Page<ReceivableAgingProjection> aging = receivableAgingRepository.findCustomerAging(organizationId, projectId, pageable);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, aging);
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+    // one refresh at a time, a second caller is told to retry later rather than given a parameter error
+    static class RefreshInProgressException extends IllegalStateException {
+        RefreshInProgressException(String message) {
+            super(message);
+        }
+    }
+}
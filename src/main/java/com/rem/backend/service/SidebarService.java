@@ -18,6 +18,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +30,9 @@ public class SidebarService {
     private final RoleService roleService;
     private final CustomerRepo customerRepo;
 
+    // sorted role names -> immutable menu tree, replaced wholesale whenever sidebars change
+    private volatile Map<String, List<Sidebar>> sidebarsByRoleSet = new ConcurrentHashMap<>();
+
     // Add new Sidebar with children
     public Map<String, Object> addSidebar(Sidebar sidebar, String loggedInUser) {
 
@@ -51,6 +55,7 @@ public class SidebarService {
             sidebar.setCreatedBy(loggedInUser);
 
             Sidebar sidebarSaved = sidebarRepo.save(sidebar);
+            clearSidebarCache();
             return ResponseMapper.buildResponse(Responses.SUCCESS, sidebarSaved);
         } catch (IllegalArgumentException e) {
             return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
@@ -103,7 +108,9 @@ public class SidebarService {
                 }
             }
 
-            return ResponseMapper.buildResponse(Responses.SUCCESS, sidebarRepo.save(existing));
+            Sidebar sidebarSaved = sidebarRepo.save(existing);
+            clearSidebarCache();
+            return ResponseMapper.buildResponse(Responses.SUCCESS, sidebarSaved);
         } catch (IllegalArgumentException e) {
             return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
         } catch (Exception e) {
@@ -126,70 +133,122 @@ public class SidebarService {
     }
 
 
-    // Optional: Get sidebar by ID
+    // Menu for the user's role combination, built once per combination and then served from cache
     public List<Sidebar> getSidebarByRole(String username) {
-        List<Sidebar> finalSidebarList = new ArrayList<>();
-
         try {
             Optional<User> userOptional = userRepo.findByUsernameAndIsActiveTrue(username);
 
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                Optional<Customer> customerOptional = customerRepo.findByUserId(user.getId());
-                Set<UserRoles> userRoles = roleService.getUserRoles(user.getId());
-
-                List<Sidebar> allSidebars = sidebarRepo.findAll();
-                List<Role> roleList = roleService.getAll();
-
-                for (Sidebar sidebar : allSidebars) {
-                    boolean parentMatched = false;
-
-                    // Check if parent sidebar matches any of the user roles
-
-                    for (UserRoles role : userRoles) {
-
-                        Optional<Role> roleOptional = roleList.stream().filter(singleRole -> singleRole.getId() == role.getRoleId()).findFirst();
-                        if (roleOptional.isPresent()) {
-                            if (sidebar.getRoles().toLowerCase().contains(roleOptional.get().getName().toString().toLowerCase())) {
-                                parentMatched = true;
-                                break;
-                            }
-                        }
-
-                    }
-
-                    if (parentMatched) {
-                        List<ChildSidebar> matchingChildren = new ArrayList<>();
-
-                        for (ChildSidebar child : sidebar.getChildList()) {
-                            for (UserRoles role : userRoles) {
-                                Optional<Role> roleOptional = roleList.stream().filter(singleRole -> singleRole.getId() == role.getRoleId()).findFirst();
-                                if (roleOptional.isPresent()) {
-                                    if (child.getRoles().toLowerCase().contains(roleOptional.get().getName().toString().toLowerCase())) {
-                                        if (customerOptional.isPresent()) {
-                                            child.setUrl(child.getUrl().replace("{cId}", String.valueOf(customerOptional.get().getCustomerId())));
-                                        }
-                                        matchingChildren.add(child);
-                                        break;
-                                    }
-                                }
-                            }
-                        }
-
-                        sidebar.setChildList(matchingChildren);
-
-                        if (customerOptional.isPresent()) {
-                            sidebar.setUrl(sidebar.getUrl().replace("{cId}", String.valueOf(customerOptional.get().getCustomerId()))); ;
-                        }
-                        finalSidebarList.add(sidebar);
-                    }
-                }
+            if (userOptional.isEmpty())
+                return Collections.emptyList();
+
+            User user = userOptional.get();
+            Optional<Customer> customerOptional = customerRepo.findByUserId(user.getId());
+            Set<UserRoles> userRoles = roleService.getUserRoles(user.getId());
+
+            Map<Long, String> roleNames = new HashMap<>();
+            for (Role role : roleService.getAll()) {
+                if (role.getName() != null)
+                    roleNames.put(role.getId(), role.getName().toLowerCase());
             }
 
-            return finalSidebarList;
+            List<String> roleSet = userRoles == null ? List.of() : userRoles.stream()
+                    .map(userRole -> roleNames.get(userRole.getRoleId()))
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList();
+
+            List<Sidebar> sidebars = getSidebarTree(roleSet);
+
+            if (customerOptional.isEmpty())
+                return sidebars;
+
+            String customerId = String.valueOf(customerOptional.get().getCustomerId());
+            return sidebars.stream().map(sidebar -> withCustomerId(sidebar, customerId)).toList();
         } catch (Exception e) {
             e.printStackTrace();
             return Collections.emptyList();
         }
     }
+
+    private List<Sidebar> getSidebarTree(List<String> roleSet) {
+        // read the map once so a tree built from rows older than an invalidation lands in the discarded map
+        Map<String, List<Sidebar>> cache = sidebarsByRoleSet;
+        String key = String.join(",", roleSet);
+
+        List<Sidebar> sidebars = cache.get(key);
+        if (sidebars == null) {
+            sidebars = buildSidebarTree(roleSet);
+            cache.putIfAbsent(key, sidebars);
+        }
+        return sidebars;
+    }
+
+    private List<Sidebar> buildSidebarTree(List<String> roleSet) {
+        List<Sidebar> tree = new ArrayList<>();
+
+        for (Sidebar sidebar : sidebarRepo.findAll()) {
+            if (!matchesAnyRole(sidebar.getRoles(), roleSet))
+                continue;
+
+            List<ChildSidebar> children = new ArrayList<>();
+            for (ChildSidebar child : sidebar.getChildList()) {
+                if (matchesAnyRole(child.getRoles(), roleSet))
+                    children.add(copyChild(child, child.getUrl()));
+            }
+
+            tree.add(copySidebar(sidebar, sidebar.getUrl(), List.copyOf(children)));
+        }
+
+        return List.copyOf(tree);
+    }
+
+    private static boolean matchesAnyRole(String roles, List<String> roleSet) {
+        String sidebarRoles = roles.toLowerCase();
+        for (String role : roleSet) {
+            if (sidebarRoles.contains(role))
+                return true;
+        }
+        return false;
+    }
+
+    private static Sidebar withCustomerId(Sidebar sidebar, String customerId) {
+        List<ChildSidebar> children = sidebar.getChildList().stream()
+                .map(child -> copyChild(child, child.getUrl().replace("{cId}", customerId)))
+                .toList();
+        return copySidebar(sidebar, sidebar.getUrl().replace("{cId}", customerId), children);
+    }
+
+    private static Sidebar copySidebar(Sidebar source, String url, List<ChildSidebar> children) {
+        Sidebar sidebar = new Sidebar();
+        sidebar.setId(source.getId());
+        sidebar.setTitle(source.getTitle());
+        sidebar.setUrl(url);
+        sidebar.setIcon(source.getIcon());
+        sidebar.setRoles(source.getRoles());
+        sidebar.setChildList(children);
+        sidebar.setCreatedBy(source.getCreatedBy());
+        sidebar.setUpdatedBy(source.getUpdatedBy());
+        sidebar.setCreatedDate(source.getCreatedDate());
+        sidebar.setUpdatedDate(source.getUpdatedDate());
+        return sidebar;
+    }
+
+    private static ChildSidebar copyChild(ChildSidebar source, String url) {
+        ChildSidebar child = new ChildSidebar();
+        child.setId(source.getId());
+        child.setTitle(source.getTitle());
+        child.setUrl(url);
+        child.setIcon(source.getIcon());
+        child.setRoles(source.getRoles());
+        child.setCreatedBy(source.getCreatedBy());
+        child.setUpdatedBy(source.getUpdatedBy());
+        child.setCreatedDate(source.getCreatedDate());
+        child.setUpdatedDate(source.getUpdatedDate());
+        return child;
+    }
+
+    public void clearSidebarCache() {
+        sidebarsByRoleSet = new ConcurrentHashMap<>();
+    }
 }
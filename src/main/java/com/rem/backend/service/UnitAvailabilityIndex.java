@@ -0,0 +1,281 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.unit.UnitAvailabilityProjection;
+import com.rem.backend.entity.project.Floor;
+import com.rem.backend.enums.UnitType;
+import com.rem.backend.repository.FloorRepo;
+import com.rem.backend.repository.UnitRepo;
+import com.rem.backend.utility.CacheEviction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Which units of a project are still free. Units of a project get ordinals in floor and id order,
+ * availability is one bitset over those ordinals with per floor and per unit type masks next to it,
+ * so availability, counts and the next free unit are answered with a few bitset operations.
+ * <p>
+ * With unit.availability.index.enabled the index of every project is built on startup and kept in
+ * memory, bookings and cancellations flip their unit's bit once their transaction commits and layout
+ * changes drop the project's index so the next read rebuilds it. Without it free units of a floor
+ * come from a per floor query and the project wide reads build the index of their project from one
+ * query, which keeps multi instance deployments consistent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UnitAvailabilityIndex {
+
+    private final UnitRepo unitRepo;
+    private final FloorRepo floorRepo;
+
+    @Value("${unit.availability.index.enabled:false}")
+    private boolean enabled;
+
+    private final Map<Long, ProjectUnits> byProject = new ConcurrentHashMap<>();
+    private final Map<Long, Long> projectByFloor = new ConcurrentHashMap<>();
+    private final Map<Long, Long> projectByUnit = new ConcurrentHashMap<>();
+
+    static final class ProjectUnits {
+
+        private final long[] unitIds;
+        private final long[] floorIds;
+        private final String[] serialNos;
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final Map<Long, BitSet> floors = new LinkedHashMap<>();
+        private final Map<UnitType, BitSet> types = new EnumMap<>(UnitType.class);
+        private final BitSet free;
+
+        ProjectUnits(List<UnitAvailabilityProjection> rows) {
+            int size = rows.size();
+            unitIds = new long[size];
+            floorIds = new long[size];
+            serialNos = new String[size];
+            free = new BitSet(size);
+
+            for (int i = 0; i < size; i++) {
+                UnitAvailabilityProjection row = rows.get(i);
+                unitIds[i] = row.getUnitId();
+                floorIds[i] = row.getFloorId();
+                serialNos[i] = row.getSerialNo();
+                ordinals.put(row.getUnitId(), i);
+                floors.computeIfAbsent(row.getFloorId(), id -> new BitSet(size)).set(i);
+                if (row.getUnitType() != null)
+                    types.computeIfAbsent(row.getUnitType(), type -> new BitSet(size)).set(i);
+                if (!row.getBooked())
+                    free.set(i);
+            }
+        }
+
+        synchronized void setFree(long unitId, boolean isFree) {
+            Integer ordinal = ordinals.get(unitId);
+            if (ordinal != null)
+                free.set(ordinal, isFree);
+        }
+
+        // null when the unit is not part of this project
+        synchronized Boolean isFree(long unitId) {
+            Integer ordinal = ordinals.get(unitId);
+            return ordinal != null ? free.get(ordinal) : null;
+        }
+
+        synchronized List<Map<String, Object>> freeUnits(long floorId) {
+            BitSet floor = floors.get(floorId);
+            if (floor == null)
+                return new ArrayList<>();
+
+            BitSet candidates = (BitSet) floor.clone();
+            candidates.and(free);
+            List<Map<String, Object>> units = new ArrayList<>(candidates.cardinality());
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                units.add(unit(i));
+            }
+            return units;
+        }
+
+        synchronized List<Map<String, Object>> countsByType() {
+            List<Map<String, Object>> counts = new ArrayList<>();
+            types.forEach((type, mask) -> {
+                BitSet freeOfType = (BitSet) mask.clone();
+                freeOfType.and(free);
+                Map<String, Object> count = new LinkedHashMap<>();
+                count.put("unitType", type);
+                count.put("totalUnits", mask.cardinality());
+                count.put("freeUnits", freeOfType.cardinality());
+                counts.add(count);
+            });
+            return counts;
+        }
+
+        // first free unit in floor and id order, floorId and unitType narrow it down when given
+        synchronized Map<String, Object> nextFree(Long floorId, UnitType unitType) {
+            BitSet candidates = (BitSet) free.clone();
+            if (floorId != null)
+                candidates.and(floors.getOrDefault(floorId, new BitSet()));
+            if (unitType != null)
+                candidates.and(types.getOrDefault(unitType, new BitSet()));
+
+            int ordinal = candidates.nextSetBit(0);
+            return ordinal >= 0 ? unit(ordinal) : null;
+        }
+
+        private Map<String, Object> unit(int ordinal) {
+            Map<String, Object> unit = new LinkedHashMap<>();
+            unit.put("id", unitIds[ordinal]);
+            unit.put("serialNo", serialNos[ordinal]);
+            unit.put("floorId", floorIds[ordinal]);
+            return unit;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled)
+            return;
+
+        Map<Long, List<UnitAvailabilityProjection>> rowsByProject = unitRepo.findAllAvailability().stream()
+                .collect(Collectors.groupingBy(UnitAvailabilityProjection::getProjectId, LinkedHashMap::new, Collectors.toList()));
+
+        byProject.clear();
+        projectByFloor.clear();
+        projectByUnit.clear();
+        rowsByProject.forEach((projectId, rows) -> byProject.put(projectId, index(projectId, rows)));
+        log.info("Built unit availability index for {} projects", rowsByProject.size());
+    }
+
+    public List<Map<String, Object>> findFreeUnitsByFloor(long floorId) {
+        // without the index a floor is one query, building its whole project would cost more
+        if (!enabled)
+            return unitRepo.findAllUnitByFloorIdAndIsBookedFalse(floorId);
+
+        Long projectId = findProjectIdByFloor(floorId);
+        if (projectId == null)
+            return new ArrayList<>();
+        return project(projectId).freeUnits(floorId);
+    }
+
+    public List<Map<String, Object>> countByUnitType(long projectId) {
+        return project(projectId).countsByType();
+    }
+
+    public Map<String, Object> findNextFreeUnit(long projectId, Long floorId, UnitType unitType) {
+        return project(projectId).nextFree(floorId, unitType);
+    }
+
+    /**
+     * True only when the in memory index knows the unit and has it booked, anything else has to be
+     * checked against the database
+     */
+    public boolean isKnownBooked(long unitId) {
+        if (!enabled)
+            return false;
+
+        Long projectId = projectByUnit.get(unitId);
+        ProjectUnits units = projectId != null ? byProject.get(projectId) : null;
+        return units != null && Boolean.FALSE.equals(units.isFree(unitId));
+    }
+
+    public void markBooked(Long projectId, long unitId) {
+        if (projectId == null)
+            return;
+        afterCommit(() -> byProject.computeIfPresent(projectId, (id, units) -> {
+            units.setFree(unitId, false);
+            return units;
+        }));
+    }
+
+    public void markFree(Long projectId, long unitId) {
+        if (projectId == null)
+            return;
+        afterCommit(() -> byProject.computeIfPresent(projectId, (id, units) -> {
+            units.setFree(unitId, true);
+            return units;
+        }));
+    }
+
+    /**
+     * Floors or units of the project were added, moved or removed, its index is rebuilt on the next read
+     */
+    public void evictProject(long projectId) {
+        evict(() -> byProject.remove(projectId));
+    }
+
+    // a unit may have moved, both its old and its new project are dropped
+    public void evictUnit(long unitId, long floorId) {
+        if (!enabled)
+            return;
+
+        Long projectId = projectByUnit.get(unitId);
+        if (projectId != null)
+            evictProject(projectId);
+        evictFloor(floorId);
+    }
+
+    // a floor without units is not indexed yet, its project is looked up then
+    public void evictFloor(long floorId) {
+        if (!enabled)
+            return;
+
+        Long projectId = findProjectIdByFloor(floorId);
+        if (projectId != null)
+            evictProject(projectId);
+    }
+
+    private ProjectUnits project(long projectId) {
+        if (!enabled)
+            return new ProjectUnits(unitRepo.findAvailabilityByProjectId(projectId));
+
+        // a booking committing while the index loads waits in computeIfPresent and then flips the loaded index,
+        // projects without units are not kept so a project created later is not stuck with an empty index
+        ProjectUnits units = byProject.computeIfAbsent(projectId, id -> {
+            List<UnitAvailabilityProjection> rows = unitRepo.findAvailabilityByProjectId(id);
+            return rows.isEmpty() ? null : index(id, rows);
+        });
+        return units != null ? units : new ProjectUnits(List.of());
+    }
+
+    private ProjectUnits index(long projectId, List<UnitAvailabilityProjection> rows) {
+        for (UnitAvailabilityProjection row : rows) {
+            projectByFloor.put(row.getFloorId(), projectId);
+            projectByUnit.put(row.getUnitId(), projectId);
+        }
+        return new ProjectUnits(rows);
+    }
+
+    private Long findProjectIdByFloor(long floorId) {
+        Long projectId = enabled ? projectByFloor.get(floorId) : null;
+        if (projectId != null)
+            return projectId;
+        return floorRepo.findById(floorId).map(Floor::getProjectId).orElse(null);
+    }
+
+    private void afterCommit(Runnable change) {
+        if (!enabled)
+            return;
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private void evict(Runnable eviction) {
+        if (enabled)
+            CacheEviction.evictNowAndAfterCompletion(eviction);
+    }
+}
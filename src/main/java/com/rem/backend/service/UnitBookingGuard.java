@@ -0,0 +1,47 @@
+package com.rem.backend.service;
+
+import com.rem.backend.repository.UnitRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Claims a unit for a booking before any of the booking work is done.
+ * <p>
+ * Within one instance a unit can be in at most one booking transaction at a time, a second request
+ * for it is turned away right away instead of queueing on the unit's row lock. The claim itself is a
+ * conditional update of unit.is_booked, so across instances exactly one booking wins and everyone
+ * else gets 0 rows. Both are released when the booking transaction completes, a rolled back booking
+ * puts is_booked back with it.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnitBookingGuard {
+
+    private final UnitRepo unitRepo;
+
+    private final Set<Long> unitsInFlight = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Must run inside the booking transaction, false when another booking holds or has booked the unit
+     */
+    public boolean claim(long unitId, String loggedInUser) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive())
+            throw new IllegalStateException("Unit claims need a booking transaction");
+
+        if (!unitsInFlight.add(unitId))
+            return false;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                unitsInFlight.remove(unitId);
+            }
+        });
+        return unitRepo.claimForBooking(unitId, loggedInUser) == 1;
+    }
+}
@@ -6,6 +6,7 @@ import com.rem.backend.entity.project.Unit;
 import com.rem.backend.entity.project.Floor;
 import com.rem.backend.enums.PaymentPlanType;
 import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.enums.UnitType;
 import com.rem.backend.repository.PaymentScheduleRepository;
 import com.rem.backend.repository.ProjectRepo;
 import com.rem.backend.repository.UnitRepo;
@@ -37,6 +38,8 @@ public class UnitService {
     private final ProjectRepo projectRepo;
     private final PaymentScheduleRepository paymentScheduleRepository;
     private final PaymentSchedulerService paymentSchedulerService;
+    private final ProjectTreeLoader projectTreeLoader;
+    private final UnitAvailabilityIndex unitAvailabilityIndex;
 
 
     public Map<String, Object> getUnitByFloor(long floorId, Pageable pageable) {
@@ -133,7 +136,7 @@ public class UnitService {
     public Map<String, Object> getUnitIdSerialByFloor(long floorId) {
         try {
             ValidationService.validate(floorId, "floor id");
-            List<Map<String, Object>> units = unitRepo.findAllUnitByFloorIdAndIsBookedFalse(floorId);
+            List<Map<String, Object>> units = unitAvailabilityIndex.findFreeUnitsByFloor(floorId);
             return ResponseMapper.buildResponse(Responses.SUCCESS, units);
 
         } catch (IllegalArgumentException e) {
@@ -146,6 +149,38 @@ public class UnitService {
 
 
 
+    public Map<String, Object> getAvailabilityByProject(long projectId) {
+        try {
+            ValidationService.validate(projectId, "project id");
+            return ResponseMapper.buildResponse(Responses.SUCCESS, unitAvailabilityIndex.countByUnitType(projectId));
+
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+
+    public Map<String, Object> getNextFreeUnit(long projectId, Long floorId, UnitType unitType) {
+        try {
+            ValidationService.validate(projectId, "project id");
+            Map<String, Object> unit = unitAvailabilityIndex.findNextFreeUnit(projectId, floorId, unitType);
+            if (unit == null)
+                return ResponseMapper.buildResponse(Responses.NO_DATA_FOUND, null);
+            return ResponseMapper.buildResponse(Responses.SUCCESS, unit);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseMapper.buildResponse(Responses.INVALID_PARAMETER, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseMapper.buildResponse(Responses.SYSTEM_FAILURE, e.getMessage());
+        }
+    }
+
+
+
     public Map<String, Object> getAllUnitIdSerialByFloor(long floorId) {
         try {
             ValidationService.validate(floorId, "floor id");
@@ -179,6 +214,8 @@ public class UnitService {
 
 
             Unit unitSaved = unitRepo.save(unit);
+            projectTreeLoader.evictUnit(unitSaved.getId(), unitSaved.getFloorId());
+            unitAvailabilityIndex.evictUnit(unitSaved.getId(), unitSaved.getFloorId());
 
             paymentSchedule.setCreatedBy(loggedInUser);
             paymentSchedule.setUpdatedBy(loggedInUser);
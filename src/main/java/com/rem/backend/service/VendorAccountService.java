@@ -36,6 +36,7 @@ public class VendorAccountService {
     private final OrganizationAccountDetailRepo organizationAccountDetailRepo;
     private final ExpenseRepo expenseRepo;
     private final ExpenseDetailRepo expenseDetailRepo;
+    private final AggregateTotalsRepository aggregateTotalsRepository;
 
 
     public Map<String, Object> getAllVendorAccounts(long orgId, Pageable pageable) {
@@ -58,10 +59,6 @@ public class VendorAccountService {
             ValidationService.validate(request.getOrganizationAccountId(), "organization account");
             ValidationService.validate(request.getOrganizationId(), "organization");
 
-            VendorAccount account = vendorAccountRepository.findById(request.getVendorAccountId())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid Vendor"));
-
-
             Organization organization = organizationRepo.findById(request.getOrganizationId())
                     .orElseThrow(() -> new IllegalArgumentException("Invalid Organization"));
 
@@ -69,7 +66,7 @@ public class VendorAccountService {
                 throw new IllegalArgumentException("Your organization does not support this");
             }
 
-            if (account.getTotalCreditAmount() < request.getAmountPaid() || request.getAmountPaid() < 0) {
+            if (request.getAmountPaid() < 0) {
                 throw new IllegalArgumentException("Amount cannot exceeded to credit amount");
             }
 
@@ -81,23 +78,27 @@ public class VendorAccountService {
                 return ResponseMapper.buildResponse(Responses.SUCCESS, existingTxn.get());
             }
 
+            // credit only drops while it covers the amount, checked and applied in one statement
+            if (aggregateTotalsRepository.withdrawVendorCredit(request.getVendorAccountId(), request.getAmountPaid(), loggedInUser) == 0) {
+                if (!vendorAccountRepository.existsById(request.getVendorAccountId()))
+                    throw new IllegalArgumentException("Invalid Vendor");
+                throw new IllegalArgumentException("Amount cannot exceeded to credit amount");
+            }
+
+            // loaded after the update so the response carries the new credit balance
+            VendorAccount account = vendorAccountRepository.findById(request.getVendorAccountId()).get();
+
             // If an organization account is supplied, deduct the amount from it and create an account detail
             Long orgAcctId = request.getOrganizationAccountId();
             if (orgAcctId != null && orgAcctId != 0) {
-                OrganizationAccount orgAcct = organizationAccoutRepo.findById(orgAcctId)
-                        .orElseThrow(() -> new IllegalArgumentException("Organization account not found"));
-
-                double available = orgAcct.getTotalAmount();
-                if (available < request.getAmountPaid()) {
+                if (aggregateTotalsRepository.withdrawFromOrganizationAccount(orgAcctId, request.getAmountPaid(), loggedInUser) == 0) {
+                    if (!organizationAccoutRepo.existsById(orgAcctId))
+                        throw new IllegalArgumentException("Organization account not found");
                     throw new IllegalArgumentException("Insufficient funds in the organization account");
                 }
 
-                orgAcct.setTotalAmount(available - request.getAmountPaid());
-                orgAcct.setUpdatedBy(loggedInUser);
-                organizationAccoutRepo.save(orgAcct);
-
                 OrganizationAccountDetail detail = new OrganizationAccountDetail();
-                detail.setOrganizationAcctId(orgAcct.getId());
+                detail.setOrganizationAcctId(orgAcctId);
                 detail.setAmount(request.getAmountPaid());
                 detail.setComments("Vendor payback to " + account.getName());
                 detail.setTransactionType(TransactionType.CREDIT); // deducted from org account
@@ -106,10 +107,7 @@ public class VendorAccountService {
                 organizationAccountDetailRepo.save(detail);
             }
 
-            double updatedCreditBalance = account.getTotalCreditAmount() - request.getAmountPaid();
-            account.setTotalCreditAmount(updatedCreditBalance);
-            account.setUpdatedBy(loggedInUser);
-            vendorAccountRepository.save(account);
+            double updatedCreditBalance = account.getTotalCreditAmount();
 
             VendorPayment vendorPayment = new VendorPayment();
             vendorPayment.setAmountPaid(request.getAmountPaid());
@@ -194,10 +192,7 @@ public class VendorAccountService {
             if (oldOrgAcctId != null && !Objects.equals(oldOrgAcctId, newOrgAcctId)) {
                 if (oldOrgAcct != null) {
                     double refunded = oldAmount;
-                    double cur = oldOrgAcct.getTotalAmount();
-                    oldOrgAcct.setTotalAmount((cur) + refunded);
-                    oldOrgAcct.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(oldOrgAcct);
+                    aggregateTotalsRepository.addToOrganizationAccount(oldOrgAcct.getId(), refunded, loggedInUser);
 
                     OrganizationAccountDetail refundDetail = new OrganizationAccountDetail();
                     refundDetail.setOrganizationAcctId(oldOrgAcct.getId());
@@ -210,13 +205,9 @@ public class VendorAccountService {
                 }
 
                 if (newOrgAcct != null) {
-                    double available = newOrgAcct.getTotalAmount();
-                    if (available < newAmount) {
+                    if (aggregateTotalsRepository.withdrawFromOrganizationAccount(newOrgAcct.getId(), newAmount, loggedInUser) == 0) {
                         throw new IllegalArgumentException("Insufficient funds in the new organization account");
                     }
-                    newOrgAcct.setTotalAmount(available - newAmount);
-                    newOrgAcct.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(newOrgAcct);
 
                     OrganizationAccountDetail deductDetail = new OrganizationAccountDetail();
                     deductDetail.setOrganizationAcctId(newOrgAcct.getId());
@@ -232,15 +223,14 @@ public class VendorAccountService {
                 // same org account (or both null/zero): apply delta on the single organization account
                 OrganizationAccount target = newOrgAcct != null ? newOrgAcct : oldOrgAcct;
                 if (target != null) {
-                    double available = target.getTotalAmount();
-                    if (delta > 0 && available < delta) {
-                        throw new IllegalArgumentException("Insufficient funds in the organization account for increased amount");
-                    }
-
                     // apply balance change
-                    target.setTotalAmount(available - delta);
-                    target.setUpdatedBy(loggedInUser);
-                    organizationAccoutRepo.save(target);
+                    if (delta > 0) {
+                        if (aggregateTotalsRepository.withdrawFromOrganizationAccount(target.getId(), delta, loggedInUser) == 0) {
+                            throw new IllegalArgumentException("Insufficient funds in the organization account for increased amount");
+                        }
+                    } else if (delta < 0) {
+                        aggregateTotalsRepository.addToOrganizationAccount(target.getId(), -delta, loggedInUser);
+                    }
 
                     // create account detail for delta
                     if (delta > 0) {
@@ -266,19 +256,15 @@ public class VendorAccountService {
             }
 
             // adjust vendor account totals: vendorAccount currently reflects the old payment already,
-            // so new total = current - delta
-            double newVendorCredit = vendorAccount.getTotalCreditAmount() - delta;
-            if (newVendorCredit < 0) {
+            // so new total = current - delta, which must not go negative
+            if (aggregateTotalsRepository.withdrawVendorCredit(vendorAccount.getId(), delta, loggedInUser) == 0) {
                 throw new IllegalArgumentException("Vendor credit cannot become negative");
             }
-            vendorAccount.setTotalCreditAmount(newVendorCredit);
-            vendorAccount.setUpdatedBy(loggedInUser);
-            vendorAccountRepository.save(vendorAccount);
 
             // update payment record
             existing.setAmountPaid(newAmount);
             existing.setOrganizationAccountId(newOrgAcctId);
-            existing.setBalanceAmount(vendorAccount.getTotalCreditAmount());
+            existing.setBalanceAmount(aggregateTotalsRepository.findVendorCreditAmount(vendorAccount.getId()));
             existing.setComments(request.getComments());
             existing.setUpdatedBy(loggedInUser);
             vendorAccountDetailRepo.save(existing);
@@ -0,0 +1,7 @@
+package com.rem.backend.usermanagement.dto;
+
+public interface EffectivePermissionProjection {
+    long getPermissionId();
+    String getEndPoint();
+    long getActive();
+}
@@ -1,12 +1,14 @@
 package com.rem.backend.usermanagement.entity;
 
 
+import com.rem.backend.usermanagement.service.PermissionChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(PermissionChangeListener.class)
 @Table(name = "default_role_mapping")
 @Data
 public class DefaultRolePermissionMapping {
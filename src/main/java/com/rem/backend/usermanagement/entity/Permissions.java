@@ -1,5 +1,6 @@
 package com.rem.backend.usermanagement.entity;
 
+import com.rem.backend.usermanagement.service.PermissionChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -7,6 +8,7 @@ import java.time.LocalDateTime;
 
 
 @Entity
+@EntityListeners(PermissionChangeListener.class)
 @Table(name = "permissions")
 @Data
 public class Permissions {
@@ -3,6 +3,7 @@ package com.rem.backend.usermanagement.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Set;
 
 @Entity
@@ -31,6 +32,9 @@ public class User {
     @Transient
     private Set<UserRoles> roles;
 
+    @Transient
+    private List<String> endPointList;
+
     @Column(nullable = false)
     private String createdBy;
 
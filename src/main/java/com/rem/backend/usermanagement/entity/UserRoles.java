@@ -2,6 +2,7 @@ package com.rem.backend.usermanagement.entity;
 
 
 import com.rem.backend.enums.RoleType;
+import com.rem.backend.usermanagement.service.PermissionChangeListener;
 import jakarta.persistence.*;
 import lombok.Data;
 
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 
 
 @Entity
+@EntityListeners(PermissionChangeListener.class)
 @Table(name = "user_role")
 @Data
 public class UserRoles {
@@ -57,15 +57,14 @@ public class JWTFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
         final String requestUri = request.getRequestURI().toLowerCase();
 
-        String token = null;
         String username = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            token = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(token);
+            // single parse + signature check, repeated tokens are answered from cache
+            username = jwtUtil.verifyToken(authorizationHeader.substring(7));
         }
 
-        if (username != null && jwtUtil.validateToken(token, username)) {
+        if (username != null) {
 //            var userDetails = userDetailsService.loadUserByUsername(username);
 //            var authorities = userDetails.getAuthorities();
 //
@@ -1,9 +1,13 @@
 package com.rem.backend.usermanagement.repository;
 
+import com.rem.backend.usermanagement.dto.EffectivePermissionProjection;
 import com.rem.backend.usermanagement.entity.Permissions;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +20,38 @@ public interface PermissionRepo extends JpaRepository<Permissions , Long> {
     Optional<Permissions> findByCode(String code);
 
     Optional<Permissions> findByEndPoint(String endPoint);
+
+
+    /**
+     * Resolves the effective permissions of an active user in one statement.
+     * A default mapping of any of the user's roles grants the permission unless
+     * the user has an inactive custom mapping for that role and permission,
+     * an active custom mapping grants it on its own. active = 1 means granted.
+     */
+    @Query(value = """
+    SELECT p.id         AS permissionId,
+           p.end_point  AS endPoint,
+           MAX(m.active) AS active
+    FROM (
+        SELECT drm.permission_id AS permission_id,
+               CASE WHEN crm.id IS NULL OR crm.is_active = 1 THEN 1 ELSE 0 END AS active
+        FROM users u
+        JOIN user_role ur ON ur.user_id = u.id
+        JOIN default_role_mapping drm ON drm.role_id = ur.role_id
+        LEFT JOIN custom_role_mapping crm ON crm.user_id = u.id
+             AND crm.role_id = ur.role_id
+             AND crm.permission_id = drm.permission_id
+        WHERE u.username = :username AND u.is_active = 1
+        UNION ALL
+        SELECT crm.permission_id AS permission_id,
+               CASE WHEN crm.is_active = 1 THEN 1 ELSE 0 END AS active
+        FROM users u
+        JOIN user_role ur ON ur.user_id = u.id
+        JOIN custom_role_mapping crm ON crm.user_id = u.id AND crm.role_id = ur.role_id
+        WHERE u.username = :username AND u.is_active = 1
+    ) m
+    JOIN permissions p ON p.id = m.permission_id
+    GROUP BY p.id, p.end_point
+""", nativeQuery = true)
+    List<EffectivePermissionProjection> findEffectivePermissionsByUsername(@Param("username") String username);
 }
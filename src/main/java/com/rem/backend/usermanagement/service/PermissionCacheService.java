@@ -0,0 +1,51 @@
+package com.rem.backend.usermanagement.service;
+
+import com.rem.backend.usermanagement.utillity.PermissionMatcher;
+import com.rem.backend.utility.CacheEviction;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Service
+public class PermissionCacheService {
+
+    // upper bound on staleness for mappings edited directly in the database
+    private static final long TTL_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    private final Map<String, CachedMatcher> matchers = new ConcurrentHashMap<>();
+
+    public PermissionMatcher getMatcher(String username, Function<String, List<String>> endPointLoader) {
+        long now = System.currentTimeMillis();
+
+        CachedMatcher cached = matchers.get(username);
+        if (cached != null && now - cached.compiledAt() < TTL_MILLIS)
+            return cached.matcher();
+
+        PermissionMatcher matcher = PermissionMatcher.compile(endPointLoader.apply(username));
+
+        // an empty set usually means the lookup failed, don't pin a denial in the cache
+        if (!matcher.isEmpty())
+            matchers.put(username, new CachedMatcher(matcher, now));
+
+        return matcher;
+    }
+
+    public void invalidate(String username) {
+        matchers.remove(username);
+    }
+
+    /**
+     * Drops every compiled matcher now and, when called inside a transaction,
+     * once more after it completes so a concurrent request can't re-cache old rows.
+     */
+    public void invalidateAll() {
+        CacheEviction.evictNowAndAfterCompletion(matchers::clear);
+    }
+
+    private record CachedMatcher(PermissionMatcher matcher, long compiledAt) {
+    }
+}
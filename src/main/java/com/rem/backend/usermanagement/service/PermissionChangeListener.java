@@ -0,0 +1,26 @@
+package com.rem.backend.usermanagement.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registered on every entity that feeds a user's effective permissions
+ * (user roles, default/custom role mappings, permissions) to evict the
+ * compiled matchers whenever one of those rows is written.
+ */
+@Component
+@RequiredArgsConstructor
+public class PermissionChangeListener {
+
+    private final PermissionCacheService permissionCacheService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onPermissionChange(Object entity) {
+        permissionCacheService.invalidateAll();
+    }
+}
@@ -8,8 +8,10 @@ import com.rem.backend.repository.OrganizationRepo;
 import com.rem.backend.service.EmailService;
 import com.rem.backend.service.SidebarService;
 import com.rem.backend.usermanagement.dto.AuthRequest;
+import com.rem.backend.usermanagement.dto.EffectivePermissionProjection;
 import com.rem.backend.usermanagement.entity.*;
 import com.rem.backend.usermanagement.repository.PasswordResetCodeRepo;
+import com.rem.backend.usermanagement.repository.PermissionRepo;
 import com.rem.backend.usermanagement.repository.UserRepo;
 import com.rem.backend.usermanagement.utillity.JWTUtils;
 import com.rem.backend.utility.CodeGenerator;
@@ -41,8 +43,8 @@ public class UserService implements UserDetailsService {
     private final RoleService roleService;
     private final JWTUtils jwtUtils;
     private final SidebarService sidebarService;
-    private final DefaultPermissionMappingService defaultPermissionMappingService;
-    private final CustomPermissionMappingService customPermissionMappingService;
+    private final PermissionRepo permissionRepo;
+    private final PermissionCacheService permissionCacheService;
     private final EmailService emailService;
     private final PasswordResetCodeRepo passwordResetCodeRepo;
 
@@ -66,13 +68,10 @@ public class UserService implements UserDetailsService {
         boolean flag = false;
         try {
 
-            Optional<String> endPointExist = getFinalUserPermissionsByUsername(username).
-                    stream().filter(endpoint ->
-                            endpoint.equals("/api/*") || requestUri.toLowerCase().startsWith(endpoint.toLowerCase())
-                    ).findFirst();
-
-            if (endPointExist.isPresent())
-                flag = true;
+            // compiled once per user and cached, no SQL on the request path
+            flag = permissionCacheService
+                    .getMatcher(username, this::getFinalUserPermissionsByUsername)
+                    .matches(requestUri);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -83,34 +82,11 @@ public class UserService implements UserDetailsService {
 
     private List<String> getFinalUserPermissionsByUsername(String username) {
         try {
-
-            Set<DefaultRolePermissionMapping> defaultSet = defaultPermissionMappingService.getDefaultPermissionsByUsername(username);
-            Set<CustomRoleMapping> customSet = customPermissionMappingService.getCustomPermissionsByUsername(username);
-
-// Step 1: Remove inactive custom permissions from defaultSet
-            Set<DefaultRolePermissionMapping> toRemove = customSet.stream().filter(custom -> !custom.isActive()).map(custom -> {
-                DefaultRolePermissionMapping temp = new DefaultRolePermissionMapping();
-                temp.setPermissionId(custom.getPermissionId());
-                temp.setRoleId(custom.getRoleId());
-                return temp;
-            }).collect(Collectors.toSet());
-
-            defaultSet.removeAll(toRemove);
-
-// Step 2: Add active custom permissions if not already in defaultSet
-            Set<DefaultRolePermissionMapping> toAdd = customSet.stream().filter(CustomRoleMapping::isActive).map(custom -> {
-                DefaultRolePermissionMapping temp = new DefaultRolePermissionMapping();
-                temp.setPermissionId(custom.getPermissionId());
-                temp.setRoleId(custom.getRoleId());
-                return temp;
-            }).filter(item -> !defaultSet.contains(item)).collect(Collectors.toSet());
-
-            defaultSet.addAll(toAdd);
-
-
-            List<String> endPointList = defaultSet.stream().map(defaultRolePermissionMapping -> defaultRolePermissionMapping.getEndPoint()).toList();
-
-            return endPointList;
+            // default + custom mappings merged in a single query
+            return permissionRepo.findEffectivePermissionsByUsername(username).stream()
+                    .filter(permission -> permission.getActive() == 1)
+                    .map(EffectivePermissionProjection::getEndPoint)
+                    .toList();
         } catch (Exception e) {
             e.printStackTrace();
             return Collections.emptyList();
@@ -130,6 +106,7 @@ public class UserService implements UserDetailsService {
                 Set<UserRoles> roles = roleService.getUserRoles(user.getId());
 
                 user.setRoles(roles);
+                user.setEndPointList(getFinalUserPermissionsByUsername(username));
 
                 return ResponseMapper.buildResponse(Responses.SUCCESS, user);
             }
@@ -290,6 +267,10 @@ public class UserService implements UserDetailsService {
             }
 
             if (userOptional.isPresent() && organizationOptional.isPresent()) {
+                // compile the matcher now so the first api call after login doesn't hit the database
+                permissionCacheService.invalidate(request.getUsername());
+                permissionCacheService.getMatcher(request.getUsername(), this::getFinalUserPermissionsByUsername);
+
                 String token = jwtUtils.generateToken(userOptional.get().getUsername());
                 List<Sidebar> sidebarList = sidebarService.getSidebarByRole(request.getUsername());
                 response.put("token", token);
@@ -3,9 +3,16 @@ package com.rem.backend.usermanagement.utillity;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
-import java.security.Key;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import io.jsonwebtoken.*;
 import org.springframework.stereotype.Component;
@@ -16,8 +23,22 @@ public class JWTUtils {
 
     private static final String SECRET_KEY = "your-256-bit-long-secret-key-which-has-enough-length-for-HS256";
     private static final int EXPIRY_HOURS = 10;
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
     public static final String LOGGED_IN_USER = "loggedInUser";
 
+    // key and parser are immutable and thread-safe, build them once instead of per call
+    private static final SecretKey SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private static final JwtParser PARSER = Jwts.parser().verifyWith(SIGNING_KEY).build();
+
+    // sha-256(token) -> subject & expiry of tokens whose signature was already checked
+    private final Map<String, VerifiedToken> verifiedTokens = Collections.synchronizedMap(
+            new LinkedHashMap<String, VerifiedToken>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                    return size() > VERIFIED_TOKEN_CACHE_SIZE;
+                }
+            });
+
 
     public String generateToken(String username) {
         return Jwts.builder()
@@ -25,19 +46,38 @@ public class JWTUtils {
                 .setIssuedAt(new Date())
 //                .setExpiration(new Date(System.currentTimeMillis() + 10 * 1000 * 60 * 60)) // 1 hour expiry
                 .setExpiration(new Date(System.currentTimeMillis() + Duration.ofHours(EXPIRY_HOURS).toMillis())) // 1 hour expiry
-                .signWith(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()), SignatureAlgorithm.HS256)
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    /**
+     * Parses and verifies the token once and returns its subject.
+     * Already verified tokens are served from an LRU cache until they expire,
+     * invalid or expired tokens throw the same JwtException as before.
+     */
+    public String verifyToken(String token) {
+        String tokenHash = hash(token);
+
+        VerifiedToken verifiedToken = verifiedTokens.get(tokenHash);
+        if (verifiedToken != null) {
+            if (verifiedToken.expiresAt() > System.currentTimeMillis())
+                return verifiedToken.username();
+
+            verifiedTokens.remove(tokenHash);
+        }
+
+        // parser rejects expired tokens itself, no separate expiry parse needed
+        Claims claims = PARSER.parseSignedClaims(token).getPayload();
+
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(tokenHash, new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime()));
+        }
+
+        return claims.getSubject();
     }
 
     public String extractUsername(String token) {
-        return Jwts.parser() // Use parser() if parserBuilder() isn't found
-                .setSigningKey(getSigningKey()) // New method in JJWT 0.12.6
-                .build()
-                .parseSignedClaims(token)
+        return PARSER.parseSignedClaims(token)
                 .getPayload()
                 .getSubject();
     }
@@ -47,12 +87,21 @@ public class JWTUtils {
     }
 
     private boolean isTokenExpired(String token) {
-        return Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseSignedClaims(token)  // ✅ Correct method in JJWT 0.12.6
+        return PARSER.parseSignedClaims(token)  // ✅ Correct method in JJWT 0.12.6
                 .getPayload()
                 .getExpiration()
                 .before(new Date());
     }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(String username, long expiresAt) {
+    }
 }
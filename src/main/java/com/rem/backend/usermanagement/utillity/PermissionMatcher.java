@@ -0,0 +1,71 @@
+package com.rem.backend.usermanagement.utillity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable, compiled form of a user's allowed endpoints.
+ * Endpoints are lower-cased, sorted and reduced to a prefix-free array so a
+ * request uri is authorized with a single binary search.
+ */
+public final class PermissionMatcher {
+
+    public static final String ALLOW_ALL = "/api/*";
+
+    private final boolean allowAll;
+    private final String[] prefixes;
+
+    private PermissionMatcher(boolean allowAll, String[] prefixes) {
+        this.allowAll = allowAll;
+        this.prefixes = prefixes;
+    }
+
+    public static PermissionMatcher compile(Collection<String> endPoints) {
+        boolean allowAll = false;
+        List<String> sorted = new ArrayList<>();
+
+        for (String endPoint : endPoints) {
+            if (endPoint == null)
+                continue;
+            if (endPoint.equals(ALLOW_ALL)) {
+                allowAll = true;
+                continue;
+            }
+            sorted.add(endPoint.toLowerCase());
+        }
+
+        sorted.sort(null);
+
+        // drop every endpoint already covered by a shorter prefix
+        List<String> prefixFree = new ArrayList<>();
+        for (String endPoint : sorted) {
+            if (prefixFree.isEmpty() || !endPoint.startsWith(prefixFree.get(prefixFree.size() - 1)))
+                prefixFree.add(endPoint);
+        }
+
+        return new PermissionMatcher(allowAll, prefixFree.toArray(new String[0]));
+    }
+
+    public boolean matches(String requestUri) {
+        if (allowAll)
+            return true;
+        if (prefixes.length == 0)
+            return false;
+
+        String uri = requestUri.toLowerCase();
+
+        // in a prefix-free sorted array the only candidate is the greatest prefix <= uri
+        int index = Arrays.binarySearch(prefixes, uri);
+        if (index >= 0)
+            return true;
+
+        int floor = -index - 2;
+        return floor >= 0 && uri.startsWith(prefixes[floor]);
+    }
+
+    public boolean isEmpty() {
+        return !allowAll && prefixes.length == 0;
+    }
+}
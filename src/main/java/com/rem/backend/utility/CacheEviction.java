@@ -0,0 +1,27 @@
+package com.rem.backend.utility;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Eviction of in memory caches written through a transaction. The eviction runs right away and,
+ * inside a transaction, once more when it completes: a read racing the write can reload the old
+ * rows before the commit, the second eviction drops what it cached.
+ */
+public final class CacheEviction {
+
+    private CacheEviction() {
+    }
+
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
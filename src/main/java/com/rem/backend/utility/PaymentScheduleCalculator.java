@@ -0,0 +1,212 @@
+package com.rem.backend.utility;
+
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentPlanType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Installment amounts of a payment schedule, without the down payment and the on possession payment.
+ * <p>
+ * Month wise ranges are resolved once into disjoint ranges sorted by month, each range's total is
+ * computed in closed form (count x amount plus the quarterly, half yearly and yearly add-ons falling
+ * inside it) and kept as a cumulative array over the ranges. "Due up to installment k" is a binary search over the
+ * ranges and "how many installments does this amount settle" a binary search over k, no per month
+ * iteration is needed.
+ */
+public final class PaymentScheduleCalculator {
+
+    private static final double EPSILON = 0.005;
+
+    private final int installmentCount;
+    private final int[] rangeFrom;
+    private final double[] rangeAmount;
+    // due before each range starts, the last entry is the installment total
+    private final double[] dueBeforeRange;
+    private final boolean addOns;
+    private final double quarterlyPayment;
+    private final double halfYearlyPayment;
+    private final double yearlyPayment;
+
+    private PaymentScheduleCalculator(int installmentCount, int[] rangeFrom, int[] rangeTo, double[] rangeAmount,
+                                      boolean addOns, double quarterlyPayment, double halfYearlyPayment, double yearlyPayment) {
+        this.installmentCount = installmentCount;
+        this.rangeFrom = rangeFrom;
+        this.rangeAmount = rangeAmount;
+        this.addOns = addOns;
+        this.quarterlyPayment = quarterlyPayment;
+        this.halfYearlyPayment = halfYearlyPayment;
+        this.yearlyPayment = yearlyPayment;
+
+        this.dueBeforeRange = new double[rangeFrom.length + 1];
+        for (int i = 0; i < rangeFrom.length; i++) {
+            dueBeforeRange[i + 1] = dueBeforeRange[i] + rangeTotal(rangeFrom[i], rangeTo[i], rangeAmount[i]);
+        }
+    }
+
+    public static PaymentScheduleCalculator of(PaymentSchedule schedule) {
+        if (PaymentPlanType.INSTALLMENT_RANGE.equals(schedule.getPaymentPlanType()))
+            return ofRanges(schedule);
+
+        if (PaymentPlanType.INSTALLMENT_SPECIFIC.equals(schedule.getPaymentPlanType())
+                && schedule.getMonthSpecificPaymentList() != null)
+            return ofSpecificMonths(schedule.getMonthSpecificPaymentList());
+
+        return new PaymentScheduleCalculator(0, new int[0], new int[0], new double[0], false, 0, 0, 0);
+    }
+
+    // each month takes the first range containing it in list order, like the per month lookup this replaced,
+    // so overlaps are allowed, but every month of 1..duration must be covered. Months past it are ignored
+    private static PaymentScheduleCalculator ofRanges(PaymentSchedule schedule) {
+        int duration = Math.max(schedule.getDurationInMonths(), 0);
+        List<MonthWisePayment> payments = schedule.getMonthWisePaymentList() != null
+                ? schedule.getMonthWisePaymentList()
+                : List.of();
+
+        // months already taken by an earlier range, from -> to, disjoint
+        TreeMap<Integer, Integer> taken = new TreeMap<>();
+        List<int[]> pieces = new ArrayList<>();
+        List<Double> pieceAmounts = new ArrayList<>();
+
+        for (MonthWisePayment payment : payments) {
+            int start = Math.max(payment.getFromMonth(), 1);
+            int end = Math.min(payment.getToMonth(), duration);
+
+            Map.Entry<Integer, Integer> before = taken.floorEntry(start);
+            if (before != null && before.getValue() >= start)
+                start = before.getValue() + 1;
+
+            // the parts of [start, end] between the earlier ranges are this range's
+            while (start <= end) {
+                Map.Entry<Integer, Integer> next = taken.ceilingEntry(start);
+                int pieceEnd = next == null ? end : Math.min(end, next.getKey() - 1);
+                if (pieceEnd >= start) {
+                    pieces.add(new int[]{start, pieceEnd});
+                    pieceAmounts.add(payment.getAmount());
+                    taken.put(start, pieceEnd);
+                }
+                start = next == null ? end + 1 : next.getValue() + 1;
+            }
+        }
+
+        Integer[] order = new Integer[pieces.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> pieces.get(i)[0]));
+
+        int[] from = new int[order.length];
+        int[] to = new int[order.length];
+        double[] amount = new double[order.length];
+        int expectedStart = 1;
+        for (int i = 0; i < order.length; i++) {
+            int[] piece = pieces.get(order[i]);
+            if (piece[0] != expectedStart)
+                throw new IllegalArgumentException("Invalid Month wise payment!");
+            from[i] = piece[0];
+            to[i] = piece[1];
+            amount[i] = pieceAmounts.get(order[i]);
+            expectedStart = piece[1] + 1;
+        }
+
+        if (expectedStart <= duration)
+            throw new IllegalArgumentException("Invalid Month wise payment!");
+
+        return new PaymentScheduleCalculator(duration, from, to, amount,
+                true, schedule.getQuarterlyPayment(), schedule.getHalfYearlyPayment(), schedule.getYearlyPayment());
+    }
+
+    // every month specific payment is a one installment range in list order, without add-ons
+    private static PaymentScheduleCalculator ofSpecificMonths(List<MonthSpecificPayment> payments) {
+        int count = payments.size();
+        int[] serials = new int[count];
+        double[] amount = new double[count];
+        for (int i = 0; i < count; i++) {
+            serials[i] = i + 1;
+            amount[i] = payments.get(i).getAmount();
+        }
+        return new PaymentScheduleCalculator(count, serials, serials, amount, false, 0, 0, 0);
+    }
+
+    public int getInstallmentCount() {
+        return installmentCount;
+    }
+
+    /**
+     * Sum of all installments, what Utility.monthlyPaymentSum returns
+     */
+    public double installmentTotal() {
+        return dueBeforeRange[dueBeforeRange.length - 1];
+    }
+
+    public double installmentAmount(int serialNo) {
+        if (serialNo < 1 || serialNo > installmentCount)
+            throw new IllegalArgumentException("Invalid installment " + serialNo);
+        int range = rangeOf(serialNo);
+        return rangeTotal(serialNo, serialNo, rangeAmount[range]);
+    }
+
+    /**
+     * Sum of installments 1..serialNo, 0 for serialNo 0 and the total past the last installment
+     */
+    public double dueUpTo(int serialNo) {
+        if (serialNo <= 0)
+            return 0.0;
+        if (serialNo >= installmentCount)
+            return installmentTotal();
+
+        int range = rangeOf(serialNo);
+        return dueBeforeRange[range] + rangeTotal(rangeFrom[range], serialNo, rangeAmount[range]);
+    }
+
+    /**
+     * Number of leading installments fully covered by the given amount
+     */
+    public int settledInstallments(double amount) {
+        int low = 0;
+        int high = installmentCount;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (dueUpTo(mid) <= amount + EPSILON)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    // last range starting at or before serialNo
+    private int rangeOf(int serialNo) {
+        int low = 0;
+        int high = rangeFrom.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (rangeFrom[mid] <= serialNo)
+                low = mid;
+            else
+                high = mid - 1;
+        }
+        return low;
+    }
+
+    private double rangeTotal(int from, int to, double amount) {
+        double total = (to - from + 1) * amount;
+        if (addOns) {
+            total += quarterlyPayment * multiplesIn(from, to, 3);
+            total += halfYearlyPayment * multiplesIn(from, to, 6);
+            total += yearlyPayment * multiplesIn(from, to, 12);
+        }
+        return total;
+    }
+
+    private static int multiplesIn(int from, int to, int step) {
+        return to / step - (from - 1) / step;
+    }
+}
@@ -10,6 +10,7 @@ public enum Responses {
     NO_DATA_FOUND("0001", "No Data Found!"),
     INVALID_PARAMETER("0002", "Invalid Parameter!"),
     INVALID_USER("0003", "Invalid Credentials!"),
+    REQUEST_IN_PROGRESS("0004", "Request Already In Progress!"),
     SYSTEM_FAILURE("9999", "System Failure!");
 
 
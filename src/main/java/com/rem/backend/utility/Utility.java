@@ -1,13 +1,9 @@
 package com.rem.backend.utility;
 
 import com.rem.backend.entity.expense.Expense;
-import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
-import com.rem.backend.entity.paymentschedule.MonthWisePayment;
 import com.rem.backend.entity.paymentschedule.PaymentSchedule;
-import com.rem.backend.enums.PaymentPlanType;
 import com.rem.backend.enums.PaymentStatus;
 import com.rem.backend.dto.booking.BookingCancellationRequest;
-import com.rem.backend.repository.ChartOfAccountRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
@@ -15,7 +11,6 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Optional;
 import java.util.Set;
 
 @Component
@@ -28,7 +23,6 @@ public class Utility {
     public static final String COMPANY_NAME = "COMPANY_NAME";
     public static final long ADMIN_ROLE_ID = 1;
     public static final long USER_ROLE_ID = 2;
-    public final ChartOfAccountRepository chartOfAccountRepository;
 
 
     public static LocalDateTime getDateInLastDays(int days) {
@@ -92,40 +86,7 @@ public class Utility {
 
 
     public static double monthlyPaymentSum(PaymentSchedule schedule) {
-        double sum = 0.0;
-
-        if (schedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_SPECIFIC)) {
-            for (MonthSpecificPayment payment : schedule.getMonthSpecificPaymentList()){
-                sum += payment.getAmount();
-            }
-        } else if (schedule.getPaymentPlanType().equals(PaymentPlanType.INSTALLMENT_RANGE)) {
-            for (int i = 0; i < schedule.getDurationInMonths(); i++) {
-                int serialNo = i + 1;
-                Optional<MonthWisePayment> monthWisePaymentOptional = schedule.getMonthWisePaymentList().stream()
-                        .filter(payment -> serialNo >= payment.getFromMonth() && serialNo <= payment.getToMonth())
-                        .findFirst();
-
-                if (monthWisePaymentOptional.isEmpty()) {
-                    throw new IllegalArgumentException("Invalid Month wise payment!");
-                }
-                double amount = monthWisePaymentOptional.get().getAmount();
-
-                // Add special amounts based on serialNo
-                if (serialNo % 3 == 0 && schedule.getQuarterlyPayment() != 0) {
-                    amount += schedule.getQuarterlyPayment();
-                }
-
-                if (serialNo % 6 == 0 && schedule.getHalfYearlyPayment() != 0) {
-                    amount += schedule.getHalfYearlyPayment();
-                }
-
-                if (serialNo % 12 == 0 && schedule.getYearlyPayment() != 0) {
-                    amount += schedule.getYearlyPayment();
-                }
-                sum += amount;
-            }
-        }
-        return sum;
+        return PaymentScheduleCalculator.of(schedule).installmentTotal();
     }
 
 
@@ -150,14 +111,4 @@ public class Utility {
             case FIXED -> fee.getValue();
         };
     }
-
-
-    /**
-     * Generate a unique account code
-     */
-    public String generateAccountCode(long organizationId, String prefix) {
-        long count = chartOfAccountRepository.findAllByOrganization_OrganizationId(organizationId).size();
-        return prefix + "-" + organizationId + "-" + (count + 1);
-    }
 }
-
@@ -0,0 +1,73 @@
+package com.rem.backend;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * Repository tests against a real MySQL, for the native queries and the row locking they rely on.
+ * The schema is generated from the entities, tests are not wrapped in a transaction so concurrent
+ * threads see each other's commits. Skipped when no docker is available.
+ */
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class MySqlContainerTest {
+
+    @Container
+    @ServiceConnection
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected PlatformTransactionManager transactionManager;
+
+    protected TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void createTransactionTemplate() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fixture row holding only the columns a test cares about, foreign keys and not null columns
+     * are relaxed for the statement so unrelated parents don't have to exist
+     */
+    protected void insertRow(String sql, Object... args) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET SESSION sql_mode = ''");
+                statement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(sql)) {
+                for (int i = 0; i < args.length; i++) {
+                    insert.setObject(i + 1, args[i]);
+                }
+                insert.executeUpdate();
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+                    statement.execute("SET SESSION sql_mode = DEFAULT");
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.MySqlContainerTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Concurrent deltas against the same rows must all land: the final total is the start plus every
+ * delta that reported an updated row, and guarded withdrawals never take a balance below its floor.
+ * Amounts are whole quarters so the double columns add up exactly.
+ */
+class AggregateTotalsRepositoryMySqlTest extends MySqlContainerTest {
+
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 250;
+    private static final long ORGANIZATION_ACCOUNT = 1;
+    private static final long CUSTOMER_ACCOUNT = 1;
+
+    @Autowired
+    private AggregateTotalsRepository aggregateTotalsRepository;
+
+    private interface Operation {
+        void run(int thread, Random random);
+    }
+
+    @BeforeEach
+    void clearAccounts() {
+        jdbcTemplate.update("DELETE FROM organization_account");
+        jdbcTemplate.update("DELETE FROM customer_account");
+    }
+
+    @Test
+    void concurrentDepositsAndWithdrawalsKeepTheOrganizationTotalExact() throws Exception {
+        double opening = 100_000_000;
+        insertOrganizationAccount(opening);
+        AtomicLong appliedQuarters = new AtomicLong();
+
+        runConcurrently((thread, random) -> {
+            long quarters = random.nextInt(40_000) + 1;
+            if (random.nextBoolean()) {
+                assertEquals(1, aggregateTotalsRepository.addToOrganizationAccount(ORGANIZATION_ACCOUNT, quarters / 4.0, "t" + thread));
+                appliedQuarters.addAndGet(quarters);
+            } else if (aggregateTotalsRepository.withdrawFromOrganizationAccount(ORGANIZATION_ACCOUNT, quarters / 4.0, "t" + thread) == 1) {
+                appliedQuarters.addAndGet(-quarters);
+            }
+        });
+
+        assertEquals(opening + appliedQuarters.get() / 4.0, organizationTotal());
+    }
+
+    @Test
+    void concurrentWithdrawalsNeverOverdraw() throws Exception {
+        insertOrganizationAccount(1000);
+        AtomicInteger withdrawn = new AtomicInteger();
+
+        runConcurrently((thread, random) -> {
+            if (aggregateTotalsRepository.withdrawFromOrganizationAccount(ORGANIZATION_ACCOUNT, 10, "t" + thread) == 1)
+                withdrawn.incrementAndGet();
+        });
+
+        assertEquals(100, withdrawn.get());
+        assertEquals(0.0, organizationTotal());
+    }
+
+    @Test
+    void concurrentReceiptsAndReversalsKeepTheCustomerAccountExact() throws Exception {
+        double total = 50_000_000;
+        insertCustomerAccount(total);
+        AtomicLong paidQuarters = new AtomicLong();
+
+        runConcurrently((thread, random) -> {
+            long quarters = random.nextInt(40_000) + 1;
+            if (random.nextInt(4) > 0) {
+                // CustomerPaymentService receiving a payment
+                if (aggregateTotalsRepository.receiveCustomerPayment(CUSTOMER_ACCOUNT, quarters / 4.0, "t" + thread) == 1)
+                    paidQuarters.addAndGet(quarters);
+            } else {
+                // and deleting one, reversals are serialized so together they never reverse more than was paid
+                synchronized (paidQuarters) {
+                    if (paidQuarters.get() < quarters)
+                        return;
+                    assertEquals(1, aggregateTotalsRepository.addToCustomerPaid(CUSTOMER_ACCOUNT, -quarters / 4.0, "t" + thread));
+                    paidQuarters.addAndGet(-quarters);
+                }
+            }
+        });
+
+        double paid = paidQuarters.get() / 4.0;
+        assertEquals(paid, customerColumn("total_paid_amount"));
+        assertEquals(total - paid, customerColumn("total_balance_amount"));
+    }
+
+    @Test
+    void concurrentReceiptsStopAtTheOutstandingBalance() throws Exception {
+        insertCustomerAccount(1000.25);
+        AtomicInteger received = new AtomicInteger();
+
+        runConcurrently((thread, random) -> {
+            if (aggregateTotalsRepository.receiveCustomerPayment(CUSTOMER_ACCOUNT, 10, "t" + thread) == 1)
+                received.incrementAndGet();
+        });
+
+        assertEquals(100, received.get());
+        assertEquals(1000.0, customerColumn("total_paid_amount"));
+        assertEquals(0.25, customerColumn("total_balance_amount"));
+    }
+
+    private void runConcurrently(Operation operation) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                Random random = new Random(thread);
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    operation.run(thread, random);
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void insertOrganizationAccount(double totalAmount) {
+        insertRow("INSERT INTO organization_account (id, organization_id, name, total_amount) VALUES (?, 1, 'Main', ?)",
+                ORGANIZATION_ACCOUNT, totalAmount);
+    }
+
+    private void insertCustomerAccount(double totalAmount) {
+        insertRow("INSERT INTO customer_account (id, total_amount, total_paid_amount, total_balance_amount) VALUES (?, ?, 0, ?)",
+                CUSTOMER_ACCOUNT, totalAmount, totalAmount);
+    }
+
+    private double organizationTotal() {
+        return jdbcTemplate.queryForObject(
+                "SELECT total_amount FROM organization_account WHERE id = ?", Double.class, ORGANIZATION_ACCOUNT);
+    }
+
+    private double customerColumn(String column) {
+        return jdbcTemplate.queryForObject(
+                "SELECT " + column + " FROM customer_account WHERE id = ?", Double.class, CUSTOMER_ACCOUNT);
+    }
+}
@@ -0,0 +1,118 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.MySqlContainerTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The window function allocation: the paid amount covers installments in serial order, the one
+ * it runs out in is PENDING and everything after it UNPAID, whatever order the rows were written in.
+ */
+class InstallmentDueRepositoryMySqlTest extends MySqlContainerTest {
+
+    private static final long ACCOUNT = 1;
+    private static final long OTHER_ACCOUNT = 2;
+
+    @Autowired
+    private InstallmentDueRepository installmentDueRepository;
+
+    @BeforeEach
+    void clearInstallments() {
+        jdbcTemplate.update("DELETE FROM installment_due");
+        jdbcTemplate.update("DELETE FROM customer_account");
+        // written out of serial order on purpose, the on possession row has no due date
+        insertInstallment(13, ACCOUNT, 3, 300);
+        insertInstallment(10, ACCOUNT, 0, 1000);
+        insertInstallment(12, ACCOUNT, 2, 200);
+        insertInstallment(11, ACCOUNT, 1, 100);
+        insertInstallment(20, OTHER_ACCOUNT, 0, 50);
+        insertCustomerAccount(OTHER_ACCOUNT, 0);
+    }
+
+    @Test
+    void nothingPaidLeavesEveryInstallmentUnpaid() {
+        insertCustomerAccount(ACCOUNT, 0);
+
+        assertEquals(4, allocate(ACCOUNT));
+
+        assertAllocation(List.of("UNPAID", "UNPAID", "UNPAID", "UNPAID"), List.of(0.0, 0.0, 0.0, 0.0));
+    }
+
+    @Test
+    void anExactlyCoveredInstallmentIsPaidAndTheNextUnpaid() {
+        insertCustomerAccount(ACCOUNT, 1100);
+
+        allocate(ACCOUNT);
+
+        assertAllocation(List.of("PAID", "PAID", "UNPAID", "UNPAID"), List.of(1000.0, 100.0, 0.0, 0.0));
+    }
+
+    @Test
+    void theInstallmentThePaymentRunsOutInIsPending() {
+        insertCustomerAccount(ACCOUNT, 1100.5);
+
+        allocate(ACCOUNT);
+
+        assertAllocation(List.of("PAID", "PAID", "PENDING", "UNPAID"), List.of(1000.0, 100.0, 0.5, 0.0));
+    }
+
+    @Test
+    void aPartialDownPaymentIsPending() {
+        insertCustomerAccount(ACCOUNT, 999.75);
+
+        allocate(ACCOUNT);
+
+        assertAllocation(List.of("PENDING", "UNPAID", "UNPAID", "UNPAID"), List.of(999.75, 0.0, 0.0, 0.0));
+    }
+
+    @Test
+    void anOverpaidAccountPaysEveryInstallmentOnlyUpToItsAmount() {
+        insertCustomerAccount(ACCOUNT, 5000);
+
+        allocate(ACCOUNT);
+
+        assertAllocation(List.of("PAID", "PAID", "PAID", "PAID"), List.of(1000.0, 100.0, 200.0, 300.0));
+        // other accounts are left alone
+        assertEquals("UNPAID", jdbcTemplate.queryForObject(
+                "SELECT status FROM installment_due WHERE customer_account_id = ?", String.class, OTHER_ACCOUNT));
+    }
+
+    @Test
+    void aReversalReallocatesFromScratch() {
+        insertCustomerAccount(ACCOUNT, 5000);
+        allocate(ACCOUNT);
+
+        jdbcTemplate.update("UPDATE customer_account SET total_paid_amount = 1050 WHERE id = ?", ACCOUNT);
+        allocate(ACCOUNT);
+
+        assertAllocation(List.of("PAID", "PENDING", "UNPAID", "UNPAID"), List.of(1000.0, 50.0, 0.0, 0.0));
+    }
+
+    private int allocate(long customerAccountId) {
+        return transactionTemplate.execute(status -> installmentDueRepository.allocatePayments(customerAccountId));
+    }
+
+    private void assertAllocation(List<String> statuses, List<Double> paidAmounts) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT status, paid_amount FROM installment_due WHERE customer_account_id = ? ORDER BY serial_no", ACCOUNT);
+        assertEquals(statuses, rows.stream().map(row -> row.get("status")).toList());
+        assertEquals(paidAmounts, rows.stream().map(row -> ((Number) row.get("paid_amount")).doubleValue()).toList());
+    }
+
+    private void insertInstallment(long id, long customerAccountId, int serialNo, double amount) {
+        insertRow("INSERT INTO installment_due (id, organization_id, customer_account_id, serial_no, due_date, amount, paid_amount, status) "
+                        + "VALUES (?, 1, ?, ?, ?, ?, 0, 'UNPAID')",
+                id, customerAccountId, serialNo, serialNo == 3 ? null : Date.valueOf("2025-01-01"), amount);
+    }
+
+    private void insertCustomerAccount(long id, double totalPaidAmount) {
+        insertRow("INSERT INTO customer_account (id, total_paid_amount) VALUES (?, ?)", id, totalPaidAmount);
+    }
+}
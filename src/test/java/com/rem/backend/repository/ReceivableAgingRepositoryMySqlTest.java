@@ -0,0 +1,135 @@
+package com.rem.backend.repository;
+
+import com.rem.backend.MySqlContainerTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Bucket boundaries of the aging snapshot: a day past due is 1-30, day 30 the last of it, day 31 the
+ * first of 31-60 and so on. Amounts are powers of two so every bucket sum names its installments.
+ */
+class ReceivableAgingRepositoryMySqlTest extends MySqlContainerTest {
+
+    private static final LocalDate AS_OF = LocalDate.of(2025, 6, 30);
+    private static final long ORGANIZATION = 1;
+    private static final long OTHER_ORGANIZATION = 2;
+    private static final long PROJECT = 10;
+    private static final long OTHER_PROJECT = 20;
+
+    private static final long WITH_INSTALLMENTS = 1;
+    private static final long WITHOUT_INSTALLMENTS = 2;
+    private static final long INACTIVE = 3;
+    private static final long OTHER_ORGANIZATIONS_ACCOUNT = 4;
+
+    @Autowired
+    private ReceivableAgingRepository receivableAgingRepository;
+
+    private long installmentId;
+
+    @BeforeEach
+    void createAccounts() {
+        jdbcTemplate.update("DELETE FROM receivable_aging");
+        jdbcTemplate.update("DELETE FROM installment_due");
+        jdbcTemplate.update("DELETE FROM customer_account");
+        jdbcTemplate.update("DELETE FROM project");
+
+        insertRow("INSERT INTO project (project_id, organization_id, name) VALUES (?, ?, 'Tower')", PROJECT, ORGANIZATION);
+        insertRow("INSERT INTO project (project_id, organization_id, name) VALUES (?, ?, 'Plaza')", OTHER_PROJECT, OTHER_ORGANIZATION);
+        insertAccount(WITH_INSTALLMENTS, PROJECT, true, 999_999);
+        insertAccount(WITHOUT_INSTALLMENTS, PROJECT, true, 5000);
+        insertAccount(INACTIVE, PROJECT, false, 7000);
+        insertAccount(OTHER_ORGANIZATIONS_ACCOUNT, OTHER_PROJECT, true, 3000);
+
+        insertInstallment(WITH_INSTALLMENTS, AS_OF, 1, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(1), 2, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(30), 4, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(31), 8, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(60), 16, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(61), 32, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(90), 64, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(91), 128, 0, "UNPAID");
+        // on possession, no due date yet
+        insertInstallment(WITH_INSTALLMENTS, null, 256, 0, "UNPAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.plusDays(5), 512, 0, "UNPAID");
+        // paid rows don't age, partly paid ones age with what is left
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(200), 1024, 1024, "PAID");
+        insertInstallment(WITH_INSTALLMENTS, AS_OF.minusDays(200), 2048 + 1000, 1000, "PENDING");
+    }
+
+    @Test
+    void installmentsLandInTheirDaysPastDueBucket() {
+        assertEquals(2, refresh(ORGANIZATION));
+
+        Map<String, Object> aging = agingOf(WITH_INSTALLMENTS);
+        assertEquals(1 + 256 + 512, amount(aging, "current_amount"));
+        assertEquals(2 + 4, amount(aging, "days_1_30"));
+        assertEquals(8 + 16, amount(aging, "days_31_60"));
+        assertEquals(32 + 64, amount(aging, "days_61_90"));
+        assertEquals(128 + 2048, amount(aging, "days_over_90"));
+        assertEquals(4095 - 1024, amount(aging, "total_outstanding"));
+        assertEquals(ORGANIZATION, ((Number) aging.get("organization_id")).longValue());
+        assertEquals(PROJECT, ((Number) aging.get("project_id")).longValue());
+    }
+
+    @Test
+    void accountsWithoutInstallmentsKeepTheirBalanceCurrent() {
+        refresh(ORGANIZATION);
+
+        Map<String, Object> aging = agingOf(WITHOUT_INSTALLMENTS);
+        assertEquals(5000.0, amount(aging, "current_amount"));
+        assertEquals(0.0, amount(aging, "days_1_30") + amount(aging, "days_31_60")
+                + amount(aging, "days_61_90") + amount(aging, "days_over_90"));
+        assertEquals(5000.0, amount(aging, "total_outstanding"));
+    }
+
+    @Test
+    void inactiveAndOtherOrganizationsAccountsAreLeftOut() {
+        // a row left from before the account was cancelled is dropped by the range delete
+        insertRow("INSERT INTO receivable_aging (organization_id, customer_account_id, as_of_date, updated_date) "
+                + "VALUES (?, ?, ?, NOW())", ORGANIZATION, INACTIVE, Date.valueOf(AS_OF.minusDays(1)));
+
+        refresh(ORGANIZATION);
+
+        assertEquals(List.of(WITH_INSTALLMENTS, WITHOUT_INSTALLMENTS), jdbcTemplate.queryForList(
+                "SELECT customer_account_id FROM receivable_aging ORDER BY customer_account_id", Long.class));
+        assertEquals(List.of(WITH_INSTALLMENTS, WITHOUT_INSTALLMENTS), receivableAgingRepository.findActiveAccountIds(ORGANIZATION));
+        assertEquals(List.of(WITH_INSTALLMENTS, WITHOUT_INSTALLMENTS, OTHER_ORGANIZATIONS_ACCOUNT),
+                receivableAgingRepository.findActiveAccountIds(null));
+    }
+
+    private int refresh(long organizationId) {
+        return transactionTemplate.execute(status -> {
+            receivableAgingRepository.deleteAccountRange(organizationId, 0, Long.MAX_VALUE);
+            return receivableAgingRepository.insertAccountRange(organizationId, 0, Long.MAX_VALUE, AS_OF);
+        });
+    }
+
+    private Map<String, Object> agingOf(long customerAccountId) {
+        return jdbcTemplate.queryForMap("SELECT * FROM receivable_aging WHERE customer_account_id = ?", customerAccountId);
+    }
+
+    private static double amount(Map<String, Object> aging, String column) {
+        return ((Number) aging.get(column)).doubleValue();
+    }
+
+    private void insertAccount(long id, long projectId, boolean active, double totalBalanceAmount) {
+        insertRow("INSERT INTO customer_account (id, project_id, customer_id, is_active, total_balance_amount) VALUES (?, ?, ?, ?, ?)",
+                id, projectId, 100 + id, active, totalBalanceAmount);
+    }
+
+    private void insertInstallment(long customerAccountId, LocalDate dueDate, double amount, double paidAmount, String status) {
+        installmentId++;
+        insertRow("INSERT INTO installment_due (id, organization_id, customer_account_id, serial_no, due_date, amount, paid_amount, status) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                installmentId, ORGANIZATION, customerAccountId, installmentId, dueDate != null ? Date.valueOf(dueDate) : null,
+                amount, paidAmount, status);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rem.backend.service;
+
+import com.rem.backend.MySqlContainerTest;
+import com.rem.backend.repository.AccountCodeCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCodeAllocatorMySqlTest extends MySqlContainerTest {
+
+    private static final int INSTANCES = 4;
+    private static final int THREADS_PER_INSTANCE = 8;
+    // a whole number of blocks per instance, so no instance is left holding unused numbers
+    private static final int CODES_PER_THREAD = 25;
+    private static final long ORGANIZATION_ID = 4L;
+    private static final int EXISTING_ACCOUNTS = 3;
+
+    @Autowired
+    private AccountCodeCounterRepository accountCodeCounterRepository;
+
+    @BeforeEach
+    void createAccounts() {
+        jdbcTemplate.update("DELETE FROM account_code_counter");
+        jdbcTemplate.update("DELETE FROM chart_of_account");
+        for (int i = 1; i <= EXISTING_ACCOUNTS; i++) {
+            insertRow("INSERT INTO chart_of_account (id, organization_id, code, name) VALUES (?, ?, ?, ?)",
+                    i, ORGANIZATION_ID, "ASS-" + ORGANIZATION_ID + "-" + i, "Account " + i);
+        }
+    }
+
+    @Test
+    void concurrentInstancesHandOutEveryCodeOnce() throws Exception {
+        // one allocator per simulated app instance, only the counter row keeps them apart
+        List<AccountCodeAllocator> allocators = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            allocators.add(new AccountCodeAllocator(accountCodeCounterRepository, transactionManager));
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(INSTANCES * THREADS_PER_INSTANCE);
+        List<Future<List<String>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < INSTANCES * THREADS_PER_INSTANCE; t++) {
+            AccountCodeAllocator allocator = allocators.get(t % INSTANCES);
+            futures.add(executor.submit(() -> {
+                List<String> codes = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < CODES_PER_THREAD; i++) {
+                    codes.add(allocator.nextCode(ORGANIZATION_ID, "ASS"));
+                }
+                return codes;
+            }));
+        }
+
+        start.countDown();
+        List<String> codes = new ArrayList<>();
+        try {
+            for (Future<List<String>> future : futures) {
+                codes.addAll(future.get(5, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Set<String> distinct = Set.copyOf(codes);
+        assertEquals(codes.size(), distinct.size(), "duplicate account code");
+        // numbering continues after the existing accounts without a gap
+        for (int n = EXISTING_ACCOUNTS + 1; n <= EXISTING_ACCOUNTS + codes.size(); n++) {
+            assertTrue(distinct.contains("ASS-" + ORGANIZATION_ID + "-" + n), "missing account code " + n);
+        }
+        assertEquals(EXISTING_ACCOUNTS + codes.size() + 1, accountCodeCounterRepository.findNextValue(ORGANIZATION_ID, "ASS"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.rem.backend.service;
+
+import com.rem.backend.repository.AccountCodeCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class AccountCodeAllocatorTest {
+
+    private static final int THREADS = 50;
+    private static final int CODES_PER_THREAD = 200;
+    private static final long ORGANIZATION_ID = 4L;
+
+    private final AccountCodeCounterRepository accountCodeCounterRepository = mock(AccountCodeCounterRepository.class);
+    private final AccountCodeAllocator allocator =
+            new AccountCodeAllocator(accountCodeCounterRepository, mock(PlatformTransactionManager.class));
+
+    // account_code_counter.next_value per organization and prefix, advanced like the row update does
+    private final Map<String, Long> counters = new ConcurrentHashMap<>();
+
+    private void countInMemory() {
+        when(accountCodeCounterRepository.createIfAbsent(anyLong(), anyString())).thenAnswer(invocation ->
+                counters.putIfAbsent(invocation.getArgument(0) + ":" + invocation.getArgument(1), 1L) == null ? 1 : 0);
+        when(accountCodeCounterRepository.advance(anyLong(), anyString(), anyInt())).thenAnswer(invocation -> {
+            counters.merge(invocation.getArgument(0) + ":" + invocation.getArgument(1),
+                    (long) (int) invocation.getArgument(2), Long::sum);
+            return 1;
+        });
+        when(accountCodeCounterRepository.findNextValue(anyLong(), anyString())).thenAnswer(invocation ->
+                counters.get(invocation.getArgument(0) + ":" + invocation.getArgument(1)));
+    }
+
+    @Test
+    void concurrentCodesForOneParentAreUniqueAndContiguous() throws Exception {
+        countInMemory();
+
+        List<String> codes = allocateConcurrently(thread -> "ASS");
+
+        Set<String> distinct = Set.copyOf(codes);
+        assertEquals(THREADS * CODES_PER_THREAD, codes.size());
+        assertEquals(codes.size(), distinct.size(), "duplicate account code");
+        for (int n = 1; n <= codes.size(); n++) {
+            assertTrue(distinct.contains("ASS-" + ORGANIZATION_ID + "-" + n), "missing account code " + n);
+        }
+        // one reservation per block, not per code
+        verify(accountCodeCounterRepository, times(codes.size() / 10)).advance(anyLong(), anyString(), anyInt());
+    }
+
+    @Test
+    void parentsCountIndependently() throws Exception {
+        countInMemory();
+
+        List<String> codes = allocateConcurrently(thread -> thread % 2 == 0 ? "ASS" : "LIA");
+
+        for (String prefix : List.of("ASS", "LIA")) {
+            List<String> parentCodes = codes.stream().filter(code -> code.startsWith(prefix + "-")).toList();
+            Set<String> distinct = Set.copyOf(parentCodes);
+            assertEquals(THREADS / 2 * CODES_PER_THREAD, parentCodes.size());
+            assertEquals(parentCodes.size(), distinct.size(), "duplicate " + prefix + " code");
+            for (int n = 1; n <= parentCodes.size(); n++) {
+                assertTrue(distinct.contains(prefix + "-" + ORGANIZATION_ID + "-" + n), "missing " + prefix + " code " + n);
+            }
+        }
+    }
+
+    private interface PrefixOfThread {
+        String prefix(int thread);
+    }
+
+    private List<String> allocateConcurrently(PrefixOfThread prefixOfThread) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<String>>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            String prefix = prefixOfThread.prefix(t);
+            futures.add(executor.submit(() -> {
+                List<String> codes = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < CODES_PER_THREAD; i++) {
+                    codes.add(allocator.nextCode(ORGANIZATION_ID, prefix));
+                }
+                return codes;
+            }));
+        }
+
+        start.countDown();
+        List<String> codes = new ArrayList<>();
+        try {
+            for (Future<List<String>> future : futures) {
+                codes.addAll(future.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return codes;
+    }
+}
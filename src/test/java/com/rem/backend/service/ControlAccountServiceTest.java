@@ -0,0 +1,54 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.accounting.ControlAccountProjection;
+import com.rem.backend.enums.AccountStatus;
+import com.rem.backend.enums.ControlAccountType;
+import com.rem.backend.repository.ChartOfAccountRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class ControlAccountServiceTest {
+
+    private static final long ORGANIZATION_ID = 2L;
+
+    private final ChartOfAccountRepository chartOfAccountRepository = mock(ChartOfAccountRepository.class);
+    private final ControlAccountService controlAccountService = new ControlAccountService(chartOfAccountRepository);
+
+    private record Row(long getId, String getName, boolean getSystemGenerated, Long getOrganizationAccountId,
+                       String getGroupName) implements ControlAccountProjection {
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void accountsReloadedBeforeTheCommitAreDroppedAfterIt() {
+        when(chartOfAccountRepository.findControlAccounts(ORGANIZATION_ID, AccountStatus.ACTIVE))
+                .thenReturn(List.of(new Row(10L, "Vendor Payable", true, null, "Liabilities")))
+                .thenReturn(List.of(new Row(10L, "Vendor Payable", true, null, "Liabilities")))
+                .thenReturn(List.of(new Row(11L, "Vendor Payable", true, null, "Liabilities")));
+        assertEquals(10L, controlAccountService.getControlAccountId(ORGANIZATION_ID, ControlAccountType.VENDOR_PAYABLE));
+
+        // the writer renames the account and invalidates, another thread reads the old row before the commit
+        TransactionSynchronizationManager.initSynchronization();
+        controlAccountService.invalidate(ORGANIZATION_ID);
+        assertEquals(10L, controlAccountService.getControlAccountId(ORGANIZATION_ID, ControlAccountType.VENDOR_PAYABLE));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(11L, controlAccountService.getControlAccountId(ORGANIZATION_ID, ControlAccountType.VENDOR_PAYABLE));
+        verify(chartOfAccountRepository, times(3)).findControlAccounts(ORGANIZATION_ID, AccountStatus.ACTIVE);
+    }
+}
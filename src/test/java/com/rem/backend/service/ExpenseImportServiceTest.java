@@ -0,0 +1,184 @@
+package com.rem.backend.service;
+
+import com.rem.backend.accountmanagement.entity.OrganizationAccount;
+import com.rem.backend.dto.expense.ExpenseImportResult;
+import com.rem.backend.dto.expense.ExpenseImportRow;
+import com.rem.backend.entity.account.ChartOfAccount;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.entity.organization.Organization;
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.enums.PaymentType;
+import com.rem.backend.repository.*;
+import com.rem.backend.utility.Responses;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.rem.backend.utility.Utility.DATA;
+import static com.rem.backend.utility.Utility.RESPONSE_CODE;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExpenseImportServiceTest {
+
+    private static final long ORGANIZATION_ID = 1L;
+    private static final long ORGANIZATION_ACCOUNT = 7L;
+    private static final long EXPENSE_COA = 30L;
+    private static final String USER = "tester";
+    private static final String HEADER = "expenseType,organizationAccountId,expenseCOAId,totalAmount,amountPaid,creditAmount,paymentType";
+
+    private final ExpenseRepo expenseRepo = mock(ExpenseRepo.class);
+    private final OrganizationAccoutRepo organizationAccountRepo = mock(OrganizationAccoutRepo.class);
+    private final ChartOfAccountRepository chartOfAccountRepository = mock(ChartOfAccountRepository.class);
+    private final AggregateTotalsRepository aggregateTotalsRepository = mock(AggregateTotalsRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final ExpenseImportService expenseImportService = new ExpenseImportService(expenseRepo,
+            mock(ExpenseDetailRepo.class), mock(ExpenseTypeRepo.class), mock(VendorAccountRepo.class),
+            mock(VendorAccountDetailRepo.class), mock(ProjectRepo.class), organizationAccountRepo,
+            mock(OrganizationAccountDetailRepo.class), chartOfAccountRepository, aggregateTotalsRepository,
+            mock(JournalEntryService.class), mock(JournalWriter.class), mock(ExpenseRollupService.class),
+            transactionManager);
+
+    @BeforeEach
+    void mockReferences() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        when(expenseRepo.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(aggregateTotalsRepository.withdrawFromOrganizationAccount(anyLong(), anyDouble(), anyString())).thenReturn(1);
+        organizationAccountBalance(10_000);
+
+        Organization organization = new Organization();
+        organization.setOrganizationId(ORGANIZATION_ID);
+        ChartOfAccount expenseAccount = new ChartOfAccount();
+        expenseAccount.setId(EXPENSE_COA);
+        expenseAccount.setOrganization(organization);
+        when(chartOfAccountRepository.findAllById(any())).thenReturn(List.of(expenseAccount));
+    }
+
+    @Test
+    void csvFieldsWithQuotesCommasAndAByteOrderMarkAreParsed() {
+        String csv = "\uFEFF" + HEADER + ",comments,legacyColumn,expenseDate,paymentDocNo\n"
+                + "miscellaneous,7,30,100,100,0,cash,\"Cement, sand and \"\"grade A\"\" bricks\",ignored,2025-03-04,\"\"\n"
+                + "\n"
+                + "MISCELLANEOUS,7,30,50.5,50,0.5,ONLINE,plain,,2025-03-05\n";
+
+        ExpenseImportResult result = importCsv(csv);
+
+        assertEquals(new ExpenseImportResult(2, 2, List.of()), result);
+        List<Expense> expenses = savedExpenses().get(0);
+        assertEquals("Cement, sand and \"grade A\" bricks", expenses.get(0).getComments());
+        assertEquals(PaymentType.CASH, expenses.get(0).getPaymentType());
+        assertEquals(LocalDate.of(2025, 3, 4).atStartOfDay(), expenses.get(0).getCreatedDate());
+        assertNull(expenses.get(0).getPaymentDocNo());
+        assertEquals(ExpenseType.MISCELLANEOUS, expenses.get(1).getExpenseType());
+        assertEquals(0.5, expenses.get(1).getCreditAmount());
+    }
+
+    @Test
+    void unreadableValuesAreReportedOnTheirLine() {
+        String csv = HEADER + ",expenseDate\n"
+                + "MISCELLANEOUS,7,30,100,100,0,CASH,2025-03-04\n"
+                + "RENOVATION,7,30,100,100,0,CASH,2025-03-04\n"
+                + "MISCELLANEOUS,seven,30,100,100,0,CASH,2025-03-04\n"
+                + "MISCELLANEOUS,7,30,100,100,0,BARTER,2025-03-04\n"
+                + "MISCELLANEOUS,7,30,100,100,0,CASH,04/03/2025\n"
+                + "MISCELLANEOUS,7,30,1e2,100,0,CASH,\n";
+
+        ExpenseImportResult result = importCsv(csv);
+
+        assertEquals(6, result.totalRows());
+        assertEquals(2, result.imported());
+        assertEquals(List.of(
+                new ExpenseImportResult.RowError(3, "Invalid value 'RENOVATION' for expenseType"),
+                new ExpenseImportResult.RowError(4, "Invalid value 'seven' for organizationAccountId"),
+                new ExpenseImportResult.RowError(5, "Invalid value 'BARTER' for paymentType"),
+                new ExpenseImportResult.RowError(6, "Invalid value '04/03/2025' for expenseDate")), result.errors());
+    }
+
+    @Test
+    void paidAmountsDrawDownTheAccountBalanceAcrossRows() {
+        organizationAccountBalance(1000);
+        String csv = HEADER + "\n"
+                + "MISCELLANEOUS,7,30,600,600,0,CASH\n"
+                + "MISCELLANEOUS,7,30,500,500,0,CASH\n"       // 400 left
+                + "MISCELLANEOUS,7,30,900,400,500,CASH\n"     // takes the last 400
+                + "MISCELLANEOUS,7,30,100,0,100,CASH\n"       // on credit, nothing drawn
+                + "MISCELLANEOUS,7,30,0.5,0.5,0,CASH\n";
+
+        ExpenseImportResult result = importCsv(csv);
+
+        assertEquals(3, result.imported());
+        assertEquals(List.of(
+                new ExpenseImportResult.RowError(3, "Not Enough Funds for this account"),
+                new ExpenseImportResult.RowError(6, "Not Enough Funds for this account")), result.errors());
+        verify(aggregateTotalsRepository).withdrawFromOrganizationAccount(ORGANIZATION_ACCOUNT, 1000.0, USER);
+    }
+
+    @Test
+    void aFailingChunkReportsItsRowsAndKeepsEarlierChunks() {
+        when(aggregateTotalsRepository.withdrawFromOrganizationAccount(anyLong(), anyDouble(), anyString()))
+                .thenReturn(1)
+                .thenReturn(0);
+        List<ExpenseImportRow> rows = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            rows.add(row(1));
+        }
+
+        Map<String, Object> response = expenseImportService.importExpenses(ORGANIZATION_ID, rows, USER);
+
+        assertEquals(Responses.SUCCESS.getResponseCode(), response.get(RESPONSE_CODE));
+        ExpenseImportResult result = (ExpenseImportResult) response.get(DATA);
+        assertEquals(1500, result.totalRows());
+        assertEquals(1000, result.imported());
+        assertEquals(500, result.errors().size());
+        assertEquals(1001, result.errors().get(0).row());
+        assertEquals(1500, result.errors().get(499).row());
+        assertEquals("Not Enough Funds for this account", result.errors().get(0).message());
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    private ExpenseImportResult importCsv(String csv) {
+        MockMultipartFile file = new MockMultipartFile("file", "expenses.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        Map<String, Object> response = expenseImportService.importExpensesCsv(ORGANIZATION_ID, file, USER);
+        assertEquals(Responses.SUCCESS.getResponseCode(), response.get(RESPONSE_CODE), String.valueOf(response));
+        return (ExpenseImportResult) response.get(DATA);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Expense>> savedExpenses() {
+        ArgumentCaptor<List<Expense>> saved = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepo, atLeastOnce()).saveAll(saved.capture());
+        return saved.getAllValues();
+    }
+
+    private void organizationAccountBalance(double totalAmount) {
+        OrganizationAccount organizationAccount = new OrganizationAccount();
+        organizationAccount.setId(ORGANIZATION_ACCOUNT);
+        organizationAccount.setOrganizationId(ORGANIZATION_ID);
+        organizationAccount.setName("Main");
+        organizationAccount.setTotalAmount(totalAmount);
+        when(organizationAccountRepo.findAllById(any())).thenReturn(List.of(organizationAccount));
+    }
+
+    private static ExpenseImportRow row(double amount) {
+        ExpenseImportRow row = new ExpenseImportRow();
+        row.setExpenseType(ExpenseType.MISCELLANEOUS);
+        row.setOrganizationAccountId(ORGANIZATION_ACCOUNT);
+        row.setExpenseCOAId(EXPENSE_COA);
+        row.setTotalAmount(amount);
+        row.setAmountPaid(amount);
+        row.setPaymentType(PaymentType.CASH);
+        return row;
+    }
+}
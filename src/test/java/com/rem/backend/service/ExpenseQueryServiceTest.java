@@ -0,0 +1,33 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.expense.ExpenseSearchCriteria;
+import com.rem.backend.repository.ExpenseRepo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ExpenseQueryServiceTest {
+
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final ExpenseQueryService expenseQueryService = new ExpenseQueryService(mock(ExpenseRepo.class), entityManager);
+
+    @Test
+    void partialCursorIsRejected() {
+        ExpenseSearchCriteria idOnly = new ExpenseSearchCriteria();
+        idOnly.setAfterId(42L);
+        ExpenseSearchCriteria dateOnly = new ExpenseSearchCriteria();
+        dateOnly.setAfterCreatedDate(LocalDateTime.of(2026, 1, 5, 10, 0));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseQueryService.findSlice(idOnly, 10, Sort.Direction.ASC, false));
+        assertThrows(IllegalArgumentException.class,
+                () -> expenseQueryService.findSlice(dateOnly, 10, Sort.Direction.DESC, false));
+        verifyNoInteractions(entityManager);
+    }
+}
@@ -0,0 +1,160 @@
+package com.rem.backend.service;
+
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.enums.ExpenseType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Property: applying the net deltas of an edit leaves every vendor, project and organization account
+ * where deleteExpense followed by addExpense would have left it.
+ */
+class ExpenseRepostServiceTest {
+
+    private static final int RUNS = 5000;
+    private static final double TOLERANCE = 1e-6;
+
+    private static final ExpenseType[] TYPES = {ExpenseType.CONSTRUCTION, ExpenseType.MISCELLANEOUS};
+
+    private final Random random = new Random(20260417L);
+
+    /**
+     * Aggregates as the expense service moves them, written out per rule instead of going through addEffect
+     */
+    private static class Ledger {
+
+        final Map<Long, double[]> vendorAccounts = new HashMap<>();
+        final Map<Long, Double> projects = new HashMap<>();
+        final Map<Long, Double> organizationAccounts = new HashMap<>();
+
+        // deleteExpense
+        void delete(Expense expense) {
+            organizationAccounts.merge(expense.getOrganizationAccountId(), expense.getAmountPaid(), Double::sum);
+            if (expense.getExpenseType() != ExpenseType.CONSTRUCTION)
+                return;
+            projects.merge(expense.getProjectId(), -expense.getTotalAmount(), Double::sum);
+            addVendor(expense.getVendorAccountId(), -expense.getTotalAmount(), -expense.getAmountPaid(), -expense.getCreditAmount());
+        }
+
+        // addExpense
+        void add(Expense expense) {
+            organizationAccounts.merge(expense.getOrganizationAccountId(), -expense.getAmountPaid(), Double::sum);
+            if (expense.getExpenseType() != ExpenseType.CONSTRUCTION)
+                return;
+            addVendor(expense.getVendorAccountId(), expense.getTotalAmount(), expense.getAmountPaid(), expense.getCreditAmount());
+            if (expense.getProjectId() > 0)
+                projects.merge(expense.getProjectId(), expense.getTotalAmount(), Double::sum);
+        }
+
+        private void addVendor(long vendorAccountId, double totalAmount, double amountPaid, double creditAmount) {
+            double[] vendor = vendorAccounts.computeIfAbsent(vendorAccountId, id -> new double[3]);
+            vendor[0] += totalAmount;
+            vendor[1] += amountPaid;
+            vendor[2] += creditAmount;
+        }
+    }
+
+    @Test
+    void deltasEqualDeleteAndReAdd() {
+        for (int run = 0; run < RUNS; run++) {
+            Expense oldExpense = randomExpense();
+            Expense newExpense = random.nextInt(4) == 0 ? sameRowsAs(oldExpense) : randomExpense();
+
+            Ledger ledger = new Ledger();
+            ledger.delete(oldExpense);
+            ledger.add(newExpense);
+
+            ExpenseRepostService.Deltas deltas = ExpenseRepostService.between(oldExpense, newExpense);
+            String context = "run " + run + ": " + oldExpense + " -> " + newExpense;
+
+            // project 0 is not a project row, deleteExpense's update of it matches nothing
+            ledger.projects.remove(0L);
+
+            for (long vendorAccountId : union(ledger.vendorAccounts.keySet(), deltas.vendorAccounts().keySet())) {
+                double[] expected = ledger.vendorAccounts.getOrDefault(vendorAccountId, new double[3]);
+                ExpenseRepostService.VendorDelta actual = deltas.vendorAccounts()
+                        .getOrDefault(vendorAccountId, new ExpenseRepostService.VendorDelta(0, 0, 0));
+                assertEquals(expected[0], actual.totalAmount(), TOLERANCE, context);
+                assertEquals(expected[1], actual.amountPaid(), TOLERANCE, context);
+                assertEquals(expected[2], actual.creditAmount(), TOLERANCE, context);
+            }
+            for (long projectId : union(ledger.projects.keySet(), deltas.projects().keySet())) {
+                assertEquals(ledger.projects.getOrDefault(projectId, 0.0),
+                        deltas.projects().getOrDefault(projectId, 0.0), TOLERANCE, context);
+            }
+            for (long organizationAccountId : union(ledger.organizationAccounts.keySet(), deltas.organizationAccounts().keySet())) {
+                assertEquals(ledger.organizationAccounts.getOrDefault(organizationAccountId, 0.0),
+                        deltas.organizationAccounts().getOrDefault(organizationAccountId, 0.0), TOLERANCE, context);
+            }
+        }
+    }
+
+    @Test
+    void unchangedExpenseHasNoDeltas() {
+        for (int run = 0; run < RUNS; run++) {
+            Expense expense = randomExpense();
+            ExpenseRepostService.Deltas deltas = ExpenseRepostService.between(expense, copyOf(expense));
+
+            assertTrue(deltas.vendorAccounts().isEmpty());
+            assertTrue(deltas.projects().isEmpty());
+            assertTrue(deltas.organizationAccounts().isEmpty());
+        }
+    }
+
+    // few ids so old and new expense often share vendor, project and organization account rows
+    private Expense randomExpense() {
+        Expense expense = new Expense();
+        expense.setExpenseType(TYPES[random.nextInt(TYPES.length)]);
+        expense.setVendorAccountId((long) random.nextInt(3) + 1);
+        expense.setProjectId((long) random.nextInt(3));
+        expense.setOrganizationAccountId((long) random.nextInt(3) + 1);
+
+        double totalAmount = amount();
+        double amountPaid = random.nextInt(5) == 0 ? totalAmount : Math.round(totalAmount * random.nextDouble() * 100) / 100.0;
+        expense.setTotalAmount(totalAmount);
+        expense.setAmountPaid(amountPaid);
+        expense.setCreditAmount(totalAmount - amountPaid);
+        return expense;
+    }
+
+    // same type and rows with new amounts, the common edit
+    private Expense sameRowsAs(Expense oldExpense) {
+        Expense expense = randomExpense();
+        expense.setExpenseType(oldExpense.getExpenseType());
+        expense.setVendorAccountId(oldExpense.getVendorAccountId());
+        expense.setProjectId(oldExpense.getProjectId());
+        expense.setOrganizationAccountId(oldExpense.getOrganizationAccountId());
+        return expense;
+    }
+
+    private static Expense copyOf(Expense source) {
+        Expense expense = new Expense();
+        expense.setExpenseType(source.getExpenseType());
+        expense.setVendorAccountId(source.getVendorAccountId());
+        expense.setProjectId(source.getProjectId());
+        expense.setOrganizationAccountId(source.getOrganizationAccountId());
+        expense.setTotalAmount(source.getTotalAmount());
+        expense.setAmountPaid(source.getAmountPaid());
+        expense.setCreditAmount(source.getCreditAmount());
+        return expense;
+    }
+
+    // zero now and then, otherwise up to 1,000,000 in cents
+    private double amount() {
+        return random.nextInt(10) == 0 ? 0 : random.nextInt(100_000_000) / 100.0;
+    }
+
+    private static Set<Long> union(Set<Long> first, Set<Long> second) {
+        Set<Long> union = new HashSet<>(first);
+        union.addAll(second);
+        return union;
+    }
+}
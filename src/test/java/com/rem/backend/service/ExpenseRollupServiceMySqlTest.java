@@ -0,0 +1,164 @@
+package com.rem.backend.service;
+
+import com.rem.backend.MySqlContainerTest;
+import com.rem.backend.config.ExpenseRollupInitializer;
+import com.rem.backend.entity.expense.Expense;
+import com.rem.backend.enums.ExpenseType;
+import com.rem.backend.repository.ExpenseMonthlyRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * The deltas ExpenseService applies on add, addExpenseDetail, update and delete must leave the
+ * rollup exactly where a rebuild from the expense and expense_detail rows puts it.
+ * Each step writes the rows the service would and applies the same deltas.
+ * Amounts are whole quarters so the double columns add up exactly.
+ */
+class ExpenseRollupServiceMySqlTest extends MySqlContainerTest {
+
+    private static final long ORGANIZATION = 1;
+    private static final long PROJECT = 3;
+
+    @Autowired
+    private ExpenseMonthlyRollupRepository expenseMonthlyRollupRepository;
+
+    private ExpenseRollupService expenseRollupService;
+
+    @BeforeEach
+    void clearExpenses() {
+        jdbcTemplate.update("DELETE FROM expense_monthly_rollup");
+        jdbcTemplate.update("DELETE FROM expense_detail");
+        jdbcTemplate.update("DELETE FROM expense");
+        expenseRollupService = new ExpenseRollupService(expenseMonthlyRollupRepository);
+    }
+
+    @Test
+    void incrementalDeltasMatchARebuild() {
+        // add: a construction expense on credit, a paid miscellaneous one, one to delete later and a historical one
+        Expense construction = expense(1, ExpenseType.CONSTRUCTION, 4L, 1000, 250, at(2025, 1, 15));
+        insertExpense(construction);
+        insertDetail(11, construction, 250, at(2025, 1, 15));
+        apply(ExpenseRollupService.deltas().expense(construction, 1).payment(construction, at(2025, 1, 15), 250));
+
+        Expense miscellaneous = expense(2, ExpenseType.MISCELLANEOUS, null, 400.5, 400.5, at(2025, 2, 3));
+        insertExpense(miscellaneous);
+        insertDetail(21, miscellaneous, 400.5, at(2025, 2, 3));
+        apply(ExpenseRollupService.deltas().expense(miscellaneous, 1).payment(miscellaneous, at(2025, 2, 3), 400.5));
+
+        Expense deleted = expense(3, ExpenseType.CONSTRUCTION, 4L, 300.25, 100, at(2025, 1, 20));
+        insertExpense(deleted);
+        insertDetail(31, deleted, 100, at(2025, 1, 20));
+        apply(ExpenseRollupService.deltas().expense(deleted, 1).payment(deleted, at(2025, 1, 20), 100));
+
+        Expense historical = expense(4, ExpenseType.HISTORICAL, 4L, 9000, 0, at(2024, 12, 1));
+        insertExpense(historical);
+        apply(ExpenseRollupService.deltas().expense(historical, 1));
+
+        // addExpenseDetail: credit paid back in march settles january's credit
+        construction.setAmountPaid(650);
+        construction.setCreditAmount(350);
+        updateExpense(construction);
+        insertDetail(12, construction, 400, at(2025, 3, 10));
+        apply(ExpenseRollupService.deltas().payment(construction, at(2025, 3, 10), 400).creditSettled(construction, 400));
+
+        // update: the old expense and its details leave, the edit keeps its created date and gets one new detail
+        ExpenseRollupService.Deltas update = ExpenseRollupService.deltas().expense(miscellaneous, -1)
+                .payment(miscellaneous, at(2025, 2, 3), -400.5);
+        jdbcTemplate.update("DELETE FROM expense_detail WHERE expense_id = ?", miscellaneous.getId());
+        Expense edited = expense(2, ExpenseType.CONSTRUCTION, 5L, 600, 200, at(2025, 2, 3));
+        updateExpense(edited);
+        insertDetail(22, edited, 200, at(2025, 4, 1));
+        apply(update.expense(edited, 1).payment(edited, at(2025, 4, 1), 200));
+
+        // delete: the expense and all its details leave
+        apply(ExpenseRollupService.deltas().expense(deleted, -1).payment(deleted, at(2025, 1, 20), -100));
+        jdbcTemplate.update("DELETE FROM expense_detail WHERE expense_id = ?", deleted.getId());
+        jdbcTemplate.update("DELETE FROM expense WHERE id = ?", deleted.getId());
+
+        List<Map<String, Object>> incremental = rollupRows();
+        assertFalse(incremental.isEmpty());
+
+        transactionTemplate.execute(status -> expenseRollupService.rebuild(ORGANIZATION));
+
+        assertEquals(rollupRows(), incremental);
+    }
+
+    @Test
+    void backfillFillsOnlyAnEmptyRollup() {
+        Expense expense = expense(1, ExpenseType.CONSTRUCTION, 4L, 1000, 250, at(2025, 1, 15));
+        insertExpense(expense);
+        insertDetail(11, expense, 250, at(2025, 2, 15));
+        ExpenseRollupInitializer initializer = new ExpenseRollupInitializer(expenseMonthlyRollupRepository, expenseRollupService);
+
+        // the rebuild's transaction comes from the service proxy in the application
+        transactionTemplate.executeWithoutResult(status -> initializer.backfill());
+        assertEquals(2, rollupRows().size());
+
+        // a later start leaves the maintained rows alone
+        jdbcTemplate.update("DELETE FROM expense_detail");
+        transactionTemplate.executeWithoutResult(status -> initializer.backfill());
+        assertEquals(2, rollupRows().size());
+    }
+
+    private void apply(ExpenseRollupService.Deltas deltas) {
+        transactionTemplate.executeWithoutResult(status -> expenseRollupService.apply(deltas));
+    }
+
+    // rows that netted to zero stay behind after deltas, a rebuild never writes them
+    private List<Map<String, Object>> rollupRows() {
+        return jdbcTemplate.queryForList("""
+                SELECT organization_id, project_id, vendor_account_id, year, month,
+                       purchased_amount, paid_amount, credit_amount
+                FROM expense_monthly_rollup
+                WHERE purchased_amount <> 0 OR paid_amount <> 0 OR credit_amount <> 0
+                ORDER BY organization_id, project_id, vendor_account_id, year, month
+                """);
+    }
+
+    private static Expense expense(long id, ExpenseType type, Long vendorAccountId, double total, double paid,
+                                   LocalDateTime createdDate) {
+        Expense expense = new Expense();
+        expense.setId(id);
+        expense.setOrganizationId(ORGANIZATION);
+        expense.setProjectId(PROJECT);
+        expense.setVendorAccountId(vendorAccountId);
+        expense.setExpenseType(type);
+        expense.setTotalAmount(total);
+        expense.setAmountPaid(paid);
+        expense.setCreditAmount(total - paid);
+        expense.setCreatedDate(createdDate);
+        return expense;
+    }
+
+    private void insertExpense(Expense expense) {
+        insertRow("INSERT INTO expense (id, organization_id, project_id, vendor_account_id, expense_type, "
+                        + "total_amount, amount_paid, credit_amount, created_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                expense.getId(), expense.getOrganizationId(), expense.getProjectId(), expense.getVendorAccountId(),
+                expense.getExpenseType().name(), expense.getTotalAmount(), expense.getAmountPaid(),
+                expense.getCreditAmount(), expense.getCreatedDate());
+    }
+
+    private void updateExpense(Expense expense) {
+        jdbcTemplate.update("UPDATE expense SET vendor_account_id = ?, expense_type = ?, total_amount = ?, "
+                        + "amount_paid = ?, credit_amount = ? WHERE id = ?",
+                expense.getVendorAccountId(), expense.getExpenseType().name(), expense.getTotalAmount(),
+                expense.getAmountPaid(), expense.getCreditAmount(), expense.getId());
+    }
+
+    private void insertDetail(long id, Expense expense, double amountPaid, LocalDateTime createdDate) {
+        insertRow("INSERT INTO expense_detail (id, expense_id, amount_paid, created_date) VALUES (?, ?, ?, ?)",
+                id, expense.getId(), amountPaid, createdDate);
+    }
+
+    private static LocalDateTime at(int year, int month, int day) {
+        return LocalDateTime.of(year, month, day, 10, 30);
+    }
+}
@@ -0,0 +1,179 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.customer.InstallmentSourceProjection;
+import com.rem.backend.entity.customer.InstallmentDue;
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentPlanType;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.repository.CustomerAccountRepo;
+import com.rem.backend.repository.InstallmentDueRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InstallmentDueServiceTest {
+
+    private static final LocalDate BOOKED = LocalDate.of(2025, 1, 31);
+
+    private final InstallmentDueRepository installmentDueRepository = mock(InstallmentDueRepository.class);
+    private final CustomerAccountRepo customerAccountRepo = mock(CustomerAccountRepo.class);
+    private final PaymentScheduleLoader paymentScheduleLoader = mock(PaymentScheduleLoader.class);
+    private final InstallmentDueService installmentDueService =
+            new InstallmentDueService(installmentDueRepository, customerAccountRepo, paymentScheduleLoader);
+
+    private record Source(long getCustomerAccountId, long getUnitId, Long getOrganizationId, Long getProjectId,
+                          LocalDateTime getBookedDate) implements InstallmentSourceProjection {
+    }
+
+    @Test
+    void rangePlanExpandsToDownPaymentMonthsAndOnPossession() {
+        PaymentSchedule schedule = rangePlan(12, 100_000, 50_000);
+        schedule.setQuarterlyPayment(1000);
+        schedule.setHalfYearlyPayment(2000);
+        schedule.setYearlyPayment(5000);
+        schedule.getMonthWisePaymentList().add(range(1, 6, 10_000));
+        schedule.getMonthWisePaymentList().add(range(7, 12, 20_000));
+
+        List<InstallmentDue> installments = InstallmentDueService.expand(schedule, BOOKED);
+
+        assertEquals(14, installments.size());
+        assertInstallment(installments.get(0), 0, BOOKED, 100_000);
+        assertInstallment(installments.get(1), 1, LocalDate.of(2025, 2, 28), 10_000);
+        assertInstallment(installments.get(3), 3, LocalDate.of(2025, 4, 30), 10_000 + 1000);
+        assertInstallment(installments.get(6), 6, LocalDate.of(2025, 7, 31), 10_000 + 1000 + 2000);
+        assertInstallment(installments.get(7), 7, LocalDate.of(2025, 8, 31), 20_000);
+        assertInstallment(installments.get(12), 12, LocalDate.of(2026, 1, 31), 20_000 + 1000 + 2000 + 5000);
+        // on possession comes last, without a due date
+        assertInstallment(installments.get(13), 13, null, 50_000);
+    }
+
+    @Test
+    void zeroDownPaymentAndOnPossessionGetNoRows() {
+        PaymentSchedule schedule = rangePlan(3, 0, 0);
+        schedule.getMonthWisePaymentList().add(range(1, 3, 500));
+
+        List<InstallmentDue> installments = InstallmentDueService.expand(schedule, BOOKED);
+
+        assertEquals(List.of(1, 2, 3), installments.stream().map(InstallmentDue::getSerialNo).toList());
+    }
+
+    @Test
+    void specificMonthsAreDueOnTheFirstOfTheirMonth() {
+        PaymentSchedule schedule = new PaymentSchedule();
+        schedule.setPaymentPlanType(PaymentPlanType.INSTALLMENT_SPECIFIC);
+        schedule.setDownPayment(1000);
+        schedule.setOnPossessionPayment(9000);
+        schedule.setMonthSpecificPaymentList(new ArrayList<>(List.of(
+                month("3", "2025", 100),
+                month("September", "2025", 200),
+                month("sep", "2026", 300),
+                month(" Jan ", " 2027 ", 400),
+                month("ju", "2027", 500),      // ambiguous, too short to be a month name
+                month("13", "2027", 600),      // no such month
+                month("May", "next year", 700))));
+
+        List<InstallmentDue> installments = InstallmentDueService.expand(schedule, BOOKED);
+
+        assertEquals(9, installments.size());
+        assertInstallment(installments.get(0), 0, BOOKED, 1000);
+        assertInstallment(installments.get(1), 1, LocalDate.of(2025, 3, 1), 100);
+        assertInstallment(installments.get(2), 2, LocalDate.of(2025, 9, 1), 200);
+        assertInstallment(installments.get(3), 3, LocalDate.of(2026, 9, 1), 300);
+        assertInstallment(installments.get(4), 4, LocalDate.of(2027, 1, 1), 400);
+        assertInstallment(installments.get(5), 5, null, 500);
+        assertInstallment(installments.get(6), 6, null, 600);
+        assertInstallment(installments.get(7), 7, null, 700);
+        assertInstallment(installments.get(8), 8, null, 9000);
+    }
+
+    @Test
+    void rebuildAllRegeneratesEveryAccountItCanExpand() {
+        PaymentSchedule range = rangePlan(2, 0, 0);
+        range.getMonthWisePaymentList().add(range(1, 2, 500));
+        PaymentSchedule broken = rangePlan(12, 0, 0);
+        broken.getMonthWisePaymentList().add(range(1, 5, 500));
+        PaymentSchedule oneTime = new PaymentSchedule();
+        oneTime.setPaymentPlanType(PaymentPlanType.ONE_TIME_PAYMENT);
+        oneTime.setActualAmount(1000.4);
+        oneTime.setDevelopmentAmount(200);
+        oneTime.setDurationInMonths(12);
+
+        when(customerAccountRepo.findInstallmentSources()).thenReturn(List.of(
+                new Source(1L, 11L, 7L, 3L, BOOKED.atTime(10, 0)),
+                new Source(1L, 11L, 7L, 3L, BOOKED.plusDays(1).atTime(10, 0)),
+                new Source(2L, 12L, 7L, 3L, BOOKED.atTime(10, 0)),
+                new Source(3L, 13L, 7L, 3L, BOOKED.atTime(10, 0)),
+                new Source(4L, 14L, null, null, BOOKED.atTime(10, 0))));
+        when(paymentScheduleLoader.loadByUnitIds(any(), eq(PaymentScheduleType.CUSTOMER)))
+                .thenReturn(Map.of(11L, range, 12L, broken, 14L, oneTime));
+
+        assertEquals(2, installmentDueService.rebuildAll());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<InstallmentDue>> saved = ArgumentCaptor.forClass(List.class);
+        verify(installmentDueRepository, times(2)).saveAll(saved.capture());
+
+        List<InstallmentDue> first = saved.getAllValues().get(0);
+        assertEquals(List.of(1, 2), first.stream().map(InstallmentDue::getSerialNo).toList());
+        assertTrue(first.stream().allMatch(i -> i.getCustomerAccountId() == 1L && i.getOrganizationId() == 7L
+                && Long.valueOf(3L).equals(i.getProjectId())));
+        assertEquals(BOOKED.plusMonths(1), first.get(0).getDueDate());
+
+        // a one time plan is the whole rounded amount due on the booking date
+        List<InstallmentDue> second = saved.getAllValues().get(1);
+        assertEquals(1, second.size());
+        assertInstallment(second.get(0), 0, BOOKED, 1201);
+        assertEquals(0L, second.get(0).getOrganizationId());
+
+        verify(installmentDueRepository).allocatePayments(1L);
+        verify(installmentDueRepository).allocatePayments(4L);
+        verify(installmentDueRepository, times(2)).allocatePayments(anyLong());
+        verify(installmentDueRepository, never()).deleteAllByCustomerAccount(2L);
+        verify(installmentDueRepository, never()).deleteAllByCustomerAccount(3L);
+    }
+
+    private static void assertInstallment(InstallmentDue installment, int serialNo, LocalDate dueDate, double amount) {
+        assertEquals(serialNo, installment.getSerialNo());
+        assertEquals(dueDate, installment.getDueDate(), "due date of installment " + serialNo);
+        assertEquals(amount, installment.getAmount(), 1e-6, "amount of installment " + serialNo);
+    }
+
+    private static PaymentSchedule rangePlan(int duration, double downPayment, double onPossession) {
+        PaymentSchedule schedule = new PaymentSchedule();
+        schedule.setPaymentPlanType(PaymentPlanType.INSTALLMENT_RANGE);
+        schedule.setDurationInMonths(duration);
+        schedule.setDownPayment(downPayment);
+        schedule.setOnPossessionPayment(onPossession);
+        schedule.setMonthWisePaymentList(new ArrayList<>());
+        return schedule;
+    }
+
+    private static MonthWisePayment range(int fromMonth, int toMonth, double amount) {
+        MonthWisePayment payment = new MonthWisePayment();
+        payment.setFromMonth(fromMonth);
+        payment.setToMonth(toMonth);
+        payment.setAmount(amount);
+        return payment;
+    }
+
+    private static MonthSpecificPayment month(String month, String year, double amount) {
+        MonthSpecificPayment payment = new MonthSpecificPayment();
+        payment.setMonth(month);
+        payment.setYear(year);
+        payment.setAmount(amount);
+        return payment;
+    }
+}
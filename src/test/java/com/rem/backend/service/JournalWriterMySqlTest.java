@@ -0,0 +1,126 @@
+package com.rem.backend.service;
+
+import com.rem.backend.MySqlContainerTest;
+import com.rem.backend.entity.account.JournalDetailEntry;
+import com.rem.backend.entity.account.JournalEntry;
+import com.rem.backend.enums.JournalEntryStatus;
+import com.rem.backend.repository.CoaPeriodBalanceRepository;
+import com.rem.backend.repository.JournalDetailEntryRepository;
+import com.rem.backend.repository.JournalEntryRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statements sent per posted journal entry. Headers and lines take pooled ids and go out as jdbc
+ * batches of hibernate.jdbc.batch_size, balances are one upsert per account and month, so the
+ * statement count grows with the number of batches instead of with the number of rows.
+ */
+@Slf4j
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class JournalWriterMySqlTest extends MySqlContainerTest {
+
+    private static final int BATCH_SIZE = 50;
+    private static final long ORGANIZATION_ID = 1;
+    private static final long EXPENSE_ACCOUNT = 10;
+    private static final long BANK_ACCOUNT = 20;
+
+    @Autowired
+    private JournalEntryRepository journalEntryRepository;
+
+    @Autowired
+    private JournalDetailEntryRepository journalDetailEntryRepository;
+
+    @Autowired
+    private CoaPeriodBalanceRepository coaPeriodBalanceRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private JournalWriter journalWriter;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createWriter() {
+        jdbcTemplate.update("DELETE FROM journal_detail_entry");
+        jdbcTemplate.update("DELETE FROM journal_entry");
+        jdbcTemplate.update("DELETE FROM coa_period_balance");
+        journalWriter = new JournalWriter(journalEntryRepository, journalDetailEntryRepository,
+                new LedgerBalanceService(coaPeriodBalanceRepository));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void bulkPostingSendsStatementsPerBatchNotPerRow() {
+        for (int entries : new int[]{1, 10, 200}) {
+            statistics.clear();
+            transactionTemplate.executeWithoutResult(status -> journalWriter.postAll(postings(entries)));
+            long statements = statistics.getPrepareStatementCount();
+            log.info("{} journal entries with {} lines posted in {} statements", entries, entries * 2, statements);
+
+            assertEquals(entries * 3L, statistics.getEntityInsertCount());
+            // header and line batches, one id block per batch at most, one balance upsert per account
+            long batches = ceilDiv(entries, BATCH_SIZE) + ceilDiv(entries * 2, BATCH_SIZE);
+            assertTrue(statements <= 2 * batches + 2,
+                    entries + " entries took " + statements + " statements, row by row it would be " + entries * 3);
+        }
+
+        assertEquals(211, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM journal_entry", Integer.class));
+        assertEquals(422, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM journal_detail_entry", Integer.class));
+        assertEquals(211 * 100.0, jdbcTemplate.queryForObject(
+                "SELECT debit_total FROM coa_period_balance WHERE chart_of_account_id = ?", Double.class, EXPENSE_ACCOUNT));
+    }
+
+    @Test
+    void singlePostingIsOneBatchOfHeaderAndLines() {
+        List<JournalWriter.Posting> postings = postings(1);
+
+        statistics.clear();
+        JournalEntry posted = transactionTemplate.execute(status ->
+                journalWriter.post(postings.get(0).journalEntry(), postings.get(0).detailEntries()));
+
+        assertTrue(posted.getId() > 0);
+        assertEquals(3, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 6,
+                "one posting took " + statistics.getPrepareStatementCount() + " statements");
+    }
+
+    private static List<JournalWriter.Posting> postings(int count) {
+        List<JournalWriter.Posting> postings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            JournalEntry journalEntry = new JournalEntry();
+            journalEntry.setOrganizationId(ORGANIZATION_ID);
+            journalEntry.setCreatedDate(LocalDateTime.of(2025, 3, 15, 10, 0));
+            journalEntry.setReferenceType("EXPENSE");
+            journalEntry.setStatus(JournalEntryStatus.POSTED);
+            journalEntry.setCreatedBy("tester");
+            postings.add(new JournalWriter.Posting(journalEntry,
+                    List.of(line(EXPENSE_ACCOUNT, 100, 0), line(BANK_ACCOUNT, 0, 100))));
+        }
+        return postings;
+    }
+
+    private static JournalDetailEntry line(long chartOfAccountId, double debit, double credit) {
+        JournalDetailEntry entry = new JournalDetailEntry();
+        entry.setChartOfAccountId(chartOfAccountId);
+        entry.setDebitAmount(debit);
+        entry.setCreditAmount(credit);
+        return entry;
+    }
+
+    private static long ceilDiv(long rows, long batchSize) {
+        return (rows + batchSize - 1) / batchSize;
+    }
+}
@@ -0,0 +1,147 @@
+package com.rem.backend.service;
+
+import com.rem.backend.MySqlContainerTest;
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.repository.MonthSpecificPaymentRepo;
+import com.rem.backend.repository.MonthWisePaymentRepo;
+import com.rem.backend.repository.PaymentScheduleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Range, specific and one time schedules loaded together, each must get back exactly its own rows
+ * from the two grouped row queries.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PaymentScheduleLoaderMySqlTest extends MySqlContainerTest {
+
+    private static final long RANGE_UNIT = 1;
+    private static final long SPECIFIC_UNIT = 2;
+    private static final long ONE_TIME_UNIT = 3;
+    private static final long EMPTY_RANGE_UNIT = 4;
+
+    @Autowired
+    private PaymentScheduleRepository paymentScheduleRepository;
+
+    @Autowired
+    private MonthWisePaymentRepo monthWisePaymentRepo;
+
+    @Autowired
+    private MonthSpecificPaymentRepo monthSpecificPaymentRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private PaymentScheduleLoader paymentScheduleLoader;
+    private Statistics statistics;
+
+    @BeforeEach
+    void createSchedules() {
+        jdbcTemplate.update("DELETE FROM month_wise_payment");
+        jdbcTemplate.update("DELETE FROM month_specific_payment");
+        jdbcTemplate.update("DELETE FROM payment_schedule");
+        paymentScheduleLoader = new PaymentScheduleLoader(paymentScheduleRepository, monthWisePaymentRepo, monthSpecificPaymentRepo);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        insertSchedule(10, RANGE_UNIT, "INSTALLMENT_RANGE", "BUILDER", true);
+        insertSchedule(11, RANGE_UNIT, "INSTALLMENT_RANGE", "CUSTOMER", true);
+        insertSchedule(20, SPECIFIC_UNIT, "INSTALLMENT_SPECIFIC", "BUILDER", true);
+        insertSchedule(30, ONE_TIME_UNIT, "ONE_TIME_PAYMENT", "BUILDER", true);
+        insertSchedule(31, ONE_TIME_UNIT, "INSTALLMENT_RANGE", "BUILDER", false);
+        insertSchedule(40, EMPTY_RANGE_UNIT, "INSTALLMENT_RANGE", "BUILDER", true);
+
+        // stored out of month order and interleaved between schedules
+        insertRange(100, 10, 7, 12, 2000);
+        insertRange(101, 11, 1, 12, 500);
+        insertRange(102, 10, 1, 6, 1000);
+        insertRange(103, 31, 1, 12, 999);
+        insertSpecific(200, 20, "MARCH", "2026", 3000);
+        insertSpecific(201, 20, "JANUARY", "2026", 1000);
+        // a one time plan keeps no month rows, stray ones are not handed out
+        insertSpecific(202, 30, "MAY", "2026", 777);
+    }
+
+    @Test
+    void mixedPlansGetOnlyTheirOwnRows() {
+        Map<Long, PaymentSchedule> schedules = transactionTemplate.execute(status -> {
+            statistics.clear();
+            return paymentScheduleLoader.loadByUnitIds(
+                    List.of(RANGE_UNIT, SPECIFIC_UNIT, ONE_TIME_UNIT, EMPTY_RANGE_UNIT), PaymentScheduleType.BUILDER);
+        });
+
+        // schedules, month wise rows, month specific rows
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(List.of(RANGE_UNIT, SPECIFIC_UNIT, ONE_TIME_UNIT, EMPTY_RANGE_UNIT),
+                schedules.keySet().stream().sorted().toList());
+
+        PaymentSchedule range = schedules.get(RANGE_UNIT);
+        assertEquals(10, range.getId());
+        assertEquals(List.of(102L, 100L), range.getMonthWisePaymentList().stream().map(MonthWisePayment::getId).toList());
+        assertTrue(range.getMonthSpecificPaymentList().isEmpty());
+
+        PaymentSchedule specific = schedules.get(SPECIFIC_UNIT);
+        assertEquals(List.of(200L, 201L), specific.getMonthSpecificPaymentList().stream().map(MonthSpecificPayment::getId).toList());
+        assertTrue(specific.getMonthWisePaymentList().isEmpty());
+
+        PaymentSchedule oneTime = schedules.get(ONE_TIME_UNIT);
+        assertEquals(30, oneTime.getId());
+        assertTrue(oneTime.getMonthWisePaymentList().isEmpty());
+        assertTrue(oneTime.getMonthSpecificPaymentList().isEmpty());
+
+        PaymentSchedule emptyRange = schedules.get(EMPTY_RANGE_UNIT);
+        assertNotNull(emptyRange.getMonthWisePaymentList());
+        assertTrue(emptyRange.getMonthWisePaymentList().isEmpty());
+        assertTrue(emptyRange.getMonthSpecificPaymentList().isEmpty());
+    }
+
+    @Test
+    void builderAndCustomerSchedulesOfAUnitKeepTheirRowsApart() {
+        List<PaymentSchedule> schedules = transactionTemplate.execute(status ->
+                paymentScheduleLoader.loadByUnitIds(List.of(RANGE_UNIT)));
+
+        assertEquals(2, schedules.size());
+        for (PaymentSchedule schedule : schedules) {
+            List<Long> rowIds = schedule.getMonthWisePaymentList().stream().map(MonthWisePayment::getId).toList();
+            assertEquals(schedule.getId() == 10 ? List.of(102L, 100L) : List.of(101L), rowIds);
+        }
+    }
+
+    @Test
+    void noUnitsNoQueries() {
+        statistics.clear();
+
+        assertTrue(paymentScheduleLoader.loadByUnitIds(List.of(), PaymentScheduleType.BUILDER).isEmpty());
+        assertTrue(paymentScheduleLoader.loadByUnitIds(List.of()).isEmpty());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private void insertSchedule(long id, long unitId, String planType, String scheduleType, boolean active) {
+        insertRow("INSERT INTO payment_schedule (id, unit_id, payment_plan_type, payment_schedule_type, is_active, "
+                        + "duration_in_months, actual_amount, total_amount, created_by, updated_by, created_date, updated_date) "
+                        + "VALUES (?, ?, ?, ?, ?, 12, 12000, 12000, 'tester', 'tester', NOW(), NOW())",
+                id, unitId, planType, scheduleType, active);
+    }
+
+    private void insertRange(long id, long paymentScheduleId, int fromMonth, int toMonth, double amount) {
+        insertRow("INSERT INTO month_wise_payment (id, payment_schedule_id, from_month, to_month, amount) VALUES (?, ?, ?, ?, ?)",
+                id, paymentScheduleId, fromMonth, toMonth, amount);
+    }
+
+    private void insertSpecific(long id, long paymentScheduleId, String month, String year, double amount) {
+        insertRow("INSERT INTO month_specific_payment (id, payment_schedule_id, month, year, amount) VALUES (?, ?, ?, ?, ?)",
+                id, paymentScheduleId, month, year, amount);
+    }
+}
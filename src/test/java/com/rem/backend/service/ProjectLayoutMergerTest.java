@@ -0,0 +1,201 @@
+package com.rem.backend.service;
+
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.entity.project.Floor;
+import com.rem.backend.entity.project.Project;
+import com.rem.backend.entity.project.Unit;
+import com.rem.backend.enums.PaymentPlanType;
+import com.rem.backend.enums.PaymentScheduleType;
+import com.rem.backend.enums.UnitType;
+import com.rem.backend.repository.*;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProjectLayoutMergerTest {
+
+    private static final String USER = "tester";
+
+    private final FloorRepo floorRepo = mock(FloorRepo.class);
+    private final UnitRepo unitRepo = mock(UnitRepo.class);
+    private final PaymentScheduleRepository paymentScheduleRepository = mock(PaymentScheduleRepository.class);
+    private final MonthWisePaymentRepo monthWisePaymentRepo = mock(MonthWisePaymentRepo.class);
+    private final MonthSpecificPaymentRepo monthSpecificPaymentRepo = mock(MonthSpecificPaymentRepo.class);
+    // the real plan checks, spied to count how often a plan is prepared
+    private final PaymentSchedulerService paymentSchedulerService = spy(new PaymentSchedulerService(
+            mock(PaymentScheduleRepository.class), mock(MonthWisePaymentRepo.class), mock(MonthSpecificPaymentRepo.class),
+            mock(UnitRepo.class), mock(CustomerRepo.class), mock(PaymentScheduleLoader.class), mock(ProjectTreeLoader.class)));
+    private final BookingRepository bookingRepository = mock(BookingRepository.class);
+
+    private final ProjectLayoutMerger merger = new ProjectLayoutMerger(floorRepo, unitRepo, paymentScheduleRepository,
+            monthWisePaymentRepo, monthSpecificPaymentRepo, paymentSchedulerService, bookingRepository);
+
+    @Test
+    void droppingAFloorWithABookedUnitIsRejectedBeforeAnyWrite() {
+        Project stored = project(floor(1L, unit(11L, "A-1")), floor(2L, unit(21L, "B-1"), unit(22L, "B-2")));
+        Project incoming = project(floor(1L, unit(11L, "A-1")));
+        when(bookingRepository.findActivelyBookedUnitIds(anyCollection())).thenReturn(List.of(22L));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> merger.merge(stored, incoming, true, USER));
+
+        assertTrue(e.getMessage().contains("B-2"));
+        verify(bookingRepository).findActivelyBookedUnitIds(ids(21L, 22L));
+        verifyNoInteractions(floorRepo, unitRepo, paymentScheduleRepository, monthWisePaymentRepo,
+                monthSpecificPaymentRepo, paymentSchedulerService);
+    }
+
+    @Test
+    void droppedUnitsLoseOnlyTheirBuilderSchedules() {
+        Project stored = project(floor(1L, unit(11L, "A-1"), unit(12L, "A-2")), floor(2L, unit(21L, "B-1")));
+        Project incoming = project(floor(1L, unit(11L, "A-1")));
+        when(bookingRepository.findActivelyBookedUnitIds(anyCollection())).thenReturn(List.of());
+
+        ProjectLayoutMerger.Result result = merger.merge(stored, incoming, false, USER);
+
+        assertEquals(new ProjectLayoutMerger.Result(1, 0, 2), result);
+        verify(monthWisePaymentRepo).deleteBuilderRowsByUnitIds(ids(12L, 21L));
+        verify(monthSpecificPaymentRepo).deleteBuilderRowsByUnitIds(ids(12L, 21L));
+        verify(paymentScheduleRepository).deleteBuilderSchedulesByUnitIds(ids(12L, 21L));
+        verify(unitRepo).deleteAllByIdInBatch(ids(12L, 21L));
+        verify(floorRepo).deleteAllByIdInBatch(List.of(2L));
+    }
+
+    @Test
+    void unitsWithEqualPlansShareTheirPreparationButNotTheirScheduleRows() {
+        Unit a1 = unit(0L, "A-1", rangePlan(100_000));
+        Unit a2 = unit(0L, "A-2", rangePlan(100_000));
+        Unit a3 = unit(0L, "A-3", rangePlan(120_000));
+        Unit b1 = unit(0L, "B-1", rangePlan(100_000));
+        AtomicLong scheduleIds = new AtomicLong();
+        when(paymentScheduleRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PaymentSchedule> schedules = invocation.getArgument(0);
+            schedules.forEach(schedule -> schedule.setId(scheduleIds.incrementAndGet()));
+            return schedules;
+        });
+
+        int inserted = merger.insert(5L, List.of(floor(1L, a1, a2, a3), floor(2L, b1)), USER);
+
+        assertEquals(4, inserted);
+        // one preparation per distinct plan, the copies get its terms
+        verify(paymentSchedulerService, times(2)).prepareSchedule(any(), eq(PaymentPlanType.INSTALLMENT_RANGE));
+        for (Unit unit : List.of(a2, b1)) {
+            assertEquals(a1.getPaymentSchedule().getTotalAmount(), unit.getPaymentSchedule().getTotalAmount());
+            assertEquals(a1.getPaymentSchedule().getPaymentPlanType(), unit.getPaymentSchedule().getPaymentPlanType());
+            assertEquals(a1.getAmount(), unit.getAmount());
+        }
+        assertEquals(1_400_000, a3.getPaymentSchedule().getTotalAmount());
+
+        List<PaymentSchedule> schedules = saved(verify(paymentScheduleRepository)::saveAll);
+        assertEquals(4, schedules.size());
+        assertEquals(4, schedules.stream().map(PaymentSchedule::getId).distinct().count());
+        for (Unit unit : List.of(a1, a2, a3, b1)) {
+            assertSame(unit, unit.getPaymentSchedule().getUnit());
+            assertEquals(PaymentScheduleType.BUILDER, unit.getPaymentSchedule().getPaymentScheduleType());
+        }
+
+        // every schedule gets its own range row, equal plans included
+        List<MonthWisePayment> rows = saved(verify(monthWisePaymentRepo)::saveAll);
+        assertEquals(List.of(1L, 2L, 3L, 4L), rows.stream().map(MonthWisePayment::getPaymentScheduleId).toList());
+        assertEquals(4, rows.stream().map(System::identityHashCode).distinct().count());
+    }
+
+    @Test
+    void anInvalidUnitRejectsTheWholeLayoutBeforeAnyInsert() {
+        Unit a1 = unit(0L, "A-1", rangePlan(100_000));
+        Unit a2 = unit(0L, "A-2", rangePlan(100_000));
+        // the same terms as A-1 but for one range amount, so it isn't taken for a copy of A-1
+        PaymentSchedule unbalanced = rangePlan(100_000);
+        unbalanced.getMonthWisePaymentList().get(0).setAmount(90_000);
+        Unit b1 = unit(0L, "B-1", unbalanced);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> merger.insert(5L, List.of(floor(1L, a1, a2), floor(2L, b1)), USER));
+
+        assertEquals("Amounts not matched!", e.getMessage());
+        verify(paymentSchedulerService, times(2)).prepareSchedule(any(), any());
+        verifyNoInteractions(floorRepo, unitRepo, paymentScheduleRepository, monthWisePaymentRepo, monthSpecificPaymentRepo);
+    }
+
+    @Test
+    void aUnitWithoutItsRequiredFieldsRejectsTheWholeLayout() {
+        Unit a1 = unit(0L, "A-1", rangePlan(100_000));
+        Unit a2 = unit(0L, "A-2", rangePlan(100_000));
+        a2.setUnitType(null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> merger.insert(5L, List.of(floor(1L, a1, a2)), USER));
+
+        assertEquals("unit type must not be null.", e.getMessage());
+        verifyNoInteractions(floorRepo, unitRepo, paymentScheduleRepository, monthWisePaymentRepo, monthSpecificPaymentRepo);
+    }
+
+    // saveAll is a verified mock's, e.g. verify(unitRepo)::saveAll
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> saved(Consumer<List<T>> saveAll) {
+        ArgumentCaptor<List<T>> saved = ArgumentCaptor.forClass(List.class);
+        saveAll.accept(saved.capture());
+        return saved.getValue();
+    }
+
+    // ten months of the given installment after a 200,000 down payment
+    private static PaymentSchedule rangePlan(double installment) {
+        MonthWisePayment range = new MonthWisePayment();
+        range.setFromMonth(1);
+        range.setToMonth(10);
+        range.setAmount(installment);
+
+        PaymentSchedule schedule = new PaymentSchedule();
+        schedule.setDurationInMonths(10);
+        schedule.setActualAmount(200_000 + installment * 10);
+        schedule.setDownPayment(200_000);
+        schedule.setMonthWisePaymentList(new ArrayList<>(List.of(range)));
+        return schedule;
+    }
+
+    // the ids in any order, they come out of a hash map
+    private static Collection<Long> ids(Long... ids) {
+        return argThat(actual -> actual.size() == ids.length && actual.containsAll(List.of(ids)));
+    }
+
+    private static Project project(Floor... floors) {
+        Project project = new Project();
+        project.setProjectId(5L);
+        project.setFloorList(new ArrayList<>(List.of(floors)));
+        return project;
+    }
+
+    private static Floor floor(long id, Unit... units) {
+        Floor floor = new Floor();
+        floor.setId(id);
+        floor.setFloor((int) id);
+        floor.setUnitList(new ArrayList<>(List.of(units)));
+        return floor;
+    }
+
+    private static Unit unit(long id, String serialNo) {
+        Unit unit = new Unit();
+        unit.setId(id);
+        unit.setSerialNo(serialNo);
+        return unit;
+    }
+
+    private static Unit unit(long id, String serialNo, PaymentSchedule schedule) {
+        Unit unit = unit(id, serialNo);
+        unit.setSquareFoot(1200);
+        unit.setUnitType(UnitType.APARTMENT);
+        unit.setPaymentPlanType(PaymentPlanType.INSTALLMENT_RANGE);
+        unit.setPaymentSchedule(schedule);
+        return unit;
+    }
+}
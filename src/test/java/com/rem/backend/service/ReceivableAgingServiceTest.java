@@ -0,0 +1,77 @@
+package com.rem.backend.service;
+
+import com.rem.backend.repository.ReceivableAgingRepository;
+import com.rem.backend.utility.Responses;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.rem.backend.utility.Utility.DATA;
+import static com.rem.backend.utility.Utility.RESPONSE_CODE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReceivableAgingServiceTest {
+
+    private static final long ORGANIZATION_ID = 1L;
+
+    private final ReceivableAgingRepository receivableAgingRepository = mock(ReceivableAgingRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final ReceivableAgingService receivableAgingService =
+            new ReceivableAgingService(receivableAgingRepository, transactionManager, new SyncTaskExecutor());
+
+    @Test
+    void accountIdsAreRefreshedInRangesCoveringTheWholeIdSpace() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        List<Long> accountIds = new ArrayList<>();
+        for (long id = 1; id <= 1200; id++) {
+            accountIds.add(id * 2);
+        }
+        when(receivableAgingRepository.findActiveAccountIds(ORGANIZATION_ID)).thenReturn(accountIds);
+        when(receivableAgingRepository.insertAccountRange(eq(ORGANIZATION_ID), anyLong(), anyLong(), any())).thenReturn(500, 500, 200);
+
+        Map<String, Object> response = receivableAgingService.refreshOrganization(ORGANIZATION_ID);
+
+        assertEquals(Responses.SUCCESS.getResponseCode(), response.get(RESPONSE_CODE));
+        assertEquals(1200, response.get(DATA));
+        verify(receivableAgingRepository).deleteAccountRange(ORGANIZATION_ID, 0, 1000);
+        verify(receivableAgingRepository).deleteAccountRange(ORGANIZATION_ID, 1001, 2000);
+        verify(receivableAgingRepository).deleteAccountRange(ORGANIZATION_ID, 2001, Long.MAX_VALUE);
+    }
+
+    @Test
+    void aSecondRefreshIsToldOneIsInProgress() throws Exception {
+        CountDownLatch listing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(receivableAgingRepository.findActiveAccountIds(ORGANIZATION_ID)).thenAnswer(invocation -> {
+            listing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return List.of();
+        });
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+
+        CompletableFuture<Map<String, Object>> first =
+                CompletableFuture.supplyAsync(() -> receivableAgingService.refreshOrganization(ORGANIZATION_ID));
+        assertTrue(listing.await(5, TimeUnit.SECONDS));
+
+        Map<String, Object> second = receivableAgingService.refreshOrganization(ORGANIZATION_ID);
+        release.countDown();
+
+        assertEquals(Responses.REQUEST_IN_PROGRESS.getResponseCode(), second.get(RESPONSE_CODE));
+        assertEquals(Responses.SUCCESS.getResponseCode(), first.get(5, TimeUnit.SECONDS).get(RESPONSE_CODE));
+        // the flag is cleared once the first refresh is done
+        assertEquals(Responses.SUCCESS.getResponseCode(),
+                receivableAgingService.refreshOrganization(ORGANIZATION_ID).get(RESPONSE_CODE));
+    }
+}
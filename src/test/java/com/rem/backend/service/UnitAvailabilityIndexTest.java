@@ -0,0 +1,71 @@
+package com.rem.backend.service;
+
+import com.rem.backend.dto.unit.UnitAvailabilityProjection;
+import com.rem.backend.entity.project.Floor;
+import com.rem.backend.enums.UnitType;
+import com.rem.backend.repository.FloorRepo;
+import com.rem.backend.repository.UnitRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UnitAvailabilityIndexTest {
+
+    private static final long PROJECT_ID = 3L;
+
+    private final UnitRepo unitRepo = mock(UnitRepo.class);
+    private final FloorRepo floorRepo = mock(FloorRepo.class);
+    private final UnitAvailabilityIndex index = new UnitAvailabilityIndex(unitRepo, floorRepo);
+
+    private record Row(long getUnitId, long getFloorId, long getProjectId, String getSerialNo,
+                       UnitType getUnitType, boolean getBooked) implements UnitAvailabilityProjection {
+    }
+
+    private static final List<UnitAvailabilityProjection> ROWS = List.of(
+            new Row(11L, 1L, PROJECT_ID, "A-1", UnitType.APARTMENT, true),
+            new Row(12L, 1L, PROJECT_ID, "A-2", UnitType.APARTMENT, false),
+            new Row(13L, 1L, PROJECT_ID, "S-1", UnitType.SHOP, false),
+            new Row(21L, 2L, PROJECT_ID, "B-1", UnitType.APARTMENT, false));
+
+    @Test
+    void disabledIndexReadsFreeUnitsOfAFloorWithOneQuery() {
+        List<Map<String, Object>> units = List.of(Map.of("id", 12L, "serialNo", "A-2"));
+        when(unitRepo.findAllUnitByFloorIdAndIsBookedFalse(1L)).thenReturn(units);
+
+        assertSame(units, index.findFreeUnitsByFloor(1L));
+        verify(unitRepo, never()).findAvailabilityByProjectId(anyLong());
+        verifyNoInteractions(floorRepo);
+    }
+
+    @Test
+    void enabledIndexAnswersFromBitsets() {
+        ReflectionTestUtils.setField(index, "enabled", true);
+        Floor floor = new Floor();
+        floor.setProjectId(PROJECT_ID);
+        when(floorRepo.findById(1L)).thenReturn(Optional.of(floor));
+        when(unitRepo.findAvailabilityByProjectId(PROJECT_ID)).thenReturn(ROWS);
+
+        assertEquals(List.of(12L, 13L), index.findFreeUnitsByFloor(1L).stream().map(unit -> unit.get("id")).toList());
+        assertEquals(12L, index.findNextFreeUnit(PROJECT_ID, null, UnitType.APARTMENT).get("id"));
+        assertEquals(21L, index.findNextFreeUnit(PROJECT_ID, 2L, null).get("id"));
+        assertNull(index.findNextFreeUnit(PROJECT_ID, 2L, UnitType.SHOP));
+        assertTrue(index.isKnownBooked(11L));
+
+        index.markFree(PROJECT_ID, 11L);
+        index.markBooked(PROJECT_ID, 12L);
+
+        assertFalse(index.isKnownBooked(11L));
+        assertTrue(index.isKnownBooked(12L));
+        assertEquals(List.of(
+                Map.of("unitType", UnitType.SHOP, "totalUnits", 1, "freeUnits", 1),
+                Map.of("unitType", UnitType.APARTMENT, "totalUnits", 3, "freeUnits", 2)),
+                index.countByUnitType(PROJECT_ID));
+        verify(unitRepo, times(1)).findAvailabilityByProjectId(PROJECT_ID);
+    }
+}
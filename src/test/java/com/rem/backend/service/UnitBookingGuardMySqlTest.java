@@ -0,0 +1,135 @@
+package com.rem.backend.service;
+
+import com.rem.backend.MySqlContainerTest;
+import com.rem.backend.repository.UnitRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Slf4j
+class UnitBookingGuardMySqlTest extends MySqlContainerTest {
+
+    private static final int THREADS = 200;
+    private static final long FREE_UNIT_FROM = 1;
+    private static final long STALE_UNIT = 6;   // flagged booked by a booking that failed half way
+    private static final long BOOKED_UNIT = 7;  // held by an active booking
+    private static final int INSTANCES = 4;
+
+    @Autowired
+    private UnitRepo unitRepo;
+
+    private UnitBookingGuard unitBookingGuard;
+
+    @BeforeEach
+    void createUnits() {
+        unitBookingGuard = new UnitBookingGuard(unitRepo);
+        jdbcTemplate.update("DELETE FROM booking");
+        jdbcTemplate.update("DELETE FROM unit");
+        for (long unitId = FREE_UNIT_FROM; unitId <= BOOKED_UNIT; unitId++) {
+            insertRow("INSERT INTO unit (id, floor_id, serial_no, is_booked) VALUES (?, 1, ?, ?)",
+                    unitId, "U-" + unitId, unitId >= STALE_UNIT);
+        }
+        insertBooking(BOOKED_UNIT);
+    }
+
+    @Test
+    void concurrentBookingsClaimEveryUnitExactlyOnce() throws Exception {
+        // one guard per simulated app instance, so the conditional update is what keeps them apart
+        List<UnitBookingGuard> guards = new ArrayList<>();
+        for (int i = 0; i < INSTANCES; i++) {
+            guards.add(new UnitBookingGuard(unitRepo));
+        }
+
+        Map<Long, AtomicInteger> winners = new ConcurrentHashMap<>();
+        AtomicInteger lockFailures = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (long unitId = FREE_UNIT_FROM; unitId <= BOOKED_UNIT; unitId++) {
+                    long claimedUnit = (unitId + thread) % BOOKED_UNIT + 1;
+                    attempts.incrementAndGet();
+                    UnitBookingGuard guard = guards.get(thread % INSTANCES);
+                    Boolean claimed;
+                    try {
+                        claimed = transactionTemplate.execute(status -> {
+                            if (!guard.claim(claimedUnit, "agent-" + thread))
+                                return false;
+                            // the rest of createBooking, done only by the winner
+                            insertBooking(claimedUnit);
+                            return true;
+                        });
+                    } catch (PessimisticLockingFailureException e) {
+                        // a deadlock victim is rolled back, a lost booking not a double one
+                        lockFailures.incrementAndGet();
+                        claimed = false;
+                    }
+                    if (Boolean.TRUE.equals(claimed))
+                        winners.computeIfAbsent(claimedUnit, id -> new AtomicInteger()).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+
+        for (long unitId = FREE_UNIT_FROM; unitId <= STALE_UNIT; unitId++) {
+            assertEquals(1, winners.get(unitId).get(), "unit " + unitId + " must be booked exactly once");
+            assertEquals(1, activeBookings(unitId));
+        }
+        assertNull(winners.get(BOOKED_UNIT), "a unit with an active booking must not be claimed");
+        assertEquals(1, activeBookings(BOOKED_UNIT));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM unit WHERE is_booked = 0", Integer.class));
+
+        log.info("{} booking attempts from {} threads in {} ms ({} attempts/s, {} lock failures)",
+                attempts.get(), THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                Math.round(attempts.get() / (elapsedNanos / 1e9)), lockFailures.get());
+    }
+
+    @Test
+    void rolledBackBookingLeavesTheUnitFree() {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertTrue(unitBookingGuard.claim(FREE_UNIT_FROM, "agent"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(Boolean.FALSE, jdbcTemplate.queryForObject(
+                "SELECT is_booked FROM unit WHERE id = ?", Boolean.class, FREE_UNIT_FROM));
+        assertEquals(Boolean.TRUE, transactionTemplate.execute(status -> unitBookingGuard.claim(FREE_UNIT_FROM, "agent")));
+    }
+
+    @Test
+    void unknownUnitCannotBeClaimed() {
+        assertEquals(Boolean.FALSE, transactionTemplate.execute(status -> unitBookingGuard.claim(999L, "agent")));
+    }
+
+    private void insertBooking(long unitId) {
+        insertRow("INSERT INTO booking (unit_id_mapping, unit_id, is_active) VALUES (?, ?, 1)", unitId, unitId);
+    }
+
+    private int activeBookings(long unitId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM booking WHERE unit_id_mapping = ? AND is_active = 1", Integer.class, unitId);
+    }
+}
@@ -0,0 +1,126 @@
+package com.rem.backend.service;
+
+import com.rem.backend.repository.UnitRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@Slf4j
+class UnitBookingGuardTest {
+
+    private static final int THREADS = 200;
+    private static final int UNITS = 5;
+    private static final int ATTEMPTS_PER_THREAD = 20;
+
+    private final UnitRepo unitRepo = mock(UnitRepo.class);
+    private final UnitBookingGuard guard = new UnitBookingGuard(unitRepo);
+
+    // unit.is_booked, claimed with the same compare and set the conditional update does
+    private final Set<Long> bookedUnits = ConcurrentHashMap.newKeySet();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+            TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void concurrentClaimsBookEveryUnitExactlyOnce() throws Exception {
+        when(unitRepo.claimForBooking(anyLong(), anyString()))
+                .thenAnswer(invocation -> bookedUnits.add(invocation.getArgument(0)) ? 1 : 0);
+
+        Map<Long, AtomicInteger> winners = new ConcurrentHashMap<>();
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    long unitId = (thread + i) % UNITS + 1;
+                    attempts.incrementAndGet();
+                    boolean claimed = inTransaction(TransactionSynchronization.STATUS_COMMITTED,
+                            () -> guard.claim(unitId, "agent-" + thread));
+                    if (claimed)
+                        winners.computeIfAbsent(unitId, id -> new AtomicInteger()).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        executor.shutdown();
+
+        assertEquals(UNITS, winners.size());
+        winners.forEach((unitId, count) -> assertEquals(1, count.get(), "unit " + unitId + " booked more than once"));
+        log.info("{} claim attempts from {} threads in {} ms ({} claims/s)", attempts.get(), THREADS,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(attempts.get() / (elapsedNanos / 1e9)));
+    }
+
+    @Test
+    void unitInFlightIsTurnedAwayWithoutTouchingTheDatabase() {
+        when(unitRepo.claimForBooking(anyLong(), anyString())).thenReturn(1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(guard.claim(7L, "first"));
+        assertFalse(guard.claim(7L, "second"));
+        completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(unitRepo, times(1)).claimForBooking(eq(7L), anyString());
+    }
+
+    @Test
+    void rolledBackClaimReleasesTheUnit() {
+        when(unitRepo.claimForBooking(anyLong(), anyString())).thenReturn(1);
+
+        assertTrue(inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> guard.claim(7L, "first")));
+        assertTrue(inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> guard.claim(7L, "second")));
+
+        verify(unitRepo, times(2)).claimForBooking(eq(7L), anyString());
+    }
+
+    @Test
+    void claimNeedsATransaction() {
+        assertThrows(IllegalStateException.class, () -> guard.claim(7L, "agent"));
+        verifyNoInteractions(unitRepo);
+    }
+
+    private static boolean inTransaction(int completionStatus, BooleanSupplier work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return work.getAsBoolean();
+        } finally {
+            completeTransaction(completionStatus);
+        }
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
@@ -0,0 +1,88 @@
+package com.rem.backend.usermanagement.utillity;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request. The filter used to call extractUsername and then validateToken,
+ * three parses that each rebuilt the key and the parser, verifyToken parses once with the shared parser
+ * and serves repeated tokens from its cache. Not a test, run it with the test classpath:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.rem.backend.usermanagement.utillity.JWTUtilsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTUtilsBenchmark {
+
+    // the key JWTUtils signs with
+    private static final String SECRET_KEY = "your-256-bit-long-secret-key-which-has-enough-length-for-HS256";
+
+    private JWTUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void createToken() {
+        jwtUtils = new JWTUtils();
+        token = jwtUtils.generateToken("benchmark-user");
+        jwtUtils.verifyToken(token);
+    }
+
+    @Benchmark
+    public String tripleParse() {
+        String username = oldExtractUsername(token);
+        if (!username.equals(oldExtractUsername(token)) || oldIsTokenExpired(token))
+            throw new IllegalStateException("Invalid token");
+        return username;
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return jwtUtils.extractUsername(token);
+    }
+
+    @Benchmark
+    public String verifyTokenCached() {
+        return jwtUtils.verifyToken(token);
+    }
+
+    // JWTUtils.extractUsername and isTokenExpired before the shared parser
+    @SuppressWarnings("deprecation")
+    private static String oldExtractUsername(String token) {
+        return Jwts.parser()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    @SuppressWarnings("deprecation")
+    private static boolean oldIsTokenExpired(String token) {
+        return Jwts.parser()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET_KEY.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload()
+                .getExpiration()
+                .before(new Date());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JWTUtilsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package com.rem.backend.utility;
+
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentPlanType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The calculator against the per month loop it replaced, for the installment total and for the
+ * number of installments a payment settles. Plans have one range per six months in shuffled order
+ * and all three add-ons. Not a test, run it with the test classpath:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.rem.backend.utility.PaymentScheduleCalculatorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentScheduleCalculatorBenchmark {
+
+    @Param({"12", "60", "240"})
+    private int months;
+
+    private PaymentSchedule schedule;
+    private double paidAmount;
+
+    @Setup
+    public void createPlan() {
+        Random random = new Random(months);
+        schedule = new PaymentSchedule();
+        schedule.setPaymentPlanType(PaymentPlanType.INSTALLMENT_RANGE);
+        schedule.setDurationInMonths(months);
+        schedule.setQuarterlyPayment(25_000);
+        schedule.setHalfYearlyPayment(50_000);
+        schedule.setYearlyPayment(100_000);
+
+        List<MonthWisePayment> ranges = new ArrayList<>();
+        for (int from = 1; from <= months; from += 6) {
+            MonthWisePayment range = new MonthWisePayment();
+            range.setFromMonth(from);
+            range.setToMonth(Math.min(from + 5, months));
+            range.setAmount(10_000 + random.nextInt(90_000));
+            ranges.add(range);
+        }
+        Collections.shuffle(ranges, random);
+        schedule.setMonthWisePaymentList(ranges);
+
+        // a payment settling about two thirds of the plan
+        paidAmount = PaymentScheduleCalculatorTest.referenceSum(schedule) * 2 / 3;
+    }
+
+    @Benchmark
+    public double totalMonthLoop() {
+        return PaymentScheduleCalculatorTest.referenceSum(schedule);
+    }
+
+    @Benchmark
+    public double totalCalculator() {
+        return PaymentScheduleCalculator.of(schedule).installmentTotal();
+    }
+
+    @Benchmark
+    public int settledMonthLoop() {
+        double due = 0;
+        int settled = 0;
+        while (settled < months) {
+            due += PaymentScheduleCalculatorTest.referenceInstallment(schedule, settled + 1);
+            if (due > paidAmount + 0.005)
+                break;
+            settled++;
+        }
+        return settled;
+    }
+
+    @Benchmark
+    public int settledCalculator() {
+        return PaymentScheduleCalculator.of(schedule).settledInstallments(paidAmount);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentScheduleCalculatorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
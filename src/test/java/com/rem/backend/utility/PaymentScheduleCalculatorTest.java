@@ -0,0 +1,273 @@
+package com.rem.backend.utility;
+
+import com.rem.backend.entity.paymentschedule.MonthSpecificPayment;
+import com.rem.backend.entity.paymentschedule.MonthWisePayment;
+import com.rem.backend.entity.paymentschedule.PaymentSchedule;
+import com.rem.backend.enums.PaymentPlanType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the closed form calculator against the per month loop it replaced, kept here as the reference:
+ * every month takes the first range containing it in list order.
+ */
+class PaymentScheduleCalculatorTest {
+
+    private static final double TOLERANCE = 1e-6;
+    private static final int[] DURATIONS = {12, 60, 240};
+    private static final int RANDOM_PLANS = 2000;
+
+    private final Random random = new Random(20261017L);
+
+    // Utility.monthlyPaymentSum's month loop before the calculator, per installment
+    static double referenceInstallment(PaymentSchedule schedule, int serialNo) {
+        Optional<MonthWisePayment> monthWisePaymentOptional = schedule.getMonthWisePaymentList().stream()
+                .filter(payment -> serialNo >= payment.getFromMonth() && serialNo <= payment.getToMonth())
+                .findFirst();
+
+        if (monthWisePaymentOptional.isEmpty()) {
+            throw new IllegalArgumentException("Invalid Month wise payment!");
+        }
+        double amount = monthWisePaymentOptional.get().getAmount();
+
+        if (serialNo % 3 == 0 && schedule.getQuarterlyPayment() != 0) {
+            amount += schedule.getQuarterlyPayment();
+        }
+        if (serialNo % 6 == 0 && schedule.getHalfYearlyPayment() != 0) {
+            amount += schedule.getHalfYearlyPayment();
+        }
+        if (serialNo % 12 == 0 && schedule.getYearlyPayment() != 0) {
+            amount += schedule.getYearlyPayment();
+        }
+        return amount;
+    }
+
+    // leading installments whose running due the amount covers, month by month
+    private static int referenceSettled(double[] due, double amount) {
+        int settled = 0;
+        while (settled + 1 < due.length && due[settled + 1] <= amount + 0.005) {
+            settled++;
+        }
+        return settled;
+    }
+
+    static double referenceSum(PaymentSchedule schedule) {
+        double sum = 0.0;
+        for (int serialNo = 1; serialNo <= schedule.getDurationInMonths(); serialNo++) {
+            sum += referenceInstallment(schedule, serialNo);
+        }
+        return sum;
+    }
+
+    @Test
+    void randomRangePlansMatchTheMonthLoop() {
+        for (int plan = 0; plan < RANDOM_PLANS; plan++) {
+            int duration = plan < DURATIONS.length * 100 ? DURATIONS[plan % DURATIONS.length] : random.nextInt(240) + 1;
+            assertMatchesReference(randomRangePlan(duration, random.nextInt(duration) + 1));
+        }
+    }
+
+    @Test
+    void oneMonthRanges() {
+        for (int duration : DURATIONS) {
+            assertMatchesReference(randomRangePlan(duration, duration));
+        }
+    }
+
+    @Test
+    void singleRangeEndingOnTheLastMonth() {
+        for (int duration : DURATIONS) {
+            PaymentSchedule schedule = rangePlan(duration, 1000, 3000, 12000);
+            schedule.getMonthWisePaymentList().add(range(1, duration, 2500));
+            assertMatchesReference(schedule);
+            assertEquals(2500 + 1000 + 3000 + 12000, PaymentScheduleCalculator.of(schedule).installmentAmount(12), TOLERANCE);
+        }
+    }
+
+    @Test
+    void rangeReachingPastTheDurationStopsAtTheLastMonth() {
+        PaymentSchedule schedule = rangePlan(12, 0, 0, 0);
+        schedule.getMonthWisePaymentList().add(range(1, 6, 100));
+        schedule.getMonthWisePaymentList().add(range(7, 24, 200));
+
+        PaymentScheduleCalculator calculator = PaymentScheduleCalculator.of(schedule);
+        assertEquals(12, calculator.getInstallmentCount());
+        assertEquals(6 * 100 + 6 * 200, calculator.installmentTotal(), TOLERANCE);
+    }
+
+    @Test
+    void zeroAmounts() {
+        for (int duration : DURATIONS) {
+            PaymentSchedule zeroPlan = rangePlan(duration, 0, 0, 0);
+            zeroPlan.getMonthWisePaymentList().add(range(1, duration, 0));
+            assertMatchesReference(zeroPlan);
+            assertEquals(duration, PaymentScheduleCalculator.of(zeroPlan).settledInstallments(0));
+
+            // zero installments with add-ons only
+            PaymentSchedule addOnsOnly = rangePlan(duration, 500, 0, 1000);
+            addOnsOnly.getMonthWisePaymentList().add(range(1, duration / 2, 0));
+            addOnsOnly.getMonthWisePaymentList().add(range(duration / 2 + 1, duration, 0));
+            assertMatchesReference(addOnsOnly);
+        }
+        assertEquals(0.0, PaymentScheduleCalculator.of(rangePlan(0, 0, 0, 0)).installmentTotal());
+    }
+
+    @Test
+    void gapsAreRejected() {
+        PaymentSchedule gap = rangePlan(12, 0, 0, 0);
+        gap.getMonthWisePaymentList().add(range(1, 5, 100));
+        gap.getMonthWisePaymentList().add(range(7, 12, 100));
+        assertThrows(IllegalArgumentException.class, () -> PaymentScheduleCalculator.of(gap));
+
+        PaymentSchedule shortOfTheDuration = rangePlan(12, 0, 0, 0);
+        shortOfTheDuration.getMonthWisePaymentList().add(range(0, 11, 100));
+        assertThrows(IllegalArgumentException.class, () -> PaymentScheduleCalculator.of(shortOfTheDuration));
+    }
+
+    @Test
+    void overlappingMonthsTakeTheFirstRangeInListOrder() {
+        PaymentSchedule overlap = rangePlan(24, 0, 0, 0);
+        overlap.getMonthWisePaymentList().add(range(13, 24, 300));
+        overlap.getMonthWisePaymentList().add(range(1, 12, 100));
+        overlap.getMonthWisePaymentList().add(range(12, 24, 200));
+        assertMatchesReference(overlap);
+        assertEquals(100, PaymentScheduleCalculator.of(overlap).installmentAmount(12), TOLERANCE);
+        assertEquals(300, PaymentScheduleCalculator.of(overlap).installmentAmount(13), TOLERANCE);
+
+        PaymentSchedule belowMonthOne = rangePlan(12, 50, 0, 0);
+        belowMonthOne.getMonthWisePaymentList().add(range(0, 6, 100));
+        belowMonthOne.getMonthWisePaymentList().add(range(-3, 12, 200));
+        belowMonthOne.getMonthWisePaymentList().add(range(9, 4, 999));
+        assertMatchesReference(belowMonthOne);
+    }
+
+    @Test
+    void randomOverlappingPlansMatchTheMonthLoop() {
+        for (int plan = 0; plan < RANDOM_PLANS; plan++) {
+            int duration = DURATIONS[plan % DURATIONS.length];
+            assertMatchesReference(randomOverlappingPlan(duration, random.nextInt(8) + 1));
+        }
+    }
+
+    @Test
+    void specificMonthPlansSumTheirPayments() {
+        PaymentSchedule schedule = new PaymentSchedule();
+        schedule.setPaymentPlanType(PaymentPlanType.INSTALLMENT_SPECIFIC);
+        schedule.setQuarterlyPayment(999);
+        List<MonthSpecificPayment> payments = new ArrayList<>();
+        double sum = 0;
+        for (int i = 0; i < 7; i++) {
+            MonthSpecificPayment payment = new MonthSpecificPayment();
+            payment.setAmount(1000 * (i + 1));
+            payments.add(payment);
+            sum += payment.getAmount();
+        }
+        schedule.setMonthSpecificPaymentList(payments);
+
+        PaymentScheduleCalculator calculator = PaymentScheduleCalculator.of(schedule);
+        assertEquals(7, calculator.getInstallmentCount());
+        assertEquals(sum, calculator.installmentTotal(), TOLERANCE);
+        assertEquals(sum, Utility.monthlyPaymentSum(schedule), TOLERANCE);
+        assertEquals(3000, calculator.installmentAmount(3), TOLERANCE);
+        assertEquals(2, calculator.settledInstallments(3500));
+    }
+
+    private static void assertMatchesReference(PaymentSchedule schedule) {
+        PaymentScheduleCalculator calculator = PaymentScheduleCalculator.of(schedule);
+        int duration = schedule.getDurationInMonths();
+        String plan = "plan of " + duration + " months, " + schedule.getMonthWisePaymentList().size() + " ranges";
+
+        assertEquals(duration, calculator.getInstallmentCount(), plan);
+        assertEquals(referenceSum(schedule), calculator.installmentTotal(), TOLERANCE, plan);
+        assertEquals(referenceSum(schedule), Utility.monthlyPaymentSum(schedule), TOLERANCE, plan);
+
+        double[] due = new double[duration + 1];
+        assertEquals(0.0, calculator.dueUpTo(0), plan);
+        for (int serialNo = 1; serialNo <= duration; serialNo++) {
+            double installment = referenceInstallment(schedule, serialNo);
+            due[serialNo] = due[serialNo - 1] + installment;
+            assertEquals(installment, calculator.installmentAmount(serialNo), TOLERANCE, plan + ", installment " + serialNo);
+            assertEquals(due[serialNo], calculator.dueUpTo(serialNo), TOLERANCE, plan + ", due up to " + serialNo);
+        }
+        assertEquals(due[duration], calculator.dueUpTo(duration + 1), TOLERANCE, plan);
+
+        // paying exactly the due of an installment settles it, a cent less settles only what came before
+        for (int serialNo = 0; serialNo <= duration; serialNo++) {
+            assertEquals(referenceSettled(due, due[serialNo]), calculator.settledInstallments(due[serialNo]),
+                    plan + ", settled by " + due[serialNo]);
+            assertEquals(referenceSettled(due, due[serialNo] - 0.01), calculator.settledInstallments(due[serialNo] - 0.01),
+                    plan + ", settled by " + (due[serialNo] - 0.01));
+        }
+    }
+
+    // ranges in shuffled order, the calculator sorts them like the month loop's stream filter finds them
+    private PaymentSchedule randomRangePlan(int duration, int ranges) {
+        PaymentSchedule schedule = rangePlan(duration,
+                random.nextBoolean() ? 0 : cents(50_000),
+                random.nextBoolean() ? 0 : cents(100_000),
+                random.nextBoolean() ? 0 : cents(200_000));
+
+        List<Integer> cuts = new ArrayList<>();
+        for (int month = 1; month < duration; month++) {
+            cuts.add(month);
+        }
+        Collections.shuffle(cuts, random);
+        List<Integer> ends = new ArrayList<>(cuts.subList(0, ranges - 1));
+        ends.add(duration);
+        Collections.sort(ends);
+
+        int from = 1;
+        for (int to : ends) {
+            schedule.getMonthWisePaymentList().add(range(from, to, random.nextInt(10) == 0 ? 0 : cents(100_000)));
+            from = to + 1;
+        }
+        Collections.shuffle(schedule.getMonthWisePaymentList(), random);
+        return schedule;
+    }
+
+    // random ranges in list order, some reaching below month 1 or past the duration, plus one covering everything
+    private PaymentSchedule randomOverlappingPlan(int duration, int ranges) {
+        PaymentSchedule schedule = rangePlan(duration,
+                random.nextBoolean() ? 0 : cents(50_000),
+                random.nextBoolean() ? 0 : cents(100_000),
+                random.nextBoolean() ? 0 : cents(200_000));
+
+        for (int i = 0; i < ranges; i++) {
+            int from = random.nextInt(duration + 3) - 2;
+            int to = from + random.nextInt(duration + 3);
+            schedule.getMonthWisePaymentList().add(range(from, to, cents(100_000)));
+        }
+        schedule.getMonthWisePaymentList().add(random.nextInt(ranges + 1), range(1, duration, cents(100_000)));
+        return schedule;
+    }
+
+    private double cents(int maxAmount) {
+        return random.nextInt(maxAmount * 100) / 100.0;
+    }
+
+    private static PaymentSchedule rangePlan(int duration, double quarterly, double halfYearly, double yearly) {
+        PaymentSchedule schedule = new PaymentSchedule();
+        schedule.setPaymentPlanType(PaymentPlanType.INSTALLMENT_RANGE);
+        schedule.setDurationInMonths(duration);
+        schedule.setQuarterlyPayment(quarterly);
+        schedule.setHalfYearlyPayment(halfYearly);
+        schedule.setYearlyPayment(yearly);
+        schedule.setMonthWisePaymentList(new ArrayList<>());
+        return schedule;
+    }
+
+    private static MonthWisePayment range(int fromMonth, int toMonth, double amount) {
+        MonthWisePayment payment = new MonthWisePayment();
+        payment.setFromMonth(fromMonth);
+        payment.setToMonth(toMonth);
+        payment.setAmount(amount);
+        return payment;
+    }
+}